@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The coordinates used as input by the benchmarks.
+ * They are read from the same file as used by the test 'TransformingCoordinatesFromFileTest' in the 'lib' project
+ * (the directory 'lib/src/test/resources' is included as a resource directory in 'benchmark/build.gradle').
+ */
+final class BenchmarkCoordinates {
+
+    private final static String relativePathForFileWith_swedish_crs_transformations = "coordinate_files/swedish_crs_coordinates.csv";
+
+    private final static String columnSeparator = "\\|";
+
+    private BenchmarkCoordinates() {
+    }
+
+    /**
+     * @return the WGS84 coordinates in the file, i.e. the first three columns (EPSG, longitude, latitude) of each data row
+     */
+    static List<CrsCoordinate> getWgs84Coordinates() {
+        final List<CrsCoordinate> coordinates = new ArrayList<CrsCoordinate>();
+        for (String line : readAllLinesFromResourceFile(relativePathForFileWith_swedish_crs_transformations)) {
+            final String[] columns = line.split(columnSeparator);
+            if (columns.length < 3 || !columns[0].trim().equals("4326")) {
+                // the header row (or an empty line)
+                continue;
+            }
+            coordinates.add(CrsProjection.WGS84.createCoordinate(
+                Double.parseDouble(columns[2]), // latitude
+                Double.parseDouble(columns[1])  // longitude
+            ));
+        }
+        if (coordinates.isEmpty()) {
+            throw new IllegalStateException("No coordinates found in the file " + relativePathForFileWith_swedish_crs_transformations);
+        }
+        return coordinates;
+    }
+
+    /**
+     * @param crsProjection the CRS of the returned coordinates
+     * @return the WGS84 coordinates in the file transformed to the CRS
+     */
+    static CrsCoordinate[] getCoordinates(CrsProjection crsProjection) {
+        final List<CrsCoordinate> wgs84Coordinates = getWgs84Coordinates();
+        final CrsCoordinate[] coordinates = new CrsCoordinate[wgs84Coordinates.size()];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = wgs84Coordinates.get(i).transform(crsProjection);
+        }
+        return coordinates;
+    }
+
+    private static List<String> readAllLinesFromResourceFile(String resourceFilePath) {
+        final InputStream inputStream = BenchmarkCoordinates.class.getClassLoader().getResourceAsStream(resourceFilePath);
+        if (inputStream == null) {
+            throw new IllegalStateException("Could not find the resource file " + resourceFilePath);
+        }
+        final List<String> lines = new ArrayList<String>();
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("UTF-8")));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.CachingTransformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of 'CachingTransformer' when many threads are using the same instance,
+ * with one stripe and with many stripes, compared with transforming without a cache (numberOfStripes 0).
+ * The coordinates are a "working set" of locations which are all kept in the cache, i.e. the results are retrieved from the cache
+ * (except for the first transformation of each coordinate).
+ * The scaling can of course not be better than the number of available processors, e.g. with 64 cores:
+ *      gradlew :benchmark:jmh -PjmhArgs="CachingTransformerBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingTransformerBenchmark {
+
+    private final static int numberOfCoordinates = 100000;
+
+    @Param({"0", "1", "64"})
+    private int numberOfStripes;
+
+    private CachingTransformer cachingTransformer;
+
+    private CrsCoordinate[] coordinates;
+
+    @Setup
+    public void setUp() {
+        cachingTransformer = numberOfStripes == 0 ? null : CachingTransformer.create(2 * numberOfCoordinates, numberOfStripes);
+        final Random random = new Random(1234);
+        coordinates = new CrsCoordinate[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            coordinates[i] = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 55.5 + random.nextDouble() * 13.5, 11.0 + random.nextDouble() * 13.0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        // each thread uses the coordinates in a different random order
+        private final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    private CrsCoordinate transform(final ThreadState threadState) {
+        final CrsCoordinate coordinate = coordinates[threadState.random.nextInt(numberOfCoordinates)];
+        return cachingTransformer == null
+            ? coordinate.transform(CrsProjection.SWEREF_99_TM)
+            : cachingTransformer.transform(coordinate, CrsProjection.SWEREF_99_TM);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CrsCoordinate threads1(final ThreadState threadState) {
+        return transform(threadState);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CrsCoordinate threads4(final ThreadState threadState) {
+        return transform(threadState);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public CrsCoordinate threads16(final ThreadState threadState) {
+        return transform(threadState);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public CrsCoordinate threads64(final ThreadState threadState) {
+        return transform(threadState);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.GaussKreuger;
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.GaussKreugerFactory;
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.LatLon;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the two methods in 'GaussKreuger' which are doing the mathematical calculations
+ * i.e. 'geodetic_to_grid' and 'grid_to_geodetic'.
+ *
+ * The benchmarks can for example be used for comparing the performance before/after
+ * a change of the 'GaussKreuger' class, by running the benchmark at two different git commits:
+ *      gradlew :benchmark:jmh -PjmhArgs="GaussKreugerBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GaussKreugerBenchmark {
+
+    // Stockholm Central Station (the same values are used in some of the tests for the 'lib' project)
+    private final static double stockholmCentralStation_WGS84_latitude = 59.330231;
+    private final static double stockholmCentralStation_WGS84_longitude = 18.059196;
+    private final static double stockholmCentralStation_SWEREF99TM_northing = 6580822;
+    private final static double stockholmCentralStation_SWEREF99TM_easting = 674032;
+
+    private GaussKreuger gaussKreuger;
+    private GaussKreuger gaussKreugerRT90;
+    // the one step through the conformal latitude in 'grid_to_grid' is only used by the optimized kernel
+    private GaussKreuger gaussKreugerOptimized;
+    private GaussKreuger gaussKreugerRT90Optimized;
+
+    // used as result for the methods which write the results into an array
+    private final double[] result = new double[2];
+
+    private double latitude, longitude, northing, easting;
+
+    @Setup
+    public void setUp() {
+        gaussKreuger = GaussKreugerFactory.getInstance().getGaussKreuger(CrsProjection.SWEREF_99_TM);
+        gaussKreugerRT90 = GaussKreugerFactory.getInstance().getGaussKreuger(CrsProjection.RT90_2_5_GON_V);
+        gaussKreugerOptimized = GaussKreugerFactory.getInstance().getGaussKreuger(CrsProjection.SWEREF_99_TM, true);
+        gaussKreugerRT90Optimized = GaussKreugerFactory.getInstance().getGaussKreuger(CrsProjection.RT90_2_5_GON_V, true);
+        // Non-final fields are used as input to prevent the JIT compiler from constant folding
+        latitude = stockholmCentralStation_WGS84_latitude;
+        longitude = stockholmCentralStation_WGS84_longitude;
+        northing = stockholmCentralStation_SWEREF99TM_northing;
+        easting = stockholmCentralStation_SWEREF99TM_easting;
+    }
+
+    @Benchmark
+    public void geodetic_to_grid(Blackhole blackhole) {
+        final LatLon latLon = gaussKreuger.geodetic_to_grid(latitude, longitude);
+        blackhole.consume(latLon.LatitudeY());
+        blackhole.consume(latLon.LongitudeX());
+    }
+
+    @Benchmark
+    public void grid_to_geodetic(Blackhole blackhole) {
+        final LatLon latLon = gaussKreuger.grid_to_geodetic(northing, easting);
+        blackhole.consume(latLon.LatitudeY());
+        blackhole.consume(latLon.LongitudeX());
+    }
+
+    // SWEREF99 TM ==> RT90 2.5 gon V in one step (with the optimized kernel)
+    @Benchmark
+    public double[] grid_to_grid() {
+        gaussKreugerOptimized.grid_to_grid(northing, easting, gaussKreugerRT90Optimized, result, 0, result, 1);
+        return result;
+    }
+
+    // SWEREF99 TM ==> RT90 2.5 gon V in two steps, i.e. the same as 'grid_to_grid' does with the default (original) kernel
+    @Benchmark
+    public double[] grid_to_geodetic_and_then_geodetic_to_grid() {
+        gaussKreuger.grid_to_geodetic(northing, easting, result, 0, result, 1);
+        gaussKreugerRT90.geodetic_to_grid(result[0], result[1], result, 0, result, 1);
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformInstrumentation;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformMetrics;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformPlan;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the instrumentation, i.e. the default no-op instrumentation compared with 'TransformMetrics',
+ * for one coordinate and for an array of coordinates (reported per coordinate).
+ *      gradlew :benchmark:jmh -PjmhArgs="InstrumentationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+
+    private final static int numberOfCoordinates = 1000;
+
+    @Param({"false", "true"})
+    private boolean instrumented;
+
+    private final CrsCoordinate coordinate = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+
+    private final MutableCoordinate result = new MutableCoordinate();
+
+    private final TransformPlan plan = Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+
+    private double[] yLatitudes, xLongitudes, targetYLatitudes, targetXLongitudes;
+
+    @Setup
+    public void setUp() {
+        Transformer.setInstrumentation(instrumented ? TransformMetrics.create() : TransformInstrumentation.noOp);
+        yLatitudes = new double[numberOfCoordinates];
+        xLongitudes = new double[numberOfCoordinates];
+        targetYLatitudes = new double[numberOfCoordinates];
+        targetXLongitudes = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            yLatitudes[i] = 55.5 + i * 0.0135;
+            xLongitudes[i] = 11.0 + i * 0.013;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Transformer.setInstrumentation(TransformInstrumentation.noOp);
+    }
+
+    @Benchmark
+    public MutableCoordinate transformCoordinate() {
+        plan.transform(coordinate, result);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(numberOfCoordinates)
+    public double[] transformArray() {
+        plan.transform(yLatitudes, xLongitudes, targetYLatitudes, targetXLongitudes, 0, numberOfCoordinates);
+        return targetYLatitudes;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.GaussKreuger;
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.GaussKreugerFactory;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformPlan;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups done before the mathematical calculations, i.e. of a 'CrsProjection' by EPSG number,
+ * of a 'GaussKreuger' by 'CrsProjection', and of a 'TransformPlan' by source and target 'CrsProjection'.
+ * The lookups should not allocate any objects, which can be verified with the gc profiler,
+ * i.e. the value of "gc.alloc.rate.norm" should be (approximately) zero:
+ *      gradlew :benchmark:jmh -PjmhArgs="LookupBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+
+    private final CrsProjection[] crsProjections = CrsProjection.values();
+    private final int[] epsgNumbers = new int[crsProjections.length];
+
+    // incremented for each invocation to use a different projection each time,
+    // to prevent the JIT compiler from constant folding
+    private int index;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < crsProjections.length; i++) {
+            epsgNumbers[i] = crsProjections[i].getEpsgNumber();
+        }
+    }
+
+    private int nextIndex() {
+        index = index + 1 == crsProjections.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public CrsProjection getCrsProjectionByEpsgNumber() {
+        return CrsProjection.getCrsProjectionByEpsgNumber(epsgNumbers[nextIndex()]);
+    }
+
+    @Benchmark
+    public GaussKreuger getGaussKreuger() {
+        return GaussKreugerFactory.getInstance().getGaussKreuger(crsProjections[nextIndex()]);
+    }
+
+    @Benchmark
+    public TransformPlan plan() {
+        final int i = nextIndex();
+        return Transformer.plan(crsProjections[i], crsProjections[crsProjections.length - 1 - i]);
+    }
+}
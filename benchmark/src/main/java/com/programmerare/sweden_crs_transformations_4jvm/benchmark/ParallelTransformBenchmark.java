@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.ParallelTransformer;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the parallel transformation of large arrays scales with the number of threads in the ForkJoinPool,
+ * compared with the sequential transformation of the same arrays.
+ * (the benchmark 'sequential' does not depend on the parameter 'parallelism')
+ * The scaling can of course not be better than the number of available processors, e.g. with 8 cores:
+ *      gradlew :benchmark:jmh -PjmhArgs="ParallelTransformBenchmark -p parallelism=1,2,4,8"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelTransformBenchmark {
+
+    private final static int numberOfCoordinates = 1000000;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"16384"})
+    private int numberOfCoordinatesThreshold;
+
+    private ForkJoinPool forkJoinPool;
+    private ParallelTransformer parallelTransformer;
+
+    // SWEREF99 TM coordinates within Sweden
+    private double[] yLatitudes, xLongitudes, targetYLatitudes, targetXLongitudes;
+
+    @Setup
+    public void setUp() {
+        forkJoinPool = new ForkJoinPool(parallelism);
+        parallelTransformer = ParallelTransformer.create(forkJoinPool, numberOfCoordinatesThreshold);
+        final Random random = new Random(1234);
+        yLatitudes = new double[numberOfCoordinates];
+        xLongitudes = new double[numberOfCoordinates];
+        targetYLatitudes = new double[numberOfCoordinates];
+        targetXLongitudes = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            yLatitudes[i] = 55.5 + random.nextDouble() * 13.5;
+            xLongitudes[i] = 11.0 + random.nextDouble() * 13.0;
+        }
+        Transformer.transform(
+            CrsProjection.WGS84, CrsProjection.SWEREF_99_TM,
+            yLatitudes, xLongitudes,
+            yLatitudes, xLongitudes,
+            0, numberOfCoordinates
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        forkJoinPool.shutdown();
+    }
+
+    @Benchmark
+    public double[] sequential() {
+        Transformer.transform(
+            CrsProjection.SWEREF_99_TM, CrsProjection.WGS84,
+            yLatitudes, xLongitudes,
+            targetYLatitudes, targetXLongitudes,
+            0, numberOfCoordinates
+        );
+        return targetYLatitudes;
+    }
+
+    @Benchmark
+    public double[] parallel() {
+        parallelTransformer.transform(
+            CrsProjection.SWEREF_99_TM, CrsProjection.WGS84,
+            yLatitudes, xLongitudes,
+            targetYLatitudes, targetXLongitudes,
+            0, numberOfCoordinates
+        );
+        return targetYLatitudes;
+    }
+}
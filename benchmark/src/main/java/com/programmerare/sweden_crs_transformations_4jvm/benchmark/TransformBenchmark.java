@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of transformations in every direction through the public API of the library,
+ * i.e. the benchmarks are parameterized with all the 21 values of the enum 'CrsProjection'
+ * (JMH uses all enum values for an enum parameter when no values are specified in the annotation).
+ * The coordinates are read from the file 'coordinate_files/swedish_crs_coordinates.csv' (see 'BenchmarkCoordinates')
+ * and each benchmark invocation transforms one of the coordinates, i.e. the next one each time.
+ *
+ * The benchmarks should be executed with the gc profiler to also measure the allocation rate:
+ *      gradlew :benchmark:jmh -PjmhArgs="TransformBenchmark -prof gc"
+ * or for only one projection:
+ *      gradlew :benchmark:jmh -PjmhArgs="TransformBenchmark -prof gc -p crsProjection=SWEREF_99_TM"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformBenchmark {
+
+    @Param
+    private CrsProjection crsProjection;
+
+    // the same locations in different projections
+    private CrsCoordinate[] wgs84Coordinates;
+    private CrsCoordinate[] sweref99tmCoordinates;
+    private CrsCoordinate[] rt90Coordinates;
+    private CrsCoordinate[] coordinates; // the projection of the benchmark parameter
+
+    // the coordinates in the projection of the benchmark parameter, for the method using arrays
+    // (the same offset is used for all four arrays, i.e. the target arrays have the same length as the source arrays)
+    private double[] yLatitudes, xLongitudes, targetYLatitudes, targetXLongitudes;
+
+    // reused as the result for each invocation of the method using a mutable coordinate
+    private final MutableCoordinate mutableCoordinate = MutableCoordinate.createCoordinate(CrsProjection.WGS84, 0.0, 0.0);
+
+    private int epsgNumber;
+
+    // incremented for each invocation to transform a different coordinate each time
+    private int index;
+
+    @Setup
+    public void setUp() {
+        wgs84Coordinates = BenchmarkCoordinates.getCoordinates(CrsProjection.WGS84);
+        sweref99tmCoordinates = BenchmarkCoordinates.getCoordinates(CrsProjection.SWEREF_99_TM);
+        rt90Coordinates = BenchmarkCoordinates.getCoordinates(CrsProjection.RT90_2_5_GON_V);
+        coordinates = BenchmarkCoordinates.getCoordinates(crsProjection);
+        yLatitudes = new double[coordinates.length];
+        xLongitudes = new double[coordinates.length];
+        targetYLatitudes = new double[coordinates.length];
+        targetXLongitudes = new double[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            yLatitudes[i] = coordinates[i].getLatitudeY();
+            xLongitudes[i] = coordinates[i].getLongitudeX();
+        }
+        epsgNumber = crsProjection.getEpsgNumber();
+    }
+
+    private int nextIndex() {
+        index = index + 1 == coordinates.length ? 0 : index + 1;
+        return index;
+    }
+
+    // e.g. WGS84 ==> SWEREF99 TM
+    @Benchmark
+    public CrsCoordinate transformFromWgs84() {
+        return wgs84Coordinates[nextIndex()].transform(crsProjection);
+    }
+
+    // e.g. SWEREF99 TM ==> WGS84
+    @Benchmark
+    public CrsCoordinate transformToWgs84() {
+        return coordinates[nextIndex()].transform(CrsProjection.WGS84);
+    }
+
+    // e.g. SWEREF99 TM ==> RT90 2.5 gon V
+    @Benchmark
+    public CrsCoordinate transformFromSweref99TM() {
+        return sweref99tmCoordinates[nextIndex()].transform(crsProjection);
+    }
+
+    // e.g. RT90 2.5 gon V ==> SWEREF99 (local zones)
+    @Benchmark
+    public CrsCoordinate transformFromRT90() {
+        return rt90Coordinates[nextIndex()].transform(crsProjection);
+    }
+
+    // the same as 'transformToWgs84' but without creating any objects
+    @Benchmark
+    public double[] transformToWgs84WithArrays() {
+        final int i = nextIndex();
+        Transformer.transform(
+            crsProjection, CrsProjection.WGS84,
+            yLatitudes, xLongitudes,
+            targetYLatitudes, targetXLongitudes,
+            i, 1
+        );
+        return targetYLatitudes;
+    }
+
+    // the same as 'transformToWgs84' but without creating any objects
+    @Benchmark
+    public MutableCoordinate transformToWgs84IntoMutableCoordinate() {
+        return coordinates[nextIndex()].transform(CrsProjection.WGS84, mutableCoordinate);
+    }
+
+    @Benchmark
+    public CrsProjection getCrsProjectionByEpsgNumber() {
+        return CrsProjection.getCrsProjectionByEpsgNumber(epsgNumber);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.benchmark;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.PrecisionPolicy;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformKernel;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformPlan;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the kernels (i.e. the implementations of the mathematical calculations in 'GaussKreuger')
+ * for the three kinds of transformations: from WGS84, to WGS84, and between two grid projections.
+ * Each benchmark invocation transforms an array of coordinates within Sweden, and the result is reported per coordinate.
+ * The benchmark 'transformFromWgs84WithoutRounding' measures the cost of the (default) rounding to millimeters.
+ *      gradlew :benchmark:jmh -PjmhArgs="TransformKernelBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformKernelBenchmark {
+
+    private final static int numberOfCoordinates = 1000;
+
+    @Param
+    private TransformKernel transformKernel;
+
+    private TransformPlan planFromWgs84, planFromWgs84WithoutRounding, planToWgs84, planFromSweref99TMToRT90;
+
+    // the same locations in WGS84 and SWEREF99 TM
+    private double[] wgs84YLatitudes, wgs84XLongitudes, sweref99tmYLatitudes, sweref99tmXLongitudes;
+
+    private double[] targetYLatitudes, targetXLongitudes;
+
+    @Setup
+    public void setUp() {
+        planFromWgs84 = Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, transformKernel);
+        planFromWgs84WithoutRounding = Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, transformKernel, PrecisionPolicy.noRounding());
+        planToWgs84 = Transformer.plan(CrsProjection.SWEREF_99_TM, CrsProjection.WGS84, transformKernel);
+        planFromSweref99TMToRT90 = Transformer.plan(CrsProjection.SWEREF_99_TM, CrsProjection.RT90_2_5_GON_V, transformKernel);
+        final Random random = new Random(1234);
+        wgs84YLatitudes = new double[numberOfCoordinates];
+        wgs84XLongitudes = new double[numberOfCoordinates];
+        sweref99tmYLatitudes = new double[numberOfCoordinates];
+        sweref99tmXLongitudes = new double[numberOfCoordinates];
+        targetYLatitudes = new double[numberOfCoordinates];
+        targetXLongitudes = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            wgs84YLatitudes[i] = 55.5 + random.nextDouble() * 13.5;
+            wgs84XLongitudes[i] = 11.0 + random.nextDouble() * 13.0;
+        }
+        Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM).transform(
+            wgs84YLatitudes, wgs84XLongitudes,
+            sweref99tmYLatitudes, sweref99tmXLongitudes,
+            0, numberOfCoordinates
+        );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(numberOfCoordinates)
+    public double[] transformFromWgs84() {
+        planFromWgs84.transform(wgs84YLatitudes, wgs84XLongitudes, targetYLatitudes, targetXLongitudes, 0, numberOfCoordinates);
+        return targetYLatitudes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(numberOfCoordinates)
+    public double[] transformFromWgs84WithoutRounding() {
+        planFromWgs84WithoutRounding.transform(wgs84YLatitudes, wgs84XLongitudes, targetYLatitudes, targetXLongitudes, 0, numberOfCoordinates);
+        return targetYLatitudes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(numberOfCoordinates)
+    public double[] transformToWgs84() {
+        planToWgs84.transform(sweref99tmYLatitudes, sweref99tmXLongitudes, targetYLatitudes, targetXLongitudes, 0, numberOfCoordinates);
+        return targetYLatitudes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(numberOfCoordinates)
+    public double[] transformFromSweref99TMToRT90() {
+        planFromSweref99TMToRT90.transform(sweref99tmYLatitudes, sweref99tmXLongitudes, targetYLatitudes, targetXLongitudes, 0, numberOfCoordinates);
+        return targetYLatitudes;
+    }
+}
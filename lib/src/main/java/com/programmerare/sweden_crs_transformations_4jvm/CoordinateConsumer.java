@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm;
+
+/**
+ * Receives the values of coordinates, one coordinate at a time, without the values being boxed
+ * and without any coordinate objects being created, e.g. when iterating a 'CrsCoordinateArray'.
+ * @see CrsCoordinateArray#forEach(CoordinateConsumer)
+ */
+public interface CoordinateConsumer {
+    /**
+     * @param index      the index of the coordinate
+     * @param yLatitude  the coordinate value representing the latitude or Y or Northing
+     * @param xLongitude the coordinate value representing the longitude or X or Easting
+     */
+    void accept(int index, double yLatitude, double xLongitude);
+}
@@ -12,9 +12,7 @@
 package com.programmerare.sweden_crs_transformations_4jvm;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  *  Crs = Coordinate reference system.
@@ -226,13 +224,17 @@ public enum CrsProjection {
         );
     }
     
-    private final static Map<Integer, CrsProjection>
-        mapWithAllCrsProjections = new HashMap<Integer, CrsProjection>();
+    // The Swedish projections indexed by their EPSG number minus the lowest EPSG number (i.e. 3006 for SWEREF 99 TM).
+    // An array is used instead of a map to avoid boxing of the EPSG number and hashing for each lookup.
+    // WGS84 is not included in the array but handled as a special case.
+    private final static CrsProjection[]
+        arrayWithSwedishCrsProjections = new CrsProjection[epsgUpperValueForRT90 - epsgLowerValueForSweref + 1];
 
     static {
         CrsProjection[] crsProjections = CrsProjection.values();
         for (CrsProjection crsProjection : crsProjections) {
-            mapWithAllCrsProjections.put(crsProjection.getEpsgNumber(), crsProjection);
+            if(crsProjection.isWgs84()) continue;
+            arrayWithSwedishCrsProjections[crsProjection.getEpsgNumber() - epsgLowerValueForSweref] = crsProjection;
         }
     }
 
@@ -258,8 +260,12 @@ public enum CrsProjection {
      * @see CrsProjection
      */
     public static CrsProjection getCrsProjectionByEpsgNumber(int epsg) {
-        if(mapWithAllCrsProjections.containsKey(epsg)) {
-            return mapWithAllCrsProjections.get(epsg);
+        if(epsg == WGS84.epsg) {
+            return WGS84;
+        }
+        final int index = epsg - epsgLowerValueForSweref;
+        if(index >= 0 && index < arrayWithSwedishCrsProjections.length && arrayWithSwedishCrsProjections[index] != null) {
+            return arrayWithSwedishCrsProjections[index];
         }
         throw new IllegalArgumentException("Could not find CrsProjection for EPSG " + epsg);
     }
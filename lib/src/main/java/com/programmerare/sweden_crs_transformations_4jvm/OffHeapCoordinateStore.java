@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm;
+
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.PrecisionPolicy;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformKernel;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformPlan;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Coordinates with the same CRS stored outside of the Java heap, in direct ByteBuffers,
+ * i.e. the values are not scanned or copied by the garbage collector.
+ * The values are stored in columns (one for the latitude/Y/Northing values and one for the longitude/X/Easting values)
+ * in the same way as in 'CrsCoordinateArray', but since a buffer can not be larger than 2 GB
+ * the columns are split into segments of (at most) a fixed number of coordinates,
+ * which means that the number of coordinates is only limited by the available memory.
+ *
+ * The memory is released with the method 'close' (or otherwise not until the instance has been garbage collected).
+ * Instances are not thread safe, and the method 'close' must not be invoked while another thread is using the instance.
+ * Example:
+ * <pre>
+ *     OffHeapCoordinateStore store = OffHeapCoordinateStore.allocate(CrsProjection.WGS84, numberOfCoordinates);
+ *     try {
+ *         store.write(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+ *         store.transform(CrsProjection.SWEREF_99_TM);
+ *         store.read(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+ *     } finally {
+ *         store.close();
+ *     }
+ * </pre>
+ * @see CrsCoordinateArray
+ */
+public final class OffHeapCoordinateStore implements Closeable {
+
+    // 2^26 coordinates, i.e. two buffers with 512 MB each for a full segment
+    private final static int defaultNumberOfCoordinatesInSegmentShift = 26;
+
+    private final long numberOfCoordinates;
+    private final int segmentShift;
+    private final int segmentMask;
+    private CrsProjection crsProjection;
+    // null when the instance has been closed
+    private DoubleBuffer[] yLatitudeSegments, xLongitudeSegments;
+    private ByteBuffer[] byteBuffers;
+
+    private OffHeapCoordinateStore(final CrsProjection crsProjection, final long numberOfCoordinates, final int segmentShift) {
+        this.crsProjection = crsProjection;
+        this.numberOfCoordinates = numberOfCoordinates;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        final int numberOfSegments = (int) ((numberOfCoordinates + segmentMask) >>> segmentShift);
+        yLatitudeSegments = new DoubleBuffer[numberOfSegments];
+        xLongitudeSegments = new DoubleBuffer[numberOfSegments];
+        byteBuffers = new ByteBuffer[2 * numberOfSegments];
+        for (int segment = 0; segment < numberOfSegments; segment++) {
+            final int numberOfCoordinatesInSegment = (int) Math.min(numberOfCoordinates - ((long) segment << segmentShift), 1 << segmentShift);
+            byteBuffers[2 * segment] = ByteBuffer.allocateDirect(8 * numberOfCoordinatesInSegment);
+            byteBuffers[2 * segment + 1] = ByteBuffer.allocateDirect(8 * numberOfCoordinatesInSegment);
+            yLatitudeSegments[segment] = byteBuffers[2 * segment].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            xLongitudeSegments[segment] = byteBuffers[2 * segment + 1].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Allocates the memory for a number of coordinates, with all values being zero.
+     *
+     * @param crsProjection       the CRS of all coordinates
+     * @param numberOfCoordinates the number of coordinates
+     * @return an instance of OffHeapCoordinateStore
+     * @throws IllegalArgumentException if the CRS is null or the number of coordinates is negative
+     * @throws OutOfMemoryError if the direct memory can not be allocated
+     */
+    public static OffHeapCoordinateStore allocate(final CrsProjection crsProjection, final long numberOfCoordinates) {
+        return allocate(crsProjection, numberOfCoordinates, defaultNumberOfCoordinatesInSegmentShift);
+    }
+
+    // package-private for the tests, which use small segments to verify ranges through many segments
+    static OffHeapCoordinateStore allocate(final CrsProjection crsProjection, final long numberOfCoordinates, final int segmentShift) {
+        if (crsProjection == null) {
+            throw new IllegalArgumentException("The CrsProjection must not be null");
+        }
+        if (numberOfCoordinates < 0) {
+            throw new IllegalArgumentException("The number of coordinates must not be negative but was " + numberOfCoordinates);
+        }
+        return new OffHeapCoordinateStore(crsProjection, numberOfCoordinates, segmentShift);
+    }
+
+    /**
+     * @return the CRS of all coordinates, which is changed by the method 'transform'
+     */
+    public CrsProjection getCrsProjection() {
+        return crsProjection;
+    }
+
+    /**
+     * @return the number of coordinates
+     */
+    public long getNumberOfCoordinates() {
+        return numberOfCoordinates;
+    }
+
+    /**
+     * @return true if the method 'close' has been invoked
+     */
+    public boolean isClosed() {
+        return yLatitudeSegments == null;
+    }
+
+    /**
+     * @param index the index of the coordinate
+     * @return the coordinate value representing the latitude or Y or Northing
+     * @throws IndexOutOfBoundsException if the index is not valid
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public double getLatitudeY(final long index) {
+        assertNotClosed();
+        return yLatitudeSegments[(int) (index >>> segmentShift)].get((int) index & segmentMask);
+    }
+
+    /**
+     * @param index the index of the coordinate
+     * @return the coordinate value representing the longitude or X or Easting
+     * @throws IndexOutOfBoundsException if the index is not valid
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public double getLongitudeX(final long index) {
+        assertNotClosed();
+        return xLongitudeSegments[(int) (index >>> segmentShift)].get((int) index & segmentMask);
+    }
+
+    /**
+     * @param index      the index of the coordinate
+     * @param yLatitude  the coordinate value representing the latitude or Y or Northing
+     * @param xLongitude the coordinate value representing the longitude or X or Easting
+     * @throws IndexOutOfBoundsException if the index is not valid
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public void set(final long index, final double yLatitude, final double xLongitude) {
+        assertNotClosed();
+        final int segment = (int) (index >>> segmentShift);
+        yLatitudeSegments[segment].put((int) index & segmentMask, yLatitude);
+        xLongitudeSegments[segment].put((int) index & segmentMask, xLongitude);
+    }
+
+    /**
+     * Reads coordinates from this store into arrays.
+     *
+     * @param firstCoordinateIndex the index (zero based) within this store of the first coordinate to read
+     * @param yLatitudes           the array into which the latitude/Y/Northing values are read
+     * @param xLongitudes          the array into which the longitude/X/Easting values are read
+     * @param offset               the index of the first value to write in the arrays
+     * @param length               the number of coordinates to read
+     * @throws IllegalArgumentException if an array is null, or if a range is not within this store or the arrays
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public void read(
+        final long firstCoordinateIndex,
+        final double[] yLatitudes,
+        final double[] xLongitudes,
+        final int offset,
+        final int length
+    ) {
+        assertRanges(firstCoordinateIndex, yLatitudes, xLongitudes, offset, length);
+        int count = 0;
+        while (count < length) {
+            final long index = firstCoordinateIndex + count;
+            final int segment = (int) (index >>> segmentShift);
+            final int position = (int) index & segmentMask;
+            final int numberOfCoordinatesInSegment = Math.min(length - count, yLatitudeSegments[segment].capacity() - position);
+            ((DoubleBuffer) yLatitudeSegments[segment].duplicate().position(position)).get(yLatitudes, offset + count, numberOfCoordinatesInSegment);
+            ((DoubleBuffer) xLongitudeSegments[segment].duplicate().position(position)).get(xLongitudes, offset + count, numberOfCoordinatesInSegment);
+            count += numberOfCoordinatesInSegment;
+        }
+    }
+
+    /**
+     * Writes coordinates from arrays into this store.
+     *
+     * @param firstCoordinateIndex the index (zero based) within this store of the first coordinate to write
+     * @param yLatitudes           the latitude/Y/Northing values to write
+     * @param xLongitudes          the longitude/X/Easting values to write
+     * @param offset               the index of the first value to read from the arrays
+     * @param length               the number of coordinates to write
+     * @throws IllegalArgumentException if an array is null, or if a range is not within this store or the arrays
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public void write(
+        final long firstCoordinateIndex,
+        final double[] yLatitudes,
+        final double[] xLongitudes,
+        final int offset,
+        final int length
+    ) {
+        assertRanges(firstCoordinateIndex, yLatitudes, xLongitudes, offset, length);
+        int count = 0;
+        while (count < length) {
+            final long index = firstCoordinateIndex + count;
+            final int segment = (int) (index >>> segmentShift);
+            final int position = (int) index & segmentMask;
+            final int numberOfCoordinatesInSegment = Math.min(length - count, yLatitudeSegments[segment].capacity() - position);
+            ((DoubleBuffer) yLatitudeSegments[segment].duplicate().position(position)).put(yLatitudes, offset + count, numberOfCoordinatesInSegment);
+            ((DoubleBuffer) xLongitudeSegments[segment].duplicate().position(position)).put(xLongitudes, offset + count, numberOfCoordinatesInSegment);
+            count += numberOfCoordinatesInSegment;
+        }
+    }
+
+    /**
+     * Transforms all coordinates in place, i.e. the values are replaced with the transformed values
+     * and the CRS of this store is changed to the target CRS.
+     * The values are read from and written to the direct buffers, i.e. without copying them into arrays on the heap.
+     * The transformation of each segment is recorded as one transformation by the instrumentation of the 'Transformer'.
+     *
+     * @param targetCrsProjection the CRS of the transformed coordinates
+     * @throws IllegalArgumentException if the CRS is null
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public void transform(final CrsProjection targetCrsProjection) {
+        transform(targetCrsProjection, PrecisionPolicy.roundToMillimeter());
+    }
+
+    /**
+     * The same as the above method but with the resulting values rounded according to a precision policy
+     * (instead of rounded to millimeters when the target CRS is SWEREF99 or RT90).
+     *
+     * @param targetCrsProjection the CRS of the transformed coordinates
+     * @param precisionPolicy     the rounding of the transformed values (only used when the target CRS is SWEREF99 or RT90)
+     * @throws IllegalArgumentException if a parameter is null
+     * @throws IllegalStateException if the instance has been closed
+     */
+    public void transform(final CrsProjection targetCrsProjection, final PrecisionPolicy precisionPolicy) {
+        assertNotClosed();
+        if (targetCrsProjection == null || precisionPolicy == null) {
+            throw new IllegalArgumentException("The target CrsProjection and the PrecisionPolicy must not be null");
+        }
+        final TransformPlan transformPlan = Transformer.plan(crsProjection, targetCrsProjection, TransformKernel.ORIGINAL, precisionPolicy);
+        if (targetCrsProjection != crsProjection) {
+            final double[] y_x = new double[2];
+            for (int segment = 0; segment < yLatitudeSegments.length; segment++) {
+                final DoubleBuffer yLatitudes = yLatitudeSegments[segment];
+                final DoubleBuffer xLongitudes = xLongitudeSegments[segment];
+                final int numberOfCoordinatesInSegment = yLatitudes.capacity();
+                final long startTime = System.nanoTime();
+                final Object event = transformPlan.beginBulkTransformation();
+                for (int i = 0; i < numberOfCoordinatesInSegment; i++) {
+                    transformPlan.transform(yLatitudes.get(i), xLongitudes.get(i), y_x, 0, y_x, 1);
+                    yLatitudes.put(i, y_x[0]);
+                    xLongitudes.put(i, y_x[1]);
+                }
+                transformPlan.recordBulkTransformation(numberOfCoordinatesInSegment, startTime, event);
+            }
+        }
+        crsProjection = targetCrsProjection;
+    }
+
+    /**
+     * Releases the memory of the buffers. The instance can not be used after it has been closed,
+     * and invoking this method again has no effect.
+     */
+    @Override
+    public void close() {
+        if (isClosed()) {
+            return;
+        }
+        final ByteBuffer[] buffersToRelease = byteBuffers;
+        yLatitudeSegments = null;
+        xLongitudeSegments = null;
+        byteBuffers = null;
+        for (final ByteBuffer byteBuffer : buffersToRelease) {
+            release(byteBuffer);
+        }
+    }
+
+    /**
+     * Releases the memory of a direct buffer immediately, instead of when the buffer has been garbage collected.
+     * There is no public API for this in Java 8, so the internal 'Cleaner' of the buffer is invoked,
+     * with 'sun.misc.Unsafe.invokeCleaner' in Java 9 and later.
+     * If that is not possible the memory is instead released by the garbage collector.
+     */
+    private static void release(final ByteBuffer byteBuffer) {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                // Java 9 and later
+                final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), byteBuffer);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                final Method cleanerMethod = byteBuffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(byteBuffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            // the memory is released when the buffer has been garbage collected
+        }
+    }
+
+    private void assertNotClosed() {
+        if (isClosed()) {
+            throw new IllegalStateException("The OffHeapCoordinateStore has been closed");
+        }
+    }
+
+    private void assertRanges(
+        final long firstCoordinateIndex,
+        final double[] yLatitudes,
+        final double[] xLongitudes,
+        final int offset,
+        final int length
+    ) {
+        assertNotClosed();
+        assertArrayRange(yLatitudes, "yLatitudes", offset, length);
+        assertArrayRange(xLongitudes, "xLongitudes", offset, length);
+        if (firstCoordinateIndex < 0 || firstCoordinateIndex > numberOfCoordinates - length) {
+            throw new IllegalArgumentException(String.format("Invalid range for the store with %d coordinates: first coordinate index %d , length %d", numberOfCoordinates, firstCoordinateIndex, length));
+        }
+    }
+
+    private static void assertArrayRange(final double[] array, final String arrayName, final int offset, final int length) {
+        if (array == null) {
+            throw new IllegalArgumentException("The array '" + arrayName + "' must not be null");
+        }
+        if (offset < 0 || length < 0 || offset > array.length - length) {
+            throw new IllegalArgumentException(String.format("Invalid range for the array '%s' with length %d: offset %d , length %d", arrayName, array.length, offset, length));
+        }
+    }
+
+    /**
+     * @return a string such as "OffHeapCoordinateStore [ SWEREF_99_TM(EPSG:3006) , 1000000 coordinates ]"
+     */
+    @Override
+    public String toString() {
+        return "OffHeapCoordinateStore [ " + crsProjection + " , " + numberOfCoordinates + " coordinates" + (isClosed() ? " , closed" : "") + " ]";
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformPlan;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file with coordinates in a compact binary columnar format, read and written through memory mapped regions
+ * of the file (i.e. 'FileChannel.map') instead of through streams.
+ * All values are little-endian, and the file has the following layout:
+ * <pre>
+ *     offset  size                  content
+ *     0       4                     the magic bytes "SCRS"
+ *     4       4                     the version of the format (int), currently 1
+ *     8       4                     the EPSG number of the CRS of all coordinates (int)
+ *     12      4                     reserved (int), currently 0
+ *     16      8                     the number of coordinates N (long)
+ *     24      8 * N                 the latitude/Y/Northing values (double)
+ *     24+8*N  8 * N                 the longitude/X/Easting values (double)
+ * </pre>
+ * Since the file can be larger than what can be mapped with one MappedByteBuffer,
+ * the values are read, written and transformed through mapped windows of (at most) a fixed number of coordinates.
+ *
+ * Instances are immutable, and the file is opened when a method reading or writing the values is invoked.
+ * Example:
+ * <pre>
+ *     BinaryCoordinateFile sourceFile = BinaryCoordinateFile.create(path, CrsProjection.WGS84, numberOfCoordinates);
+ *     sourceFile.write(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+ *     BinaryCoordinateFile targetFile = sourceFile.transform(targetPath, CrsProjection.SWEREF_99_TM);
+ * </pre>
+ */
+public final class BinaryCoordinateFile {
+
+    /**
+     * The version of the file format written by this class.
+     */
+    public final static int version = 1;
+
+    /**
+     * The number of bytes before the values of the coordinates.
+     */
+    public final static int headerSize = 24;
+
+    private final static byte[] magicBytes = {'S', 'C', 'R', 'S'};
+
+    // the maximum number of coordinates in one mapped window, i.e. 8 MB for each one of the two columns
+    private final static int defaultNumberOfCoordinatesInWindow = 1024 * 1024;
+
+    private final Path path;
+    private final CrsProjection crsProjection;
+    private final long numberOfCoordinates;
+
+    private BinaryCoordinateFile(final Path path, final CrsProjection crsProjection, final long numberOfCoordinates) {
+        this.path = path;
+        this.crsProjection = crsProjection;
+        this.numberOfCoordinates = numberOfCoordinates;
+    }
+
+    /**
+     * Creates a new file (or overwrites an existing file) with the header and room for the specified number of coordinates.
+     * All values are zero until they are written with the method 'write'.
+     *
+     * @param path                the file to create
+     * @param crsProjection       the CRS of the coordinates in the file
+     * @param numberOfCoordinates the number of coordinates in the file
+     * @return an instance representing the created file
+     * @throws IOException if the file can not be written
+     * @throws IllegalArgumentException if a parameter is null, or if the number of coordinates is negative
+     */
+    public static BinaryCoordinateFile create(final Path path, final CrsProjection crsProjection, final long numberOfCoordinates) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("The path must not be null");
+        }
+        if (crsProjection == null) {
+            throw new IllegalArgumentException("The CrsProjection must not be null");
+        }
+        if (numberOfCoordinates < 0 || numberOfCoordinates > (Long.MAX_VALUE - headerSize) / 16) {
+            throw new IllegalArgumentException("Invalid number of coordinates: " + numberOfCoordinates);
+        }
+        final ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(magicBytes);
+        header.putInt(version);
+        header.putInt(crsProjection.getEpsgNumber());
+        header.putInt(0);
+        header.putLong(numberOfCoordinates);
+        header.flip();
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            if (numberOfCoordinates > 0) {
+                // the size of the file is set by writing the last byte
+                channel.write(ByteBuffer.allocate(1), headerSize + 16 * numberOfCoordinates - 1);
+            }
+        } finally {
+            channel.close();
+        }
+        return new BinaryCoordinateFile(path, crsProjection, numberOfCoordinates);
+    }
+
+    /**
+     * Opens an existing file, i.e. reads and validates the header.
+     *
+     * @param path the file to open
+     * @return an instance representing the file
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the path is null, or if the file does not have a valid header and size
+     */
+    public static BinaryCoordinateFile open(final Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("The path must not be null");
+        }
+        final ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+        final long fileSize;
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            fileSize = channel.size();
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+        } finally {
+            channel.close();
+        }
+        if (header.hasRemaining()) {
+            throw new IllegalArgumentException("The file is too small for the header: " + path);
+        }
+        header.flip();
+        for (final byte magicByte : magicBytes) {
+            if (header.get() != magicByte) {
+                throw new IllegalArgumentException("The file does not start with the magic bytes \"SCRS\": " + path);
+            }
+        }
+        final int fileVersion = header.getInt();
+        if (fileVersion != version) {
+            throw new IllegalArgumentException("Unsupported version " + fileVersion + " of the file: " + path);
+        }
+        final CrsProjection crsProjection = CrsProjection.getCrsProjectionByEpsgNumber(header.getInt());
+        header.getInt(); // reserved
+        final long numberOfCoordinates = header.getLong();
+        if (numberOfCoordinates < 0 || numberOfCoordinates > (fileSize - headerSize) / 16 || fileSize != headerSize + 16 * numberOfCoordinates) {
+            throw new IllegalArgumentException(String.format("The file size %d does not match the number of coordinates %d in the header of the file: %s", fileSize, numberOfCoordinates, path));
+        }
+        return new BinaryCoordinateFile(path, crsProjection, numberOfCoordinates);
+    }
+
+    /**
+     * @return the path of the file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the CRS of the coordinates in the file
+     */
+    public CrsProjection getCrsProjection() {
+        return crsProjection;
+    }
+
+    /**
+     * @return the number of coordinates in the file
+     */
+    public long getNumberOfCoordinates() {
+        return numberOfCoordinates;
+    }
+
+    /**
+     * Reads coordinates from the file into arrays.
+     *
+     * @param firstCoordinateIndex the index (zero based) within the file of the first coordinate to read
+     * @param yLatitudes           the array into which the latitude/Y/Northing values are read
+     * @param xLongitudes          the array into which the longitude/X/Easting values are read
+     * @param offset               the index of the first value to write in the arrays
+     * @param length               the number of coordinates to read
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if an array is null, or if a range is not within the file or the arrays
+     */
+    public void read(
+        final long firstCoordinateIndex,
+        final double[] yLatitudes,
+        final double[] xLongitudes,
+        final int offset,
+        final int length
+    ) throws IOException {
+        assertArrayRange(yLatitudes, "yLatitudes", offset, length);
+        assertArrayRange(xLongitudes, "xLongitudes", offset, length);
+        assertFileRange(firstCoordinateIndex, length);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            int count = 0;
+            while (count < length) {
+                final int numberOfCoordinatesInWindow = Math.min(length - count, defaultNumberOfCoordinatesInWindow);
+                mapYLatitudes(channel, FileChannel.MapMode.READ_ONLY, firstCoordinateIndex + count, numberOfCoordinatesInWindow)
+                    .get(yLatitudes, offset + count, numberOfCoordinatesInWindow);
+                mapXLongitudes(channel, FileChannel.MapMode.READ_ONLY, firstCoordinateIndex + count, numberOfCoordinatesInWindow)
+                    .get(xLongitudes, offset + count, numberOfCoordinatesInWindow);
+                count += numberOfCoordinatesInWindow;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes coordinates from arrays into the file.
+     *
+     * @param firstCoordinateIndex the index (zero based) within the file of the first coordinate to write
+     * @param yLatitudes           the latitude/Y/Northing values to write
+     * @param xLongitudes          the longitude/X/Easting values to write
+     * @param offset               the index of the first value to read from the arrays
+     * @param length               the number of coordinates to write
+     * @throws IOException if the file can not be written
+     * @throws IllegalArgumentException if an array is null, or if a range is not within the file or the arrays
+     */
+    public void write(
+        final long firstCoordinateIndex,
+        final double[] yLatitudes,
+        final double[] xLongitudes,
+        final int offset,
+        final int length
+    ) throws IOException {
+        assertArrayRange(yLatitudes, "yLatitudes", offset, length);
+        assertArrayRange(xLongitudes, "xLongitudes", offset, length);
+        assertFileRange(firstCoordinateIndex, length);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int count = 0;
+            while (count < length) {
+                final int numberOfCoordinatesInWindow = Math.min(length - count, defaultNumberOfCoordinatesInWindow);
+                mapYLatitudes(channel, FileChannel.MapMode.READ_WRITE, firstCoordinateIndex + count, numberOfCoordinatesInWindow)
+                    .put(yLatitudes, offset + count, numberOfCoordinatesInWindow);
+                mapXLongitudes(channel, FileChannel.MapMode.READ_WRITE, firstCoordinateIndex + count, numberOfCoordinatesInWindow)
+                    .put(xLongitudes, offset + count, numberOfCoordinatesInWindow);
+                count += numberOfCoordinatesInWindow;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Transforms all coordinates in this file and writes them to a new file (or overwrites an existing file).
+     * The values are transformed directly from the mapped windows of this file into the mapped windows
+     * of the target file, i.e. without copying the values through arrays on the heap.
+     * The transformation of each window is recorded as one transformation by the instrumentation of the 'Transformer'.
+     *
+     * @param targetPath          the file to create with the transformed coordinates
+     * @param targetCrsProjection the CRS of the transformed coordinates
+     * @return an instance representing the created file
+     * @throws IOException if a file can not be read or written
+     * @throws IllegalArgumentException if a parameter is null, or if the target path is the path of this file (or a link to it)
+     */
+    public BinaryCoordinateFile transform(final Path targetPath, final CrsProjection targetCrsProjection) throws IOException {
+        return transform(targetPath, targetCrsProjection, defaultNumberOfCoordinatesInWindow);
+    }
+
+    // package-private for the tests, which use small windows to verify transformations through many windows
+    BinaryCoordinateFile transform(
+        final Path targetPath,
+        final CrsProjection targetCrsProjection,
+        final int numberOfCoordinatesInWindow
+    ) throws IOException {
+        if (targetPath == null) {
+            throw new IllegalArgumentException("The target path must not be null");
+        }
+        // The target file is truncated when it is created, i.e. it must not be the source file,
+        // neither with the same path nor through a symbolic link, a hard link or a case-insensitive file system
+        if (
+            targetPath.toAbsolutePath().normalize().equals(path.toAbsolutePath().normalize())
+            || (Files.exists(targetPath) && Files.isSameFile(path, targetPath))
+        ) {
+            throw new IllegalArgumentException("The target path must not be the same file as the source path: " + path);
+        }
+        final TransformPlan transformPlan = Transformer.plan(crsProjection, targetCrsProjection);
+        final BinaryCoordinateFile targetFile = create(targetPath, targetCrsProjection, numberOfCoordinates);
+        final double[] y_x = new double[2];
+        final FileChannel sourceChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final FileChannel targetChannel = FileChannel.open(targetPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                long count = 0;
+                while (count < numberOfCoordinates) {
+                    final int numberOfCoordinatesToTransform = (int) Math.min(numberOfCoordinates - count, numberOfCoordinatesInWindow);
+                    final DoubleBuffer yLatitudes = mapYLatitudes(sourceChannel, FileChannel.MapMode.READ_ONLY, count, numberOfCoordinatesToTransform);
+                    final DoubleBuffer xLongitudes = mapXLongitudes(sourceChannel, FileChannel.MapMode.READ_ONLY, count, numberOfCoordinatesToTransform);
+                    final DoubleBuffer targetYLatitudes = targetFile.mapYLatitudes(targetChannel, FileChannel.MapMode.READ_WRITE, count, numberOfCoordinatesToTransform);
+                    final DoubleBuffer targetXLongitudes = targetFile.mapXLongitudes(targetChannel, FileChannel.MapMode.READ_WRITE, count, numberOfCoordinatesToTransform);
+                    final long startTime = System.nanoTime();
+                    final Object event = transformPlan.beginBulkTransformation();
+                    for (int i = 0; i < numberOfCoordinatesToTransform; i++) {
+                        transformPlan.transform(yLatitudes.get(i), xLongitudes.get(i), y_x, 0, y_x, 1);
+                        targetYLatitudes.put(i, y_x[0]);
+                        targetXLongitudes.put(i, y_x[1]);
+                    }
+                    transformPlan.recordBulkTransformation(numberOfCoordinatesToTransform, startTime, event);
+                    count += numberOfCoordinatesToTransform;
+                }
+            } finally {
+                targetChannel.close();
+            }
+        } finally {
+            sourceChannel.close();
+        }
+        return targetFile;
+    }
+
+    private DoubleBuffer mapYLatitudes(final FileChannel channel, final FileChannel.MapMode mapMode, final long firstCoordinateIndex, final int length) throws IOException {
+        return map(channel, mapMode, headerSize + 8 * firstCoordinateIndex, length);
+    }
+
+    private DoubleBuffer mapXLongitudes(final FileChannel channel, final FileChannel.MapMode mapMode, final long firstCoordinateIndex, final int length) throws IOException {
+        return map(channel, mapMode, headerSize + 8 * (numberOfCoordinates + firstCoordinateIndex), length);
+    }
+
+    private static DoubleBuffer map(final FileChannel channel, final FileChannel.MapMode mapMode, final long position, final int length) throws IOException {
+        return channel.map(mapMode, position, 8L * length).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    private void assertFileRange(final long firstCoordinateIndex, final int length) {
+        if (firstCoordinateIndex < 0 || firstCoordinateIndex > numberOfCoordinates - length) {
+            throw new IllegalArgumentException(String.format("Invalid range for the file with %d coordinates: first coordinate index %d , length %d", numberOfCoordinates, firstCoordinateIndex, length));
+        }
+    }
+
+    private static void assertArrayRange(final double[] array, final String arrayName, final int offset, final int length) {
+        if (array == null) {
+            throw new IllegalArgumentException("The array '" + arrayName + "' must not be null");
+        }
+        if (offset < 0 || length < 0 || offset > array.length - length) {
+            throw new IllegalArgumentException(String.format("Invalid range for the array '%s' with length %d: offset %d , length %d", arrayName, array.length, offset, length));
+        }
+    }
+
+    /**
+     * @return a string such as "BinaryCoordinateFile [ SWEREF_99_TM(EPSG:3006) , 1000000 coordinates , /data/coordinates.bin ]"
+     */
+    @Override
+    public String toString() {
+        return "BinaryCoordinateFile [ " + crsProjection + " , " + numberOfCoordinates + " coordinates , " + path + " ]";
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformPlan;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Transforms the coordinates in a delimited text file (e.g. CSV) line by line, and writes the result to another file.
+ * Each line in the written file is the same as the line in the source file, except for the transformed values
+ * in the columns with the latitude/Y and longitude/X values (and the EPSG number, if the file has a column with EPSG numbers).
+ * The other columns are copied unchanged (as bytes, i.e. the encoding of the file is not relevant except that
+ * the column separator and the numbers must be ASCII characters, as e.g. in UTF-8 files).
+ *
+ * The memory usage does not depend on the size of the file, since only a chunk of lines (with a limited number of lines
+ * and bytes) is kept in memory, and the numbers are parsed directly from the bytes of the lines without creating String objects.
+ * The coordinates of the lines in a chunk (with the same source CRS) are transformed with one invocation of the 'TransformPlan'
+ * (which is also recorded by the instrumentation of the 'Transformer').
+ * The files are read and written through NIO channels with buffers.
+ *
+ * Instances are immutable and can be used by many threads.
+ * Example with the columns in the file "swedish_crs_coordinates.csv" used by the tests in this library:
+ * <pre>
+ *     CoordinateFileTransformer.createWithEpsgColumn('|', 0, 2, 1, CrsProjection.SWEREF_99_TM)
+ *         .withNumberOfHeaderLines(1)
+ *         .transform(sourceFile, targetFile);
+ * </pre>
+ */
+public final class CoordinateFileTransformer {
+
+    /**
+     * The default maximum number of bytes in one line (excluding the line break).
+     */
+    public final static int defaultMaxLineLength = 64 * 1024;
+
+    private final static int bufferSize = 64 * 1024;
+
+    // the maximum number of lines in a chunk which are transformed with one invocation of the 'TransformPlan'
+    private final static int numberOfLinesInChunk = 1024;
+
+    private final static int noEpsgColumn = -1;
+
+    private final byte columnSeparator;
+    private final int epsgColumnIndex;
+    private final CrsProjection sourceCrsProjection; // null when the EPSG numbers are read from a column
+    private final int yLatitudeColumnIndex;
+    private final int xLongitudeColumnIndex;
+    private final CrsProjection targetCrsProjection;
+    private final int numberOfHeaderLines;
+    private final int maxLineLength;
+
+    private CoordinateFileTransformer(
+        final char columnSeparator,
+        final int epsgColumnIndex,
+        final CrsProjection sourceCrsProjection,
+        final int yLatitudeColumnIndex,
+        final int xLongitudeColumnIndex,
+        final CrsProjection targetCrsProjection,
+        final int numberOfHeaderLines,
+        final int maxLineLength
+    ) {
+        if (columnSeparator >= 128 || columnSeparator == '\n' || columnSeparator == '\r') {
+            throw new IllegalArgumentException("The column separator must be an ASCII character but not a line break: " + (int) columnSeparator);
+        }
+        if (targetCrsProjection == null) {
+            throw new IllegalArgumentException("The target CrsProjection must not be null");
+        }
+        if (yLatitudeColumnIndex < 0 || xLongitudeColumnIndex < 0 || yLatitudeColumnIndex == xLongitudeColumnIndex
+            || (epsgColumnIndex != noEpsgColumn && (epsgColumnIndex < 0 || epsgColumnIndex == yLatitudeColumnIndex || epsgColumnIndex == xLongitudeColumnIndex))
+        ) {
+            throw new IllegalArgumentException(String.format("Invalid column indexes: EPSG %d , Y %d , X %d", epsgColumnIndex, yLatitudeColumnIndex, xLongitudeColumnIndex));
+        }
+        if (numberOfHeaderLines < 0) {
+            throw new IllegalArgumentException("The number of header lines must not be negative: " + numberOfHeaderLines);
+        }
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("The max line length must be positive: " + maxLineLength);
+        }
+        this.columnSeparator = (byte) columnSeparator;
+        this.epsgColumnIndex = epsgColumnIndex;
+        this.sourceCrsProjection = sourceCrsProjection;
+        this.yLatitudeColumnIndex = yLatitudeColumnIndex;
+        this.xLongitudeColumnIndex = xLongitudeColumnIndex;
+        this.targetCrsProjection = targetCrsProjection;
+        this.numberOfHeaderLines = numberOfHeaderLines;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Factory method for creating an instance for files with the source CRS as EPSG numbers in one of the columns.
+     * The EPSG numbers are replaced with the EPSG number of the target CRS in the written file.
+     *
+     * @param columnSeparator       the character separating the columns, e.g. ',' or ';' or '|' or '\t'
+     * @param epsgColumnIndex       the index (zero based) of the column with the EPSG number of the source CRS
+     * @param yLatitudeColumnIndex  the index (zero based) of the column with the latitude or Y or Northing
+     * @param xLongitudeColumnIndex the index (zero based) of the column with the longitude or X or Easting
+     * @param targetCrsProjection   the target CRS
+     * @return an instance of CoordinateFileTransformer
+     * @throws IllegalArgumentException for an invalid column separator or invalid column indexes, or if the target CRS is null
+     */
+    public static CoordinateFileTransformer createWithEpsgColumn(
+        final char columnSeparator,
+        final int epsgColumnIndex,
+        final int yLatitudeColumnIndex,
+        final int xLongitudeColumnIndex,
+        final CrsProjection targetCrsProjection
+    ) {
+        if (epsgColumnIndex < 0) {
+            throw new IllegalArgumentException("The index of the EPSG column must not be negative: " + epsgColumnIndex);
+        }
+        return new CoordinateFileTransformer(columnSeparator, epsgColumnIndex, null, yLatitudeColumnIndex, xLongitudeColumnIndex, targetCrsProjection, 0, defaultMaxLineLength);
+    }
+
+    /**
+     * Factory method for creating an instance for files with all coordinates in the same source CRS.
+     *
+     * @param columnSeparator       the character separating the columns, e.g. ',' or ';' or '|' or '\t'
+     * @param sourceCrsProjection   the source CRS
+     * @param yLatitudeColumnIndex  the index (zero based) of the column with the latitude or Y or Northing
+     * @param xLongitudeColumnIndex the index (zero based) of the column with the longitude or X or Easting
+     * @param targetCrsProjection   the target CRS
+     * @return an instance of CoordinateFileTransformer
+     * @throws IllegalArgumentException for an invalid column separator or invalid column indexes, or if a CRS is null
+     */
+    public static CoordinateFileTransformer createWithSourceCrsProjection(
+        final char columnSeparator,
+        final CrsProjection sourceCrsProjection,
+        final int yLatitudeColumnIndex,
+        final int xLongitudeColumnIndex,
+        final CrsProjection targetCrsProjection
+    ) {
+        if (sourceCrsProjection == null) {
+            throw new IllegalArgumentException("The source CrsProjection must not be null");
+        }
+        return new CoordinateFileTransformer(columnSeparator, noEpsgColumn, sourceCrsProjection, yLatitudeColumnIndex, xLongitudeColumnIndex, targetCrsProjection, 0, defaultMaxLineLength);
+    }
+
+    /**
+     * @param numberOfHeaderLines the number of lines at the beginning of the file which are copied without transformation
+     * @return a new instance with the same settings as this instance except for the number of header lines
+     */
+    public CoordinateFileTransformer withNumberOfHeaderLines(final int numberOfHeaderLines) {
+        return new CoordinateFileTransformer((char) columnSeparator, epsgColumnIndex, sourceCrsProjection, yLatitudeColumnIndex, xLongitudeColumnIndex, targetCrsProjection, numberOfHeaderLines, maxLineLength);
+    }
+
+    /**
+     * @param maxLineLength the maximum number of bytes in one line (excluding the line break), i.e. the size of the line buffer
+     * @return a new instance with the same settings as this instance except for the max line length
+     */
+    public CoordinateFileTransformer withMaxLineLength(final int maxLineLength) {
+        return new CoordinateFileTransformer((char) columnSeparator, epsgColumnIndex, sourceCrsProjection, yLatitudeColumnIndex, xLongitudeColumnIndex, targetCrsProjection, numberOfHeaderLines, maxLineLength);
+    }
+
+    /**
+     * Transforms the coordinates in a file and writes the result to another file.
+     * The target file is created, or overwritten if it already exists.
+     *
+     * @param sourceFile the file with the coordinates to transform
+     * @param targetFile the file into which the lines with the transformed coordinates are written
+     * @return the number of transformed lines, i.e. excluding header lines and empty lines
+     * @throws IOException if the files can not be read or written
+     * @throws IllegalArgumentException if the target file is the same file as the source file,
+     *                                  or if a line is too long, or does not have the columns with valid values
+     */
+    public long transform(final Path sourceFile, final Path targetFile) throws IOException {
+        // The target file is truncated when it is opened, i.e. it must not be the source file,
+        // neither with the same path nor through a symbolic link, a hard link or a case-insensitive file system
+        if (
+            targetFile.toAbsolutePath().normalize().equals(sourceFile.toAbsolutePath().normalize())
+            || (Files.exists(targetFile) && Files.isSameFile(sourceFile, targetFile))
+        ) {
+            throw new IllegalArgumentException("The target file must not be the same file as the source file: " + sourceFile);
+        }
+        final FileChannel source = FileChannel.open(sourceFile, StandardOpenOption.READ);
+        try {
+            final FileChannel target = FileChannel.open(targetFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            try {
+                return transform(source, target);
+            } finally {
+                target.close();
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Transforms the coordinates read from a channel and writes the result to another channel.
+     * The channels are not closed by this method.
+     *
+     * @param source the channel with the coordinates to transform
+     * @param target the channel into which the lines with the transformed coordinates are written
+     * @return the number of transformed lines, i.e. excluding header lines and empty lines
+     * @throws IOException if the channels can not be read or written
+     * @throws IllegalArgumentException if a line is too long, or does not have the columns with valid values
+     */
+    public long transform(final ReadableByteChannel source, final WritableByteChannel target) throws IOException {
+        final LineTransformer lineTransformer = new LineTransformer(target);
+        final ByteBuffer readBuffer = ByteBuffer.allocate(bufferSize);
+        final byte[] bytes = readBuffer.array();
+        final byte[] line = lineTransformer.line;
+        int lineLength = 0;
+        while (source.read(readBuffer) != -1) {
+            final int limit = readBuffer.position();
+            for (int i = 0; i < limit; i++) {
+                final byte b = bytes[i];
+                if (b == '\n') {
+                    lineTransformer.transformLine(lineLength, true);
+                    lineLength = 0;
+                }
+                else {
+                    if (lineLength == maxLineLength) {
+                        throw new IllegalArgumentException(String.format("The line %d is longer than the max line length %d", lineTransformer.lineNumber + 1, maxLineLength));
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            readBuffer.clear();
+        }
+        if (lineLength > 0) {
+            // the last line without a line break
+            lineTransformer.transformLine(lineLength, false);
+        }
+        lineTransformer.transformChunk();
+        lineTransformer.flush();
+        return lineTransformer.numberOfTransformedLines;
+    }
+
+    /**
+     * The state used while transforming the lines of one file, i.e. one instance for each invocation of 'transform'.
+     */
+    private final class LineTransformer {
+        private final WritableByteChannel target;
+        private final ByteBuffer writeBuffer = ByteBuffer.allocate(bufferSize);
+        private final byte[] line = new byte[maxLineLength];
+        // the start (inclusive) and end (exclusive) index of the columns up to the last column which is used
+        private final int lastColumnIndex = Math.max(epsgColumnIndex, Math.max(yLatitudeColumnIndex, xLongitudeColumnIndex));
+        private final int numberOfColumns = lastColumnIndex + 1;
+        private final int[] columnStarts = new int[numberOfColumns];
+        private final int[] columnEnds = new int[numberOfColumns];
+        // the lines (with the same transform plan) which are kept until they are transformed together,
+        // with the indexes of the columns (relative to the start of the line) for each line
+        private final byte[] chunkBytes = new byte[Math.max(bufferSize, maxLineLength)];
+        private final int[] chunkLineStarts = new int[numberOfLinesInChunk];
+        private final int[] chunkLineLengths = new int[numberOfLinesInChunk];
+        private final boolean[] chunkLineFeeds = new boolean[numberOfLinesInChunk];
+        private final int[] chunkColumnStarts = new int[numberOfLinesInChunk * numberOfColumns];
+        private final int[] chunkColumnEnds = new int[numberOfLinesInChunk * numberOfColumns];
+        private final double[] yLatitudes = new double[numberOfLinesInChunk];
+        private final double[] xLongitudes = new double[numberOfLinesInChunk];
+        private TransformPlan chunkTransformPlan;
+        private int numberOfLinesInCurrentChunk;
+        private int numberOfBytesInCurrentChunk;
+        // used for formatting the numbers (in Java 8 the method 'append(double)' does not create a String)
+        private final StringBuilder stringBuilder = new StringBuilder(32);
+        private long lineNumber;
+        private long numberOfTransformedLines;
+
+        private LineTransformer(final WritableByteChannel target) {
+            this.target = target;
+        }
+
+        /**
+         * Parses the line and adds it to the current chunk, or writes it directly if it is a header line or an empty line.
+         * The current chunk is first transformed and written if the line can not be added to it.
+         * @param lineLength the number of bytes in the line, excluding the line feed
+         * @param hasLineFeed true if the line was terminated with a line feed
+         */
+        private void transformLine(final int lineLength, final boolean hasLineFeed) throws IOException {
+            lineNumber++;
+            // "\r\n" is used as line break in Windows
+            final int contentLength = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+            if (lineNumber <= numberOfHeaderLines || contentLength == 0) {
+                transformChunk();
+                write(line, 0, lineLength);
+                if (hasLineFeed) writeByte((byte) '\n');
+                return;
+            }
+
+            // find the columns
+            int columnIndex = 0;
+            int columnStart = 0;
+            for (int i = 0; i < contentLength && columnIndex <= lastColumnIndex; i++) {
+                if (line[i] == columnSeparator) {
+                    columnStarts[columnIndex] = columnStart;
+                    columnEnds[columnIndex] = i;
+                    columnIndex++;
+                    columnStart = i + 1;
+                }
+            }
+            if (columnIndex == lastColumnIndex) {
+                // the last column used is the last column in the line
+                columnStarts[columnIndex] = columnStart;
+                columnEnds[columnIndex] = contentLength;
+            }
+            else if (columnIndex < lastColumnIndex) {
+                throw new IllegalArgumentException(String.format("The line %d has %d columns but at least %d columns are required", lineNumber, columnIndex + 1, lastColumnIndex + 1));
+            }
+
+            // parse
+            final TransformPlan transformPlan;
+            final double yLatitude;
+            final double xLongitude;
+            try {
+                final CrsProjection crsProjection = epsgColumnIndex == noEpsgColumn ? sourceCrsProjection :
+                    CrsProjection.getCrsProjectionByEpsgNumber(NumberParser.parseInt(line, columnStarts[epsgColumnIndex], columnEnds[epsgColumnIndex]));
+                transformPlan = Transformer.plan(crsProjection, targetCrsProjection);
+                yLatitude = NumberParser.parseDouble(line, columnStarts[yLatitudeColumnIndex], columnEnds[yLatitudeColumnIndex]);
+                xLongitude = NumberParser.parseDouble(line, columnStarts[xLongitudeColumnIndex], columnEnds[xLongitudeColumnIndex]);
+            } catch (IllegalArgumentException e) {
+                // including NumberFormatException
+                throw new IllegalArgumentException(String.format("Invalid value in the line %d: %s", lineNumber, e.getMessage()), e);
+            }
+
+            // add the line to the chunk
+            if (transformPlan != chunkTransformPlan
+                || numberOfLinesInCurrentChunk == numberOfLinesInChunk
+                || numberOfBytesInCurrentChunk + lineLength > chunkBytes.length
+            ) {
+                transformChunk();
+                chunkTransformPlan = transformPlan;
+            }
+            final int lineIndex = numberOfLinesInCurrentChunk++;
+            System.arraycopy(line, 0, chunkBytes, numberOfBytesInCurrentChunk, lineLength);
+            chunkLineStarts[lineIndex] = numberOfBytesInCurrentChunk;
+            chunkLineLengths[lineIndex] = lineLength;
+            chunkLineFeeds[lineIndex] = hasLineFeed;
+            System.arraycopy(columnStarts, 0, chunkColumnStarts, lineIndex * numberOfColumns, numberOfColumns);
+            System.arraycopy(columnEnds, 0, chunkColumnEnds, lineIndex * numberOfColumns, numberOfColumns);
+            yLatitudes[lineIndex] = yLatitude;
+            xLongitudes[lineIndex] = xLongitude;
+            numberOfBytesInCurrentChunk += lineLength;
+        }
+
+        /**
+         * Transforms the coordinates of the lines in the current chunk, and writes the lines with the transformed values.
+         */
+        private void transformChunk() throws IOException {
+            if (numberOfLinesInCurrentChunk == 0) return;
+            chunkTransformPlan.transform(yLatitudes, xLongitudes, yLatitudes, xLongitudes, 0, numberOfLinesInCurrentChunk);
+            for (int lineIndex = 0; lineIndex < numberOfLinesInCurrentChunk; lineIndex++) {
+                writeTransformedLine(lineIndex);
+            }
+            numberOfTransformedLines += numberOfLinesInCurrentChunk;
+            numberOfLinesInCurrentChunk = 0;
+            numberOfBytesInCurrentChunk = 0;
+        }
+
+        private void writeTransformedLine(final int lineIndex) throws IOException {
+            final int lineStart = chunkLineStarts[lineIndex];
+            final int columnOffset = lineIndex * numberOfColumns;
+            for (int i = 0; i <= lastColumnIndex; i++) {
+                if (i > 0) writeByte(columnSeparator);
+                if (i == yLatitudeColumnIndex) {
+                    stringBuilder.setLength(0);
+                    writeStringBuilder(stringBuilder.append(yLatitudes[lineIndex]));
+                }
+                else if (i == xLongitudeColumnIndex) {
+                    stringBuilder.setLength(0);
+                    writeStringBuilder(stringBuilder.append(xLongitudes[lineIndex]));
+                }
+                else if (i == epsgColumnIndex) {
+                    stringBuilder.setLength(0);
+                    writeStringBuilder(stringBuilder.append(targetCrsProjection.getEpsgNumber()));
+                }
+                else {
+                    write(chunkBytes, lineStart + chunkColumnStarts[columnOffset + i], chunkColumnEnds[columnOffset + i] - chunkColumnStarts[columnOffset + i]);
+                }
+            }
+            // the rest of the line (i.e. the columns after the last used column, and a possible '\r')
+            final int endOfLastColumn = chunkColumnEnds[columnOffset + lastColumnIndex];
+            write(chunkBytes, lineStart + endOfLastColumn, chunkLineLengths[lineIndex] - endOfLastColumn);
+            if (chunkLineFeeds[lineIndex]) writeByte((byte) '\n');
+        }
+
+        private void writeStringBuilder(final StringBuilder stringBuilder) throws IOException {
+            final int length = stringBuilder.length();
+            if (writeBuffer.remaining() < length) flush();
+            for (int i = 0; i < length; i++) {
+                writeBuffer.put((byte) stringBuilder.charAt(i));
+            }
+        }
+
+        private void writeByte(final byte b) throws IOException {
+            if (!writeBuffer.hasRemaining()) flush();
+            writeBuffer.put(b);
+        }
+
+        private void write(final byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!writeBuffer.hasRemaining()) flush();
+                final int numberOfBytes = Math.min(length, writeBuffer.remaining());
+                writeBuffer.put(bytes, offset, numberOfBytes);
+                offset += numberOfBytes;
+                length -= numberOfBytes;
+            }
+        }
+
+        private void flush() throws IOException {
+            writeBuffer.flip();
+            while (writeBuffer.hasRemaining()) {
+                target.write(writeBuffer);
+            }
+            writeBuffer.clear();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+
+/**
+ * Parses numbers from ASCII bytes, i.e. without first creating a String for each number.
+ * The result of 'parseDouble' is exactly the same as the result of 'Double.parseDouble'
+ * (i.e. the decimal value correctly rounded to the nearest double) for the decimal formats
+ * written by 'Double.toString' and in files such as "swedish_crs_coordinates.csv".
+ *
+ * Two algorithms are used for a decimal value with at most 19 significant digits:
+ * Clinger's fast path when both the digits and the power of ten can be represented exactly as doubles,
+ * and otherwise the Eisel-Lemire algorithm (described by Daniel Lemire in "Number Parsing at a Gigabyte per Second").
+ * For the very few values which can not be handled by those two algorithms (e.g. more than 19 significant digits,
+ * or a value very close to halfway between two doubles) a String is created and parsed by 'Double.parseDouble'.
+ */
+final class NumberParser {
+
+    private NumberParser() {
+    }
+
+    private final static Charset charset = Charset.forName("US-ASCII");
+
+    // the powers of ten that can be represented exactly as doubles, used by Clinger's fast path
+    private final static double[] exactPowersOfTen = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // the largest integer such that all smaller integers can be represented exactly as doubles
+    private final static long maxExactMantissa = 1L << 53;
+
+    private final static int minExponentForPowersOfFive = -342;
+    private final static int maxExponentForPowersOfFive = 308;
+
+    // The 128 most significant bits of the powers of five (which are the same bits as for the powers of ten)
+    // for the exponents from 'minExponentForPowersOfFive' to 'maxExponentForPowersOfFive',
+    // with the high 64 bits at the even indexes and the low 64 bits at the odd indexes.
+    private final static long[] powersOfFive = createPowersOfFive();
+
+    private static long[] createPowersOfFive() {
+        final long[] powers = new long[2 * (maxExponentForPowersOfFive - minExponentForPowersOfFive + 1)];
+        final BigInteger twoPower128 = BigInteger.ONE.shiftLeft(128);
+        final BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = minExponentForPowersOfFive; q <= maxExponentForPowersOfFive; q++) {
+            BigInteger value;
+            if (q >= 0) {
+                // truncated
+                final BigInteger power5 = BigInteger.valueOf(5).pow(q);
+                final int bitLength = power5.bitLength();
+                value = bitLength <= 128 ? power5.shiftLeft(128 - bitLength) : power5.shiftRight(bitLength - 128);
+            }
+            else {
+                // rounded up, with enough bits before the truncation to 128 bits
+                final BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+                final int z = power5.bitLength();
+                final int b = q >= -27 ? z + 127 : 2 * z + 2 * 64;
+                value = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+                while (value.compareTo(twoPower128) >= 0) {
+                    value = value.shiftRight(1);
+                }
+            }
+            final int index = 2 * (q - minExponentForPowersOfFive);
+            powers[index] = value.shiftRight(64).longValue();
+            powers[index + 1] = value.and(mask64).longValue();
+        }
+        return powers;
+    }
+
+    /**
+     * @param bytes  the bytes with the ASCII characters of the number
+     * @param from   the index of the first character (inclusive)
+     * @param to     the index of the last character (exclusive)
+     * @return the parsed number
+     * @throws NumberFormatException if the bytes do not represent a decimal number
+     */
+    static double parseDouble(final byte[] bytes, final int from, final int to) {
+        int index = from;
+        // leading and trailing white space is ignored in the same way as by 'Double.parseDouble'
+        int end = to;
+        while (index < end && bytes[index] <= ' ') index++;
+        while (end > index && bytes[end - 1] <= ' ') end--;
+
+        boolean negative = false;
+        if (index < end && (bytes[index] == '-' || bytes[index] == '+')) {
+            negative = bytes[index] == '-';
+            index++;
+        }
+
+        long mantissa = 0;
+        int numberOfSignificantDigits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+
+        // the digits before the decimal point
+        while (index < end && isDigit(bytes[index])) {
+            hasDigits = true;
+            final int digit = bytes[index] - '0';
+            if (numberOfSignificantDigits < 19) {
+                mantissa = 10 * mantissa + digit;
+                if (mantissa != 0) numberOfSignificantDigits++;
+            }
+            else {
+                // too many digits for the mantissa
+                return parseDoubleWithString(bytes, from, to);
+            }
+            index++;
+        }
+        // the digits after the decimal point
+        if (index < end && bytes[index] == '.') {
+            index++;
+            while (index < end && isDigit(bytes[index])) {
+                hasDigits = true;
+                final int digit = bytes[index] - '0';
+                if (numberOfSignificantDigits < 19) {
+                    mantissa = 10 * mantissa + digit;
+                    if (mantissa != 0) numberOfSignificantDigits++;
+                    exponent--;
+                }
+                else if (digit != 0) {
+                    // too many digits for the mantissa (but trailing zeros can be ignored)
+                    return parseDoubleWithString(bytes, from, to);
+                }
+                index++;
+            }
+        }
+        if (!hasDigits) {
+            return parseDoubleWithString(bytes, from, to);
+        }
+        // the exponent
+        if (index < end && (bytes[index] == 'e' || bytes[index] == 'E')) {
+            index++;
+            boolean negativeExponent = false;
+            if (index < end && (bytes[index] == '-' || bytes[index] == '+')) {
+                negativeExponent = bytes[index] == '-';
+                index++;
+            }
+            if (index == end || !isDigit(bytes[index])) {
+                return parseDoubleWithString(bytes, from, to);
+            }
+            int explicitExponent = 0;
+            while (index < end && isDigit(bytes[index])) {
+                if (explicitExponent < 100000) {
+                    explicitExponent = 10 * explicitExponent + (bytes[index] - '0');
+                }
+                index++;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (index != end) {
+            // e.g. the suffix 'd' or 'f' which is also accepted by 'Double.parseDouble', or an invalid number
+            return parseDoubleWithString(bytes, from, to);
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+
+        // Clinger's fast path
+        // (the mantissa is negative if 19 digits overflowed into the sign bit, i.e. an unsigned value)
+        if (mantissa > 0 && mantissa <= maxExactMantissa && -22 <= exponent && exponent <= 22) {
+            double value = (double) mantissa;
+            value = exponent < 0 ? value / exactPowersOfTen[-exponent] : value * exactPowersOfTen[exponent];
+            return negative ? -value : value;
+        }
+
+        final long bits = eiselLemire(mantissa, exponent);
+        if (bits >= 0) {
+            return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+        }
+        return parseDoubleWithString(bytes, from, to);
+    }
+
+    /**
+     * @return the bits of the (positive) double, or -1 if the algorithm can not determine the correctly rounded result
+     */
+    private static long eiselLemire(long mantissa, final int exponent) {
+        if (exponent < minExponentForPowersOfFive || exponent > maxExponentForPowersOfFive) {
+            return -1;
+        }
+        // normalization
+        final int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= leadingZeros;
+        long resultExponent = (((217706L * exponent) >> 16) + 64 + 1023) - leadingZeros;
+
+        // multiplication
+        final int index = 2 * (exponent - minExponentForPowersOfFive);
+        long xHigh = unsignedMultiplyHigh(mantissa, powersOfFive[index]);
+        long xLow = mantissa * powersOfFive[index];
+
+        // wider approximation
+        if ((xHigh & 0x1FF) == 0x1FF && Long.compareUnsigned(xLow + mantissa, mantissa) < 0) {
+            final long yHigh = unsignedMultiplyHigh(mantissa, powersOfFive[index + 1]);
+            final long yLow = mantissa * powersOfFive[index + 1];
+            long mergedHigh = xHigh;
+            final long mergedLow = xLow + yHigh;
+            if (Long.compareUnsigned(mergedLow, xLow) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0 && Long.compareUnsigned(yLow + mantissa, mantissa) < 0) {
+                return -1;
+            }
+            xHigh = mergedHigh;
+            xLow = mergedLow;
+        }
+
+        // shifting to 54 bits
+        final long msb = xHigh >>> 63;
+        long resultMantissa = xHigh >>> (msb + 9);
+        resultExponent -= 1 ^ msb;
+
+        // halfway ambiguity
+        if (xLow == 0 && (xHigh & 0x1FF) == 0 && (resultMantissa & 3) == 1) {
+            return -1;
+        }
+
+        // from 54 to 53 bits
+        resultMantissa += resultMantissa & 1;
+        resultMantissa >>>= 1;
+        if ((resultMantissa >>> 53) > 0) {
+            resultMantissa >>>= 1;
+            resultExponent += 1;
+        }
+        // subnormal, infinity or NaN
+        if (resultExponent <= 0 || resultExponent >= 0x7FF) {
+            return -1;
+        }
+        return (resultExponent << 52) | (resultMantissa & 0x000FFFFFFFFFFFFFL);
+    }
+
+    // the high 64 bits of the unsigned 128 bits product (Java 8 does not have 'Math.unsignedMultiplyHigh')
+    private static long unsignedMultiplyHigh(final long a, final long b) {
+        final long mask32 = 0xFFFFFFFFL;
+        final long aLow = a & mask32, aHigh = a >>> 32;
+        final long bLow = b & mask32, bHigh = b >>> 32;
+        final long lowLow = aLow * bLow;
+        final long highLow = aHigh * bLow;
+        final long lowHigh = aLow * bHigh;
+        final long highHigh = aHigh * bHigh;
+        final long cross = (lowLow >>> 32) + (highLow & mask32) + lowHigh;
+        return highHigh + (highLow >>> 32) + (cross >>> 32);
+    }
+
+    private static double parseDoubleWithString(final byte[] bytes, final int from, final int to) {
+        return Double.parseDouble(new String(bytes, from, to - from, charset));
+    }
+
+    /**
+     * @param bytes  the bytes with the ASCII characters of the number
+     * @param from   the index of the first character (inclusive)
+     * @param to     the index of the last character (exclusive)
+     * @return the parsed number
+     * @throws NumberFormatException if the bytes do not represent an integer
+     */
+    static int parseInt(final byte[] bytes, final int from, final int to) {
+        int index = from;
+        int end = to;
+        while (index < end && bytes[index] <= ' ') index++;
+        while (end > index && bytes[end - 1] <= ' ') end--;
+        // at most 9 digits, i.e. no overflow, and otherwise a String is created
+        if (index == end || end - index > 9) {
+            return Integer.parseInt(new String(bytes, from, to - from, charset).trim());
+        }
+        int value = 0;
+        for (int i = index; i < end; i++) {
+            if (!isDigit(bytes[i])) {
+                return Integer.parseInt(new String(bytes, from, to - from, charset).trim());
+            }
+            value = 10 * value + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(final byte b) {
+        return '0' <= b && b <= '9';
+    }
+}
@@ -37,6 +37,26 @@
 //      - this JVM port has updated the GaussKreuger class to be immutable with final fields, and the methods that 
 //          previously initialized (mutated) the fields have instead been moved to another class and is provided as a 
 //          parameter object to the constructor which copies the values into the final fields.   
+//      - the ellipsoid-based values (e.g. 'e2', 'n', 'a_roof', 'beta1' and 'Astar') which only depend on the above 
+//          parameters are now computed once in the constructor (and kept in final fields) instead of being recomputed
+//          in each invocation of the methods 'geodetic_to_grid' and 'grid_to_geodetic'.
+//      - the mathematical calculations of the two methods 'geodetic_to_grid' and 'grid_to_geodetic' have been moved into 
+//          overloaded methods which write the two resulting values into array elements provided by the caller 
+//          (instead of allocating a new array and a new 'LatLon' for each invocation), to be used for bulk transformations.
+//          The methods returning 'LatLon' are still available and are now delegating to those overloaded methods.
+//      - the calculations have been split (without modifying them) into the private methods 'conformal_to_grid' and 
+//          'grid_to_conformal', which are also used by the new method 'grid_to_grid' for transforming directly between 
+//          two grid projections (with the optimized kernel mentioned below, without the intermediate conversions to and 
+//          from geodetic coordinates when the two projections are using the same ellipsoid).
+//      - an alternative (optimized) kernel, which can be selected when the instance is created, evaluates the 
+//          Krüger series with Clenshaw summation, i.e. with one 'Math.sin', one 'Math.cos' and one 'Math.exp' 
+//          instead of the sixteen 'Math.exp' invocations (through 'math_sinh' and 'math_cosh') and eight 'Math.sin'/'Math.cos' 
+//          invocations of the original calculations, which are still used by default.
+//          That kernel also evaluates the series for the conformal latitude 'phi_star' and the latitude 'lat_radian' 
+//          with Horner's method in sin^2 and one 'Math.sin' and 'Math.cos', instead of with 'Math.pow' and four 'Math.sin' invocations.
+//      - the rounding of the grid coordinates to millimeters (i.e. "Math.round(x * 1000.0) / 1000.0") is now done with 
+//          a rounding factor, which can be provided as a parameter to overloaded methods for rounding with 
+//          another number of decimals or for not rounding at all (but rounding to millimeters is still the default).
 // For more details about exactly what has changed in this GaussKreuger class, you can also use a git client with "compare" or "blame" features to see the changes)
 
 // ------------------------------------------------------------------------------------------
@@ -93,18 +113,87 @@ public class GaussKreuger
     private final double false_northing; // Offset for origo.
     private final double false_easting; // Offset for origo.
 
-    private GaussKreuger(GaussKreugerParameterObject gaussKreugerParameterObject) {
+    // Ellipsoid-based values, derived from the above fields.
+    // They were previously computed within each invocation of 'geodetic_to_grid' and 'grid_to_geodetic'
+    // but since they only depend on the projection parameters they are now computed once in the constructor.
+    private final double e2;
+    private final double n;
+    private final double a_roof;
+    private final double lambda_zero;
+    // used by 'geodetic_to_grid':
+    private final double A, B, C, D;
+    private final double beta1, beta2, beta3, beta4;
+    // used by 'grid_to_geodetic':
+    private final double delta1, delta2, delta3, delta4;
+    private final double Astar, Bstar, Cstar, Dstar;
+
+    // true for the optimized kernel, i.e. if the Krüger series should be evaluated with Clenshaw summation
+    // (see 'krueger_series_with_clenshaw_summation') and the latitude series with Horner's method
+    private final boolean useOptimizedKernel;
+
+    /**
+     * The rounding factor for rounding the grid coordinates to millimeters, which is the default rounding.
+     */
+    public final static double roundingFactorForMillimeters = 1000.0;
+
+    /**
+     * The rounding factor for not rounding the grid coordinates at all.
+     */
+    public final static double roundingFactorForNoRounding = 0.0;
+
+    private GaussKreuger(GaussKreugerParameterObject gaussKreugerParameterObject, boolean useOptimizedKernel) {
+        this.useOptimizedKernel = useOptimizedKernel;
         this.axis = gaussKreugerParameterObject.axis;
         this.flattening = gaussKreugerParameterObject.flattening;
         this.central_meridian = gaussKreugerParameterObject.central_meridian;
         this.scale = gaussKreugerParameterObject.scale;
         this.false_northing = gaussKreugerParameterObject.false_northing;
         this.false_easting = gaussKreugerParameterObject.false_easting;
+
+        // Prepare ellipsoid-based stuff.
+        // (the expressions below are the same as those previously used within the two conversion methods)
+        e2 = flattening * (2.0 - flattening);
+        n = flattening / (2.0 - flattening);
+        a_roof = axis / (1.0 + n) * (1.0 + n * n / 4.0 + n * n * n * n / 64.0);
+        double deg_to_rad = Math.PI / 180.0;
+        lambda_zero = central_meridian * deg_to_rad;
+
+        A = e2;
+        B = (5.0 * e2 * e2 - e2 * e2 * e2) / 6.0;
+        C = (104.0 * e2 * e2 * e2 - 45.0 * e2 * e2 * e2 * e2) / 120.0;
+        D = (1237.0 * e2 * e2 * e2 * e2) / 1260.0;
+        beta1 = n / 2.0 - 2.0 * n * n / 3.0 + 5.0 * n * n * n / 16.0 + 41.0 * n * n * n * n / 180.0;
+        beta2 = 13.0 * n * n / 48.0 - 3.0 * n * n * n / 5.0 + 557.0 * n * n * n * n / 1440.0;
+        beta3 = 61.0 * n * n * n / 240.0 - 103.0 * n * n * n * n / 140.0;
+        beta4 = 49561.0 * n * n * n * n / 161280.0;
+
+        delta1 = n / 2.0 - 2.0 * n * n / 3.0 + 37.0 * n * n * n / 96.0 - n * n * n * n / 360.0;
+        delta2 = n * n / 48.0 + n * n * n / 15.0 - 437.0 * n * n * n * n / 1440.0;
+        delta3 = 17.0 * n * n * n / 480.0 - 37 * n * n * n * n / 840.0;
+        delta4 = 4397.0 * n * n * n * n / 161280.0;
+
+        Astar = e2 + e2 * e2 + e2 * e2 * e2 + e2 * e2 * e2 * e2;
+        Bstar = -(7.0 * e2 * e2 + 17.0 * e2 * e2 * e2 + 30.0 * e2 * e2 * e2 * e2) / 6.0;
+        Cstar = (224.0 * e2 * e2 * e2 + 889.0 * e2 * e2 * e2 * e2) / 120.0;
+        Dstar = -(4279.0 * e2 * e2 * e2 * e2) / 1260.0;
     }
     public static GaussKreuger create(
         GaussKreugerParameterObject gaussKreugerParameterObject
     ) {
-        return new GaussKreuger(gaussKreugerParameterObject);
+        return create(gaussKreugerParameterObject, false);
+    }
+
+    /**
+     * @param gaussKreugerParameterObject the parameters of the projection
+     * @param useOptimizedKernel true if the series should be evaluated with the optimized kernel 
+     *      (i.e. with Clenshaw summation and Horner's method), or false for the original calculations
+     * @return an immutable instance for the projection
+     */
+    public static GaussKreuger create(
+        GaussKreugerParameterObject gaussKreugerParameterObject,
+        boolean useOptimizedKernel
+    ) {
+        return new GaussKreuger(gaussKreugerParameterObject, useOptimizedKernel);
     }
 
     // ----------------------------------------------------------------------------------
@@ -120,33 +209,93 @@ public class GaussKreuger
     public LatLon geodetic_to_grid(double latitude, double longitude) // public double[] geodetic_to_grid(double latitude, double longitude)
     {
         double[] x_y = new double[2];
+        geodetic_to_grid(latitude, longitude, x_y, 0, x_y, 1);
+        LatLon latLon = new LatLon(x_y[0], x_y[1]);
+        return latLon;
+    }
 
-        // Prepare ellipsoid-based stuff.
-        double e2 = flattening * (2.0 - flattening);
-        double n = flattening / (2.0 - flattening);
-        double a_roof = axis / (1.0 + n) * (1.0 + n * n / 4.0 + n * n * n * n / 64.0);
-        double A = e2;
-        double B = (5.0 * e2 * e2 - e2 * e2 * e2) / 6.0;
-        double C = (104.0 * e2 * e2 * e2 - 45.0 * e2 * e2 * e2 * e2) / 120.0;
-        double D = (1237.0 * e2 * e2 * e2 * e2) / 1260.0;
-        double beta1 = n / 2.0 - 2.0 * n * n / 3.0 + 5.0 * n * n * n / 16.0 + 41.0 * n * n * n * n / 180.0;
-        double beta2 = 13.0 * n * n / 48.0 - 3.0 * n * n * n / 5.0 + 557.0 * n * n * n * n / 1440.0;
-        double beta3 = 61.0 * n * n * n / 240.0 - 103.0 * n * n * n * n / 140.0;
-        double beta4 = 49561.0 * n * n * n * n / 161280.0;
+    /**
+     * Conversion from geodetic coordinates to grid coordinates, without allocating any objects.
+     * The two resulting values are written into the array elements specified by the last four parameters.
+     * The same array may be used for both results (and it may also be the array from which the input parameters were read).
+     * @param latitude the latitude to convert
+     * @param longitude the longitude to convert
+     * @param yResult the array into which the resulting Y (northing) value is written
+     * @param yIndex the index within the array 'yResult'
+     * @param xResult the array into which the resulting X (easting) value is written
+     * @param xIndex the index within the array 'xResult'
+     */
+    public void geodetic_to_grid(
+        double latitude, double longitude,
+        double[] yResult, int yIndex,
+        double[] xResult, int xIndex
+    )
+    {
+        geodetic_to_grid(latitude, longitude, yResult, yIndex, xResult, xIndex, roundingFactorForMillimeters);
+    }
+
+    /**
+     * The same as the above method but with the resulting values rounded with a rounding factor
+     * (instead of always rounded to millimeters).
+     * @param latitude the latitude to convert
+     * @param longitude the longitude to convert
+     * @param yResult the array into which the resulting Y (northing) value is written
+     * @param yIndex the index within the array 'yResult'
+     * @param xResult the array into which the resulting X (easting) value is written
+     * @param xIndex the index within the array 'xResult'
+     * @param roundingFactor the factor for rounding the resulting values, i.e. a power of ten such as 
+     *      'roundingFactorForMillimeters' (1000.0), or 'roundingFactorForNoRounding' (0.0) for not rounding them
+     */
+    public void geodetic_to_grid(
+        double latitude, double longitude,
+        double[] yResult, int yIndex,
+        double[] xResult, int xIndex,
+        double roundingFactor
+    )
+    {
+        // Note that the ellipsoid-based stuff (e.g. 'a_roof', 'A' and 'beta1') is prepared in the constructor.
 
         // Convert.
         double deg_to_rad = Math.PI / 180.0;
         double phi = latitude * deg_to_rad;
         double lambda = longitude * deg_to_rad;
-        double lambda_zero = central_meridian * deg_to_rad;
 
+        if (useOptimizedKernel) {
+            // the same series as below, evaluated with Horner's method in sin^2
+            double sin_phi = Math.sin(phi);
+            double sin2_phi = sin_phi * sin_phi;
+            double phi_star = phi - sin_phi * Math.cos(phi) * (A + sin2_phi * (B + sin2_phi * (C + sin2_phi * D)));
+            conformal_to_grid(phi_star, lambda - lambda_zero, yResult, yIndex, xResult, xIndex, roundingFactor);
+            return;
+        }
         double phi_star = phi - Math.sin(phi) * Math.cos(phi) * (A +
                 B * Math.pow(Math.sin(phi), 2) +
                 C * Math.pow(Math.sin(phi), 4) +
                 D * Math.pow(Math.sin(phi), 6));
         double delta_lambda = lambda - lambda_zero;
+        conformal_to_grid(phi_star, delta_lambda, yResult, yIndex, xResult, xIndex, roundingFactor);
+    }
+
+    // The second part of the conversion from geodetic coordinates to grid coordinates, i.e. from the 
+    // conformal latitude 'phi_star' and the longitude difference (to the central meridian) 'delta_lambda' (both in radians).
+    private void conformal_to_grid(
+        double phi_star, double delta_lambda,
+        double[] yResult, int yIndex,
+        double[] xResult, int xIndex,
+        double roundingFactor
+    )
+    {
         double xi_prim = Math.atan(Math.tan(phi_star) / Math.cos(delta_lambda));
         double eta_prim = math_atanh(Math.cos(phi_star) * Math.sin(delta_lambda));
+        if (useOptimizedKernel) {
+            // the series are temporarily written into the result arrays
+            krueger_series_with_clenshaw_summation(xi_prim, eta_prim, beta1, beta2, beta3, beta4, 1.0, yResult, yIndex, xResult, xIndex);
+            double x = scale * a_roof * yResult[yIndex] + false_northing;
+            double y = scale * a_roof * xResult[xIndex] + false_easting;
+            yResult[yIndex] = round(x, roundingFactor);
+            xResult[xIndex] = round(y, roundingFactor);
+            return;
+        }
         double x = scale * a_roof * (xi_prim +
                 beta1 * Math.sin(2.0 * xi_prim) * math_cosh(2.0 * eta_prim) +
                 beta2 * Math.sin(4.0 * xi_prim) * math_cosh(4.0 * eta_prim) +
@@ -159,10 +308,16 @@ public class GaussKreuger
                 beta3 * Math.cos(6.0 * xi_prim) * math_sinh(6.0 * eta_prim) +
                 beta4 * Math.cos(8.0 * xi_prim) * math_sinh(8.0 * eta_prim)) +
                 false_easting;
-        x_y[0] = Math.round(x * 1000.0) / 1000.0;
-        x_y[1] = Math.round(y * 1000.0) / 1000.0;
-        LatLon latLon = new LatLon(x_y[0], x_y[1]);
-        return latLon;
+        // the rounding to millimeters (i.e. by default) is done as "Math.round(x * 1000.0) / 1000.0"
+        yResult[yIndex] = round(x, roundingFactor);
+        xResult[xIndex] = round(y, roundingFactor);
+    }
+
+    private static double round(double value, double roundingFactor) {
+        if (roundingFactor == roundingFactorForNoRounding) {
+            return value;
+        }
+        return Math.round(value * roundingFactor) / roundingFactor;
     }
 
     // Conversion from grid coordinates to geodetic coordinates.
@@ -170,29 +325,81 @@ public class GaussKreuger
     public LatLon grid_to_geodetic(double yLatitude, double xLongitude) // public double[] grid_to_geodetic(double yLatitude, double xLongitude)
     {
         double[] lat_lon = new double[2];
+        grid_to_geodetic(yLatitude, xLongitude, lat_lon, 0, lat_lon, 1);
+        LatLon latLon = new LatLon(lat_lon[0], lat_lon[1]);
+        return latLon;
+    }
+
+    /**
+     * Conversion from grid coordinates to geodetic coordinates, without allocating any objects.
+     * The two resulting values are written into the array elements specified by the last four parameters.
+     * The same array may be used for both results (and it may also be the array from which the input parameters were read).
+     * @param yLatitude the Y (northing) value to convert
+     * @param xLongitude the X (easting) value to convert
+     * @param latitudeResult the array into which the resulting latitude is written
+     * @param latitudeIndex the index within the array 'latitudeResult'
+     * @param longitudeResult the array into which the resulting longitude is written
+     * @param longitudeIndex the index within the array 'longitudeResult'
+     */
+    public void grid_to_geodetic(
+        double yLatitude, double xLongitude,
+        double[] latitudeResult, int latitudeIndex,
+        double[] longitudeResult, int longitudeIndex
+    )
+    {
         if (central_meridian == Double.MIN_VALUE)
         {
-            return new LatLon(lat_lon[1], lat_lon[0]);
+            latitudeResult[latitudeIndex] = 0.0;
+            longitudeResult[longitudeIndex] = 0.0;
+            return;
         }
-        // Prepare ellipsoid-based stuff.
-        double e2 = flattening * (2.0 - flattening);
-        double n = flattening / (2.0 - flattening);
-        double a_roof = axis / (1.0 + n) * (1.0 + n * n / 4.0 + n * n * n * n / 64.0);
-        double delta1 = n / 2.0 - 2.0 * n * n / 3.0 + 37.0 * n * n * n / 96.0 - n * n * n * n / 360.0;
-        double delta2 = n * n / 48.0 + n * n * n / 15.0 - 437.0 * n * n * n * n / 1440.0;
-        double delta3 = 17.0 * n * n * n / 480.0 - 37 * n * n * n * n / 840.0;
-        double delta4 = 4397.0 * n * n * n * n / 161280.0;
-
-        double Astar = e2 + e2 * e2 + e2 * e2 * e2 + e2 * e2 * e2 * e2;
-        double Bstar = -(7.0 * e2 * e2 + 17.0 * e2 * e2 * e2 + 30.0 * e2 * e2 * e2 * e2) / 6.0;
-        double Cstar = (224.0 * e2 * e2 * e2 + 889.0 * e2 * e2 * e2 * e2) / 120.0;
-        double Dstar = -(4279.0 * e2 * e2 * e2 * e2) / 1260.0;
+        // Note that the ellipsoid-based stuff (e.g. 'a_roof', 'delta1' and 'Astar') is prepared in the constructor.
+
+        // The conformal latitude and the longitude difference are temporarily written into the result arrays
+        grid_to_conformal(yLatitude, xLongitude, latitudeResult, latitudeIndex, longitudeResult, longitudeIndex);
+        double phi_star = latitudeResult[latitudeIndex];
+        double delta_lambda = longitudeResult[longitudeIndex];
+        double lon_radian = lambda_zero + delta_lambda;
+        if (useOptimizedKernel) {
+            // the same series as below, evaluated with Horner's method in sin^2
+            double sin_phi_star = Math.sin(phi_star);
+            double sin2_phi_star = sin_phi_star * sin_phi_star;
+            double lat_radian = phi_star + sin_phi_star * Math.cos(phi_star) * (Astar + sin2_phi_star * (Bstar + sin2_phi_star * (Cstar + sin2_phi_star * Dstar)));
+            latitudeResult[latitudeIndex] = lat_radian * 180.0 / Math.PI;
+            longitudeResult[longitudeIndex] = lon_radian * 180.0 / Math.PI;
+            return;
+        }
+        double lat_radian = phi_star + Math.sin(phi_star) * Math.cos(phi_star) *
+                (Astar +
+                Bstar * Math.pow(Math.sin(phi_star), 2) +
+                Cstar * Math.pow(Math.sin(phi_star), 4) +
+                Dstar * Math.pow(Math.sin(phi_star), 6));
+        latitudeResult[latitudeIndex] = lat_radian * 180.0 / Math.PI;
+        longitudeResult[longitudeIndex] = lon_radian * 180.0 / Math.PI;
+    }
 
+    // The first part of the conversion from grid coordinates to geodetic coordinates, i.e. to the 
+    // conformal latitude 'phi_star' and the longitude difference (to the central meridian) 'delta_lambda' (both in radians).
+    private void grid_to_conformal(
+        double yLatitude, double xLongitude,
+        double[] phiStarResult, int phiStarIndex,
+        double[] deltaLambdaResult, int deltaLambdaIndex
+    )
+    {
         // Convert.
-        double deg_to_rad = Math.PI / 180;
-        double lambda_zero = central_meridian * deg_to_rad;
         double xi = (yLatitude - false_northing) / (scale * a_roof);
         double eta = (xLongitude - false_easting) / (scale * a_roof);
+        if (useOptimizedKernel) {
+            // the series are temporarily written into the result arrays
+            krueger_series_with_clenshaw_summation(xi, eta, delta1, delta2, delta3, delta4, -1.0, phiStarResult, phiStarIndex, deltaLambdaResult, deltaLambdaIndex);
+            double xi_prim = phiStarResult[phiStarIndex];
+            double eta_prim = deltaLambdaResult[deltaLambdaIndex];
+            double exp_eta_prim = Math.exp(eta_prim);
+            double exp_minus_eta_prim = 1.0 / exp_eta_prim;
+            phiStarResult[phiStarIndex] = Math.asin(Math.sin(xi_prim) / (0.5 * (exp_eta_prim + exp_minus_eta_prim)));
+            deltaLambdaResult[deltaLambdaIndex] = Math.atan((0.5 * (exp_eta_prim - exp_minus_eta_prim)) / Math.cos(xi_prim));
+            return;
+        }
         double xi_prim = xi -
                 delta1 * Math.sin(2.0 * xi) * math_cosh(2.0 * eta) -
                 delta2 * Math.sin(4.0 * xi) * math_cosh(4.0 * eta) -
@@ -205,16 +412,121 @@ public class GaussKreuger
                 delta4 * Math.cos(8.0 * xi) * math_sinh(8.0 * eta);
         double phi_star = Math.asin(Math.sin(xi_prim) / math_cosh(eta_prim));
         double delta_lambda = Math.atan(math_sinh(eta_prim) / Math.cos(xi_prim));
-        double lon_radian = lambda_zero + delta_lambda;
-        double lat_radian = phi_star + Math.sin(phi_star) * Math.cos(phi_star) *
-                (Astar +
-                Bstar * Math.pow(Math.sin(phi_star), 2) +
-                Cstar * Math.pow(Math.sin(phi_star), 4) +
-                Dstar * Math.pow(Math.sin(phi_star), 6));
-        lat_lon[0] = lat_radian * 180.0 / Math.PI;
-        lat_lon[1] = lon_radian * 180.0 / Math.PI;
-        LatLon latLon = new LatLon(lat_lon[0], lat_lon[1]);
-        return latLon;
+        phiStarResult[phiStarIndex] = phi_star;
+        deltaLambdaResult[deltaLambdaIndex] = delta_lambda;
+    }
+
+    /**
+     * Conversion from grid coordinates in this projection to grid coordinates in another projection, without allocating any objects.
+     * With the original kernel this method gives exactly the same result as 'grid_to_geodetic' followed by 
+     * 'geodetic_to_grid' of the target projection.
+     * With the optimized kernel, when both projections are using the same ellipsoid (as all the Swedish projections do),
+     * the calculations are instead done through the conformal latitude, i.e. the conversions from and to geodetic latitude 
+     * (which are the inverse of each other) are not done.
+     * Because those conversions are series approximations the results may then differ in the last (millimeter) decimal,
+     * compared with the result of using the two methods mentioned above.
+     * The two resulting values are written into the array elements specified by the last four parameters.
+     * The same array may be used for both results (and it may also be the array from which the input parameters were read).
+     * @param yLatitude the Y (northing) value to convert
+     * @param xLongitude the X (easting) value to convert
+     * @param targetGaussKreuger the target projection
+     * @param yResult the array into which the resulting Y (northing) value is written
+     * @param yIndex the index within the array 'yResult'
+     * @param xResult the array into which the resulting X (easting) value is written
+     * @param xIndex the index within the array 'xResult'
+     */
+    public void grid_to_grid(
+        double yLatitude, double xLongitude,
+        GaussKreuger targetGaussKreuger,
+        double[] yResult, int yIndex,
+        double[] xResult, int xIndex
+    )
+    {
+        grid_to_grid(yLatitude, xLongitude, targetGaussKreuger, yResult, yIndex, xResult, xIndex, roundingFactorForMillimeters);
+    }
+
+    /**
+     * The same as the above method but with the resulting values rounded with a rounding factor
+     * (instead of always rounded to millimeters).
+     * @param yLatitude the Y (northing) value to convert
+     * @param xLongitude the X (easting) value to convert
+     * @param targetGaussKreuger the target projection
+     * @param yResult the array into which the resulting Y (northing) value is written
+     * @param yIndex the index within the array 'yResult'
+     * @param xResult the array into which the resulting X (easting) value is written
+     * @param xIndex the index within the array 'xResult'
+     * @param roundingFactor the factor for rounding the resulting values, i.e. a power of ten such as 
+     *      'roundingFactorForMillimeters' (1000.0), or 'roundingFactorForNoRounding' (0.0) for not rounding them
+     */
+    public void grid_to_grid(
+        double yLatitude, double xLongitude,
+        GaussKreuger targetGaussKreuger,
+        double[] yResult, int yIndex,
+        double[] xResult, int xIndex,
+        double roundingFactor
+    )
+    {
+        if (
+            !useOptimizedKernel
+            || central_meridian == Double.MIN_VALUE
+            || targetGaussKreuger.central_meridian == Double.MIN_VALUE
+            || !isUsingTheSameEllipsoidAs(targetGaussKreuger)
+        )
+        {
+            grid_to_geodetic(yLatitude, xLongitude, yResult, yIndex, xResult, xIndex);
+            targetGaussKreuger.geodetic_to_grid(yResult[yIndex], xResult[xIndex], yResult, yIndex, xResult, xIndex, roundingFactor);
+            return;
+        }
+        grid_to_conformal(yLatitude, xLongitude, yResult, yIndex, xResult, xIndex);
+        double phi_star = yResult[yIndex];
+        double lambda = lambda_zero + xResult[xIndex];
+        double delta_lambda = lambda - targetGaussKreuger.lambda_zero;
+        targetGaussKreuger.conformal_to_grid(phi_star, delta_lambda, yResult, yIndex, xResult, xIndex, roundingFactor);
+    }
+
+    private boolean isUsingTheSameEllipsoidAs(GaussKreuger gaussKreuger) {
+        return axis == gaussKreuger.axis && flattening == gaussKreuger.flattening;
+    }
+
+    // Evaluates the Krüger series used by 'conformal_to_grid' (with the coefficients beta1-beta4 and the sign 1)
+    // and by 'grid_to_conformal' (with the coefficients delta1-delta4 and the sign -1).
+    // With the complex number zeta = xi + i*eta, the original calculations of the two (real and imaginary) series are the same as
+    //      zeta + sign * (c1 * sin(2*zeta) + c2 * sin(4*zeta) + c3 * sin(6*zeta) + c4 * sin(8*zeta))
+    // since sin(2k*zeta) = sin(2k*xi) * cosh(2k*eta) + i * cos(2k*xi) * sinh(2k*eta)
+    // The sum is evaluated with Clenshaw's recurrence for sine series:
+    //      b5 = b6 = 0 , b_k = 2*cos(2*zeta) * b_(k+1) - b_(k+2) + c_k , sum = b1 * sin(2*zeta)
+    // which only needs the sine and cosine of 2*xi and the exponential of 2*eta (for sinh and cosh).
+    // The resulting real part is written into 'xiResult' and the imaginary part into 'etaResult'.
+    private static void krueger_series_with_clenshaw_summation(
+        double xi, double eta,
+        double c1, double c2, double c3, double c4,
+        double sign,
+        double[] xiResult, int xiIndex,
+        double[] etaResult, int etaIndex
+    )
+    {
+        double sin_2xi = Math.sin(2.0 * xi);
+        double cos_2xi = Math.cos(2.0 * xi);
+        double exp_2eta = Math.exp(2.0 * eta);
+        double exp_minus_2eta = 1.0 / exp_2eta;
+        double sinh_2eta = 0.5 * (exp_2eta - exp_minus_2eta);
+        double cosh_2eta = 0.5 * (exp_2eta + exp_minus_2eta);
+        // 2*cos(2*zeta) with the real part 'ar' and the imaginary part 'ai'
+        double ar = 2.0 * cos_2xi * cosh_2eta;
+        double ai = -2.0 * sin_2xi * sinh_2eta;
+        // the imaginary part of b4 is zero
+        double b4r = c4;
+        double b3r = ar * b4r + c3;
+        double b3i = ai * b4r;
+        double b2r = ar * b3r - ai * b3i - b4r + c2;
+        double b2i = ar * b3i + ai * b3r;
+        double b1r = ar * b2r - ai * b2i - b3r + c1;
+        double b1i = ar * b2i + ai * b2r - b3i;
+        // sin(2*zeta) with the real part 'sr' and the imaginary part 'si'
+        double sr = sin_2xi * cosh_2eta;
+        double si = cos_2xi * sinh_2eta;
+        xiResult[xiIndex] = xi + sign * (b1r * sr - b1i * si);
+        etaResult[etaIndex] = eta + sign * (b1r * si + b1i * sr);
     }
 
 
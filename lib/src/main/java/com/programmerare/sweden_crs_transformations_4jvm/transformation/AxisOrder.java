@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+/**
+ * The order of the two coordinate values within a buffer with interleaved values,
+ * e.g. "y,x,y,x,..." or "x,y,x,y,...".
+ * Note that 'CrsCoordinate' uses the terminology 'yLatitude' and 'xLongitude'
+ * i.e. the latitude is the same as Y (Northing) and the longitude is the same as X (Easting).
+ * @see Transformer
+ */
+public enum AxisOrder {
+    /**
+     * The latitude/Y/Northing value is located before the longitude/X/Easting value,
+     * i.e. the same order as the parameters of the factory methods in 'CrsCoordinate'.
+     */
+    LATITUDE_Y_FIRST(0, 1),
+
+    /**
+     * The longitude/X/Easting value is located before the latitude/Y/Northing value,
+     * e.g. the order used in JTS PackedCoordinateSequence and in GeoJSON.
+     */
+    LONGITUDE_X_FIRST(1, 0);
+
+    private final int yLatitudePosition;
+    private final int xLongitudePosition;
+
+    private AxisOrder(int yLatitudePosition, int xLongitudePosition) {
+        this.yLatitudePosition = yLatitudePosition;
+        this.xLongitudePosition = xLongitudePosition;
+    }
+
+    /**
+     * @return the position (0 or 1) of the latitude/Y/Northing value within the values for one coordinate
+     */
+    public int getLatitudeYPosition() {
+        return yLatitudePosition;
+    }
+
+    /**
+     * @return the position (0 or 1) of the longitude/X/Easting value within the values for one coordinate
+     */
+    public int getLongitudeXPosition() {
+        return xLongitudePosition;
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Transforms coordinates in the same way as 'Transformer.transform' but keeps the results in a cache with a maximum size,
+ * i.e. the transformations are only calculated the first time for the same source coordinate and target CRS
+ * (as long as the result has not been evicted from the cache).
+ * This is useful when the same coordinates are transformed repeatedly, e.g. in a service receiving many requests for the same locations.
+ *
+ * The cache is a hash table with open addressing (linear probing) with the primitive values of the keys
+ * (the source and target CRS, and the bits of the two double values) and the results stored in arrays,
+ * i.e. no objects are created for the entries.
+ * When the cache is full, an entry is evicted with the CLOCK algorithm (an approximation of LRU):
+ * the entries have a reference bit which is set when the entry is used, and the "clock hand" moves through the entries
+ * and evicts the first entry without the reference bit, while clearing the bit of the entries it passes.
+ *
+ * Instances are thread safe. The cache can be split into "stripes", i.e. independent hash tables with one lock each,
+ * and the stripe of an entry is determined by the hash of its key.
+ * A result is read from a stripe without locking (an optimistic read with a 'StampedLock', i.e. the values are read
+ * and then it is validated that no thread has modified the stripe meanwhile, like with a "seqlock"),
+ * which means that readers do not write to any shared memory (except for the reference bit of the entry).
+ * A result is inserted with the exclusive write lock of the stripe (after it has been calculated without holding any lock),
+ * i.e. with many stripes, threads inserting results will seldom have to wait for each other.
+ *
+ * Each transformation (both for a hit and a miss, but not when the source and target CRS are the same) is recorded by
+ * the instrumentation registered with 'Transformer.setInstrumentation', which is also notified about the cache hits and misses.
+ * The usage of the cache is also recorded by the periodic Java Flight Recorder event 'CachingTransformerEvent'
+ * (with the hit and miss counts of each instance, instead of one event for each transformation).
+ * @see Transformer
+ * @see TransformInstrumentation
+ */
+public final class CachingTransformer {
+
+    /**
+     * The maximum value for the parameter 'maximumNumberOfEntries' of the factory methods.
+     */
+    public final static int maxMaximumNumberOfEntries = 1 << 29;
+
+    /**
+     * The maximum value for the parameter 'numberOfStripes' of the factory method.
+     */
+    public final static int maxNumberOfStripes = 1 << 16;
+
+    private final static int numberOfCrsProjections = CrsProjection.values().length;
+
+    private final int maximumNumberOfEntries;
+
+    private final Stripe[] stripes;
+    // the stripe of an entry is determined by the highest bits of the hash (and the position in the hash table by the lowest bits)
+    private final int stripeShift;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private CachingTransformer(final int maximumNumberOfEntries, final int numberOfStripes) {
+        this.maximumNumberOfEntries = maximumNumberOfEntries;
+        stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            // the remaining entries (if the maximum number is not a multiple of the number of stripes) are divided among the first stripes
+            stripes[i] = new Stripe(maximumNumberOfEntries / numberOfStripes + (i < maximumNumberOfEntries % numberOfStripes ? 1 : 0));
+        }
+        stripeShift = 32 - Integer.numberOfTrailingZeros(numberOfStripes);
+    }
+
+    /**
+     * Factory method for creating an instance with an empty cache, with one stripe.
+     * Each entry uses 44 bytes of memory (plus 4 or 8 bytes in the hash table), which are allocated when the instance is created.
+     *
+     * @param maximumNumberOfEntries the maximum number of results kept in the cache
+     * @return an instance of CachingTransformer
+     * @throws IllegalArgumentException if the maximum number of entries is not positive or larger than 'maxMaximumNumberOfEntries'
+     */
+    public static CachingTransformer create(final int maximumNumberOfEntries) {
+        return create(maximumNumberOfEntries, 1);
+    }
+
+    /**
+     * Factory method for creating an instance with an empty cache, split into stripes with one lock each,
+     * for applications with many threads using the same instance (e.g. a number of stripes a few times larger than the number of threads).
+     *
+     * @param maximumNumberOfEntries the maximum number of results kept in the cache
+     * @param numberOfStripes        the number of stripes, which must be a power of two and not larger than the maximum number of entries
+     * @return an instance of CachingTransformer
+     * @throws IllegalArgumentException if the maximum number of entries is not positive or larger than 'maxMaximumNumberOfEntries',
+     *                                  or if the number of stripes is not a power of two between 1 and 'maxNumberOfStripes'
+     *                                  or is larger than the maximum number of entries
+     */
+    public static CachingTransformer create(final int maximumNumberOfEntries, final int numberOfStripes) {
+        if (maximumNumberOfEntries < 1 || maximumNumberOfEntries > maxMaximumNumberOfEntries) {
+            throw new IllegalArgumentException("The maximum number of entries must be between 1 and " + maxMaximumNumberOfEntries + " but was " + maximumNumberOfEntries);
+        }
+        if (numberOfStripes < 1 || numberOfStripes > maxNumberOfStripes || Integer.bitCount(numberOfStripes) != 1 || numberOfStripes > maximumNumberOfEntries) {
+            throw new IllegalArgumentException("The number of stripes must be a power of two between 1 and " + Math.min(maxNumberOfStripes, maximumNumberOfEntries) + " but was " + numberOfStripes);
+        }
+        final CachingTransformer cachingTransformer = new CachingTransformer(maximumNumberOfEntries, numberOfStripes);
+        TransformEvents.register(cachingTransformer);
+        return cachingTransformer;
+    }
+
+    /**
+     * The same as 'Transformer.transform' with the same parameters, but with the result retrieved from the cache if possible.
+     *
+     * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
+     * @param targetCrsProjection the target CRS
+     * @return a new coordinate instance representing the source coordinate in the target CRS
+     *         (or the same instance if the source and target CRS are the same, and then the cache is not used)
+     * @see Transformer
+     */
+    public CrsCoordinate transform(final CrsCoordinate sourceCoordinate, final CrsProjection targetCrsProjection) {
+        final CrsProjection sourceCrsProjection = sourceCoordinate.getCrsProjection();
+        if (sourceCrsProjection == targetCrsProjection) {
+            return sourceCoordinate;
+        }
+        final double[] y_x = new double[2];
+        transform(sourceCrsProjection, targetCrsProjection, sourceCoordinate.getLatitudeY(), sourceCoordinate.getLongitudeX(), y_x);
+        return CrsCoordinate.createCoordinate(targetCrsProjection, y_x[0], y_x[1]);
+    }
+
+    /**
+     * The same as 'Transformer.transform' with the same parameters, but with the result retrieved from the cache if possible.
+     * No objects are created when the result is retrieved from the cache, since it is written into a mutable coordinate.
+     *
+     * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
+     * @param targetCrsProjection the target CRS
+     * @param result              the instance into which the transformed coordinate is written
+     * @return the instance provided as the parameter 'result'
+     * @throws IllegalArgumentException if the result parameter is null
+     * @see Transformer
+     */
+    public MutableCoordinate transform(final CrsCoordinate sourceCoordinate, final CrsProjection targetCrsProjection, final MutableCoordinate result) {
+        if (result == null) {
+            throw new IllegalArgumentException("The result coordinate must not be null");
+        }
+        final CrsProjection sourceCrsProjection = sourceCoordinate.getCrsProjection();
+        if (sourceCrsProjection == targetCrsProjection) {
+            result.set(sourceCrsProjection, sourceCoordinate.getLatitudeY(), sourceCoordinate.getLongitudeX());
+            return result;
+        }
+        final double[] y_x = new double[2];
+        transform(sourceCrsProjection, targetCrsProjection, sourceCoordinate.getLatitudeY(), sourceCoordinate.getLongitudeX(), y_x);
+        result.set(targetCrsProjection, y_x[0], y_x[1]);
+        return result;
+    }
+
+    private void transform(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final double yLatitude,
+        final double xLongitude,
+        final double[] y_x
+    ) {
+        if (targetCrsProjection == null) {
+            throw new IllegalArgumentException("The target CrsProjection must not be null");
+        }
+        final int crsProjectionPair = sourceCrsProjection.ordinal() * numberOfCrsProjections + targetCrsProjection.ordinal();
+        final long yBits = Double.doubleToLongBits(yLatitude);
+        final long xBits = Double.doubleToLongBits(xLongitude);
+        final int hash = hash(crsProjectionPair, yBits, xBits);
+        // (a long shift since the shift is 32 for one stripe)
+        final Stripe stripe = stripes[(int) ((hash & 0xFFFFFFFFL) >>> stripeShift)];
+        // the instrumentation is notified both for a hit and for a miss (since the per-coordinate kernel used for a miss is not recorded),
+        // but no JFR events are created for the single coordinates (the hit and miss counts are recorded by the periodic JFR event)
+        final TransformInstrumentation instrumentation = Transformer.getInstrumentation();
+        final long startTime = instrumentation == TransformInstrumentation.noOp ? 0L : System.nanoTime();
+        final boolean isCacheHit = stripe.get(hash, crsProjectionPair, yBits, xBits, y_x);
+        if (isCacheHit) {
+            hitCount.increment();
+        }
+        else {
+            missCount.increment();
+            Transformer.plan(sourceCrsProjection, targetCrsProjection).transform(yLatitude, xLongitude, y_x, 0, y_x, 1);
+            stripe.put(hash, crsProjectionPair, yBits, xBits, y_x[0], y_x[1]);
+        }
+        if (instrumentation != TransformInstrumentation.noOp) {
+            instrumentation.onTransform(sourceCrsProjection, targetCrsProjection, 1, System.nanoTime() - startTime);
+            instrumentation.onCacheAccess(sourceCrsProjection, targetCrsProjection, isCacheHit);
+        }
+    }
+
+    private static int hash(final int crsProjectionPair, final long yBits, final long xBits) {
+        long h = yBits * 0x9E3779B97F4A7C15L + xBits;
+        h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L + crsProjectionPair;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Removes all entries from the cache (but does not reset the counters).
+     */
+    public void clear() {
+        for (final Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * @return the current number of entries in the cache
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the maximum number of entries in the cache
+     */
+    public int getMaximumNumberOfEntries() {
+        return maximumNumberOfEntries;
+    }
+
+    /**
+     * @return the number of stripes
+     */
+    public int getNumberOfStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * @return the number of transformations with the result retrieved from the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of transformations with the result calculated since it was not in the cache
+     *         (not including transformations with the same source and target CRS)
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return a string such as "CachingTransformer [ entries: 1000/100000 , hits: 5000 , misses: 1000 ]"
+     */
+    @Override
+    public String toString() {
+        return "CachingTransformer [ entries: " + size() + "/" + maximumNumberOfEntries + " , hits: " + getHitCount() + " , misses: " + getMissCount() + " ]";
+    }
+
+    /**
+     * A hash table with a maximum number of entries, and with the lock used for reading and writing the table.
+     */
+    private final static class Stripe {
+
+        private final int maximumNumberOfEntries;
+
+        // The hash table, with the index of an entry plus one, i.e. zero for an empty position.
+        // The length is a power of two, and at least twice the maximum number of entries, i.e. there are always empty positions.
+        private final int[] table;
+        private final int tableMask;
+
+        // The keys and the values of the entries, with the index of an entry (the same index in all the arrays, but twice the index for the results).
+        private final int[] crsProjectionPairs;
+        private final long[] yLatitudeBits;
+        private final long[] xLongitudeBits;
+        private final double[] results;
+        // The reference bits of the CLOCK algorithm, which are set by the readers without holding the write lock
+        // (the value is only used as a hint, and is always set to the same value by the readers).
+        private final boolean[] referenced;
+
+        private int numberOfEntries;
+        private int clockHand;
+
+        private final StampedLock lock = new StampedLock();
+
+        Stripe(final int maximumNumberOfEntries) {
+            this.maximumNumberOfEntries = maximumNumberOfEntries;
+            final int tableLength = Integer.highestOneBit(2 * maximumNumberOfEntries - 1) << 1;
+            table = new int[tableLength];
+            tableMask = tableLength - 1;
+            crsProjectionPairs = new int[maximumNumberOfEntries];
+            yLatitudeBits = new long[maximumNumberOfEntries];
+            xLongitudeBits = new long[maximumNumberOfEntries];
+            results = new double[2 * maximumNumberOfEntries];
+            referenced = new boolean[maximumNumberOfEntries];
+        }
+
+        // @return true if the result was found (and then written into the array), otherwise false
+        boolean get(final int hash, final int crsProjectionPair, final long yBits, final long xBits, final double[] y_x) {
+            final long optimisticStamp = lock.tryOptimisticRead();
+            if (optimisticStamp != 0) {
+                // The values may be modified by a writer while they are read here, but then the validation fails.
+                // (the indexes are always within the arrays, and the number of probes is limited, also for inconsistent values)
+                final int entry = findEntry(hash, crsProjectionPair, yBits, xBits);
+                final double yResult = entry >= 0 ? results[2 * entry] : 0.0;
+                final double xResult = entry >= 0 ? results[2 * entry + 1] : 0.0;
+                if (lock.validate(optimisticStamp)) {
+                    if (entry < 0) {
+                        return false;
+                    }
+                    referenced[entry] = true;
+                    y_x[0] = yResult;
+                    y_x[1] = xResult;
+                    return true;
+                }
+            }
+            // a writer modified the stripe, i.e. the values are read again with the read lock
+            final long stamp = lock.readLock();
+            try {
+                final int entry = findEntry(hash, crsProjectionPair, yBits, xBits);
+                if (entry < 0) {
+                    return false;
+                }
+                referenced[entry] = true;
+                y_x[0] = results[2 * entry];
+                y_x[1] = results[2 * entry + 1];
+                return true;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void put(final int hash, final int crsProjectionPair, final long yBits, final long xBits, final double yResult, final double xResult) {
+            final long stamp = lock.writeLock();
+            try {
+                // another thread may have inserted the same result while no lock was held
+                if (findEntry(hash, crsProjectionPair, yBits, xBits) < 0) {
+                    insertEntry(hash, crsProjectionPair, yBits, xBits, yResult, xResult);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // @return the index of the entry, or -1 if the key is not in the table
+        private int findEntry(final int hash, final int crsProjectionPair, final long yBits, final long xBits) {
+            int position = hash & tableMask;
+            for (int numberOfProbes = 0; numberOfProbes < table.length; numberOfProbes++) {
+                final int entry = table[position] - 1;
+                if (entry < 0) {
+                    return -1;
+                }
+                if (yLatitudeBits[entry] == yBits && xLongitudeBits[entry] == xBits && crsProjectionPairs[entry] == crsProjectionPair) {
+                    return entry;
+                }
+                position = (position + 1) & tableMask;
+            }
+            return -1;
+        }
+
+        // must be invoked with the write lock
+        private void insertEntry(final int hash, final int crsProjectionPair, final long yBits, final long xBits, final double yResult, final double xResult) {
+            final int entry;
+            if (numberOfEntries < maximumNumberOfEntries) {
+                entry = numberOfEntries++;
+            } else {
+                entry = evictEntry();
+            }
+            crsProjectionPairs[entry] = crsProjectionPair;
+            yLatitudeBits[entry] = yBits;
+            xLongitudeBits[entry] = xBits;
+            results[2 * entry] = yResult;
+            results[2 * entry + 1] = xResult;
+            // the reference bit is set when the entry is used the next time, i.e. an entry which is never used again is evicted first
+            referenced[entry] = false;
+            int position = hash & tableMask;
+            while (table[position] != 0) {
+                position = (position + 1) & tableMask;
+            }
+            table[position] = entry + 1;
+        }
+
+        // must be invoked with the write lock, and when all entries are used
+        // @return the index of the evicted entry, which has been removed from the hash table
+        private int evictEntry() {
+            while (referenced[clockHand]) {
+                referenced[clockHand] = false;
+                clockHand = clockHand + 1 == maximumNumberOfEntries ? 0 : clockHand + 1;
+            }
+            final int entry = clockHand;
+            clockHand = clockHand + 1 == maximumNumberOfEntries ? 0 : clockHand + 1;
+
+            int position = hash(crsProjectionPairs[entry], yLatitudeBits[entry], xLongitudeBits[entry]) & tableMask;
+            while (table[position] != entry + 1) {
+                position = (position + 1) & tableMask;
+            }
+            // Deletion with backward shift, i.e. the following entries in the same cluster are moved
+            // to the empty position if it is not before their hash position, so that no "tombstones" are needed.
+            int emptyPosition = position;
+            position = (position + 1) & tableMask;
+            while (table[position] != 0) {
+                final int otherEntry = table[position] - 1;
+                final int hashPosition = hash(crsProjectionPairs[otherEntry], yLatitudeBits[otherEntry], xLongitudeBits[otherEntry]) & tableMask;
+                // the distances from the hash position of the other entry, to the empty position and to its current position
+                if (((emptyPosition - hashPosition) & tableMask) < ((position - hashPosition) & tableMask)) {
+                    table[emptyPosition] = table[position];
+                    emptyPosition = position;
+                }
+                position = (position + 1) & tableMask;
+            }
+            table[emptyPosition] = 0;
+            return entry;
+        }
+
+        void clear() {
+            final long stamp = lock.writeLock();
+            try {
+                Arrays.fill(table, 0);
+                Arrays.fill(referenced, false);
+                numberOfEntries = 0;
+                clockHand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            final long stamp = lock.readLock();
+            try {
+                return numberOfEntries;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A periodic Java Flight Recorder event with the usage of the cache of a 'CachingTransformer', i.e. one event for each
+ * instance (which has not been garbage collected) each period, with the number of cache hits and misses since the instance was created.
+ * The transformations of single coordinates by a 'CachingTransformer' do not create any 'TransformEvent',
+ * i.e. this aggregated event is used instead of one event for each lookup in the cache.
+ * By default the event is created at the beginning and the end of each chunk of a recording,
+ * and the period can be configured with e.g. 'sweden_crs_transformations_4jvm.CachingTransformer#period=10 s' in the settings of the recording.
+ * This class is only loaded by 'TransformEvents' if the runtime supports JFR.
+ */
+@Name(CachingTransformerEvent.name)
+@Label("CRS Transformation Cache")
+@Category("Sweden CRS Transformations")
+@Description("The cache hits and misses of a CachingTransformer")
+@StackTrace(false)
+final class CachingTransformerEvent extends Event {
+
+    final static String name = "sweden_crs_transformations_4jvm.CachingTransformer";
+
+    @Label("Maximum Number of Entries")
+    int maximumNumberOfEntries;
+
+    @Label("Number of Entries")
+    int numberOfEntries;
+
+    @Label("Hit Count")
+    @Description("The number of transformations with the result found in the cache")
+    long hitCount;
+
+    @Label("Miss Count")
+    @Description("The number of transformations with the result calculated and inserted into the cache")
+    long missCount;
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+/**
+ * Interfaces for non-blocking streams with backpressure, with the same methods and semantics as the nested interfaces
+ * of 'java.util.concurrent.Flow' (and the Reactive Streams specification, see https://www.reactive-streams.org ).
+ * They are defined here because 'java.util.concurrent.Flow' was added in Java 9, but this library can be used with Java 8.
+ * With Java 9 or later, an instance of 'Flow.Subscriber' can be adapted to 'CoordinateFlow.Subscriber' (and the other way)
+ * by delegating each method, since the methods have the same names and parameters (except for the type of the subscription).
+ * @see TransformProcessor
+ */
+public final class CoordinateFlow {
+
+    private CoordinateFlow() {
+    }
+
+    /**
+     * @see <a href="https://docs.oracle.com/javase/9/docs/api/java/util/concurrent/Flow.Publisher.html">java.util.concurrent.Flow.Publisher</a>
+     */
+    public interface Publisher<T> {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * @see <a href="https://docs.oracle.com/javase/9/docs/api/java/util/concurrent/Flow.Subscriber.html">java.util.concurrent.Flow.Subscriber</a>
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * @see <a href="https://docs.oracle.com/javase/9/docs/api/java/util/concurrent/Flow.Subscription.html">java.util.concurrent.Flow.Subscription</a>
+     */
+    public interface Subscription {
+        void request(long n);
+
+        void cancel();
+    }
+
+    /**
+     * @see <a href="https://docs.oracle.com/javase/9/docs/api/java/util/concurrent/Flow.Processor.html">java.util.concurrent.Flow.Processor</a>
+     */
+    public interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+    }
+}
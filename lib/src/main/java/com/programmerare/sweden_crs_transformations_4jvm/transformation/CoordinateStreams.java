@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinateArray;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Transforms the coordinates of streams in chunks, i.e. with the values of many coordinates with the same source CRS
+ * transformed with one invocation of a 'TransformPlan' (with primitive arrays), instead of one transformation per coordinate,
+ * e.g. as with 'stream.map(coordinate -> coordinate.transform(targetCrsProjection))'.
+ * The coordinates may have different source CRS, but the chunks are most efficient when consecutive coordinates have the same CRS.
+ * Example:
+ * <pre>
+ *     Stream&lt;CrsCoordinate&gt; transformedCoordinates = CoordinateStreams.transform(coordinates, CrsProjection.SWEREF_99_TM);
+ *     CrsCoordinateArray transformedArray = coordinates.collect(CoordinateStreams.toCrsCoordinateArray(CrsProjection.SWEREF_99_TM));
+ * </pre>
+ * @see TransformPlan
+ */
+public final class CoordinateStreams {
+
+    /**
+     * The maximum number of coordinates in the chunks transformed by the stream returned by the method 'transform'.
+     */
+    public final static int numberOfCoordinatesInChunk = 1024;
+
+    private CoordinateStreams() {
+    }
+
+    /**
+     * Returns a stream with the coordinates of a stream transformed to a target CRS.
+     * The returned stream is lazy, i.e. the coordinates are retrieved from the source stream in chunks when the returned stream
+     * is used (but then one chunk at a time, e.g. up to 'numberOfCoordinatesInChunk' coordinates are retrieved for the first result).
+     * The returned stream has the same encounter order as the source stream, and is parallel if the source stream is parallel,
+     * i.e. the source stream is split in the same way as it would be split without this method.
+     * If the source stream has a known size (e.g. a stream from an array or an 'ArrayList') then so has the returned stream.
+     * The coordinates already in the target CRS are not transformed, i.e. the same instances are in the returned stream.
+     * Closing the returned stream closes the source stream.
+     *
+     * @param coordinates         the stream with the coordinates to transform, which must not contain null
+     * @param targetCrsProjection the target CRS
+     * @return a stream with the transformed coordinates
+     * @throws IllegalArgumentException if a parameter is null
+     */
+    public static Stream<CrsCoordinate> transform(final Stream<CrsCoordinate> coordinates, final CrsProjection targetCrsProjection) {
+        return transform(coordinates, targetCrsProjection, numberOfCoordinatesInChunk);
+    }
+
+    // package-private for the tests, which use small chunks
+    static Stream<CrsCoordinate> transform(final Stream<CrsCoordinate> coordinates, final CrsProjection targetCrsProjection, final int numberOfCoordinatesInChunk) {
+        if (coordinates == null || targetCrsProjection == null) {
+            throw new IllegalArgumentException("The stream and the target CrsProjection must not be null");
+        }
+        final TransformingSpliterator spliterator = new TransformingSpliterator(coordinates.spliterator(), targetCrsProjection, numberOfCoordinatesInChunk);
+        return StreamSupport.stream(spliterator, coordinates.isParallel()).onClose(new Runnable() {
+            @Override
+            public void run() {
+                coordinates.close();
+            }
+        });
+    }
+
+    /**
+     * Returns a collector transforming the coordinates to a target CRS, into a 'CrsCoordinateArray' with the transformed values
+     * in the encounter order of the stream.
+     * The values of the coordinates are collected into primitive arrays, which are then transformed
+     * with one invocation of a 'TransformPlan' for each sequence of coordinates with the same source CRS.
+     * The collector can be used with parallel streams.
+     *
+     * @param targetCrsProjection the target CRS
+     * @return a collector transforming the coordinates of a stream (which must not contain null)
+     * @throws IllegalArgumentException if the target CRS is null
+     */
+    public static Collector<CrsCoordinate, ?, CrsCoordinateArray> toCrsCoordinateArray(final CrsProjection targetCrsProjection) {
+        if (targetCrsProjection == null) {
+            throw new IllegalArgumentException("The target CrsProjection must not be null");
+        }
+        return Collector.of(
+            new Supplier<CoordinateValues>() {
+                @Override
+                public CoordinateValues get() {
+                    return new CoordinateValues();
+                }
+            },
+            new BiConsumer<CoordinateValues, CrsCoordinate>() {
+                @Override
+                public void accept(final CoordinateValues coordinateValues, final CrsCoordinate coordinate) {
+                    coordinateValues.add(coordinate);
+                }
+            },
+            new BinaryOperator<CoordinateValues>() {
+                @Override
+                public CoordinateValues apply(final CoordinateValues coordinateValues, final CoordinateValues otherCoordinateValues) {
+                    coordinateValues.addAll(otherCoordinateValues);
+                    return coordinateValues;
+                }
+            },
+            new Function<CoordinateValues, CrsCoordinateArray>() {
+                @Override
+                public CrsCoordinateArray apply(final CoordinateValues coordinateValues) {
+                    return coordinateValues.transform(targetCrsProjection);
+                }
+            }
+        );
+    }
+
+    /**
+     * Transforms all sequences of values with the same source CRS, with one invocation of a plan per sequence.
+     * The result arrays may be the same arrays as the source arrays.
+     */
+    private static void transform(
+        final CrsProjection[] crsProjections,
+        final double[] yLatitudes,
+        final double[] xLongitudes,
+        final double[] targetYLatitudes,
+        final double[] targetXLongitudes,
+        final int numberOfCoordinates,
+        final CrsProjection targetCrsProjection
+    ) {
+        int offset = 0;
+        while (offset < numberOfCoordinates) {
+            final CrsProjection sourceCrsProjection = crsProjections[offset];
+            int length = 1;
+            while (offset + length < numberOfCoordinates && crsProjections[offset + length] == sourceCrsProjection) {
+                length++;
+            }
+            Transformer.plan(sourceCrsProjection, targetCrsProjection).transform(yLatitudes, xLongitudes, targetYLatitudes, targetXLongitudes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Retrieves the coordinates from the source spliterator in chunks, and transforms each chunk before the coordinates are used.
+     */
+    private final static class TransformingSpliterator implements Spliterator<CrsCoordinate>, Consumer<CrsCoordinate> {
+
+        private final Spliterator<CrsCoordinate> source;
+        private final CrsProjection targetCrsProjection;
+        private final int numberOfCoordinatesInChunk;
+
+        // the current chunk, with the transformed coordinates with indexes from 'index' (inclusive) to 'count' (exclusive) not yet used
+        private final CrsCoordinate[] coordinates;
+        private final CrsProjection[] crsProjections;
+        private final double[] yLatitudes, xLongitudes;
+        private int count, index;
+
+        TransformingSpliterator(final Spliterator<CrsCoordinate> source, final CrsProjection targetCrsProjection, final int numberOfCoordinatesInChunk) {
+            this.source = source;
+            this.targetCrsProjection = targetCrsProjection;
+            this.numberOfCoordinatesInChunk = numberOfCoordinatesInChunk;
+            coordinates = new CrsCoordinate[numberOfCoordinatesInChunk];
+            crsProjections = new CrsProjection[numberOfCoordinatesInChunk];
+            yLatitudes = new double[numberOfCoordinatesInChunk];
+            xLongitudes = new double[numberOfCoordinatesInChunk];
+        }
+
+        // used as the consumer of the source spliterator when a chunk is retrieved
+        @Override
+        public void accept(final CrsCoordinate coordinate) {
+            coordinates[count] = coordinate;
+            crsProjections[count] = coordinate.getCrsProjection();
+            yLatitudes[count] = coordinate.getLatitudeY();
+            xLongitudes[count] = coordinate.getLongitudeX();
+            count++;
+        }
+
+        private void retrieveChunk() {
+            count = 0;
+            index = 0;
+            while (count < numberOfCoordinatesInChunk && source.tryAdvance(this)) {
+            }
+            CoordinateStreams.transform(crsProjections, yLatitudes, xLongitudes, yLatitudes, xLongitudes, count, targetCrsProjection);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super CrsCoordinate> action) {
+            if (index == count) {
+                retrieveChunk();
+                if (count == 0) {
+                    return false;
+                }
+            }
+            final CrsCoordinate coordinate = coordinates[index];
+            coordinates[index] = null;
+            action.accept(
+                coordinate.getCrsProjection() == targetCrsProjection
+                    ? coordinate
+                    : CrsCoordinate.createCoordinate(targetCrsProjection, yLatitudes[index], xLongitudes[index])
+            );
+            index++;
+            return true;
+        }
+
+        @Override
+        public Spliterator<CrsCoordinate> trySplit() {
+            if (index < count) {
+                // the retrieved chunk must be used by this instance
+                return null;
+            }
+            final Spliterator<CrsCoordinate> prefix = source.trySplit();
+            return prefix == null ? null : new TransformingSpliterator(prefix, targetCrsProjection, numberOfCoordinatesInChunk);
+        }
+
+        @Override
+        public long estimateSize() {
+            final long sourceSize = source.estimateSize();
+            return sourceSize == Long.MAX_VALUE ? sourceSize : sourceSize + count - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return (source.characteristics() & (ORDERED | SIZED | SUBSIZED)) | NONNULL;
+        }
+    }
+
+    /**
+     * The values of coordinates in primitive arrays which are expanded when needed, used by the collector.
+     */
+    private final static class CoordinateValues {
+
+        private CrsProjection[] crsProjections = new CrsProjection[16];
+        private double[] yLatitudes = new double[16];
+        private double[] xLongitudes = new double[16];
+        private int count;
+
+        void add(final CrsCoordinate coordinate) {
+            ensureCapacity(count + 1);
+            crsProjections[count] = coordinate.getCrsProjection();
+            yLatitudes[count] = coordinate.getLatitudeY();
+            xLongitudes[count] = coordinate.getLongitudeX();
+            count++;
+        }
+
+        void addAll(final CoordinateValues other) {
+            ensureCapacity(count + other.count);
+            System.arraycopy(other.crsProjections, 0, crsProjections, count, other.count);
+            System.arraycopy(other.yLatitudes, 0, yLatitudes, count, other.count);
+            System.arraycopy(other.xLongitudes, 0, xLongitudes, count, other.count);
+            count += other.count;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > yLatitudes.length) {
+                final int newCapacity = Math.max(capacity, 2 * yLatitudes.length);
+                crsProjections = Arrays.copyOf(crsProjections, newCapacity);
+                yLatitudes = Arrays.copyOf(yLatitudes, newCapacity);
+                xLongitudes = Arrays.copyOf(xLongitudes, newCapacity);
+            }
+        }
+
+        CrsCoordinateArray transform(final CrsProjection targetCrsProjection) {
+            CoordinateStreams.transform(crsProjections, yLatitudes, xLongitudes, yLatitudes, xLongitudes, count, targetCrsProjection);
+            return CrsCoordinateArray.createCoordinateArray(targetCrsProjection, Arrays.copyOf(yLatitudes, count), Arrays.copyOf(xLongitudes, count));
+        }
+    }
+}
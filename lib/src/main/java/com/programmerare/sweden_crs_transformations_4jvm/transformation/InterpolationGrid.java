@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A regular grid with the exactly transformed values at the nodes, used for transforming coordinates approximately
+ * with bicubic (Catmull-Rom) interpolation between the 4 x 4 nodes surrounding a coordinate.
+ * The nodes are located at 'minY + row * stepY' and 'minX + column * stepX' in the source CRS,
+ * and the two transformed values of each node are stored next to each other in one array.
+ *
+ * A grid can be written to a file (a cache for avoiding to create the grid again) and read from a file,
+ * with the following layout (all values are little-endian):
+ * <pre>
+ *     offset  size                  content
+ *     0       4                     the magic bytes "SCRI"
+ *     4       4                     the version of the format (int), currently 2
+ *     8       4                     the EPSG number of the source CRS (int)
+ *     12      4                     the EPSG number of the target CRS (int)
+ *     16      4                     the number of rows (int)
+ *     20      4                     the number of columns (int)
+ *     24      32                    minY, minX, stepY, stepX (double)
+ *     56      4                     the CRC-32 checksum of all the other bytes of the file (int)
+ *     60      4                     reserved (int), currently 0
+ *     64      16 * rows * columns   the transformed latitude/Y/Northing and longitude/X/Easting values of the nodes (double)
+ * </pre>
+ * A file is only used if the version, the CRS, the nodes and the checksum are the expected,
+ * i.e. otherwise (e.g. if the file was written by another version or has been corrupted) the grid is created again.
+ * @see ApproximateTransformer
+ */
+final class InterpolationGrid {
+
+    // version 1 did not have any checksum
+    final static int version = 2;
+
+    private final static int headerSize = 64;
+
+    private final static int checksumOffset = 56;
+
+    private final static byte[] magicBytes = {'S', 'C', 'R', 'I'};
+
+    private final CrsProjection sourceCrsProjection;
+    private final CrsProjection targetCrsProjection;
+    private final double minY, minX, stepY, stepX;
+    private final int numberOfRows, numberOfColumns;
+    // the transformed Y and X values of the node (row, column) with the indexes 2 * (row * numberOfColumns + column) and the next index
+    private final double[] values;
+
+    private InterpolationGrid(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final double minY,
+        final double minX,
+        final double stepY,
+        final double stepX,
+        final int numberOfRows,
+        final int numberOfColumns,
+        final double[] values
+    ) {
+        this.sourceCrsProjection = sourceCrsProjection;
+        this.targetCrsProjection = targetCrsProjection;
+        this.minY = minY;
+        this.minX = minX;
+        this.stepY = stepY;
+        this.stepX = stepX;
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.values = values;
+    }
+
+    /**
+     * Creates a grid with the values of the nodes transformed with a plan,
+     * which should not be rounding the values since they are used for interpolation.
+     */
+    static InterpolationGrid create(
+        final TransformPlan exactTransformPlan,
+        final double minY,
+        final double minX,
+        final double stepY,
+        final double stepX,
+        final int numberOfRows,
+        final int numberOfColumns
+    ) {
+        final double[] values = new double[2 * numberOfRows * numberOfColumns];
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int column = 0; column < numberOfColumns; column++) {
+                final int index = 2 * (row * numberOfColumns + column);
+                exactTransformPlan.transform(minY + row * stepY, minX + column * stepX, values, index, values, index + 1);
+            }
+        }
+        return new InterpolationGrid(
+            exactTransformPlan.getSourceCrsProjection(), exactTransformPlan.getTargetCrsProjection(),
+            minY, minX, stepY, stepX, numberOfRows, numberOfColumns, values
+        );
+    }
+
+    /**
+     * Transforms a coordinate with interpolation, if the coordinate is located within the grid.
+     * The two resulting values are written into the array elements specified by the last four parameters.
+     *
+     * @return true if the coordinate was transformed, or false (and nothing written) if the coordinate
+     *         is not located within the grid, i.e. then the coordinate must be transformed in some other way
+     */
+    boolean interpolate(
+        final double yLatitude,
+        final double xLongitude,
+        final double[] yResult,
+        final int yIndex,
+        final double[] xResult,
+        final int xIndex
+    ) {
+        final double u = (yLatitude - minY) / stepY;
+        final double w = (xLongitude - minX) / stepX;
+        // the surrounding 4 x 4 nodes must exist, i.e. rows from row-1 to row+2 (and the same for the columns)
+        // (the negated comparisons are also true for NaN)
+        if (!(u >= 1.0 && u < numberOfRows - 2) || !(w >= 1.0 && w < numberOfColumns - 2)) {
+            return false;
+        }
+        final int row = (int) u;
+        final int column = (int) w;
+        final double t = u - row;
+        final double s = w - column;
+
+        // Catmull-Rom weights
+        final double ty0 = ((-t + 2.0) * t - 1.0) * t * 0.5;
+        final double ty1 = ((3.0 * t - 5.0) * t * t + 2.0) * 0.5;
+        final double ty2 = ((-3.0 * t + 4.0) * t + 1.0) * t * 0.5;
+        final double ty3 = (t - 1.0) * t * t * 0.5;
+        final double sx0 = ((-s + 2.0) * s - 1.0) * s * 0.5;
+        final double sx1 = ((3.0 * s - 5.0) * s * s + 2.0) * 0.5;
+        final double sx2 = ((-3.0 * s + 4.0) * s + 1.0) * s * 0.5;
+        final double sx3 = (s - 1.0) * s * s * 0.5;
+
+        final int rowLength = 2 * numberOfColumns;
+        final int i0 = (row - 1) * rowLength + 2 * (column - 1);
+        final int i1 = i0 + rowLength;
+        final int i2 = i1 + rowLength;
+        final int i3 = i2 + rowLength;
+        final double[] v = values;
+        final double y =
+              ty0 * (sx0 * v[i0] + sx1 * v[i0 + 2] + sx2 * v[i0 + 4] + sx3 * v[i0 + 6])
+            + ty1 * (sx0 * v[i1] + sx1 * v[i1 + 2] + sx2 * v[i1 + 4] + sx3 * v[i1 + 6])
+            + ty2 * (sx0 * v[i2] + sx1 * v[i2 + 2] + sx2 * v[i2 + 4] + sx3 * v[i2 + 6])
+            + ty3 * (sx0 * v[i3] + sx1 * v[i3 + 2] + sx2 * v[i3 + 4] + sx3 * v[i3 + 6]);
+        final double x =
+              ty0 * (sx0 * v[i0 + 1] + sx1 * v[i0 + 3] + sx2 * v[i0 + 5] + sx3 * v[i0 + 7])
+            + ty1 * (sx0 * v[i1 + 1] + sx1 * v[i1 + 3] + sx2 * v[i1 + 5] + sx3 * v[i1 + 7])
+            + ty2 * (sx0 * v[i2 + 1] + sx1 * v[i2 + 3] + sx2 * v[i2 + 5] + sx3 * v[i2 + 7])
+            + ty3 * (sx0 * v[i3 + 1] + sx1 * v[i3 + 3] + sx2 * v[i3 + 5] + sx3 * v[i3 + 7]);
+        yResult[yIndex] = y;
+        xResult[xIndex] = x;
+        return true;
+    }
+
+    CrsProjection getSourceCrsProjection() {
+        return sourceCrsProjection;
+    }
+
+    CrsProjection getTargetCrsProjection() {
+        return targetCrsProjection;
+    }
+
+    /**
+     * Writes the grid to a temporary file which is then moved to the path,
+     * i.e. another thread or process reading the path will either see the complete file or no file (or an older file).
+     */
+    void write(final Path path) throws IOException {
+        final Path temporaryPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate(headerSize + 8 * values.length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(magicBytes);
+            buffer.putInt(version);
+            buffer.putInt(sourceCrsProjection.getEpsgNumber());
+            buffer.putInt(targetCrsProjection.getEpsgNumber());
+            buffer.putInt(numberOfRows);
+            buffer.putInt(numberOfColumns);
+            buffer.putDouble(minY);
+            buffer.putDouble(minX);
+            buffer.putDouble(stepY);
+            buffer.putDouble(stepX);
+            buffer.putInt(0); // the checksum is written below
+            buffer.putInt(0);
+            buffer.asDoubleBuffer().put(values);
+            buffer.putInt(checksumOffset, computeChecksum(buffer));
+            buffer.rewind();
+            final FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE);
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } finally {
+                channel.close();
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * Reads a grid from a file (through a memory mapped region of the file) written with the method 'write'.
+     *
+     * @return the grid, or null if the file does not exist or is not a grid file with the same version,
+     *         the same CRS and the same nodes as specified by the parameters
+     */
+    static InterpolationGrid read(
+        final Path path,
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final double minY,
+        final double minX,
+        final double stepY,
+        final double stepX,
+        final int numberOfRows,
+        final int numberOfColumns
+    ) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long expectedSize = headerSize + 16L * numberOfRows * numberOfColumns;
+            if (channel.size() != expectedSize) {
+                return null;
+            }
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize).order(ByteOrder.LITTLE_ENDIAN);
+            final byte[] magic = new byte[magicBytes.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, magicBytes)
+                || buffer.getInt() != version
+                || buffer.getInt() != sourceCrsProjection.getEpsgNumber()
+                || buffer.getInt() != targetCrsProjection.getEpsgNumber()
+                || buffer.getInt() != numberOfRows
+                || buffer.getInt() != numberOfColumns
+                || buffer.getDouble() != minY
+                || buffer.getDouble() != minX
+                || buffer.getDouble() != stepY
+                || buffer.getDouble() != stepX
+                || buffer.getInt() != computeChecksum(buffer)
+            ) {
+                return null;
+            }
+            buffer.position(headerSize);
+            final double[] values = new double[2 * numberOfRows * numberOfColumns];
+            buffer.asDoubleBuffer().get(values);
+            return new InterpolationGrid(
+                sourceCrsProjection, targetCrsProjection,
+                minY, minX, stepY, stepX, numberOfRows, numberOfColumns, values
+            );
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return the CRC-32 checksum of all bytes in the buffer except the bytes of the checksum itself
+     */
+    private static int computeChecksum(final ByteBuffer buffer) {
+        final CRC32 crc32 = new CRC32();
+        final ByteBuffer bytesBeforeChecksum = buffer.duplicate();
+        bytesBeforeChecksum.position(0).limit(checksumOffset);
+        crc32.update(bytesBeforeChecksum);
+        final ByteBuffer bytesAfterChecksum = buffer.duplicate();
+        bytesAfterChecksum.position(checksumOffset + 4).limit(buffer.capacity());
+        crc32.update(bytesAfterChecksum);
+        return (int) crc32.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return "InterpolationGrid [ " + sourceCrsProjection + " ==> " + targetCrsProjection + " , " + numberOfRows + " x " + numberOfColumns + " nodes ]";
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.GaussKreuger;
+
+/**
+ * Defines how the resulting values are rounded when coordinates are transformed to a grid projection,
+ * i.e. to SWEREF99 or RT90 (with meter as unit).
+ * The values are rounded to millimeters by default, as the original 'MightyLittleGeodesy' library has always done.
+ * The rounding can be avoided (e.g. for round-trip consistency checks, or when the values are rounded later anyway)
+ * or be done with another number of decimals.
+ * Transformations to WGS84 are not rounded, and neither are transformations with the same source and target CRS.
+ *
+ * Instances are immutable, and the factory methods return the same instance for the same parameter.
+ * @see Transformer
+ */
+public final class PrecisionPolicy {
+
+    /**
+     * The maximum number of decimals for the factory method 'roundToDecimals'.
+     * (the rounding is done with 'Math.round' returning a long, which must not overflow for the values of the coordinates)
+     */
+    public final static int maxNumberOfDecimals = 9;
+
+    private final static int numberOfDecimalsForNoRounding = -1;
+
+    // indexed by the number of decimals, and the last element is used for no rounding
+    private final static PrecisionPolicy[] precisionPolicies = createPrecisionPolicies();
+
+    private static PrecisionPolicy[] createPrecisionPolicies() {
+        final PrecisionPolicy[] policies = new PrecisionPolicy[maxNumberOfDecimals + 2];
+        double factor = 1.0;
+        for (int numberOfDecimals = 0; numberOfDecimals <= maxNumberOfDecimals; numberOfDecimals++) {
+            policies[numberOfDecimals] = new PrecisionPolicy(numberOfDecimals, factor, numberOfDecimals);
+            // the powers of ten are exact as doubles, e.g. 1000.0 for millimeters
+            factor *= 10.0;
+        }
+        policies[maxNumberOfDecimals + 1] = new PrecisionPolicy(numberOfDecimalsForNoRounding, GaussKreuger.roundingFactorForNoRounding, maxNumberOfDecimals + 1);
+        return policies;
+    }
+
+    private final int numberOfDecimals;
+    private final double factor;
+    private final int index;
+
+    private PrecisionPolicy(final int numberOfDecimals, final double factor, final int index) {
+        this.numberOfDecimals = numberOfDecimals;
+        this.factor = factor;
+        this.index = index;
+    }
+
+    /**
+     * @return the policy rounding the values to millimeters, i.e. three decimals, which is the default policy
+     */
+    public static PrecisionPolicy roundToMillimeter() {
+        return precisionPolicies[3];
+    }
+
+    /**
+     * @return the policy not rounding the values at all
+     */
+    public static PrecisionPolicy noRounding() {
+        return precisionPolicies[maxNumberOfDecimals + 1];
+    }
+
+    /**
+     * @param numberOfDecimals the number of decimals, from 0 (i.e. meters) to 'maxNumberOfDecimals'
+     * @return the policy rounding the values to the number of decimals
+     * @throws IllegalArgumentException if the number of decimals is negative or larger than 'maxNumberOfDecimals'
+     */
+    public static PrecisionPolicy roundToDecimals(final int numberOfDecimals) {
+        if (numberOfDecimals < 0 || numberOfDecimals > maxNumberOfDecimals) {
+            throw new IllegalArgumentException("The number of decimals must be between 0 and " + maxNumberOfDecimals + " but was " + numberOfDecimals);
+        }
+        return precisionPolicies[numberOfDecimals];
+    }
+
+    /**
+     * @return true if the values are rounded, i.e. false for the policy 'noRounding'
+     */
+    public boolean isRounding() {
+        return numberOfDecimals != numberOfDecimalsForNoRounding;
+    }
+
+    /**
+     * @return the number of decimals of the rounded values, or -1 for the policy 'noRounding'
+     */
+    public int getNumberOfDecimals() {
+        return numberOfDecimals;
+    }
+
+    /**
+     * @param value the value to round
+     * @return the value rounded according to this policy
+     */
+    public double round(final double value) {
+        if (numberOfDecimals == numberOfDecimalsForNoRounding) {
+            return value;
+        }
+        // for millimeters the same expression as in the original 'MightyLittleGeodesy' library, i.e. Math.round(value * 1000.0) / 1000.0
+        return Math.round(value * factor) / factor;
+    }
+
+    // the rounding factor provided to 'GaussKreuger', i.e. a power of ten, or zero for no rounding
+    double getRoundingFactor() {
+        return factor;
+    }
+
+    // used as an index for arrays with instances for each policy, e.g. the cached transformation plans
+    int getIndex() {
+        return index;
+    }
+
+    // the number of different instances, i.e. the length of arrays indexed with 'getIndex'
+    static int getNumberOfPrecisionPolicies() {
+        return precisionPolicies.length;
+    }
+
+    /**
+     * @return a string such as "PrecisionPolicy [ decimals: 3 ]" or "PrecisionPolicy [ no rounding ]"
+     */
+    @Override
+    public String toString() {
+        return isRounding() ? "PrecisionPolicy [ decimals: " + numberOfDecimals + " ]" : "PrecisionPolicy [ no rounding ]";
+    }
+}
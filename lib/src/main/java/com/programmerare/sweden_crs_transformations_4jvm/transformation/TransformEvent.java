@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a transformation of an array or a buffer by a public method of a 'TransformPlan',
+ * and for each mapped window or segment transformed by the bulk APIs (i.e. 'BinaryCoordinateFile' and 'OffHeapCoordinateStore').
+ * No events are created for single coordinates (neither by 'TransformPlan' nor by 'CachingTransformer'),
+ * since an event for each coordinate would flood a recording (and would cost more than the transformation itself),
+ * but they are recorded by the 'TransformInstrumentation' registered with 'Transformer.setInstrumentation',
+ * and the usage of the cache of a 'CachingTransformer' is recorded by the periodic 'CachingTransformerEvent'.
+ * The duration of the event is the duration of the transformation.
+ * This class is only loaded by 'TransformEvents' if the runtime supports JFR (i.e. Java 11 or later, or Java 8 update 262 or later).
+ * Example of a recording with the events:
+ * <pre>
+ *     java -XX:StartFlightRecording:filename=recording.jfr ...
+ *     jfr print --events sweden_crs_transformations_4jvm.Transform recording.jfr
+ * </pre>
+ * A threshold can be configured to only record the slow transformations,
+ * e.g. 'sweden_crs_transformations_4jvm.Transform#threshold=1 ms' in the settings of the recording.
+ */
+@Name(TransformEvent.name)
+@Label("CRS Transformation")
+@Category("Sweden CRS Transformations")
+@Description("Coordinates transformed from a source CRS to a target CRS")
+@StackTrace(false)
+final class TransformEvent extends Event {
+
+    final static String name = "sweden_crs_transformations_4jvm.Transform";
+
+    @Label("Source EPSG")
+    int sourceEpsgNumber;
+
+    @Label("Target EPSG")
+    int targetEpsgNumber;
+
+    @Label("Number of Coordinates")
+    int numberOfCoordinates;
+
+    @Label("Approximate")
+    @Description("True if the values were interpolated by a plan from 'ApproximateTransformer'")
+    boolean approximate;
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Creates and commits the Java Flight Recorder events of the type 'TransformEvent'.
+ * The events are only created when the runtime supports JFR and the event is enabled, i.e. during a recording.
+ * Otherwise the method 'begin' returns null (and 'commit' does nothing),
+ * which means that no event is created and the transformations are not timed.
+ * The event is returned as an 'Object' so that the callers do not depend on the JFR classes.
+ * The periodic events of the type 'CachingTransformerEvent' are created by JFR for the registered caching transformers.
+ */
+final class TransformEvents {
+
+    // false if the runtime does not support JFR, in which case the nested class (and therefore 'TransformEvent') is never loaded
+    private final static boolean available = isJfrAvailable();
+
+    private TransformEvents() {
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.EventType");
+            return Jfr.eventType != null;
+        } catch (Throwable e) {
+            // e.g. ClassNotFoundException for Java 8 before update 262, or an Error if JFR is disabled
+            return false;
+        }
+    }
+
+    /**
+     * @return a started event if JFR is recording the event, otherwise null
+     */
+    static Object begin() {
+        return available ? Jfr.begin() : null;
+    }
+
+    /**
+     * Commits an event returned by 'begin', and does nothing if the event is null.
+     */
+    static void commit(
+        final Object event,
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final int numberOfCoordinates,
+        final boolean approximate
+    ) {
+        if (event != null) {
+            Jfr.commit((TransformEvent) event, sourceCrsProjection, targetCrsProjection, numberOfCoordinates, approximate);
+        }
+    }
+
+    /**
+     * Registers a caching transformer for the periodic 'CachingTransformerEvent' (if the runtime supports JFR).
+     * Only a weak reference is kept, i.e. the registration does not prevent the instance from being garbage collected.
+     */
+    static void register(final CachingTransformer cachingTransformer) {
+        if (available) {
+            Jfr.register(cachingTransformer);
+        }
+    }
+
+    private final static class Jfr {
+        private final static EventType eventType = EventType.getEventType(TransformEvent.class);
+
+        // the registered caching transformers (weak references) for which the periodic events are created
+        private final static Set<CachingTransformer> cachingTransformers = Collections.newSetFromMap(new WeakHashMap<CachingTransformer, Boolean>());
+
+        static {
+            FlightRecorder.addPeriodicEvent(CachingTransformerEvent.class, new Runnable() {
+                @Override
+                public void run() {
+                    commitCachingTransformerEvents();
+                }
+            });
+        }
+
+        static void register(final CachingTransformer cachingTransformer) {
+            synchronized (cachingTransformers) {
+                cachingTransformers.add(cachingTransformer);
+            }
+        }
+
+        private static void commitCachingTransformerEvents() {
+            final List<CachingTransformer> registeredCachingTransformers;
+            synchronized (cachingTransformers) {
+                registeredCachingTransformers = new ArrayList<CachingTransformer>(cachingTransformers);
+            }
+            for (final CachingTransformer cachingTransformer : registeredCachingTransformers) {
+                final CachingTransformerEvent event = new CachingTransformerEvent();
+                event.maximumNumberOfEntries = cachingTransformer.getMaximumNumberOfEntries();
+                event.numberOfEntries = cachingTransformer.size();
+                event.hitCount = cachingTransformer.getHitCount();
+                event.missCount = cachingTransformer.getMissCount();
+                event.commit();
+            }
+        }
+
+        static TransformEvent begin() {
+            if (!eventType.isEnabled()) {
+                return null;
+            }
+            final TransformEvent event = new TransformEvent();
+            event.begin();
+            return event;
+        }
+
+        static void commit(
+            final TransformEvent event,
+            final CrsProjection sourceCrsProjection,
+            final CrsProjection targetCrsProjection,
+            final int numberOfCoordinates,
+            final boolean approximate
+        ) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.sourceEpsgNumber = sourceCrsProjection.getEpsgNumber();
+                event.targetEpsgNumber = targetCrsProjection.getEpsgNumber();
+                event.numberOfCoordinates = numberOfCoordinates;
+                event.approximate = approximate;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+/**
+ * Is notified about each transformation by the public methods of 'TransformPlan', i.e. also by the methods of 'Transformer',
+ * 'CrsCoordinate' and the bulk APIs using plans, when registered with the method 'Transformer.setInstrumentation'.
+ * The per-coordinate kernel method of 'TransformPlan' (with the result array parameters) is not instrumented,
+ * since it is used by the other methods. The bulk APIs using the kernel method directly on off-heap memory
+ * (i.e. 'BinaryCoordinateFile' and 'OffHeapCoordinateStore') notify about each mapped window or segment as one transformation,
+ * and the 'CachingTransformer' notifies about each of its transformations (and the cache hits and misses) itself.
+ * By default the instrumentation 'noOp' is used, in which case the transformations are not even timed.
+ * Implementations must be thread-safe, and should be fast since they are invoked by the transforming threads.
+ * @see TransformMetrics
+ */
+public interface TransformInstrumentation {
+
+    /**
+     * The default instrumentation, which does nothing.
+     */
+    TransformInstrumentation noOp = new TransformInstrumentation() {
+        @Override
+        public void onTransform(CrsProjection sourceCrsProjection, CrsProjection targetCrsProjection, int numberOfCoordinates, long durationInNanoseconds) {
+        }
+
+        @Override
+        public String toString() {
+            return "TransformInstrumentation [ no-op ]";
+        }
+    };
+
+    /**
+     * Invoked after coordinates have been transformed (but not if the transformation has thrown an exception).
+     *
+     * @param sourceCrsProjection   the source CRS
+     * @param targetCrsProjection   the target CRS
+     * @param numberOfCoordinates   the number of transformed coordinates, i.e. one for a single coordinate
+     * @param durationInNanoseconds the time used for the transformation
+     */
+    void onTransform(CrsProjection sourceCrsProjection, CrsProjection targetCrsProjection, int numberOfCoordinates, long durationInNanoseconds);
+
+    /**
+     * Invoked by a 'CachingTransformer' after a coordinate has been transformed (in addition to 'onTransform'),
+     * i.e. after the result has been retrieved from the cache or calculated and inserted into the cache.
+     * The default implementation does nothing.
+     *
+     * @param sourceCrsProjection the source CRS
+     * @param targetCrsProjection the target CRS
+     * @param isCacheHit          true if the result was retrieved from the cache
+     */
+    default void onCacheAccess(CrsProjection sourceCrsProjection, CrsProjection targetCrsProjection, boolean isCacheHit) {
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+/**
+ * The implementation of the mathematical calculations (in the class 'GaussKreuger') used by a transformation plan.
+ * Both kernels are implementing the same formulas, but the results may differ in the last bits
+ * (and therefore in very rare cases with one millimeter for SWEREF99 and RT90 coordinates, because of the rounding to millimeters).
+ * @see Transformer#plan(com.programmerare.sweden_crs_transformations_4jvm.CrsProjection, com.programmerare.sweden_crs_transformations_4jvm.CrsProjection, TransformKernel)
+ */
+public enum TransformKernel {
+    /**
+     * The calculations as implemented in the original 'MightyLittleGeodesy' library, i.e. with each term of the
+     * Krüger series calculated separately with 'Math.sin'/'Math.cos' and hyperbolic functions implemented with 'Math.exp'.
+     * This is the kernel used by default.
+     */
+    ORIGINAL,
+
+    /**
+     * The calculations with the Krüger series evaluated with Clenshaw summation,
+     * and the series for the latitude evaluated with Horner's method instead of with 'Math.pow',
+     * i.e. with much fewer invocations of 'Math.sin', 'Math.cos', 'Math.exp' and 'Math.pow' for each coordinate.
+     */
+    OPTIMIZED
+}
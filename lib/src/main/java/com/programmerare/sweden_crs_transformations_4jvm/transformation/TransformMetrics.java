@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * An instrumentation recording, for each pair of source CRS and target CRS, the number of transformations
+ * and transformed coordinates, and histograms with the batch sizes (the number of coordinates per transformation)
+ * and the latencies (in nanoseconds per transformation), and the number of cache hits and misses of a 'CachingTransformer'.
+ * The recording is lock-free, with 'LongAdder' counters and histogram buckets in atomic arrays which are striped by thread
+ * (i.e. threads recording concurrently seldom write to the same cache lines), and the stripes are merged into a snapshot.
+ * The histograms use log-linear buckets (in the same way as HdrHistogram) with 32 buckets for each power of two,
+ * i.e. the values in a snapshot are exact below 32 and otherwise within about 3 percent.
+ * Example:
+ * <pre>
+ *     TransformMetrics metrics = TransformMetrics.create();
+ *     Transformer.setInstrumentation(metrics);
+ *     ...
+ *     for (TransformMetrics.Snapshot snapshot : metrics.getSnapshots()) {
+ *         System.out.println(snapshot);
+ *     }
+ * </pre>
+ * @see TransformInstrumentation
+ */
+public final class TransformMetrics implements TransformInstrumentation {
+
+    private final static int numberOfCrsProjections = CrsProjection.values().length;
+
+    private final AtomicReferenceArray<PairMetrics> metricsForCrsProjectionPairs = new AtomicReferenceArray<PairMetrics>(numberOfCrsProjections * numberOfCrsProjections);
+
+    private TransformMetrics() {
+    }
+
+    /**
+     * @return a new instance without any recorded transformations, which is used when registered with 'Transformer.setInstrumentation'
+     */
+    public static TransformMetrics create() {
+        return new TransformMetrics();
+    }
+
+    @Override
+    public void onTransform(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection, final int numberOfCoordinates, final long durationInNanoseconds) {
+        final PairMetrics pairMetrics = getPairMetrics(sourceCrsProjection, targetCrsProjection);
+        pairMetrics.numberOfTransformations.increment();
+        pairMetrics.numberOfCoordinates.add(numberOfCoordinates);
+        pairMetrics.batchSizes.record(numberOfCoordinates);
+        pairMetrics.latencies.record(durationInNanoseconds);
+    }
+
+    @Override
+    public void onCacheAccess(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection, final boolean isCacheHit) {
+        final PairMetrics pairMetrics = getPairMetrics(sourceCrsProjection, targetCrsProjection);
+        (isCacheHit ? pairMetrics.numberOfCacheHits : pairMetrics.numberOfCacheMisses).increment();
+    }
+
+    private PairMetrics getPairMetrics(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection) {
+        final int crsProjectionPair = sourceCrsProjection.ordinal() * numberOfCrsProjections + targetCrsProjection.ordinal();
+        final PairMetrics pairMetrics = metricsForCrsProjectionPairs.get(crsProjectionPair);
+        if (pairMetrics != null) {
+            return pairMetrics;
+        }
+        metricsForCrsProjectionPairs.compareAndSet(crsProjectionPair, null, new PairMetrics());
+        return metricsForCrsProjectionPairs.get(crsProjectionPair);
+    }
+
+    /**
+     * Returns a snapshot of the metrics for a pair of CRS. The snapshot is not atomic, i.e. the values may be recorded
+     * concurrently while the snapshot is created, so for example the counts of the two histograms may differ slightly.
+     *
+     * @param sourceCrsProjection the source CRS
+     * @param targetCrsProjection the target CRS
+     * @return a snapshot, with zero counts if no transformations have been recorded for the pair
+     * @throws IllegalArgumentException if a parameter is null
+     */
+    public Snapshot getSnapshot(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection) {
+        if (sourceCrsProjection == null || targetCrsProjection == null) {
+            throw new IllegalArgumentException("The CrsProjection parameters must not be null");
+        }
+        final PairMetrics pairMetrics = metricsForCrsProjectionPairs.get(sourceCrsProjection.ordinal() * numberOfCrsProjections + targetCrsProjection.ordinal());
+        return pairMetrics == null
+            ? new Snapshot(sourceCrsProjection, targetCrsProjection, 0, 0, 0, 0, Histogram.empty, Histogram.empty)
+            : pairMetrics.getSnapshot(sourceCrsProjection, targetCrsProjection);
+    }
+
+    /**
+     * @return snapshots for all pairs of CRS with recorded transformations, ordered by the source CRS and then the target CRS
+     * @see #getSnapshot(CrsProjection, CrsProjection)
+     */
+    public List<Snapshot> getSnapshots() {
+        final CrsProjection[] crsProjections = CrsProjection.values();
+        final List<Snapshot> snapshots = new ArrayList<Snapshot>();
+        for (int i = 0; i < metricsForCrsProjectionPairs.length(); i++) {
+            final PairMetrics pairMetrics = metricsForCrsProjectionPairs.get(i);
+            if (pairMetrics != null) {
+                snapshots.add(pairMetrics.getSnapshot(crsProjections[i / numberOfCrsProjections], crsProjections[i % numberOfCrsProjections]));
+            }
+        }
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    /**
+     * Removes all recorded transformations. Transformations recorded concurrently may be partially removed.
+     */
+    public void reset() {
+        for (int i = 0; i < metricsForCrsProjectionPairs.length(); i++) {
+            metricsForCrsProjectionPairs.set(i, null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TransformMetrics [ pairs: " + getSnapshots().size() + " ]";
+    }
+
+    /**
+     * The recorded metrics for one pair of CRS at the time when the snapshot was created.
+     */
+    public final static class Snapshot {
+        private final CrsProjection sourceCrsProjection, targetCrsProjection;
+        private final long numberOfTransformations, numberOfCoordinates;
+        private final long numberOfCacheHits, numberOfCacheMisses;
+        private final Histogram batchSizes, latencies;
+
+        private Snapshot(
+            final CrsProjection sourceCrsProjection,
+            final CrsProjection targetCrsProjection,
+            final long numberOfTransformations,
+            final long numberOfCoordinates,
+            final long numberOfCacheHits,
+            final long numberOfCacheMisses,
+            final Histogram batchSizes,
+            final Histogram latencies
+        ) {
+            this.sourceCrsProjection = sourceCrsProjection;
+            this.targetCrsProjection = targetCrsProjection;
+            this.numberOfTransformations = numberOfTransformations;
+            this.numberOfCoordinates = numberOfCoordinates;
+            this.numberOfCacheHits = numberOfCacheHits;
+            this.numberOfCacheMisses = numberOfCacheMisses;
+            this.batchSizes = batchSizes;
+            this.latencies = latencies;
+        }
+
+        public CrsProjection getSourceCrsProjection() {
+            return sourceCrsProjection;
+        }
+
+        public CrsProjection getTargetCrsProjection() {
+            return targetCrsProjection;
+        }
+
+        /**
+         * @return the number of invocations of the instrumented methods, i.e. one for a single coordinate or for an array
+         */
+        public long getNumberOfTransformations() {
+            return numberOfTransformations;
+        }
+
+        /**
+         * @return the total number of transformed coordinates
+         */
+        public long getNumberOfCoordinates() {
+            return numberOfCoordinates;
+        }
+
+        /**
+         * @return the number of transformations by a 'CachingTransformer' with the result retrieved from the cache
+         */
+        public long getNumberOfCacheHits() {
+            return numberOfCacheHits;
+        }
+
+        /**
+         * @return the number of transformations by a 'CachingTransformer' with the result calculated and inserted into the cache
+         */
+        public long getNumberOfCacheMisses() {
+            return numberOfCacheMisses;
+        }
+
+        /**
+         * @return the histogram with the number of coordinates per transformation
+         */
+        public Histogram getBatchSizes() {
+            return batchSizes;
+        }
+
+        /**
+         * @return the histogram with the durations (in nanoseconds) of the transformations
+         */
+        public Histogram getLatencies() {
+            return latencies;
+        }
+
+        @Override
+        public String toString() {
+            return "TransformMetrics.Snapshot [ " + sourceCrsProjection + " ==> " + targetCrsProjection
+                + " , transformations: " + numberOfTransformations + " , coordinates: " + numberOfCoordinates
+                + " , cache hits: " + numberOfCacheHits + " , cache misses: " + numberOfCacheMisses
+                + " , batch sizes: " + batchSizes + " , latencies (ns): " + latencies + " ]";
+        }
+    }
+
+    /**
+     * An immutable histogram with the counts of the recorded values in log-linear buckets.
+     */
+    public final static class Histogram {
+        private final static Histogram empty = new Histogram(new long[0], 0, 0, 0);
+
+        // the number of buckets for each power of two is two to the power of this, i.e. the precision in bits
+        private final static int subBucketBits = 5;
+        private final static int numberOfSubBuckets = 1 << subBucketBits;
+        // the bucket indexes for the values up to Long.MAX_VALUE
+        private final static int numberOfBuckets = getBucketIndex(Long.MAX_VALUE) + 1;
+
+        private final long[] counts;
+        private final long totalCount, sum, max;
+
+        private Histogram(final long[] counts, final long totalCount, final long sum, final long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        // values less than the number of sub buckets have their own buckets, and then each power of two has 'numberOfSubBuckets' buckets
+        private static int getBucketIndex(final long value) {
+            if (value < numberOfSubBuckets) {
+                return (int) value;
+            }
+            final int exponent = 63 - Long.numberOfLeadingZeros(value);
+            final int subBucket = (int) (value >>> (exponent - subBucketBits)) & (numberOfSubBuckets - 1);
+            return (exponent - subBucketBits + 1) * numberOfSubBuckets + subBucket;
+        }
+
+        private static long getLowestValueInBucket(final int bucketIndex) {
+            if (bucketIndex < numberOfSubBuckets) {
+                return bucketIndex;
+            }
+            final int exponent = bucketIndex / numberOfSubBuckets + subBucketBits - 1;
+            final int subBucket = bucketIndex % numberOfSubBuckets;
+            return ((long) (numberOfSubBuckets + subBucket)) << (exponent - subBucketBits);
+        }
+
+        private static long getHighestValueInBucket(final int bucketIndex) {
+            return bucketIndex == numberOfBuckets - 1 ? Long.MAX_VALUE : getLowestValueInBucket(bucketIndex + 1) - 1;
+        }
+
+        /**
+         * @return the number of recorded values
+         */
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @return the (exact) largest recorded value, or zero if there are no recorded values
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @return the (exact) mean of the recorded values, or zero if there are no recorded values
+         */
+        public double getMean() {
+            return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+        }
+
+        /**
+         * Returns the largest value in the bucket containing the value at a percentile, but not larger than the max value.
+         *
+         * @param percentile a percentile between 0 and 100, e.g. 99.9
+         * @return the value at the percentile, or zero if there are no recorded values
+         * @throws IllegalArgumentException if the percentile is not between 0 and 100
+         */
+        public long getValueAtPercentile(final double percentile) {
+            if (!(percentile >= 0.0 && percentile <= 100.0)) {
+                throw new IllegalArgumentException("The percentile must be between 0 and 100 but was: " + percentile);
+            }
+            if (totalCount == 0) {
+                return 0;
+            }
+            final long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+            long count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                count += counts[i];
+                if (count >= countAtPercentile) {
+                    return Math.min(getHighestValueInBucket(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "[ count: " + totalCount + " , mean: " + String.format(Locale.ROOT, "%.1f", getMean())
+                + " , p50: " + getValueAtPercentile(50) + " , p99: " + getValueAtPercentile(99) + " , max: " + max + " ]";
+        }
+    }
+
+    private final static class PairMetrics {
+        private final LongAdder numberOfTransformations = new LongAdder();
+        private final LongAdder numberOfCoordinates = new LongAdder();
+        private final LongAdder numberOfCacheHits = new LongAdder();
+        private final LongAdder numberOfCacheMisses = new LongAdder();
+        private final HistogramRecorder batchSizes = new HistogramRecorder();
+        private final HistogramRecorder latencies = new HistogramRecorder();
+
+        Snapshot getSnapshot(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection) {
+            return new Snapshot(
+                sourceCrsProjection,
+                targetCrsProjection,
+                numberOfTransformations.sum(),
+                numberOfCoordinates.sum(),
+                numberOfCacheHits.sum(),
+                numberOfCacheMisses.sum(),
+                batchSizes.getSnapshot(),
+                latencies.getSnapshot()
+            );
+        }
+    }
+
+    private final static class HistogramRecorder {
+        private final static LongBinaryOperator maxOperator = new LongBinaryOperator() {
+            @Override
+            public long applyAsLong(long left, long right) {
+                return Math.max(left, right);
+            }
+        };
+
+        // a power of two, i.e. at least the number of processors (but not more than 64)
+        private final static int numberOfStripes = 1 << (32 - Integer.numberOfLeadingZeros(Math.min(64, Runtime.getRuntime().availableProcessors()) - 1));
+
+        // the counts of the buckets for each stripe, which is created when it is used the first time
+        // (i.e. the memory of the stripes, about 15 KB each, is only used by threads recording concurrently)
+        private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<AtomicLongArray>(numberOfStripes);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(maxOperator, 0);
+
+        void record(final long value) {
+            // e.g. a duration can be negative if 'System.nanoTime' is not monotonic on a platform
+            final long nonNegativeValue = Math.max(0, value);
+            getStripe().incrementAndGet(Histogram.getBucketIndex(nonNegativeValue));
+            sum.add(nonNegativeValue);
+            max.accumulate(nonNegativeValue);
+        }
+
+        // the thread ids are sequential, i.e. the threads are distributed evenly among the stripes
+        private AtomicLongArray getStripe() {
+            final int stripeIndex = (int) Thread.currentThread().getId() & (numberOfStripes - 1);
+            final AtomicLongArray stripe = stripes.get(stripeIndex);
+            if (stripe != null) {
+                return stripe;
+            }
+            stripes.compareAndSet(stripeIndex, null, new AtomicLongArray(Histogram.numberOfBuckets));
+            return stripes.get(stripeIndex);
+        }
+
+        Histogram getSnapshot() {
+            final long[] countsSnapshot = new long[Histogram.numberOfBuckets];
+            for (int stripeIndex = 0; stripeIndex < numberOfStripes; stripeIndex++) {
+                final AtomicLongArray stripe = stripes.get(stripeIndex);
+                if (stripe != null) {
+                    for (int i = 0; i < countsSnapshot.length; i++) {
+                        countsSnapshot[i] += stripe.get(i);
+                    }
+                }
+            }
+            long totalCountSnapshot = 0;
+            int numberOfUsedBuckets = 0;
+            for (int i = 0; i < countsSnapshot.length; i++) {
+                totalCountSnapshot += countsSnapshot[i];
+                if (countsSnapshot[i] != 0) {
+                    numberOfUsedBuckets = i + 1;
+                }
+            }
+            // the total count is computed from the buckets to be consistent with the percentiles
+            return new Histogram(Arrays.copyOf(countsSnapshot, numberOfUsedBuckets), totalCountSnapshot, sum.sum(), max.get());
+        }
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinateArray;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A non-blocking stage of a stream, which transforms the received coordinates (or arrays of coordinates) from a source CRS
+ * to a target CRS, and publishes the transformed coordinates to one subscriber, in the same order as they were received.
+ * The coordinates are transformed in micro-batches, i.e. all coordinates received but not yet transformed (but at most
+ * the max batch size) are transformed with one invocation of a 'TransformPlan', in a task executed by the executor.
+ * The coordinates are only requested from the upstream publisher when the downstream subscriber has requested coordinates,
+ * and the number of requested but not yet published coordinates is at most the max batch size.
+ * If a received coordinate does not have the source CRS, the upstream subscription is cancelled,
+ * and 'onError' is invoked with an 'IllegalArgumentException'.
+ * Example:
+ * <pre>
+ *     TransformProcessor&lt;CrsCoordinate&gt; processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, executor);
+ *     publisher.subscribe(processor);
+ *     processor.subscribe(subscriber);
+ * </pre>
+ * @param <T> CrsCoordinate or CrsCoordinateArray
+ * @see CoordinateFlow
+ */
+public final class TransformProcessor<T> implements CoordinateFlow.Processor<T, T> {
+
+    /**
+     * The max batch size used by the factory methods without a max batch size parameter.
+     */
+    public final static int defaultMaxBatchSize = 256;
+
+    /**
+     * @param sourceCrsProjection the CRS of the received coordinates
+     * @param targetCrsProjection the CRS of the published coordinates
+     * @param executor            the executor used for transforming and publishing the coordinates
+     * @return a processor transforming coordinates in batches with at most 'defaultMaxBatchSize' coordinates
+     * @throws IllegalArgumentException if a parameter is null
+     */
+    public static TransformProcessor<CrsCoordinate> createForCoordinates(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final Executor executor
+    ) {
+        return createForCoordinates(sourceCrsProjection, targetCrsProjection, executor, defaultMaxBatchSize);
+    }
+
+    /**
+     * @param sourceCrsProjection the CRS of the received coordinates
+     * @param targetCrsProjection the CRS of the published coordinates
+     * @param executor            the executor used for transforming and publishing the coordinates
+     * @param maxBatchSize        the maximum number of coordinates transformed with one invocation of a 'TransformPlan'
+     * @return a processor transforming coordinates in batches with at most 'maxBatchSize' coordinates
+     * @throws IllegalArgumentException if a parameter is null or if the max batch size is less than one
+     */
+    public static TransformProcessor<CrsCoordinate> createForCoordinates(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final Executor executor,
+        final int maxBatchSize
+    ) {
+        throwExceptionIfInvalidParameters(sourceCrsProjection, targetCrsProjection, executor, maxBatchSize);
+        return new TransformProcessor<CrsCoordinate>(
+            new CoordinateBatchTransformation(sourceCrsProjection, targetCrsProjection, maxBatchSize),
+            executor,
+            maxBatchSize
+        );
+    }
+
+    /**
+     * @param sourceCrsProjection the CRS of the received arrays
+     * @param targetCrsProjection the CRS of the published arrays
+     * @param executor            the executor used for transforming and publishing the arrays
+     * @return a processor transforming arrays of coordinates, with at most 'defaultMaxBatchSize' arrays per task of the executor
+     * @throws IllegalArgumentException if a parameter is null
+     */
+    public static TransformProcessor<CrsCoordinateArray> createForCoordinateArrays(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final Executor executor
+    ) {
+        return createForCoordinateArrays(sourceCrsProjection, targetCrsProjection, executor, defaultMaxBatchSize);
+    }
+
+    /**
+     * @param sourceCrsProjection the CRS of the received arrays
+     * @param targetCrsProjection the CRS of the published arrays
+     * @param executor            the executor used for transforming and publishing the arrays
+     * @param maxBatchSize        the maximum number of arrays transformed per task of the executor
+     * @return a processor transforming arrays of coordinates, with at most 'maxBatchSize' arrays per task of the executor
+     * @throws IllegalArgumentException if a parameter is null or if the max batch size is less than one
+     */
+    public static TransformProcessor<CrsCoordinateArray> createForCoordinateArrays(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final Executor executor,
+        final int maxBatchSize
+    ) {
+        throwExceptionIfInvalidParameters(sourceCrsProjection, targetCrsProjection, executor, maxBatchSize);
+        return new TransformProcessor<CrsCoordinateArray>(
+            new CoordinateArrayBatchTransformation(sourceCrsProjection, targetCrsProjection),
+            executor,
+            maxBatchSize
+        );
+    }
+
+    private static void throwExceptionIfInvalidParameters(
+        final CrsProjection sourceCrsProjection,
+        final CrsProjection targetCrsProjection,
+        final Executor executor,
+        final int maxBatchSize
+    ) {
+        if (sourceCrsProjection == null || targetCrsProjection == null || executor == null) {
+            throw new IllegalArgumentException("The CrsProjection parameters and the executor must not be null");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The max batch size must be at least one but was: " + maxBatchSize);
+        }
+    }
+
+    private final BatchTransformation<T> batchTransformation;
+    private final Executor executor;
+    private final int maxBatchSize;
+
+    // the received but not yet transformed items
+    private final ConcurrentLinkedQueue<T> receivedItems = new ConcurrentLinkedQueue<T>();
+
+    private final AtomicReference<CoordinateFlow.Subscription> upstreamSubscription = new AtomicReference<CoordinateFlow.Subscription>();
+    private volatile boolean upstreamCompleted;
+    private volatile Throwable upstreamError;
+
+    private final AtomicReference<CoordinateFlow.Subscriber<? super T>> claimedSubscriber = new AtomicReference<CoordinateFlow.Subscriber<? super T>>();
+    // assigned after 'onSubscribe' has been invoked, since no other method of the subscriber may be invoked before that
+    private volatile CoordinateFlow.Subscriber<? super T> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequestError;
+
+    // The number of pending invocations of 'drain'. The fields below are only used by the task executing 'drain',
+    // which is never executed concurrently, i.e. the task is only submitted when the number changes from zero.
+    private final AtomicInteger numberOfPendingDrains = new AtomicInteger();
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            RuntimeException subscriberException = null;
+            int numberOfDrains = 1;
+            do {
+                try {
+                    drain();
+                } catch (RuntimeException e) {
+                    // The subscriber has thrown an exception, which is not allowed (but must not leave the upstream publisher waiting).
+                    // The exception is rethrown when the pending drains have been done, i.e. when the number of pending drains
+                    // is zero again, since otherwise no further drain task would ever be executed.
+                    subscriberException = e;
+                    terminated = true;
+                    cancelled = true;
+                    cancelUpstream();
+                    // clears the queues since 'cancelled' is now true
+                    drain();
+                }
+                numberOfDrains = numberOfPendingDrains.addAndGet(-numberOfDrains);
+            } while (numberOfDrains != 0);
+            if (subscriberException != null) {
+                throw subscriberException;
+            }
+        }
+    };
+    private final ArrayDeque<T> transformedItems = new ArrayDeque<T>();
+    private final List<T> batch = new ArrayList<T>();
+    private long numberOfRequestedFromUpstream, numberOfPolledFromReceived;
+    private boolean terminated;
+
+    private TransformProcessor(final BatchTransformation<T> batchTransformation, final Executor executor, final int maxBatchSize) {
+        this.batchTransformation = batchTransformation;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void onSubscribe(final CoordinateFlow.Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("The subscription must not be null");
+        }
+        if (!upstreamSubscription.compareAndSet(null, subscription)) {
+            // already subscribed to another publisher
+            subscription.cancel();
+            return;
+        }
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        scheduleDrain();
+    }
+
+    @Override
+    public void onNext(final T item) {
+        if (item == null) {
+            throw new NullPointerException("The item must not be null");
+        }
+        receivedItems.offer(item);
+        scheduleDrain();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (throwable == null) {
+            throw new NullPointerException("The throwable must not be null");
+        }
+        upstreamError = throwable;
+        upstreamCompleted = true;
+        scheduleDrain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamCompleted = true;
+        scheduleDrain();
+    }
+
+    /**
+     * Only one subscriber is supported. Any further subscriber receives 'onError' with an 'IllegalStateException'.
+     */
+    @Override
+    public void subscribe(final CoordinateFlow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber must not be null");
+        }
+        if (!claimedSubscriber.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new CoordinateFlow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("The processor can only have one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new CoordinateFlow.Subscription() {
+            @Override
+            public void request(final long n) {
+                if (n <= 0) {
+                    invalidRequestError = new IllegalArgumentException("The number of requested items must be positive but was: " + n);
+                }
+                else {
+                    long current, next;
+                    do {
+                        current = demand.get();
+                        next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                    } while (!demand.compareAndSet(current, next));
+                }
+                scheduleDrain();
+            }
+
+            @Override
+            public void cancel() {
+                TransformProcessor.this.cancel();
+            }
+        });
+        this.subscriber = subscriber;
+        scheduleDrain();
+    }
+
+    private void cancel() {
+        cancelled = true;
+        final CoordinateFlow.Subscription subscription = upstreamSubscription.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (numberOfPendingDrains.getAndIncrement() == 0) {
+            try {
+                executor.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                // the drain task is not executing (since it was not pending), and will never be executed after this
+                final CoordinateFlow.Subscriber<? super T> subscriber = this.subscriber;
+                if (subscriber != null && !terminated) {
+                    terminate(subscriber, e);
+                }
+                else {
+                    cancelled = true;
+                    cancelUpstream();
+                }
+            }
+        }
+    }
+
+    private void cancelUpstream() {
+        final CoordinateFlow.Subscription subscription = upstreamSubscription.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    // only invoked by the drain task
+    private void drain() {
+        if (cancelled) {
+            receivedItems.clear();
+            transformedItems.clear();
+            return;
+        }
+        final CoordinateFlow.Subscriber<? super T> subscriber = this.subscriber;
+        if (subscriber == null || terminated) {
+            return;
+        }
+        if (invalidRequestError != null) {
+            terminate(subscriber, invalidRequestError);
+            return;
+        }
+        while (true) {
+            if (transformedItems.isEmpty()) {
+                try {
+                    transformBatch();
+                } catch (RuntimeException e) {
+                    terminate(subscriber, e);
+                    return;
+                }
+            }
+            if (transformedItems.isEmpty() || demand.get() == 0) {
+                break;
+            }
+            subscriber.onNext(transformedItems.poll());
+            if (demand.get() != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            if (cancelled) {
+                return;
+            }
+        }
+        // the received items must be checked after 'upstreamCompleted' since 'onNext' is never invoked after 'onComplete'
+        if (upstreamCompleted && receivedItems.isEmpty() && transformedItems.isEmpty()) {
+            terminated = true;
+            if (upstreamError != null) {
+                subscriber.onError(upstreamError);
+            }
+            else {
+                subscriber.onComplete();
+            }
+            return;
+        }
+        requestFromUpstream();
+    }
+
+    private void transformBatch() {
+        T item;
+        while (batch.size() < maxBatchSize && (item = receivedItems.poll()) != null) {
+            batch.add(item);
+        }
+        numberOfPolledFromReceived += batch.size();
+        try {
+            if (!batch.isEmpty()) {
+                batchTransformation.transform(batch, transformedItems);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Requests items from upstream so that the number of requested but not yet published items
+     * is the downstream demand, but at most the max batch size.
+     * Small numbers of items are not requested (unless nothing is requested) to avoid too many requests.
+     */
+    private void requestFromUpstream() {
+        final CoordinateFlow.Subscription subscription = upstreamSubscription.get();
+        if (subscription == null || upstreamCompleted) {
+            return;
+        }
+        final long numberOfItemsInFlight = numberOfRequestedFromUpstream - numberOfPolledFromReceived + transformedItems.size();
+        final long numberOfItemsToRequest = Math.min(demand.get(), maxBatchSize) - numberOfItemsInFlight;
+        if (numberOfItemsToRequest > 0 && (numberOfItemsToRequest >= maxBatchSize / 2 || numberOfItemsInFlight == 0)) {
+            numberOfRequestedFromUpstream += numberOfItemsToRequest;
+            subscription.request(numberOfItemsToRequest);
+        }
+    }
+
+    private void terminate(final CoordinateFlow.Subscriber<? super T> subscriber, final Throwable throwable) {
+        terminated = true;
+        cancelled = true;
+        cancelUpstream();
+        receivedItems.clear();
+        transformedItems.clear();
+        subscriber.onError(throwable);
+    }
+
+    @Override
+    public String toString() {
+        return "TransformProcessor [ " + batchTransformation + " , max batch size: " + maxBatchSize + " ]";
+    }
+
+    private interface BatchTransformation<T> {
+        /**
+         * Adds the transformed items to the result, or throws an IllegalArgumentException (without adding any item)
+         * if an item does not have the source CRS.
+         */
+        void transform(List<T> items, Queue<T> result);
+    }
+
+    private final static class CoordinateBatchTransformation implements BatchTransformation<CrsCoordinate> {
+        private final CrsProjection sourceCrsProjection, targetCrsProjection;
+        private final TransformPlan transformPlan;
+        private final double[] yLatitudes, xLongitudes;
+
+        CoordinateBatchTransformation(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection, final int maxBatchSize) {
+            this.sourceCrsProjection = sourceCrsProjection;
+            this.targetCrsProjection = targetCrsProjection;
+            transformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection);
+            yLatitudes = new double[maxBatchSize];
+            xLongitudes = new double[maxBatchSize];
+        }
+
+        @Override
+        public void transform(final List<CrsCoordinate> coordinates, final Queue<CrsCoordinate> result) {
+            final int numberOfCoordinates = coordinates.size();
+            for (int i = 0; i < numberOfCoordinates; i++) {
+                final CrsCoordinate coordinate = coordinates.get(i);
+                throwExceptionIfNotSourceCrs(coordinate.getCrsProjection(), sourceCrsProjection);
+                yLatitudes[i] = coordinate.getLatitudeY();
+                xLongitudes[i] = coordinate.getLongitudeX();
+            }
+            if (sourceCrsProjection == targetCrsProjection) {
+                result.addAll(coordinates);
+                return;
+            }
+            transformPlan.transform(yLatitudes, xLongitudes, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+            for (int i = 0; i < numberOfCoordinates; i++) {
+                result.add(CrsCoordinate.createCoordinate(targetCrsProjection, yLatitudes[i], xLongitudes[i]));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "coordinates from " + sourceCrsProjection + " to " + targetCrsProjection;
+        }
+    }
+
+    private final static class CoordinateArrayBatchTransformation implements BatchTransformation<CrsCoordinateArray> {
+        private final CrsProjection sourceCrsProjection, targetCrsProjection;
+
+        CoordinateArrayBatchTransformation(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection) {
+            this.sourceCrsProjection = sourceCrsProjection;
+            this.targetCrsProjection = targetCrsProjection;
+        }
+
+        @Override
+        public void transform(final List<CrsCoordinateArray> coordinateArrays, final Queue<CrsCoordinateArray> result) {
+            for (CrsCoordinateArray coordinateArray : coordinateArrays) {
+                throwExceptionIfNotSourceCrs(coordinateArray.getCrsProjection(), sourceCrsProjection);
+            }
+            for (CrsCoordinateArray coordinateArray : coordinateArrays) {
+                result.add(sourceCrsProjection == targetCrsProjection ? coordinateArray : coordinateArray.transform(targetCrsProjection));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "coordinate arrays from " + sourceCrsProjection + " to " + targetCrsProjection;
+        }
+    }
+
+    private static void throwExceptionIfNotSourceCrs(final CrsProjection crsProjection, final CrsProjection sourceCrsProjection) {
+        if (crsProjection != sourceCrsProjection) {
+            throw new IllegalArgumentException("The received CRS " + crsProjection + " is not the source CRS " + sourceCrsProjection);
+        }
+    }
+}
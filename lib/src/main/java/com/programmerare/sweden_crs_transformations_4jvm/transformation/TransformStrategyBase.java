@@ -41,6 +41,20 @@ abstract class TransformStrategyBase {
         );        
     }
 
+    /**
+     * Maps the kernel to the parameter used by 'GaussKreugerFactory' (since the 'mighty_little_geodesy' package
+     * does not depend on this package).
+     * @param transformKernel the kernel used by the GaussKreuger instance(s) of a plan
+     * @return true for the optimized kernel
+     * @throws IllegalArgumentException if the kernel is null
+     */
+    protected boolean useOptimizedKernel(TransformKernel transformKernel) {
+        if(transformKernel == null) {
+            throw new IllegalArgumentException("The TransformKernel must not be null");
+        }
+        return transformKernel == TransformKernel.OPTIMIZED;
+    }
+
     private void assertCoordinateProjection(
         SourceOrTargetProjection sourceOrTargetProjection,
         CrsProjection crsProjection,
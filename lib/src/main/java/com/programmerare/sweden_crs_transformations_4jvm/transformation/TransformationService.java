@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transforms single coordinates requested concurrently by many threads, by coalescing the requests
+ * with the same source and target CRS into batches, which are transformed with one invocation of a 'TransformPlan'.
+ * A batch is transformed when the max batch size has been reached, or when the max delay has passed since the first request
+ * of the batch, by the threads of the service (i.e. not by the requesting threads).
+ * The method 'submit' never blocks, and the method 'transform' only blocks by waiting for the result,
+ * i.e. virtual threads waiting for the result do not block their carrier threads.
+ * Example:
+ * <pre>
+ *     TransformationService service = TransformationService.create(50, TimeUnit.MICROSECONDS, 256);
+ *     CompletableFuture&lt;CrsCoordinate&gt; result = service.submit(coordinate, CrsProjection.SWEREF_99_TM);
+ * </pre>
+ * The futures are completed by the threads of the service, so dependent actions should be quick or use an executor
+ * (e.g. 'thenApplyAsync') to not delay other batches.
+ */
+public final class TransformationService implements Closeable {
+
+    /**
+     * The max delay in microseconds used by the factory method without parameters.
+     */
+    public final static long defaultMaxDelayInMicroseconds = 50;
+
+    /**
+     * The max batch size used by the factory method without parameters.
+     */
+    public final static int defaultMaxBatchSize = 256;
+
+    private final static int numberOfCrsProjections = CrsProjection.values().length;
+
+    private final long maxDelayInNanoseconds;
+    private final int maxBatchSize;
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicReferenceArray<PendingRequests> pendingRequestsForCrsProjectionPairs = new AtomicReferenceArray<PendingRequests>(numberOfCrsProjections * numberOfCrsProjections);
+    private final LongAdder numberOfBatches = new LongAdder();
+    private final LongAdder numberOfTransformedCoordinates = new LongAdder();
+    private volatile boolean closed;
+
+    private TransformationService(final long maxDelayInNanoseconds, final int maxBatchSize, final int numberOfThreads) {
+        this.maxDelayInNanoseconds = maxDelayInNanoseconds;
+        this.maxBatchSize = maxBatchSize;
+        executor = new ScheduledThreadPoolExecutor(numberOfThreads, new ThreadFactory() {
+            private final AtomicInteger numberOfCreatedThreads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "TransformationService-" + numberOfCreatedThreads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // the pending requests are transformed by 'close' instead of waiting for the max delay
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * @return a service with the default max delay and max batch size, and one thread per available processor
+     */
+    public static TransformationService create() {
+        return create(defaultMaxDelayInMicroseconds, TimeUnit.MICROSECONDS, defaultMaxBatchSize);
+    }
+
+    /**
+     * @param maxDelay     the max time a request waits for more requests to the same batch
+     * @param timeUnit     the unit of the max delay
+     * @param maxBatchSize the max number of coordinates in a batch
+     * @return a service with one thread per available processor
+     * @throws IllegalArgumentException if the time unit is null, if the max delay is negative, or if the max batch size is less than one
+     */
+    public static TransformationService create(final long maxDelay, final TimeUnit timeUnit, final int maxBatchSize) {
+        return create(maxDelay, timeUnit, maxBatchSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxDelay        the max time a request waits for more requests to the same batch
+     * @param timeUnit        the unit of the max delay
+     * @param maxBatchSize    the max number of coordinates in a batch
+     * @param numberOfThreads the number of (daemon) threads transforming the batches
+     * @return a service
+     * @throws IllegalArgumentException if the time unit is null, if the max delay is negative, or if the max batch size or the number of threads is less than one
+     */
+    public static TransformationService create(final long maxDelay, final TimeUnit timeUnit, final int maxBatchSize, final int numberOfThreads) {
+        if (timeUnit == null) {
+            throw new IllegalArgumentException("The time unit must not be null");
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("The max delay must not be negative but was: " + maxDelay);
+        }
+        if (maxBatchSize < 1 || numberOfThreads < 1) {
+            throw new IllegalArgumentException("The max batch size and the number of threads must be at least one but were: " + maxBatchSize + " , " + numberOfThreads);
+        }
+        return new TransformationService(timeUnit.toNanos(maxDelay), maxBatchSize, numberOfThreads);
+    }
+
+    /**
+     * Submits a coordinate to be transformed with the next batch of coordinates with the same source CRS and target CRS.
+     * If the coordinate already has the target CRS, the returned future is already completed with the same coordinate.
+     *
+     * @param sourceCoordinate    the coordinate to transform
+     * @param targetCrsProjection the target CRS
+     * @return a future which is completed with the transformed coordinate (or exceptionally if the transformation failed)
+     * @throws IllegalArgumentException if a parameter is null
+     * @throws IllegalStateException if the service has been closed
+     */
+    public CompletableFuture<CrsCoordinate> submit(final CrsCoordinate sourceCoordinate, final CrsProjection targetCrsProjection) {
+        if (sourceCoordinate == null || targetCrsProjection == null) {
+            throw new IllegalArgumentException("The coordinate and the target CrsProjection must not be null");
+        }
+        if (closed) {
+            throw new IllegalStateException("The service has been closed");
+        }
+        final CrsProjection sourceCrsProjection = sourceCoordinate.getCrsProjection();
+        if (sourceCrsProjection == targetCrsProjection) {
+            return CompletableFuture.completedFuture(sourceCoordinate);
+        }
+        final PendingRequests pendingRequests = getPendingRequests(sourceCrsProjection, targetCrsProjection);
+        final Request request = new Request(sourceCoordinate.getLatitudeY(), sourceCoordinate.getLongitudeX());
+        pendingRequests.requests.offer(request);
+        final int numberOfPendingRequests = pendingRequests.numberOfPendingRequests.incrementAndGet();
+        if (numberOfPendingRequests == maxBatchSize) {
+            schedule(pendingRequests, 0);
+        }
+        else if (numberOfPendingRequests == 1) {
+            schedule(pendingRequests, maxDelayInNanoseconds);
+        }
+        return request.future;
+    }
+
+    /**
+     * Transforms a coordinate with the next batch of coordinates with the same source CRS and target CRS,
+     * i.e. waits for the result of the method 'submit'.
+     *
+     * @param sourceCoordinate    the coordinate to transform
+     * @param targetCrsProjection the target CRS
+     * @return the transformed coordinate
+     * @throws IllegalArgumentException if a parameter is null
+     * @throws IllegalStateException if the service has been closed
+     * @throws java.util.concurrent.CompletionException if the transformation failed
+     */
+    public CrsCoordinate transform(final CrsCoordinate sourceCoordinate, final CrsProjection targetCrsProjection) {
+        return submit(sourceCoordinate, targetCrsProjection).join();
+    }
+
+    private PendingRequests getPendingRequests(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection) {
+        final int crsProjectionPair = sourceCrsProjection.ordinal() * numberOfCrsProjections + targetCrsProjection.ordinal();
+        final PendingRequests pendingRequests = pendingRequestsForCrsProjectionPairs.get(crsProjectionPair);
+        if (pendingRequests != null) {
+            return pendingRequests;
+        }
+        pendingRequestsForCrsProjectionPairs.compareAndSet(crsProjectionPair, null, new PendingRequests(sourceCrsProjection, targetCrsProjection));
+        return pendingRequestsForCrsProjectionPairs.get(crsProjectionPair);
+    }
+
+    private void schedule(final PendingRequests pendingRequests, final long delayInNanoseconds) {
+        try {
+            if (delayInNanoseconds == 0) {
+                executor.execute(pendingRequests);
+            }
+            else {
+                executor.schedule(pendingRequests, delayInNanoseconds, TimeUnit.NANOSECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // the service has been closed after the request was added
+            pendingRequests.run();
+        }
+    }
+
+    /**
+     * @return the number of transformed batches
+     */
+    public long getNumberOfBatches() {
+        return numberOfBatches.sum();
+    }
+
+    /**
+     * @return the number of coordinates transformed in batches
+     */
+    public long getNumberOfTransformedCoordinates() {
+        return numberOfTransformedCoordinates.sum();
+    }
+
+    /**
+     * Closes the service. The already submitted but not yet transformed coordinates are transformed by the invoking thread,
+     * and the methods 'submit' and 'transform' throw an IllegalStateException after this.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        // a request added concurrently with this is transformed by its own thread, since the executor rejects it
+        for (int i = 0; i < pendingRequestsForCrsProjectionPairs.length(); i++) {
+            final PendingRequests pendingRequests = pendingRequestsForCrsProjectionPairs.get(i);
+            if (pendingRequests != null && pendingRequests.numberOfPendingRequests.get() > 0) {
+                pendingRequests.run();
+            }
+        }
+    }
+
+    /**
+     * @return true if the method 'close' has been invoked
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String toString() {
+        return "TransformationService [ batches: " + getNumberOfBatches() + " , coordinates: " + getNumberOfTransformedCoordinates() + " ]";
+    }
+
+    private final static class Request {
+        private final double yLatitude, xLongitude;
+        private final CompletableFuture<CrsCoordinate> future = new CompletableFuture<CrsCoordinate>();
+
+        Request(final double yLatitude, final double xLongitude) {
+            this.yLatitude = yLatitude;
+            this.xLongitude = xLongitude;
+        }
+    }
+
+    /**
+     * The requests for one pair of source CRS and target CRS. When executed, one batch is transformed.
+     * The number of pending requests is incremented after a request is added to the queue, and decremented after
+     * requests are removed, which means that a batch is always scheduled when the number is positive after a batch:
+     * by the request incrementing the number to one, or by the batch leaving a positive number.
+     * Several batches for the same pair may be transformed concurrently.
+     */
+    private final class PendingRequests implements Runnable {
+        private final CrsProjection targetCrsProjection;
+        private final TransformPlan transformPlan;
+        private final ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<Request>();
+        private final AtomicInteger numberOfPendingRequests = new AtomicInteger();
+
+        PendingRequests(final CrsProjection sourceCrsProjection, final CrsProjection targetCrsProjection) {
+            this.targetCrsProjection = targetCrsProjection;
+            transformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection);
+        }
+
+        @Override
+        public void run() {
+            final Request[] batch = new Request[maxBatchSize];
+            final double[] yLatitudes = new double[maxBatchSize];
+            final double[] xLongitudes = new double[maxBatchSize];
+            int batchSize = 0;
+            Request request;
+            while (batchSize < maxBatchSize && (request = requests.poll()) != null) {
+                batch[batchSize] = request;
+                yLatitudes[batchSize] = request.yLatitude;
+                xLongitudes[batchSize] = request.xLongitude;
+                batchSize++;
+            }
+            final int numberOfRemainingRequests = numberOfPendingRequests.addAndGet(-batchSize);
+            if (numberOfRemainingRequests > 0) {
+                schedule(this, numberOfRemainingRequests >= maxBatchSize ? 0 : maxDelayInNanoseconds);
+            }
+            if (batchSize == 0) {
+                return;
+            }
+            try {
+                transformPlan.transform(yLatitudes, xLongitudes, yLatitudes, xLongitudes, 0, batchSize);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < batchSize; i++) {
+                    batch[i].future.completeExceptionally(e);
+                }
+                return;
+            }
+            numberOfBatches.increment();
+            numberOfTransformedCoordinates.add(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                batch[i].future.complete(CrsCoordinate.createCoordinate(targetCrsProjection, yLatitudes[i], xLongitudes[i]));
+            }
+        }
+    }
+}
@@ -11,7 +11,7 @@
  */
 package com.programmerare.sweden_crs_transformations_4jvm
 
-import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.{PrecisionPolicy, Transformer}
 
 /**
  * Coordinate, defined by the three parameters for the factory methods. 
@@ -105,6 +105,32 @@ class CrsCoordinate private(
     this.transform(targetCrsProjection)
   }
 
+  /**
+   * Transforms the coordinate to another coordinate reference system,
+   * with the resulting values rounded according to a precision policy (instead of rounded to millimeters
+   * as the other methods are doing when the target CRS is SWEREF99 or RT90).
+   *
+   * @param targetCrsProjection the coordinate reference system that you want to transform to
+   * @param precisionPolicy     the rounding of the transformed values (only used when the target CRS is SWEREF99 or RT90)
+   * @return a new instance representing the transformed coordinate
+   */
+  def transform(targetCrsProjection: CrsProjection, precisionPolicy: PrecisionPolicy): CrsCoordinate = {
+    Transformer.transform(this, targetCrsProjection, precisionPolicy)
+  }
+
+  /**
+   * Transforms the coordinate to another coordinate reference system, without creating any objects,
+   * i.e. the result is written into a mutable coordinate provided by the caller.
+   *
+   * @param targetCrsProjection the coordinate reference system that you want to transform to
+   * @param result              the instance into which the transformed coordinate is written
+   * @return the instance provided as the parameter 'result'
+   */
+  def transform(targetCrsProjection: CrsProjection, result: MutableCoordinate): MutableCoordinate = {
+    Transformer.transform(this, targetCrsProjection, result)
+    result
+  }
+
   // ----------------------------------------------------------------------------------------------------------------------
   // These three methods below (i.e. 'canEqual' , 'equals' and 'hashCode') were generated with IntelliJ IDEA 2020.3
   def canEqual(other: Any): Boolean = other.isInstanceOf[CrsCoordinate]
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm
+
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.{PrecisionPolicy, TransformKernel, Transformer}
+
+import java.util
+
+/**
+ * Collection of coordinates with the same CRS, i.e. the same kind of coordinates as a list of 'CrsCoordinate' instances,
+ * but with the values stored in two primitive arrays (one for the Y values and one for the X values)
+ * and with only one 'CrsProjection' for the whole collection.
+ */
+object CrsCoordinateArray {
+  /**
+   * Factory method for creating an instance with all values being zero, i.e. the values should then be set with the method 'set'.
+   *
+   * @param crsProjection       represents the coordinate reference system of all the coordinates
+   * @param numberOfCoordinates the number of coordinates
+   * @return an instance of CrsCoordinateArray
+   * @throws IllegalArgumentException if the CrsProjection is null or the number of coordinates is negative
+   */
+  def createCoordinateArray(
+    crsProjection: CrsProjection,
+    numberOfCoordinates: Int
+  ): CrsCoordinateArray = {
+    assertCrsProjection(crsProjection)
+    if (numberOfCoordinates < 0) {
+      throw new IllegalArgumentException(s"The number of coordinates must not be negative but was $numberOfCoordinates")
+    }
+    new CrsCoordinateArray(crsProjection, new Array[Double](numberOfCoordinates), new Array[Double](numberOfCoordinates))
+  }
+
+  /**
+   * Factory method for creating an instance with the values copied from two arrays.
+   *
+   * @param crsProjection represents the coordinate reference system of all the coordinates
+   * @param yLatitudes    the coordinate values representing the latitude or Y or Northing
+   * @param xLongitudes   the coordinate values representing the longitude or X or Easting
+   * @return an instance of CrsCoordinateArray
+   * @throws IllegalArgumentException if a parameter is null or the arrays have different lengths
+   */
+  def createCoordinateArray(
+    crsProjection: CrsProjection,
+    yLatitudes: Array[Double],
+    xLongitudes: Array[Double]
+  ): CrsCoordinateArray = {
+    assertCrsProjection(crsProjection)
+    if (yLatitudes == null || xLongitudes == null) {
+      throw new IllegalArgumentException("The arrays must not be null")
+    }
+    if (yLatitudes.length != xLongitudes.length) {
+      throw new IllegalArgumentException(s"The arrays must have the same length but the lengths were ${yLatitudes.length} and ${xLongitudes.length}")
+    }
+    new CrsCoordinateArray(crsProjection, yLatitudes.clone, xLongitudes.clone)
+  }
+
+  /**
+   * Factory method for creating an instance with the values copied from coordinate instances.
+   *
+   * @param crsProjection represents the coordinate reference system of all the coordinates
+   * @param coordinates   the coordinates, which must all have the CRS of the first parameter
+   * @return an instance of CrsCoordinateArray
+   * @throws IllegalArgumentException if a parameter is null or some coordinate is null or has another CRS
+   */
+  def createCoordinateArray(
+    crsProjection: CrsProjection,
+    coordinates: util.List[CrsCoordinate]
+  ): CrsCoordinateArray = {
+    assertCrsProjection(crsProjection)
+    if (coordinates == null) {
+      throw new IllegalArgumentException("The list of coordinates must not be null")
+    }
+    val coordinateArray = createCoordinateArray(crsProjection, coordinates.size)
+    var index = 0
+    val iterator = coordinates.iterator
+    while (iterator.hasNext) {
+      val coordinate = iterator.next()
+      if (coordinate == null || (coordinate.getCrsProjection ne crsProjection)) {
+        throw new IllegalArgumentException(s"The coordinate $coordinate with index $index does not have the CRS $crsProjection")
+      }
+      coordinateArray.yLatitudes(index) = coordinate.getLatitudeY
+      coordinateArray.xLongitudes(index) = coordinate.getLongitudeX
+      index += 1
+    }
+    coordinateArray
+  }
+
+  private def assertCrsProjection(crsProjection: CrsProjection): Unit = {
+    if (crsProjection == null) {
+      throw new IllegalArgumentException("The CrsProjection must not be null")
+    }
+  }
+}
+
+/**
+ * Many coordinates with the same CRS, stored as a "struct of arrays", i.e. with one primitive array for the Y values
+ * and another for the X values, instead of one object per coordinate.
+ * Each coordinate uses 16 bytes of memory, i.e. much less than a 'CrsCoordinate' instance
+ * (with an object header, a reference to the CrsProjection and two doubles) referenced from a list.
+ * The values can be changed with the method 'set', but the size and the CRS are fixed.
+ * Instances are not thread safe if some thread is changing the values.
+ * Class with private constructor. Client code must instead use the public factory methods.
+ *
+ * @see CrsCoordinate
+ */
+final class CrsCoordinateArray private(
+  private val crsProjection: CrsProjection,
+  private[sweden_crs_transformations_4jvm] val yLatitudes: Array[Double],
+  private[sweden_crs_transformations_4jvm] val xLongitudes: Array[Double]
+)
+{
+  /**
+   * @return the coordinate reference system of all the coordinates
+   */
+  def getCrsProjection(): CrsProjection = {
+    crsProjection
+  }
+
+  /**
+   * @return the number of coordinates
+   */
+  def size(): Int = {
+    yLatitudes.length
+  }
+
+  /**
+   * @param index the index of the coordinate
+   * @return the coordinate value representing the latitude or Y or Northing
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid
+   */
+  def getLatitudeY(index: Int): Double = {
+    yLatitudes(index)
+  }
+
+  /**
+   * @param index the index of the coordinate
+   * @return the coordinate value representing the longitude or X or Easting
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid
+   */
+  def getLongitudeX(index: Int): Double = {
+    xLongitudes(index)
+  }
+
+  /**
+   * @param index      the index of the coordinate
+   * @param yLatitude  the coordinate value representing the latitude or Y or Northing
+   * @param xLongitude the coordinate value representing the longitude or X or Easting
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid
+   */
+  def set(index: Int, yLatitude: Double, xLongitude: Double): Unit = {
+    yLatitudes(index) = yLatitude
+    xLongitudes(index) = xLongitude
+  }
+
+  /**
+   * @param index the index of the coordinate
+   * @return a new instance with the values of the coordinate
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid
+   */
+  def get(index: Int): CrsCoordinate = {
+    CrsCoordinate.createCoordinate(crsProjection, yLatitudes(index), xLongitudes(index))
+  }
+
+  /**
+   * Copies the values of a coordinate into a mutable coordinate, i.e. without creating any objects.
+   *
+   * @param index  the index of the coordinate
+   * @param result the instance into which the coordinate is copied
+   * @return the instance provided as the parameter 'result'
+   * @throws ArrayIndexOutOfBoundsException if the index is not valid
+   */
+  def get(index: Int, result: MutableCoordinate): MutableCoordinate = {
+    result.set(crsProjection, yLatitudes(index), xLongitudes(index))
+    result
+  }
+
+  /**
+   * Iterates the coordinates in index order, without boxing the values and without creating any coordinate objects.
+   *
+   * @param consumer receives the index and the values of each coordinate
+   */
+  def forEach(consumer: CoordinateConsumer): Unit = {
+    var index = 0
+    while (index < yLatitudes.length) {
+      consumer.accept(index, yLatitudes(index), xLongitudes(index))
+      index += 1
+    }
+  }
+
+  /**
+   * Copies the values into arrays provided by the caller.
+   *
+   * @param targetYLatitudes  the array into which the latitude/Y/Northing values are copied
+   * @param targetXLongitudes the array into which the longitude/X/Easting values are copied
+   * @param targetOffset      the index in the two arrays for the first coordinate
+   * @throws IndexOutOfBoundsException if the arrays are too small
+   */
+  def copyTo(targetYLatitudes: Array[Double], targetXLongitudes: Array[Double], targetOffset: Int): Unit = {
+    System.arraycopy(yLatitudes, 0, targetYLatitudes, targetOffset, yLatitudes.length)
+    System.arraycopy(xLongitudes, 0, targetXLongitudes, targetOffset, xLongitudes.length)
+  }
+
+  /**
+   * @return a new list with one new 'CrsCoordinate' instance for each coordinate
+   */
+  def toList(): util.List[CrsCoordinate] = {
+    val coordinates = new util.ArrayList[CrsCoordinate](yLatitudes.length)
+    var index = 0
+    while (index < yLatitudes.length) {
+      coordinates.add(get(index))
+      index += 1
+    }
+    coordinates
+  }
+
+  /**
+   * Transforms all the coordinates to another coordinate reference system.
+   *
+   * @param targetCrsProjection the coordinate reference system that you want to transform to
+   * @return a new instance, with the same size, representing the transformed coordinates
+   *         (also when the target CRS is the same as the CRS of this instance, i.e. then the values are copied)
+   */
+  def transform(targetCrsProjection: CrsProjection): CrsCoordinateArray = {
+    transform(targetCrsProjection, PrecisionPolicy.roundToMillimeter())
+  }
+
+  /**
+   * Transforms all the coordinates to another coordinate reference system,
+   * with the resulting values rounded according to a precision policy (instead of rounded to millimeters
+   * as the other method is doing when the target CRS is SWEREF99 or RT90).
+   *
+   * @param targetCrsProjection the coordinate reference system that you want to transform to
+   * @param precisionPolicy     the rounding of the transformed values (only used when the target CRS is SWEREF99 or RT90)
+   * @return a new instance, with the same size, representing the transformed coordinates
+   */
+  def transform(targetCrsProjection: CrsProjection, precisionPolicy: PrecisionPolicy): CrsCoordinateArray = {
+    val result = CrsCoordinateArray.createCoordinateArray(targetCrsProjection, yLatitudes.length)
+    Transformer.plan(crsProjection, targetCrsProjection, TransformKernel.ORIGINAL, precisionPolicy).transform(
+      yLatitudes, xLongitudes,
+      result.yLatitudes, result.xLongitudes,
+      0, yLatitudes.length
+    )
+    result
+  }
+
+  override def equals(other: Any): Boolean = other match {
+    case that: CrsCoordinateArray =>
+      crsProjection == that.crsProjection &&
+        util.Arrays.equals(yLatitudes, that.yLatitudes) &&
+        util.Arrays.equals(xLongitudes, that.xLongitudes)
+    case _ => false
+  }
+
+  override def hashCode(): Int = {
+    (31 * crsProjection.hashCode + util.Arrays.hashCode(yLatitudes)) * 31 + util.Arrays.hashCode(xLongitudes)
+  }
+
+  /**
+   * @return a string such as "CrsCoordinateArray [ size: 1000 , CRS: SWEREF_99_TM(EPSG:3006) ]"
+   */
+  override def toString: String = {
+    val crs: String = getCrsProjection.toString.toUpperCase
+    s"CrsCoordinateArray [ size: ${size()} , CRS: $crs ]"
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm
+
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer
+
+/**
+ * Mutable coordinate, i.e. the same three properties as in 'CrsCoordinate' but with setter methods.
+ */
+object MutableCoordinate {
+  /**
+   * Factory method for creating an instance.
+   *
+   * @param crsProjection represents the coordinate reference system that defines the location together with the other two parameters
+   * @param yLatitude     the coordinate position value representing the latitude or Y or Northing
+   * @param xLongitude    the coordinate position value representing the longitude or X or Easting
+   * @return an instance of MutableCoordinate
+   */
+  def createCoordinate(
+    crsProjection: CrsProjection,
+    yLatitude: Double,
+    xLongitude: Double
+  ): MutableCoordinate = {
+    val coordinate = new MutableCoordinate
+    coordinate.set(crsProjection, yLatitude, xLongitude)
+    coordinate
+  }
+
+  /**
+   * Factory method for creating an instance.
+   *
+   * @param coordinate the coordinate with the values that should be copied into the created instance
+   * @return an instance of MutableCoordinate
+   */
+  def createCoordinate(coordinate: CrsCoordinate): MutableCoordinate = {
+    createCoordinate(coordinate.getCrsProjection, coordinate.getLatitudeY, coordinate.getLongitudeX)
+  }
+}
+
+/**
+ * A coordinate which can be used as a reusable holder of the result of a transformation,
+ * e.g. with the method 'Transformer.transform(CrsCoordinate, CrsProjection, MutableCoordinate)',
+ * which means that no objects are created for the transformation.
+ * Instances are not thread safe, but one instance per thread can be reused, e.g. with a ThreadLocal.
+ * Class with private constructor. Client code must instead use the public factory methods.
+ *
+ * @see CrsCoordinate
+ */
+final class MutableCoordinate private()
+{
+  private var crsProjection: CrsProjection = _
+
+  // the latitude/Y/Northing value with index 0 and the longitude/X/Easting value with index 1,
+  // i.e. an array into which the transformation implementations can write the results directly
+  private[sweden_crs_transformations_4jvm] val y_x = new Array[Double](2)
+
+  /**
+   * @return the coordinate reference system that defines the location together with the other two properties (LongitudeX and LatitudeY).
+   */
+  def getCrsProjection(): CrsProjection = {
+    crsProjection
+  }
+
+  /**
+   * @return the coordinate value representing the longitude or X or Easting.
+   */
+  def getLongitudeX(): Double = {
+    y_x(1)
+  }
+
+  /**
+   * @return the coordinate value representing the latitude or Y or Northing.
+   */
+  def getLatitudeY(): Double = {
+    y_x(0)
+  }
+
+  /**
+   * @param crsProjection the coordinate reference system that defines the location together with the other two properties
+   * @throws IllegalArgumentException if the parameter is null
+   */
+  def setCrsProjection(crsProjection: CrsProjection): Unit = {
+    if (crsProjection == null) {
+      throw new IllegalArgumentException("The CrsProjection must not be null")
+    }
+    this.crsProjection = crsProjection
+  }
+
+  /**
+   * @param xLongitude the coordinate value representing the longitude or X or Easting
+   */
+  def setLongitudeX(xLongitude: Double): Unit = {
+    y_x(1) = xLongitude
+  }
+
+  /**
+   * @param yLatitude the coordinate value representing the latitude or Y or Northing
+   */
+  def setLatitudeY(yLatitude: Double): Unit = {
+    y_x(0) = yLatitude
+  }
+
+  /**
+   * Sets all three properties.
+   *
+   * @param crsProjection the coordinate reference system that defines the location together with the other two parameters
+   * @param yLatitude     the coordinate value representing the latitude or Y or Northing
+   * @param xLongitude    the coordinate value representing the longitude or X or Easting
+   * @throws IllegalArgumentException if the CrsProjection is null
+   */
+  def set(
+    crsProjection: CrsProjection,
+    yLatitude: Double,
+    xLongitude: Double
+  ): Unit = {
+    setCrsProjection(crsProjection)
+    y_x(0) = yLatitude
+    y_x(1) = xLongitude
+  }
+
+  /**
+   * Transforms the coordinate to another coordinate reference system, without creating any objects.
+   * The result can be written into this instance, i.e. the parameter 'result' can be 'this'.
+   *
+   * @param targetCrsProjection the coordinate reference system that you want to transform to
+   * @param result              the instance into which the transformed coordinate is written
+   * @return the instance provided as the parameter 'result'
+   */
+  def transform(targetCrsProjection: CrsProjection, result: MutableCoordinate): MutableCoordinate = {
+    Transformer.transform(this, targetCrsProjection, result)
+    result
+  }
+
+  /**
+   * @return a new immutable instance with the same values as this instance
+   */
+  def toCrsCoordinate(): CrsCoordinate = {
+    CrsCoordinate.createCoordinate(crsProjection, getLatitudeY, getLongitudeX)
+  }
+
+  /**
+   * @return Two examples of the string that can be returned:
+   *         "MutableCoordinate [ Y: 6579457.649 , X: 153369.673 , CRS: SWEREF_99_18_00(EPSG:3011) ]"
+   *         "MutableCoordinate [ Latitude: 59.330231 , Longitude: 18.059196 , CRS: WGS84(EPSG:4326) ]"
+   */
+  override def toString: String = {
+    val crs: String = getCrsProjection.toString.toUpperCase
+    val isWgs84: Boolean = getCrsProjection.isWgs84
+    val yOrLatitude: String = if (isWgs84) {"Latitude"} else {"Y"}
+    val xOrLongitude: String = if (isWgs84) {"Longitude" } else { "X"}
+    s"MutableCoordinate [ $yOrLatitude: $getLatitudeY , $xOrLongitude: $getLongitudeX , CRS: $crs ]"
+  }
+}
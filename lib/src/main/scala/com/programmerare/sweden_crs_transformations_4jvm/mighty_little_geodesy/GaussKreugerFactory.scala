@@ -23,20 +23,36 @@ object GaussKreugerFactory {
 }
 
 class GaussKreugerFactory private() {
-  
-  final private lazy val mapWithAllGaussKreugers: Map[CrsProjection, GaussKreuger] = {
-    val map = scala.collection.mutable.Map[CrsProjection, GaussKreuger]()
+
+  private val numberOfCrsProjections = CrsProjection.values.length
+
+  // indexed by the ordinal of the CrsProjection enum, plus the number of CrsProjection values for the optimized kernel,
+  // i.e. an array instead of a map to avoid hashing (and the synchronization of a lazy val) for each lookup
+  final private val arrayWithAllGaussKreugers: Array[GaussKreuger] = {
     val crsProjections: Array[CrsProjection] = CrsProjection.values
-    for (crsProjection <- crsProjections) {
+    val array = new Array[GaussKreuger](2 * crsProjections.length)
+    for (useOptimizedKernel <- Array(false, true); crsProjection <- crsProjections) {
       val gaussKreugerParameterObject = new GaussKreugerParameterObject(crsProjection)
-      val gaussKreuger = GaussKreuger.create(gaussKreugerParameterObject)
-      map(crsProjection) = gaussKreuger
+      array(getIndex(crsProjection, useOptimizedKernel)) = GaussKreuger.create(gaussKreugerParameterObject, useOptimizedKernel)
     }
-    map.toMap
+    array
+  }
+
+  private def getIndex(crsProjection: CrsProjection, useOptimizedKernel: Boolean): Int = {
+    (if (useOptimizedKernel) numberOfCrsProjections else 0) + crsProjection.ordinal
   }
 
   def getGaussKreuger(crsProjection: CrsProjection): GaussKreuger = {
-    if (mapWithAllGaussKreugers.contains(crsProjection)) return mapWithAllGaussKreugers(crsProjection)
+    getGaussKreuger(crsProjection, false)
+  }
+
+  /**
+   * @param crsProjection      the CRS
+   * @param useOptimizedKernel true for the instance with the optimized kernel, see 'GaussKreuger.create'
+   * @return the GaussKreuger instance for the CRS and the kernel
+   */
+  def getGaussKreuger(crsProjection: CrsProjection, useOptimizedKernel: Boolean): GaussKreuger = {
+    if (crsProjection != null) return arrayWithAllGaussKreugers(getIndex(crsProjection, useOptimizedKernel))
     throw new IllegalArgumentException("Could not find GaussKreuger for crsProjection " + crsProjection)
   }
 }
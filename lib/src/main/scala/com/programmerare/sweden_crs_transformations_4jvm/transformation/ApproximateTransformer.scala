@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+*/
+package com.programmerare.sweden_crs_transformations_4jvm.transformation
+
+import com.programmerare.sweden_crs_transformations_4jvm.{CrsCoordinate, CrsProjection}
+
+import java.io.{IOException, UncheckedIOException}
+import java.nio.file.{Files, Path}
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+object ApproximateTransformer {
+
+  /**
+   * The maximum difference (in meters) between an approximately and an exactly transformed SWEREF99 or RT90 coordinate,
+   * for coordinates within the bounding box of Sweden (including the difference caused by the rounding to millimeters).
+   */
+  val maxErrorInMeters = 0.01
+
+  /**
+   * The maximum difference (in degrees) between an approximately and an exactly transformed WGS84 coordinate,
+   * for coordinates within the bounding box of Sweden, which is less than a centimeter.
+   */
+  val maxErrorInDegrees = 0.00000009
+
+  // The bounding box of Sweden in WGS84, i.e. the area with coordinates transformed with interpolation.
+  // (slightly larger than the area of use of SWEREF99 TM, i.e. latitudes 54.96 - 69.07 and longitudes 10.03 - 24.17)
+  private[transformation] val minLatitude = 54.9
+  private[transformation] val maxLatitude = 69.2
+  private[transformation] val minLongitude = 10.0
+  private[transformation] val maxLongitude = 24.3
+
+  // The distances between the nodes of the grids, for WGS84 (degrees) and for SWEREF99/RT90 (meters) as source CRS.
+  private val stepInDegrees = 0.1
+  private val stepInMeters = 5000.0
+
+  private val _approximateTransformer = new ApproximateTransformer(null)
+
+  /**
+   * @return an instance keeping the grids in memory only
+   */
+  def getInstance(): ApproximateTransformer = _approximateTransformer
+
+  /**
+   * Factory method for creating an instance which reads the grids from files in a directory,
+   * and creates and writes the files when they do not exist (or were written by another version of this library,
+   * or have been corrupted, which is detected with a checksum).
+   * The files can e.g. be created once and then be included in a container image, which means that
+   * a short-lived process only has to read (memory map) the files instead of creating the grids.
+   *
+   * @param cacheDirectory an existing directory for the grid files
+   * @return an instance of ApproximateTransformer
+   * @throws IllegalArgumentException if the directory is null or does not exist
+   */
+  def create(cacheDirectory: Path): ApproximateTransformer = {
+    if (cacheDirectory == null || !Files.isDirectory(cacheDirectory)) {
+      throw new IllegalArgumentException(s"The cache directory must be an existing directory: $cacheDirectory")
+    }
+    new ApproximateTransformer(cacheDirectory)
+  }
+
+  /**
+   * @return the name of the file (in the cache directory) with the grid for a source and target CRS,
+   *         e.g. "interpolation_grid_4326_3006.bin"
+   */
+  private[transformation] def getFileName(sourceCrsProjection: CrsProjection, targetCrsProjection: CrsProjection): String = {
+    s"interpolation_grid_${sourceCrsProjection.getEpsgNumber}_${targetCrsProjection.getEpsgNumber}.bin"
+  }
+}
+
+/**
+ * Transforms coordinates approximately, but faster than 'Transformer', by interpolation in precomputed grids.
+ * For each combination of source and target CRS, a regular grid covering the bounding box of Sweden
+ * (in the source CRS) is created with the exactly transformed values at the nodes, and the coordinates are then
+ * transformed with bicubic interpolation between the 4 x 4 nodes surrounding each coordinate.
+ * The differences from the exact transformations are less than 'maxErrorInMeters' for SWEREF99 and RT90
+ * and less than 'maxErrorInDegrees' for WGS84, which is verified by the tests.
+ * Coordinates outside of the grid are transformed exactly (but then of course not faster).
+ *
+ * The grids are created lazily, i.e. when a plan for a combination of source and target CRS is requested the first time
+ * (which takes some milliseconds), and they can also be cached in files to avoid creating them again in other processes.
+ * Each instance keeps its own grids in memory (about 1 MB per combination of source and target CRS), i.e. instances should be reused.
+ * Instances are thread safe.
+ *
+ * @see Transformer
+ * @see TransformPlan
+ */
+final class ApproximateTransformer private(
+  private val cacheDirectory: Path
+)
+{
+  private val numberOfCrsProjections = CrsProjection.values.length
+
+  // lazily created plans, indexed by the ordinals of the source and target CRS
+  private val approximateTransformPlans = new AtomicReferenceArray[TransformPlan](numberOfCrsProjections * numberOfCrsProjections)
+
+  /**
+   * Transforms a coordinate approximately from one CRS (Coordinate Reference System) to another CRS.
+   *
+   * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
+   * @param targetCrsProjection the target CRS
+   * @return a new coordinate instance representing the source coordinate in the target CRS
+   * @throws UncheckedIOException if the grid needed to be created but could not be written to the cache directory
+   */
+  def transform(
+    sourceCoordinate: CrsCoordinate,
+    targetCrsProjection: CrsProjection
+  ): CrsCoordinate = {
+    plan(sourceCoordinate.getCrsProjection, targetCrsProjection).transform(sourceCoordinate)
+  }
+
+  /**
+   * Returns a plan transforming coordinates approximately, with interpolation in a grid which is created
+   * (or read from the cache directory) the first time the plan for the same source and target CRS is requested.
+   * The plans have the same methods as the plans returned by 'Transformer.plan', and the values of
+   * SWEREF99 and RT90 coordinates are rounded to millimeters in the same way.
+   * When the source and target CRS are the same, the returned plan is the same as the plan returned by 'Transformer.plan'.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @return a plan for transforming coordinates approximately from the source CRS to the target CRS
+   * @throws UncheckedIOException if the grid needed to be created but could not be written to the cache directory
+   */
+  def plan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection
+  ): TransformPlan = {
+    val index = sourceCrsProjection.ordinal * numberOfCrsProjections + targetCrsProjection.ordinal
+    val transformPlan = approximateTransformPlans.get(index)
+    if (transformPlan != null) {
+      return transformPlan
+    }
+    // Another thread may create the same plan at the same time, but then only one of them is kept.
+    approximateTransformPlans.compareAndSet(index, null, createTransformPlan(sourceCrsProjection, targetCrsProjection))
+    approximateTransformPlans.get(index)
+  }
+
+  /**
+   * Creates (or reads from the cache directory) the plans for all combinations of source and target CRS,
+   * e.g. to write all the grid files into the cache directory in advance.
+   *
+   * @throws UncheckedIOException if a grid could not be written to the cache directory
+   */
+  def createAllTransformPlans(): Unit = {
+    for (sourceCrsProjection <- CrsProjection.values; targetCrsProjection <- CrsProjection.values) {
+      plan(sourceCrsProjection, targetCrsProjection)
+    }
+  }
+
+  /**
+   * @return the directory with the cached grid files, or null if the grids are not cached in files
+   */
+  def getCacheDirectory(): Path = cacheDirectory
+
+  private def createTransformPlan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection
+  ): TransformPlan = {
+    val exactTransformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection)
+    if (sourceCrsProjection == targetCrsProjection) {
+      return exactTransformPlan
+    }
+    new ApproximateTransformPlan(
+      getInterpolationGrid(sourceCrsProjection, targetCrsProjection),
+      exactTransformPlan,
+      if (targetCrsProjection.isWgs84) PrecisionPolicy.noRounding() else PrecisionPolicy.roundToMillimeter()
+    )
+  }
+
+  private def getInterpolationGrid(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection
+  ): InterpolationGrid = {
+    val (minY, maxY, minX, maxX, step) = if (sourceCrsProjection.isWgs84) {
+      (ApproximateTransformer.minLatitude, ApproximateTransformer.maxLatitude, ApproximateTransformer.minLongitude, ApproximateTransformer.maxLongitude, ApproximateTransformer.stepInDegrees)
+    }
+    else {
+      val (minNorthing, maxNorthing, minEasting, maxEasting) = getBoundingBox(sourceCrsProjection)
+      (minNorthing, maxNorthing, minEasting, maxEasting, ApproximateTransformer.stepInMeters)
+    }
+    // The nodes are aligned with multiples of the step, and there is one extra row and column at each side,
+    // since the interpolation uses the two nodes before and the two nodes after a coordinate.
+    val firstY = (Math.floor(minY / step) - 1) * step
+    val firstX = (Math.floor(minX / step) - 1) * step
+    val numberOfRows = (Math.ceil(maxY / step) + 1).toInt - (Math.floor(minY / step) - 1).toInt + 1
+    val numberOfColumns = (Math.ceil(maxX / step) + 1).toInt - (Math.floor(minX / step) - 1).toInt + 1
+    val exactTransformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection, TransformKernel.ORIGINAL, PrecisionPolicy.noRounding())
+    if (cacheDirectory == null) {
+      return InterpolationGrid.create(exactTransformPlan, firstY, firstX, step, step, numberOfRows, numberOfColumns)
+    }
+    val path = cacheDirectory.resolve(ApproximateTransformer.getFileName(sourceCrsProjection, targetCrsProjection))
+    try {
+      val cachedInterpolationGrid = InterpolationGrid.read(path, sourceCrsProjection, targetCrsProjection, firstY, firstX, step, step, numberOfRows, numberOfColumns)
+      if (cachedInterpolationGrid != null) {
+        return cachedInterpolationGrid
+      }
+      val interpolationGrid = InterpolationGrid.create(exactTransformPlan, firstY, firstX, step, step, numberOfRows, numberOfColumns)
+      interpolationGrid.write(path)
+      interpolationGrid
+    }
+    catch {
+      case e: IOException => throw new UncheckedIOException(s"The interpolation grid could not be read or written: $path", e)
+    }
+  }
+
+  /**
+   * @return the bounding box (minY, maxY, minX, maxX) in a SWEREF99 or RT90 projection of the bounding box of Sweden in WGS84,
+   *         determined by transforming points along the edges of the WGS84 bounding box
+   */
+  private def getBoundingBox(crsProjection: CrsProjection): (Double, Double, Double, Double) = {
+    val transformPlan = Transformer.plan(CrsProjection.WGS84, crsProjection, TransformKernel.ORIGINAL, PrecisionPolicy.noRounding())
+    val y_x = new Array[Double](2)
+    var minY, minX = Double.MaxValue
+    var maxY, maxX = -Double.MaxValue
+    val numberOfPointsAlongEachEdge = 100
+    for (i <- 0 to numberOfPointsAlongEachEdge) {
+      val latitude = ApproximateTransformer.minLatitude + i * (ApproximateTransformer.maxLatitude - ApproximateTransformer.minLatitude) / numberOfPointsAlongEachEdge
+      val longitude = ApproximateTransformer.minLongitude + i * (ApproximateTransformer.maxLongitude - ApproximateTransformer.minLongitude) / numberOfPointsAlongEachEdge
+      for ((yLatitude, xLongitude) <- Seq(
+        (latitude, ApproximateTransformer.minLongitude), (latitude, ApproximateTransformer.maxLongitude),
+        (ApproximateTransformer.minLatitude, longitude), (ApproximateTransformer.maxLatitude, longitude)
+      )) {
+        transformPlan.transform(yLatitude, xLongitude, y_x, 0, y_x, 1)
+        minY = Math.min(minY, y_x(0))
+        maxY = Math.max(maxY, y_x(0))
+        minX = Math.min(minX, y_x(1))
+        maxX = Math.max(maxX, y_x(1))
+      }
+    }
+    (minY, maxY, minX, maxX)
+  }
+
+  /**
+   * @return a string such as "ApproximateTransformer [ cache directory: /tmp/grids ]" or "ApproximateTransformer [ no cache directory ]"
+   */
+  override def toString: String = {
+    if (cacheDirectory == null) "ApproximateTransformer [ no cache directory ]" else s"ApproximateTransformer [ cache directory: $cacheDirectory ]"
+  }
+}
+
+/**
+ * The plan created by ApproximateTransformer, transforming the coordinates within the grid with interpolation
+ * and the other coordinates with the exact plan.
+ */
+private final class ApproximateTransformPlan(
+  interpolationGrid: InterpolationGrid,
+  exactTransformPlan: TransformPlan,
+  precisionPolicy: PrecisionPolicy
+) extends TransformPlan(interpolationGrid.getSourceCrsProjection, interpolationGrid.getTargetCrsProjection)
+{
+  override private[transformation] def isApproximate(): Boolean = true
+
+  override def transform(
+    yLatitude: Double,
+    xLongitude: Double,
+    yResult: Array[Double],
+    yIndex: Int,
+    xResult: Array[Double],
+    xIndex: Int
+  ): Unit = {
+    if (interpolationGrid.interpolate(yLatitude, xLongitude, yResult, yIndex, xResult, xIndex)) {
+      yResult(yIndex) = precisionPolicy.round(yResult(yIndex))
+      xResult(xIndex) = precisionPolicy.round(xResult(xIndex))
+    }
+    else {
+      exactTransformPlan.transform(yLatitude, xLongitude, yResult, yIndex, xResult, xIndex)
+    }
+  }
+
+  override protected def transform(
+    yLatitudes: Array[Double],
+    yLatitudeIndex: Int,
+    xLongitudes: Array[Double],
+    xLongitudeIndex: Int,
+    stride: Int,
+    targetYLatitudes: Array[Double],
+    targetYLatitudeIndex: Int,
+    targetXLongitudes: Array[Double],
+    targetXLongitudeIndex: Int,
+    targetStride: Int,
+    numberOfCoordinates: Int
+  ): Unit = {
+    var iy = yLatitudeIndex
+    var ix = xLongitudeIndex
+    var ty = targetYLatitudeIndex
+    var tx = targetXLongitudeIndex
+    var count = 0
+    while (count < numberOfCoordinates) {
+      transform(yLatitudes(iy), xLongitudes(ix), targetYLatitudes, ty, targetXLongitudes, tx)
+      iy += stride
+      ix += stride
+      ty += targetStride
+      tx += targetStride
+      count += 1
+    }
+  }
+
+  /**
+   * @return a string such as "ApproximateTransformPlan [ WGS84(EPSG:4326) ==> SWEREF_99_TM(EPSG:3006) ]"
+   */
+  override def toString: String = {
+    s"ApproximateTransformPlan [ $getSourceCrsProjection ==> $getTargetCrsProjection ]"
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.transformation
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection
+
+import java.util.concurrent.{ForkJoinPool, ForkJoinTask, RecursiveAction}
+
+object ParallelTransformer {
+
+  /**
+   * The default maximum number of coordinates transformed by one task, i.e. larger ranges are split into smaller tasks.
+   */
+  val defaultNumberOfCoordinatesThreshold = 16384
+
+  private val _parallelTransformer = new ParallelTransformer(ForkJoinPool.commonPool, defaultNumberOfCoordinatesThreshold)
+
+  /**
+   * @return an instance using the common ForkJoinPool and the default threshold
+   */
+  def getInstance(): ParallelTransformer = _parallelTransformer
+
+  /**
+   * Factory method for creating an instance.
+   *
+   * @param forkJoinPool                  the pool executing the tasks
+   * @param numberOfCoordinatesThreshold  the maximum number of coordinates transformed by one task,
+   *                                      i.e. larger ranges are split into smaller tasks
+   * @return an instance of ParallelTransformer
+   * @throws IllegalArgumentException if the pool is null or the threshold is not positive
+   */
+  def create(
+    forkJoinPool: ForkJoinPool,
+    numberOfCoordinatesThreshold: Int
+  ): ParallelTransformer = {
+    if (forkJoinPool == null) {
+      throw new IllegalArgumentException("The ForkJoinPool must not be null")
+    }
+    if (numberOfCoordinatesThreshold < 1) {
+      throw new IllegalArgumentException(s"The threshold must be positive but was $numberOfCoordinatesThreshold")
+    }
+    new ParallelTransformer(forkJoinPool, numberOfCoordinatesThreshold)
+  }
+
+  /**
+   * Transforms the coordinates with the indexes from 'fromIndex' (inclusive) to 'toIndex' (exclusive),
+   * either directly or by splitting the range into two tasks.
+   */
+  private final class TransformTask(
+    fromIndex: Int,
+    toIndex: Int,
+    numberOfCoordinatesThreshold: Int,
+    transformRange: (Int, Int) => Unit
+  ) extends RecursiveAction
+  {
+    override protected def compute(): Unit = {
+      if (toIndex - fromIndex <= numberOfCoordinatesThreshold) {
+        transformRange(fromIndex, toIndex - fromIndex)
+      }
+      else {
+        val middleIndex = (fromIndex + toIndex) >>> 1
+        ForkJoinTask.invokeAll(
+          new TransformTask(fromIndex, middleIndex, numberOfCoordinatesThreshold, transformRange),
+          new TransformTask(middleIndex, toIndex, numberOfCoordinatesThreshold, transformRange)
+        )
+      }
+    }
+  }
+}
+
+/**
+ * Transforms many coordinates in parallel, with the tasks executed by a ForkJoinPool.
+ * The methods are the same as the corresponding methods in 'Transformer' for primitive arrays,
+ * and the results are exactly the same, since each coordinate is transformed by the same plan
+ * (see 'TransformPlan') regardless of how the arrays are split into tasks.
+ * The methods return when all the coordinates have been transformed.
+ *
+ * @see Transformer
+ * @see TransformPlan
+ */
+final class ParallelTransformer private(
+  private val forkJoinPool: ForkJoinPool,
+  private val numberOfCoordinatesThreshold: Int
+)
+{
+  /**
+   * The same as the corresponding method in 'Transformer' but with the coordinates transformed in parallel.
+   *
+   * @see Transformer
+   */
+  def transform(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    yLatitudes: Array[Double],
+    xLongitudes: Array[Double],
+    targetYLatitudes: Array[Double],
+    targetXLongitudes: Array[Double],
+    offset: Int,
+    length: Int
+  ): Unit = {
+    // the whole range is validated before any task is executed, i.e. nothing is written for invalid parameters
+    TransformPlan.assertArrayRange(yLatitudes, "yLatitudes", offset, length)
+    TransformPlan.assertArrayRange(xLongitudes, "xLongitudes", offset, length)
+    TransformPlan.assertArrayRange(targetYLatitudes, "targetYLatitudes", offset, length)
+    TransformPlan.assertArrayRange(targetXLongitudes, "targetXLongitudes", offset, length)
+    val plan = Transformer.plan(sourceCrsProjection, targetCrsProjection)
+    invoke(
+      length,
+      (fromIndex: Int, numberOfCoordinates: Int) => plan.transform(
+        yLatitudes, xLongitudes,
+        targetYLatitudes, targetXLongitudes,
+        offset + fromIndex, numberOfCoordinates
+      )
+    )
+  }
+
+  /**
+   * The same as the corresponding method in 'Transformer' but with the coordinates transformed in parallel.
+   *
+   * @see Transformer
+   */
+  def transform(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    coordinates: Array[Double],
+    offset: Int,
+    targetCoordinates: Array[Double],
+    targetOffset: Int,
+    numberOfCoordinates: Int,
+    stride: Int,
+    axisOrder: AxisOrder
+  ): Unit = {
+    TransformPlan.assertStride(stride)
+    TransformPlan.assertInterleavedArrayRange(coordinates, "coordinates", offset, numberOfCoordinates, stride)
+    TransformPlan.assertInterleavedArrayRange(targetCoordinates, "targetCoordinates", targetOffset, numberOfCoordinates, stride)
+    val plan = Transformer.plan(sourceCrsProjection, targetCrsProjection)
+    invoke(
+      numberOfCoordinates,
+      (fromIndex: Int, numberOfCoordinatesInTask: Int) => plan.transform(
+        coordinates, offset + fromIndex * stride,
+        targetCoordinates, targetOffset + fromIndex * stride,
+        numberOfCoordinatesInTask, stride, axisOrder
+      )
+    )
+  }
+
+  private def invoke(numberOfCoordinates: Int, transformRange: (Int, Int) => Unit): Unit = {
+    if (numberOfCoordinates <= numberOfCoordinatesThreshold) {
+      // no reason to use the pool for only one task
+      transformRange(0, numberOfCoordinates)
+      return
+    }
+    forkJoinPool.invoke(new ParallelTransformer.TransformTask(0, numberOfCoordinates, numberOfCoordinatesThreshold, transformRange))
+  }
+
+  /**
+   * @return the pool executing the tasks
+   */
+  def getForkJoinPool(): ForkJoinPool = forkJoinPool
+
+  /**
+   * @return the maximum number of coordinates transformed by one task
+   */
+  def getNumberOfCoordinatesThreshold(): Int = numberOfCoordinatesThreshold
+}
@@ -11,7 +11,8 @@
  */
 package com.programmerare.sweden_crs_transformations_4jvm.transformation
 
-import com.programmerare.sweden_crs_transformations_4jvm.{CrsCoordinate, CrsProjection}
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.{GaussKreuger, GaussKreugerFactory}
 
 object TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_asFinalTarget {
   private val _transformStrategy = new TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_asFinalTarget
@@ -22,6 +23,12 @@ object TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_as
  * TransformStrategy implementation that should be used when transforming 
  * from SWEREF99 or RT90 to either SWEREF99 or RT90.
  * In other words, neither the source CRS nor the target CRS is allowed to be WGS84. 
+ * As the class name indicates, the transformation was originally implemented as two transformations, 
+ * first to WGS84 and then from WGS84 to the final target CRS.
+ * Now it is instead implemented with the method 'grid_to_grid' in the class 'GaussKreuger' 
+ * without creating an intermediate WGS84 coordinate. 
+ * With the default kernel that method still goes through geodetic coordinates, with exactly the same result 
+ * as the two transformations, while the optimized kernel transforms in one step through the conformal latitude.
  */
 final class TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_asFinalTarget private()
   extends TransformStrategyBase
@@ -31,20 +38,85 @@ final class TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT
   // sourceProjection must be CRS SWEREF99 or RT90
   // targetProjection must be CRS SWEREF99 or RT90
   // (if any of them is WGS84 then another TransFormStrategy implementation should be used) 
-  override def transform(sourceCoordinate: CrsCoordinate, finalTargetCrsProjection: CrsProjection): CrsCoordinate = {
-    val sourceCoordinateProjection = sourceCoordinate.getCrsProjection
-    // In this implementation class neither the source projection nor the final projection should be WGS84
-    // which is asserted below
+  override protected def assertCrsProjections(
+    sourceCrsProjection: CrsProjection,
+    finalTargetCrsProjection: CrsProjection
+  ): Unit = {
     super.assertCoordinateProjections(
-      sourceCoordinateProjection,
-      sourceCoordinateProjection.isRT90 || sourceCoordinateProjection.isSweRef99,
+      sourceCrsProjection,
+      sourceCrsProjection.isRT90 || sourceCrsProjection.isSweRef99,
       this,
       finalTargetCrsProjection,
       finalTargetCrsProjection.isRT90 || finalTargetCrsProjection.isSweRef99
     )
-    
-    val intermediateCrsProjection = CrsProjection.WGS84
-    val intermediateWgs84coordinate = Transformer.transform(sourceCoordinate, intermediateCrsProjection)
-    Transformer.transform(intermediateWgs84coordinate, finalTargetCrsProjection)
+  }
+
+  override def createTransformPlan(
+    sourceCrsProjection: CrsProjection,
+    finalTargetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel,
+    precisionPolicy: PrecisionPolicy
+  ): TransformPlan = {
+    assertCrsProjections(sourceCrsProjection, finalTargetCrsProjection)
+    new TransformPlan_From_Sweref99orRT90_to_Sweref99orRT90(
+      sourceCrsProjection,
+      finalTargetCrsProjection,
+      GaussKreugerFactory.getInstance.getGaussKreuger(sourceCrsProjection, useOptimizedKernel(transformKernel)),
+      GaussKreugerFactory.getInstance.getGaussKreuger(finalTargetCrsProjection, useOptimizedKernel(transformKernel)),
+      precisionPolicy.getRoundingFactor
+    )
+  }
+}
+
+/**
+ * TransformPlan created by TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_asFinalTarget,
+ * with the GaussKreuger instances for the source CRS and the final target CRS,
+ * and the factor (from the PrecisionPolicy) for rounding the transformed values.
+ */
+private final class TransformPlan_From_Sweref99orRT90_to_Sweref99orRT90(
+  sourceCrsProjection: CrsProjection,
+  finalTargetCrsProjection: CrsProjection,
+  gkSourceProjection: GaussKreuger,
+  gkFinalTargetProjection: GaussKreuger,
+  roundingFactor: Double
+) extends TransformPlan(sourceCrsProjection, finalTargetCrsProjection)
+{
+  override def transform(
+    yLatitude: Double,
+    xLongitude: Double,
+    yResult: Array[Double],
+    yIndex: Int,
+    xResult: Array[Double],
+    xIndex: Int
+  ): Unit = {
+    gkSourceProjection.grid_to_grid(yLatitude, xLongitude, gkFinalTargetProjection, yResult, yIndex, xResult, xIndex, roundingFactor)
+  }
+
+  override protected def transform(
+    yLatitudes: Array[Double],
+    yLatitudeIndex: Int,
+    xLongitudes: Array[Double],
+    xLongitudeIndex: Int,
+    stride: Int,
+    targetYLatitudes: Array[Double],
+    targetYLatitudeIndex: Int,
+    targetXLongitudes: Array[Double],
+    targetXLongitudeIndex: Int,
+    targetStride: Int,
+    numberOfCoordinates: Int
+  ): Unit = {
+    var iy = yLatitudeIndex
+    var ix = xLongitudeIndex
+    var ty = targetYLatitudeIndex
+    var tx = targetXLongitudeIndex
+    var count = 0
+    while (count < numberOfCoordinates) {
+      gkSourceProjection.grid_to_grid(yLatitudes(iy), xLongitudes(ix), gkFinalTargetProjection, targetYLatitudes, ty, targetXLongitudes, tx, roundingFactor)
+      iy += stride
+      ix += stride
+      ty += targetStride
+      tx += targetStride
+      count += 1
+    }
   }
 }
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) Tomas Johansson , http://www.programmerare.com
+ * The code in this library is licensed with MIT.
+ * The library is based on the C#.NET library 'sweden_crs_transformations_4net' (https://github.com/TomasJohansson/sweden_crs_transformations_4net)
+ * which in turn is based on 'MightyLittleGeodesy' (https://github.com/bjornsallarp/MightyLittleGeodesy/)
+ * which is also released with MIT.
+ * License information about 'sweden_crs_transformations_4jvm' and 'MightyLittleGeodesy':
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm/blob/java_SwedenCrsTransformations/LICENSE
+ * For more information see the webpage below.
+ * https://github.com/TomasJohansson/sweden_crs_transformations_4jvm
+ */
+package com.programmerare.sweden_crs_transformations_4jvm.transformation
+
+import com.programmerare.sweden_crs_transformations_4jvm.{CrsCoordinate, CrsProjection, MutableCoordinate}
+
+import java.nio.DoubleBuffer
+
+/**
+ * A precomputed transformation from one fixed CRS (Coordinate Reference System) to another fixed CRS.
+ * The TransformStrategy implementation, and the GaussKreuger instance(s) used by it, have already been looked up
+ * when the plan was created, which means that there is no such lookup when the plan is used for transforming coordinates.
+ * Instances are retrieved with the method 'Transformer.plan' and can be reused (and shared between threads since they are immutable).
+ *
+ * @param sourceCrsProjection the source CRS
+ * @param targetCrsProjection the target CRS
+ * @see Transformer
+ */
+abstract class TransformPlan private[transformation](
+  private val sourceCrsProjection: CrsProjection,
+  private val targetCrsProjection: CrsProjection
+)
+{
+  /**
+   * @return the CRS of the coordinates to transform
+   */
+  def getSourceCrsProjection(): CrsProjection = sourceCrsProjection
+
+  /**
+   * @return the CRS of the transformed coordinates
+   */
+  def getTargetCrsProjection(): CrsProjection = targetCrsProjection
+
+  /**
+   * Transforms one coordinate, without creating any objects.
+   * The two resulting values are written into the array elements specified by the last four parameters.
+   * The same array may be used for both results.
+   *
+   * @param yLatitude  the source value representing the latitude or Y or Northing
+   * @param xLongitude the source value representing the longitude or X or Easting
+   * @param yResult    the array into which the transformed latitude/Y/Northing value is written
+   * @param yIndex     the index within the array 'yResult'
+   * @param xResult    the array into which the transformed longitude/X/Easting value is written
+   * @param xIndex     the index within the array 'xResult'
+   */
+  def transform(
+    yLatitude: Double,
+    xLongitude: Double,
+    yResult: Array[Double],
+    yIndex: Int,
+    xResult: Array[Double],
+    xIndex: Int
+  ): Unit
+
+  /**
+   * Transforms many coordinates, and is used by the public methods below which have validated the parameters.
+   * The values of the coordinates are located with a 'stride' within the arrays, i.e. the index of a value
+   * is incremented with the stride for each coordinate.
+   * Therefore the same implementation can be used both for separate arrays with Y and X values (stride 1)
+   * and for one array with interleaved Y and X values (e.g. stride 2).
+   * The result arrays may be the same arrays as the source arrays, i.e. the transformation can be done in place.
+   *
+   * @param yLatitudes             the source values representing the latitude or Y or Northing
+   * @param yLatitudeIndex         the index of the first value in 'yLatitudes'
+   * @param xLongitudes            the source values representing the longitude or X or Easting
+   * @param xLongitudeIndex        the index of the first value in 'xLongitudes'
+   * @param stride                 the index increment between the values of two coordinates in the two source arrays
+   * @param targetYLatitudes       the array into which the transformed latitude/Y/Northing values are written
+   * @param targetYLatitudeIndex   the index of the first value in 'targetYLatitudes'
+   * @param targetXLongitudes      the array into which the transformed longitude/X/Easting values are written
+   * @param targetXLongitudeIndex  the index of the first value in 'targetXLongitudes'
+   * @param targetStride           the index increment between the values of two coordinates in the two target arrays
+   * @param numberOfCoordinates    the number of coordinates to transform
+   */
+  protected def transform(
+    yLatitudes: Array[Double],
+    yLatitudeIndex: Int,
+    xLongitudes: Array[Double],
+    xLongitudeIndex: Int,
+    stride: Int,
+    targetYLatitudes: Array[Double],
+    targetYLatitudeIndex: Int,
+    targetXLongitudes: Array[Double],
+    targetXLongitudeIndex: Int,
+    targetStride: Int,
+    numberOfCoordinates: Int
+  ): Unit
+
+  /**
+   * Transforms a coordinate from the source CRS of this plan to the target CRS of this plan.
+   *
+   * @param sourceCoordinate the source coordinate, which must have the same CRS as the source CRS of this plan
+   * @return a new coordinate instance representing the source coordinate in the target CRS
+   *         (or the same instance if the source and target CRS are the same)
+   * @throws IllegalArgumentException if the CRS of the coordinate is not the source CRS of this plan
+   */
+  def transform(sourceCoordinate: CrsCoordinate): CrsCoordinate = {
+    assertSourceCrsProjection(sourceCoordinate.getCrsProjection, sourceCoordinate)
+    val instrumentation = Transformer.getInstrumentation
+    val startTime = TransformPlan.getStartTime(instrumentation)
+    val y_x = new Array[Double](2)
+    transform(sourceCoordinate.getLatitudeY, sourceCoordinate.getLongitudeX, y_x, 0, y_x, 1)
+    recordTransformation(instrumentation, 1, startTime, null)
+    CrsCoordinate.createCoordinate(targetCrsProjection, y_x(0), y_x(1))
+  }
+
+  /**
+   * Transforms a coordinate from the source CRS of this plan to the target CRS of this plan,
+   * without creating any objects, i.e. the result is written into a mutable coordinate provided by the caller.
+   *
+   * @param sourceCoordinate the source coordinate, which must have the same CRS as the source CRS of this plan
+   * @param result           the instance into which the transformed coordinate is written
+   * @throws IllegalArgumentException if the CRS of the coordinate is not the source CRS of this plan, or if the result is null
+   */
+  def transform(sourceCoordinate: CrsCoordinate, result: MutableCoordinate): Unit = {
+    assertSourceCrsProjection(sourceCoordinate.getCrsProjection, sourceCoordinate)
+    TransformPlan.assertResult(result)
+    val instrumentation = Transformer.getInstrumentation
+    val startTime = TransformPlan.getStartTime(instrumentation)
+    transform(sourceCoordinate.getLatitudeY, sourceCoordinate.getLongitudeX, result.y_x, 0, result.y_x, 1)
+    recordTransformation(instrumentation, 1, startTime, null)
+    result.setCrsProjection(targetCrsProjection)
+  }
+
+  /**
+   * Transforms a coordinate from the source CRS of this plan to the target CRS of this plan,
+   * without creating any objects, i.e. the result is written into a mutable coordinate provided by the caller.
+   * The same instance can be used for both parameters.
+   *
+   * @param sourceCoordinate the source coordinate, which must have the same CRS as the source CRS of this plan
+   * @param result           the instance into which the transformed coordinate is written
+   * @throws IllegalArgumentException if the CRS of the coordinate is not the source CRS of this plan, or if the result is null
+   */
+  def transform(sourceCoordinate: MutableCoordinate, result: MutableCoordinate): Unit = {
+    assertSourceCrsProjection(sourceCoordinate.getCrsProjection, sourceCoordinate)
+    TransformPlan.assertResult(result)
+    val instrumentation = Transformer.getInstrumentation
+    val startTime = TransformPlan.getStartTime(instrumentation)
+    transform(sourceCoordinate.getLatitudeY, sourceCoordinate.getLongitudeX, result.y_x, 0, result.y_x, 1)
+    recordTransformation(instrumentation, 1, startTime, null)
+    result.setCrsProjection(targetCrsProjection)
+  }
+
+  /**
+   * The same as the method 'Transformer.transform' with the same array parameters
+   * but with the source and target CRS of this plan.
+   * @see Transformer
+   */
+  def transform(
+    yLatitudes: Array[Double],
+    xLongitudes: Array[Double],
+    targetYLatitudes: Array[Double],
+    targetXLongitudes: Array[Double],
+    offset: Int,
+    length: Int
+  ): Unit = {
+    TransformPlan.assertArrayRange(yLatitudes, "yLatitudes", offset, length)
+    TransformPlan.assertArrayRange(xLongitudes, "xLongitudes", offset, length)
+    TransformPlan.assertArrayRange(targetYLatitudes, "targetYLatitudes", offset, length)
+    TransformPlan.assertArrayRange(targetXLongitudes, "targetXLongitudes", offset, length)
+    val instrumentation = Transformer.getInstrumentation
+    val startTime = TransformPlan.getStartTime(instrumentation)
+    val event = TransformEvents.begin()
+    transform(
+      yLatitudes, offset, xLongitudes, offset, 1,
+      targetYLatitudes, offset, targetXLongitudes, offset, 1,
+      length
+    )
+    recordTransformation(instrumentation, length, startTime, event)
+  }
+
+  /**
+   * The same as the method 'Transformer.transform' with the same interleaved array parameters
+   * but with the source and target CRS of this plan.
+   * @see Transformer
+   */
+  def transform(
+    coordinates: Array[Double],
+    offset: Int,
+    targetCoordinates: Array[Double],
+    targetOffset: Int,
+    numberOfCoordinates: Int,
+    stride: Int,
+    axisOrder: AxisOrder
+  ): Unit = {
+    TransformPlan.assertStride(stride)
+    TransformPlan.assertInterleavedArrayRange(coordinates, "coordinates", offset, numberOfCoordinates, stride)
+    TransformPlan.assertInterleavedArrayRange(targetCoordinates, "targetCoordinates", targetOffset, numberOfCoordinates, stride)
+    val y = axisOrder.getLatitudeYPosition
+    val x = axisOrder.getLongitudeXPosition
+    val instrumentation = Transformer.getInstrumentation
+    val startTime = TransformPlan.getStartTime(instrumentation)
+    val event = TransformEvents.begin()
+    transform(
+      coordinates, offset + y, coordinates, offset + x, stride,
+      targetCoordinates, targetOffset + y, targetCoordinates, targetOffset + x, stride,
+      numberOfCoordinates
+    )
+    recordTransformation(instrumentation, numberOfCoordinates, startTime, event)
+  }
+
+  /**
+   * The same as the method 'Transformer.transform' with the same DoubleBuffer parameters
+   * but with the source and target CRS of this plan.
+   * @see Transformer
+   */
+  def transform(
+    coordinates: DoubleBuffer,
+    targetCoordinates: DoubleBuffer,
+    numberOfCoordinates: Int,
+    stride: Int,
+    axisOrder: AxisOrder
+  ): Unit = {
+    TransformPlan.assertStride(stride)
+    TransformPlan.assertInterleavedBufferRange(coordinates, "coordinates", numberOfCoordinates, stride)
+    TransformPlan.assertInterleavedBufferRange(targetCoordinates, "targetCoordinates", numberOfCoordinates, stride)
+    if (targetCoordinates.isReadOnly) {
+      throw new IllegalArgumentException("The buffer 'targetCoordinates' must not be read-only")
+    }
+    if (coordinates.hasArray && targetCoordinates.hasArray) {
+      transform(
+        coordinates.array, coordinates.arrayOffset + coordinates.position,
+        targetCoordinates.array, targetCoordinates.arrayOffset + targetCoordinates.position,
+        numberOfCoordinates, stride, axisOrder
+      )
+      return
+    }
+    val y = axisOrder.getLatitudeYPosition
+    val x = axisOrder.getLongitudeXPosition
+    val instrumentation = Transformer.getInstrumentation
+    val startTime = TransformPlan.getStartTime(instrumentation)
+    val event = TransformEvents.begin()
+    val position = coordinates.position
+    val targetPosition = targetCoordinates.position
+    val chunkSize = TransformPlan.numberOfCoordinatesInChunkForBuffers
+    val chunk = new Array[Double](2 * Math.min(numberOfCoordinates, chunkSize))
+    var i = 0
+    while (i < numberOfCoordinates) {
+      val numberOfCoordinatesInChunk = Math.min(numberOfCoordinates - i, chunkSize)
+      var j = 0
+      while (j < numberOfCoordinatesInChunk) {
+        val index = position + (i + j) * stride
+        chunk(2 * j) = coordinates.get(index + y)
+        chunk(2 * j + 1) = coordinates.get(index + x)
+        j += 1
+      }
+      transform(
+        chunk, 0, chunk, 1, 2,
+        chunk, 0, chunk, 1, 2,
+        numberOfCoordinatesInChunk
+      )
+      j = 0
+      while (j < numberOfCoordinatesInChunk) {
+        val index = targetPosition + (i + j) * stride
+        targetCoordinates.put(index + y, chunk(2 * j))
+        targetCoordinates.put(index + x, chunk(2 * j + 1))
+        j += 1
+      }
+      i += numberOfCoordinatesInChunk
+    }
+    recordTransformation(instrumentation, numberOfCoordinates, startTime, event)
+  }
+
+  protected final def assertSourceCrsProjection(crsProjection: CrsProjection, sourceCoordinate: AnyRef): Unit = {
+    if (crsProjection ne sourceCrsProjection) {
+      throw new IllegalArgumentException(s"The coordinate $sourceCoordinate does not have the source CRS $sourceCrsProjection of the transform plan")
+    }
+  }
+
+  /**
+   * Notifies the instrumentation (unless it is the no-op instrumentation) about a transformation by a public method of this plan,
+   * and commits the JFR event (unless it is null, i.e. when JFR is not recording the event).
+   * The JFR events are only created by the methods transforming arrays and buffers, i.e. the event is always null
+   * for a single coordinate, since an event for each coordinate would be too many events in a recording.
+   * The instrumentation is read once (before the transformation) for each invocation of a public method.
+   */
+  protected final def recordTransformation(instrumentation: TransformInstrumentation, numberOfCoordinates: Int, startTime: Long, event: AnyRef): Unit = {
+    if (instrumentation ne TransformInstrumentation.noOp) {
+      instrumentation.onTransform(sourceCrsProjection, targetCrsProjection, numberOfCoordinates, System.nanoTime() - startTime)
+    }
+    TransformEvents.commit(event, sourceCrsProjection, targetCrsProjection, numberOfCoordinates, isApproximate())
+  }
+
+  /**
+   * Starts the recording of a transformation by a bulk API outside of this package, which uses the per-coordinate kernel method
+   * directly on off-heap memory (e.g. mapped files or direct buffers) instead of copying the values into arrays.
+   *
+   * @return the JFR event (null unless JFR is recording the event) to provide to 'recordBulkTransformation'
+   */
+  private[sweden_crs_transformations_4jvm] def beginBulkTransformation(): AnyRef = {
+    TransformEvents.begin()
+  }
+
+  /**
+   * Records a transformation by a bulk API (started with 'beginBulkTransformation') in the same way as the array methods of this plan.
+   *
+   * @param numberOfCoordinates the number of coordinates transformed with the kernel method
+   * @param startTime           the value of 'System.nanoTime' before the transformation
+   * @param event               the event returned by 'beginBulkTransformation'
+   */
+  private[sweden_crs_transformations_4jvm] def recordBulkTransformation(numberOfCoordinates: Int, startTime: Long, event: AnyRef): Unit = {
+    recordTransformation(Transformer.getInstrumentation, numberOfCoordinates, startTime, event)
+  }
+
+  /**
+   * @return true if the values are approximated (e.g. interpolated) instead of calculated, which is recorded in the JFR events
+   */
+  private[transformation] def isApproximate(): Boolean = false
+
+  /**
+   * @return a string such as "TransformPlan [ WGS84(EPSG:4326) ==> SWEREF_99_TM(EPSG:3006) ]"
+   */
+  override def toString: String = {
+    s"TransformPlan [ $sourceCrsProjection ==> $targetCrsProjection ]"
+  }
+}
+
+object TransformPlan {
+
+  // the maximum number of coordinates copied into the temporary array when transforming buffers without a backing array
+  private val numberOfCoordinatesInChunkForBuffers = 512
+
+  // the time is only measured when an instrumentation has been set
+  private[transformation] def getStartTime(instrumentation: TransformInstrumentation): Long = {
+    if (instrumentation eq TransformInstrumentation.noOp) 0L else System.nanoTime()
+  }
+
+  private[transformation] def createIdentityPlan(crsProjection: CrsProjection): TransformPlan = {
+    new IdentityTransformPlan(crsProjection)
+  }
+
+  private[transformation] def assertArrayRange(array: Array[Double], arrayName: String, offset: Int, length: Int): Unit = {
+    if (array == null) {
+      throw new IllegalArgumentException(s"The array '$arrayName' must not be null")
+    }
+    if (offset < 0 || length < 0 || offset > array.length - length) {
+      throw new IllegalArgumentException(s"Invalid range for the array '$arrayName' with length ${array.length}: offset $offset , length $length")
+    }
+  }
+
+  private def assertResult(result: MutableCoordinate): Unit = {
+    if (result == null) {
+      throw new IllegalArgumentException("The result coordinate must not be null")
+    }
+  }
+
+  private[transformation] def assertStride(stride: Int): Unit = {
+    if (stride < 2) {
+      throw new IllegalArgumentException(s"The stride must be at least 2 but was $stride")
+    }
+  }
+
+  private[transformation] def assertInterleavedArrayRange(array: Array[Double], arrayName: String, offset: Int, numberOfCoordinates: Int, stride: Int): Unit = {
+    if (array == null) {
+      throw new IllegalArgumentException(s"The array '$arrayName' must not be null")
+    }
+    if (offset < 0 || numberOfCoordinates < 0 || offset + numberOfCoordinates.toLong * stride > array.length) {
+      throw new IllegalArgumentException(s"Invalid range for the array '$arrayName' with length ${array.length}: offset $offset , numberOfCoordinates $numberOfCoordinates , stride $stride")
+    }
+  }
+
+  private def assertInterleavedBufferRange(buffer: DoubleBuffer, bufferName: String, numberOfCoordinates: Int, stride: Int): Unit = {
+    if (buffer == null) {
+      throw new IllegalArgumentException(s"The buffer '$bufferName' must not be null")
+    }
+    if (numberOfCoordinates < 0 || numberOfCoordinates.toLong * stride > buffer.remaining) {
+      throw new IllegalArgumentException(s"Invalid range for the buffer '$bufferName' with ${buffer.remaining} remaining values: numberOfCoordinates $numberOfCoordinates , stride $stride")
+    }
+  }
+}
+
+/**
+ * The plan used when the source CRS and the target CRS are the same, i.e. the values are only copied.
+ */
+private final class IdentityTransformPlan(crsProjection: CrsProjection)
+  extends TransformPlan(crsProjection, crsProjection)
+{
+  override def transform(sourceCoordinate: CrsCoordinate): CrsCoordinate = {
+    // the same instance is returned, in the same way as 'Transformer.transform' has always done
+    assertSourceCrsProjection(sourceCoordinate.getCrsProjection, sourceCoordinate)
+    val instrumentation = Transformer.getInstrumentation
+    recordTransformation(instrumentation, 1, TransformPlan.getStartTime(instrumentation), null)
+    sourceCoordinate
+  }
+
+  override def transform(
+    yLatitude: Double,
+    xLongitude: Double,
+    yResult: Array[Double],
+    yIndex: Int,
+    xResult: Array[Double],
+    xIndex: Int
+  ): Unit = {
+    yResult(yIndex) = yLatitude
+    xResult(xIndex) = xLongitude
+  }
+
+  override protected def transform(
+    yLatitudes: Array[Double],
+    yLatitudeIndex: Int,
+    xLongitudes: Array[Double],
+    xLongitudeIndex: Int,
+    stride: Int,
+    targetYLatitudes: Array[Double],
+    targetYLatitudeIndex: Int,
+    targetXLongitudes: Array[Double],
+    targetXLongitudeIndex: Int,
+    targetStride: Int,
+    numberOfCoordinates: Int
+  ): Unit = {
+    var count = 0
+    while (count < numberOfCoordinates) {
+      targetYLatitudes(targetYLatitudeIndex + count * targetStride) = yLatitudes(yLatitudeIndex + count * stride)
+      targetXLongitudes(targetXLongitudeIndex + count * targetStride) = xLongitudes(xLongitudeIndex + count * stride)
+      count += 1
+    }
+  }
+}
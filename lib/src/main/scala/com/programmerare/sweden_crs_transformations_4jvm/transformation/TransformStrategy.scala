@@ -23,14 +23,56 @@ trait TransformStrategy {
   /**
    * Transforms a coordinate from one CRS (Coordinate Reference System) to another CRS.
    *
+   * The preconditions of this strategy are verified, and then the coordinate is transformed with the (cached) plan
+   * returned by 'Transformer.plan', i.e. with the original kernel and rounding to millimeters,
+   * without creating a new plan for each coordinate.
+   *
    * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
    * @param targetCrsProjection the target CRS
    * @return a new coordinate instance representing the source coordinate in the target CRS 
+   * @throws IllegalArgumentException if the source or target CRS is not supported by this strategy
    * @see CrsCoordinate
    * @see CrsProjection
    */
   def transform(
     sourceCoordinate: CrsCoordinate,
     targetCrsProjection: CrsProjection
-  ): CrsCoordinate
+  ): CrsCoordinate = {
+    assertCrsProjections(sourceCoordinate.getCrsProjection, targetCrsProjection)
+    Transformer.plan(sourceCoordinate.getCrsProjection, targetCrsProjection).transform(sourceCoordinate)
+  }
+
+  /**
+   * Verifies the preconditions for the source and target CRS, which is done by both 'transform' and 'createTransformPlan'.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @throws IllegalArgumentException if the source or target CRS is not supported by this strategy
+   */
+  protected def assertCrsProjections(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection
+  ): Unit
+
+  /**
+   * Creates a reusable plan for transforming coordinates from one CRS (Coordinate Reference System) to another CRS.
+   * The preconditions for the source and target CRS are verified when the plan is created,
+   * and the GaussKreuger instance(s) used by the plan are looked up once.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @param transformKernel     the implementation of the calculations used by the GaussKreuger instance(s)
+   * @param precisionPolicy     the rounding of the transformed values (only used when the target CRS is SWEREF99 or RT90)
+   * @return a plan for transforming coordinates from the source CRS to the target CRS
+   * @see TransformPlan
+   * @see TransformKernel
+   * @see PrecisionPolicy
+   * @see CrsProjection
+   */
+  def createTransformPlan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel,
+    precisionPolicy: PrecisionPolicy
+  ): TransformPlan
 }
@@ -11,8 +11,8 @@
  */
 package com.programmerare.sweden_crs_transformations_4jvm.transformation
 
-import com.programmerare.sweden_crs_transformations_4jvm.{CrsCoordinate, CrsProjection}
-import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.{GaussKreuger, GaussKreugerFactory, LatLon}
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.{GaussKreuger, GaussKreugerFactory}
 
 object TransformStrategy_from_SWEREF99_or_RT90_to_WGS84 {
   private val _transformStrategy = new TransformStrategy_from_SWEREF99_or_RT90_to_WGS84
@@ -29,21 +29,79 @@ final class TransformStrategy_from_SWEREF99_or_RT90_to_WGS84 private()
   // Preconditions:
   // sourceProjection must be CRS SWEREF99 or RT90
   // targetProjection must be CRS WGS84
-  override def transform(
-    sourceCoordinate: CrsCoordinate,
+  override protected def assertCrsProjections(
+    sourceCrsProjection: CrsProjection,
     targetCrsProjection: CrsProjection
-  ): CrsCoordinate = {
-    val sourceCoordinateProjection = sourceCoordinate.getCrsProjection
+  ): Unit = {
     super.assertCoordinateProjections(
-      sourceCoordinateProjection,
-      sourceCoordinateProjection.isRT90 || sourceCoordinateProjection.isSweRef99,
+      sourceCrsProjection,
+      sourceCrsProjection.isRT90 || sourceCrsProjection.isSweRef99,
       this,
       targetCrsProjection,
       targetCrsProjection.isWgs84
     )
-    
-    val gkProjection = GaussKreugerFactory.getInstance.getGaussKreuger(sourceCoordinate.getCrsProjection)
-    val latLon = gkProjection.grid_to_geodetic(sourceCoordinate.getLatitudeY, sourceCoordinate.getLongitudeX)
-    CrsCoordinate.createCoordinate(targetCrsProjection, latLon.LatitudeY, latLon.LongitudeX)
+  }
+
+  override def createTransformPlan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel,
+    precisionPolicy: PrecisionPolicy // not used since the WGS84 values are not rounded
+  ): TransformPlan = {
+    assertCrsProjections(sourceCrsProjection, targetCrsProjection)
+    new TransformPlan_from_SWEREF99_or_RT90_to_WGS84(
+      sourceCrsProjection,
+      targetCrsProjection,
+      GaussKreugerFactory.getInstance.getGaussKreuger(sourceCrsProjection, useOptimizedKernel(transformKernel))
+    )
+  }
+}
+
+/**
+ * TransformPlan created by TransformStrategy_from_SWEREF99_or_RT90_to_WGS84, with the GaussKreuger instance for the source CRS.
+ */
+private final class TransformPlan_from_SWEREF99_or_RT90_to_WGS84(
+  sourceCrsProjection: CrsProjection,
+  targetCrsProjection: CrsProjection,
+  gkProjection: GaussKreuger
+) extends TransformPlan(sourceCrsProjection, targetCrsProjection)
+{
+  override def transform(
+    yLatitude: Double,
+    xLongitude: Double,
+    yResult: Array[Double],
+    yIndex: Int,
+    xResult: Array[Double],
+    xIndex: Int
+  ): Unit = {
+    gkProjection.grid_to_geodetic(yLatitude, xLongitude, yResult, yIndex, xResult, xIndex)
+  }
+
+  override protected def transform(
+    yLatitudes: Array[Double],
+    yLatitudeIndex: Int,
+    xLongitudes: Array[Double],
+    xLongitudeIndex: Int,
+    stride: Int,
+    targetYLatitudes: Array[Double],
+    targetYLatitudeIndex: Int,
+    targetXLongitudes: Array[Double],
+    targetXLongitudeIndex: Int,
+    targetStride: Int,
+    numberOfCoordinates: Int
+  ): Unit = {
+    var iy = yLatitudeIndex
+    var ix = xLongitudeIndex
+    var ty = targetYLatitudeIndex
+    var tx = targetXLongitudeIndex
+    var count = 0
+    while (count < numberOfCoordinates) {
+      gkProjection.grid_to_geodetic(yLatitudes(iy), xLongitudes(ix), targetYLatitudes, ty, targetXLongitudes, tx)
+      iy += stride
+      ix += stride
+      ty += targetStride
+      tx += targetStride
+      count += 1
+    }
   }
 }
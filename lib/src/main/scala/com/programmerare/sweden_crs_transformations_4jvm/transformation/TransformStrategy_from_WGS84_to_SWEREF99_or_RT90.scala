@@ -11,8 +11,8 @@
  */
 package com.programmerare.sweden_crs_transformations_4jvm.transformation
 
-import com.programmerare.sweden_crs_transformations_4jvm.{CrsCoordinate, CrsProjection}
-import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.{GaussKreuger, GaussKreugerFactory, LatLon}
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection
+import com.programmerare.sweden_crs_transformations_4jvm.mighty_little_geodesy.{GaussKreuger, GaussKreugerFactory}
 
 object TransformStrategy_from_WGS84_to_SWEREF99_or_RT90 {
   private val _transformStrategy = new TransformStrategy_from_WGS84_to_SWEREF99_or_RT90
@@ -30,22 +30,82 @@ final class TransformStrategy_from_WGS84_to_SWEREF99_or_RT90 private()
   // Preconditions:
   // sourceProjection must be CRS WGS84
   // targetProjection must be CRS SWEREF99 or RT90
-  override def transform(
-    sourceCoordinate: CrsCoordinate,
+  override protected def assertCrsProjections(
+    sourceCrsProjection: CrsProjection,
     targetCrsProjection: CrsProjection
-  ): CrsCoordinate = {
-    val sourceCoordinateProjection = sourceCoordinate.getCrsProjection
+  ): Unit = {
     super.assertCoordinateProjections(
-      sourceCoordinateProjection,
-      sourceCoordinateProjection.isWgs84,
+      sourceCrsProjection,
+      sourceCrsProjection.isWgs84,
       this,
       targetCrsProjection,
       targetCrsProjection.isRT90 || targetCrsProjection.isSweRef99
     )
-    
-    val gkProjection = GaussKreugerFactory.getInstance.getGaussKreuger(targetCrsProjection)
-    val latLon = gkProjection.geodetic_to_grid(sourceCoordinate.getLatitudeY, sourceCoordinate.getLongitudeX)
-    CrsCoordinate.createCoordinate(targetCrsProjection, latLon.LatitudeY, latLon.LongitudeX)
   }
 
+  override def createTransformPlan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel,
+    precisionPolicy: PrecisionPolicy
+  ): TransformPlan = {
+    assertCrsProjections(sourceCrsProjection, targetCrsProjection)
+    new TransformPlan_from_WGS84_to_SWEREF99_or_RT90(
+      sourceCrsProjection,
+      targetCrsProjection,
+      GaussKreugerFactory.getInstance.getGaussKreuger(targetCrsProjection, useOptimizedKernel(transformKernel)),
+      precisionPolicy.getRoundingFactor
+    )
+  }
+}
+
+/**
+ * TransformPlan created by TransformStrategy_from_WGS84_to_SWEREF99_or_RT90, with the GaussKreuger instance for the target CRS,
+ * and the factor (from the PrecisionPolicy) for rounding the transformed values.
+ */
+private final class TransformPlan_from_WGS84_to_SWEREF99_or_RT90(
+  sourceCrsProjection: CrsProjection,
+  targetCrsProjection: CrsProjection,
+  gkProjection: GaussKreuger,
+  roundingFactor: Double
+) extends TransformPlan(sourceCrsProjection, targetCrsProjection)
+{
+  override def transform(
+    yLatitude: Double,
+    xLongitude: Double,
+    yResult: Array[Double],
+    yIndex: Int,
+    xResult: Array[Double],
+    xIndex: Int
+  ): Unit = {
+    gkProjection.geodetic_to_grid(yLatitude, xLongitude, yResult, yIndex, xResult, xIndex, roundingFactor)
+  }
+
+  override protected def transform(
+    yLatitudes: Array[Double],
+    yLatitudeIndex: Int,
+    xLongitudes: Array[Double],
+    xLongitudeIndex: Int,
+    stride: Int,
+    targetYLatitudes: Array[Double],
+    targetYLatitudeIndex: Int,
+    targetXLongitudes: Array[Double],
+    targetXLongitudeIndex: Int,
+    targetStride: Int,
+    numberOfCoordinates: Int
+  ): Unit = {
+    var iy = yLatitudeIndex
+    var ix = xLongitudeIndex
+    var ty = targetYLatitudeIndex
+    var tx = targetXLongitudeIndex
+    var count = 0
+    while (count < numberOfCoordinates) {
+      gkProjection.geodetic_to_grid(yLatitudes(iy), xLongitudes(ix), targetYLatitudes, ty, targetXLongitudes, tx, roundingFactor)
+      iy += stride
+      ix += stride
+      ty += targetStride
+      tx += targetStride
+      count += 1
+    }
+  }
 }
@@ -13,6 +13,10 @@ package com.programmerare.sweden_crs_transformations_4jvm.transformation
 
 import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate
 import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate
+
+import java.nio.DoubleBuffer
+import java.util.concurrent.atomic.AtomicReferenceArray
 
 object Transformer {
 
@@ -28,10 +32,310 @@ object Transformer {
     sourceCoordinate: CrsCoordinate,
     targetCrsProjection: CrsProjection
   ): CrsCoordinate = {
-    if (sourceCoordinate.getCrsProjection eq targetCrsProjection) return sourceCoordinate
-    val transFormStrategy = getTransformStrategyImplementation(sourceCoordinate.getCrsProjection, targetCrsProjection)
-    // the above method might throw an exception but never returns null i.e. no need for null check here         
-    transFormStrategy.transform(sourceCoordinate, targetCrsProjection)
+    plan(sourceCoordinate.getCrsProjection, targetCrsProjection).transform(sourceCoordinate)
+  }
+
+  /**
+   * Transforms a coordinate from one CRS (Coordinate Reference System) to another CRS,
+   * with the resulting values rounded according to a precision policy (instead of rounded to millimeters
+   * as the other methods in this object are doing when the target CRS is SWEREF99 or RT90).
+   *
+   * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
+   * @param targetCrsProjection the target CRS
+   * @param precisionPolicy     the rounding of the transformed values (only used when the target CRS is SWEREF99 or RT90)
+   * @return a new coordinate instance representing the source coordinate in the target CRS
+   * @see CrsProjection
+   * @see PrecisionPolicy
+   */
+  def transform(
+    sourceCoordinate: CrsCoordinate,
+    targetCrsProjection: CrsProjection,
+    precisionPolicy: PrecisionPolicy
+  ): CrsCoordinate = {
+    plan(sourceCoordinate.getCrsProjection, targetCrsProjection, TransformKernel.ORIGINAL, precisionPolicy).transform(sourceCoordinate)
+  }
+
+  /**
+   * Transforms a coordinate from one CRS (Coordinate Reference System) to another CRS,
+   * without creating any objects, i.e. the result is written into a mutable coordinate provided by the caller.
+   *
+   * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
+   * @param targetCrsProjection the target CRS
+   * @param result              the instance into which the transformed coordinate is written
+   * @throws IllegalArgumentException if the result parameter is null
+   * @see CrsProjection
+   * @see MutableCoordinate
+   */
+  def transform(
+    sourceCoordinate: CrsCoordinate,
+    targetCrsProjection: CrsProjection,
+    result: MutableCoordinate
+  ): Unit = {
+    plan(sourceCoordinate.getCrsProjection, targetCrsProjection).transform(sourceCoordinate, result)
+  }
+
+  /**
+   * Transforms a coordinate from one CRS (Coordinate Reference System) to another CRS,
+   * without creating any objects, i.e. the result is written into a mutable coordinate provided by the caller.
+   * The result can be written into the source coordinate instance, i.e. the same instance can be used for both parameters.
+   *
+   * @param sourceCoordinate    the source coordinate, i.e. X/Y values and a CRS.
+   * @param targetCrsProjection the target CRS
+   * @param result              the instance into which the transformed coordinate is written
+   * @throws IllegalArgumentException if the result parameter is null
+   * @see CrsProjection
+   * @see MutableCoordinate
+   */
+  def transform(
+    sourceCoordinate: MutableCoordinate,
+    targetCrsProjection: CrsProjection,
+    result: MutableCoordinate
+  ): Unit = {
+    plan(sourceCoordinate.getCrsProjection, targetCrsProjection).transform(sourceCoordinate, result)
+  }
+
+  /**
+   * Returns a plan for transforming coordinates from one CRS (Coordinate Reference System) to another CRS.
+   * The plans for all combinations of source and target CRS are created once, when this object is initialized,
+   * i.e. the same plan instance is returned each time for the same source and target CRS.
+   * A plan can be used instead of the other methods in this object, when many coordinates are transformed
+   * between the same two CRS, to avoid the lookup of the transformation implementation for each call.
+   * The returned plan uses the kernel 'TransformKernel.ORIGINAL' and rounds the values of SWEREF99 and RT90 coordinates
+   * to millimeters, in the same way as the other methods in this object.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @return a plan for transforming coordinates from the source CRS to the target CRS
+   * @see TransformPlan
+   * @see CrsProjection
+   */
+  def plan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection
+  ): TransformPlan = {
+    plan(sourceCrsProjection, targetCrsProjection, TransformKernel.ORIGINAL, PrecisionPolicy.roundToMillimeter())
+  }
+
+  /**
+   * The same as the above method but with the plan using a specified implementation of the mathematical calculations
+   * (and rounding the values of SWEREF99 and RT90 coordinates to millimeters).
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @param transformKernel     the implementation of the calculations used by the plan
+   * @return a plan for transforming coordinates from the source CRS to the target CRS
+   * @see TransformPlan
+   * @see TransformKernel
+   * @see CrsProjection
+   */
+  def plan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel
+  ): TransformPlan = {
+    plan(sourceCrsProjection, targetCrsProjection, transformKernel, PrecisionPolicy.roundToMillimeter())
+  }
+
+  /**
+   * The same as the above method but with the plan rounding the transformed values according to a precision policy.
+   * The policy is only used when the target CRS is SWEREF99 or RT90, i.e. values in WGS84 are never rounded.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @param transformKernel     the implementation of the calculations used by the plan
+   * @param precisionPolicy     the rounding of the transformed values
+   * @return a plan for transforming coordinates from the source CRS to the target CRS
+   * @see TransformPlan
+   * @see TransformKernel
+   * @see PrecisionPolicy
+   * @see CrsProjection
+   */
+  def plan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel,
+    precisionPolicy: PrecisionPolicy
+  ): TransformPlan = {
+    if ((transformKernel eq TransformKernel.ORIGINAL) && (precisionPolicy eq PrecisionPolicy.roundToMillimeter())) {
+      return defaultTransformPlans(sourceCrsProjection.ordinal * numberOfCrsProjections + targetCrsProjection.ordinal)
+    }
+    val index = ((transformKernel.ordinal * numberOfPrecisionPolicies + precisionPolicy.getIndex) * numberOfCrsProjections + sourceCrsProjection.ordinal) * numberOfCrsProjections +
+      targetCrsProjection.ordinal
+    val transformPlan = otherTransformPlans.get(index)
+    if (transformPlan != null) {
+      return transformPlan
+    }
+    // Another thread may create the same plan at the same time, but then only one of them is kept.
+    otherTransformPlans.compareAndSet(index, null, createTransformPlan(sourceCrsProjection, targetCrsProjection, transformKernel, precisionPolicy))
+    otherTransformPlans.get(index)
+  }
+
+  /**
+   * Transforms many coordinates from one CRS (Coordinate Reference System) to another CRS.
+   * The coordinate values are read from, and written into, primitive arrays, i.e. no objects are created
+   * for the individual coordinates, and the transformation plan is only looked up once for all the coordinates.
+   * The result arrays may be the same arrays as the source arrays, i.e. the transformation can be done in place.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @param yLatitudes          the source values representing the latitude or Y or Northing
+   * @param xLongitudes         the source values representing the longitude or X or Easting
+   * @param targetYLatitudes    the array into which the transformed latitude/Y/Northing values are written
+   * @param targetXLongitudes   the array into which the transformed longitude/X/Easting values are written
+   * @param offset              the index of the first coordinate (the same index is used for all four arrays)
+   * @param length              the number of coordinates to transform
+   * @throws IllegalArgumentException if an array is null or too short for the offset and length
+   * @see CrsProjection
+   */
+  def transform(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    yLatitudes: Array[Double],
+    xLongitudes: Array[Double],
+    targetYLatitudes: Array[Double],
+    targetXLongitudes: Array[Double],
+    offset: Int,
+    length: Int
+  ): Unit = {
+    plan(sourceCrsProjection, targetCrsProjection).transform(
+      yLatitudes, xLongitudes,
+      targetYLatitudes, targetXLongitudes,
+      offset, length
+    )
+  }
+
+  /**
+   * Transforms many coordinates from one CRS (Coordinate Reference System) to another CRS.
+   * The coordinate values are interleaved in one array, e.g. "y,x,y,x,..." or "x,y,x,y,..." depending on the axis order,
+   * and the stride can be larger than two if there are more values for each coordinate (e.g. "x,y,z,x,y,z,...").
+   * Only the two horizontal values are written to the target array, i.e. any other values within the stride are not modified.
+   * The target array may be the same array as the source array, with the same offset, i.e. the transformation can be done in place.
+   * (but if the same array is used with different offsets, then the two ranges must not overlap)
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @param coordinates         the source coordinate values
+   * @param offset              the index of the first value of the first coordinate in the source array
+   * @param targetCoordinates   the array into which the transformed coordinate values are written
+   * @param targetOffset        the index of the first value of the first coordinate in the target array
+   * @param numberOfCoordinates the number of coordinates to transform
+   * @param stride              the number of values for each coordinate, i.e. at least 2
+   * @param axisOrder           the order of the latitude/Y and longitude/X values for each coordinate
+   * @throws IllegalArgumentException if an array is null or too short for the offset, number of coordinates and stride
+   * @see CrsProjection
+   * @see AxisOrder
+   */
+  def transform(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    coordinates: Array[Double],
+    offset: Int,
+    targetCoordinates: Array[Double],
+    targetOffset: Int,
+    numberOfCoordinates: Int,
+    stride: Int,
+    axisOrder: AxisOrder
+  ): Unit = {
+    plan(sourceCrsProjection, targetCrsProjection).transform(
+      coordinates, offset,
+      targetCoordinates, targetOffset,
+      numberOfCoordinates, stride, axisOrder
+    )
+  }
+
+  /**
+   * Transforms many coordinates from one CRS (Coordinate Reference System) to another CRS.
+   * This method is the same as the above method with interleaved values in arrays, but for buffers.
+   * The first value is located at the current position of each buffer, and the positions of the buffers are not modified.
+   * The target buffer may be the same buffer as the source buffer, i.e. the transformation can be done in place.
+   * If the buffers are backed by arrays then the method for arrays is used,
+   * and otherwise (e.g. for direct buffers) the values are transformed in chunks with a small temporary array.
+   *
+   * @param sourceCrsProjection the source CRS
+   * @param targetCrsProjection the target CRS
+   * @param coordinates         the source coordinate values
+   * @param targetCoordinates   the buffer into which the transformed coordinate values are written
+   * @param numberOfCoordinates the number of coordinates to transform
+   * @param stride              the number of values for each coordinate, i.e. at least 2
+   * @param axisOrder           the order of the latitude/Y and longitude/X values for each coordinate
+   * @throws IllegalArgumentException if a buffer is null or read-only (target) or does not have enough remaining values
+   * @see CrsProjection
+   * @see AxisOrder
+   */
+  def transform(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    coordinates: DoubleBuffer,
+    targetCoordinates: DoubleBuffer,
+    numberOfCoordinates: Int,
+    stride: Int,
+    axisOrder: AxisOrder
+  ): Unit = {
+    plan(sourceCrsProjection, targetCrsProjection).transform(
+      coordinates, targetCoordinates,
+      numberOfCoordinates, stride, axisOrder
+    )
+  }
+
+  @volatile private var instrumentation: TransformInstrumentation = TransformInstrumentation.noOp
+
+  /**
+   * Sets the instrumentation notified about the transformations by all plans (and therefore also by the methods of this object).
+   * The default is 'TransformInstrumentation.noOp', which can be set again to stop the instrumentation.
+   *
+   * @param instrumentation the instrumentation, e.g. an instance of 'TransformMetrics'
+   * @throws IllegalArgumentException if the instrumentation is null
+   * @see TransformInstrumentation
+   */
+  def setInstrumentation(instrumentation: TransformInstrumentation): Unit = {
+    if (instrumentation == null) {
+      throw new IllegalArgumentException("The instrumentation must not be null (but can be 'TransformInstrumentation.noOp')")
+    }
+    this.instrumentation = instrumentation
+  }
+
+  /**
+   * @return the instrumentation notified about the transformations
+   */
+  def getInstrumentation(): TransformInstrumentation = instrumentation
+
+  private val numberOfCrsProjections = CrsProjection.values.length
+
+  private val numberOfPrecisionPolicies = PrecisionPolicy.getNumberOfPrecisionPolicies
+
+  // The plans with the default kernel and precision policy (i.e. the plans used by all the methods of this object 
+  // except 'plan' with a kernel or policy parameter) are created eagerly, indexed by the ordinals of the source CRS and the target CRS.
+  private val defaultTransformPlans: Array[TransformPlan] = {
+    val crsProjections = CrsProjection.values
+    val plans = new Array[TransformPlan](numberOfCrsProjections * numberOfCrsProjections)
+    for (
+      sourceCrsProjection <- crsProjections;
+      targetCrsProjection <- crsProjections
+    ) {
+      plans(sourceCrsProjection.ordinal * numberOfCrsProjections + targetCrsProjection.ordinal) =
+        createTransformPlan(sourceCrsProjection, targetCrsProjection, TransformKernel.ORIGINAL, PrecisionPolicy.roundToMillimeter())
+    }
+    plans
+  }
+
+  // The plans with other kernels and precision policies are created lazily (most of the combinations are never used), 
+  // indexed by the ordinal of the kernel, the index of the precision policy, and the ordinals of the source CRS and the target CRS
+  private val otherTransformPlans = new AtomicReferenceArray[TransformPlan](
+    TransformKernel.values.length * numberOfPrecisionPolicies * numberOfCrsProjections * numberOfCrsProjections
+  )
+
+  private def createTransformPlan(
+    sourceCrsProjection: CrsProjection,
+    targetCrsProjection: CrsProjection,
+    transformKernel: TransformKernel,
+    precisionPolicy: PrecisionPolicy
+  ): TransformPlan = {
+    if (sourceCrsProjection eq targetCrsProjection) {
+      return TransformPlan.createIdentityPlan(sourceCrsProjection)
+    }
+    val transFormStrategy = getTransformStrategyImplementation(sourceCrsProjection, targetCrsProjection)
+    // the above method might throw an exception but never returns null i.e. no need for null check here
+    transFormStrategy.createTransformPlan(sourceCrsProjection, targetCrsProjection, transformKernel, precisionPolicy)
   }
 
   /**
@@ -0,0 +1,130 @@
+package com.programmerare.sweden_crs_transformations_4jvm;
+
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.PrecisionPolicy;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JavaCrsCoordinateArrayTest
+{
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+    private final static CrsCoordinate malmoCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 55.609464, 13.000436);
+    private final static CrsCoordinate goteborgCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 57.708734, 11.973991);
+
+    private final List<CrsCoordinate> coordinates = Arrays.asList(stockholmCentralStation_WGS84, malmoCentralStation_WGS84, goteborgCentralStation_WGS84);
+
+    @Test
+    public void transform_shouldGiveTheSameResultAsTransformingEachCrsCoordinate() {
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            final List<CrsCoordinate> sourceCoordinates = new ArrayList<CrsCoordinate>();
+            for (CrsCoordinate coordinate : coordinates) {
+                sourceCoordinates.add(coordinate.transform(sourceCrsProjection));
+            }
+            final CrsCoordinateArray sourceArray = CrsCoordinateArray.createCoordinateArray(sourceCrsProjection, sourceCoordinates);
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                final CrsCoordinateArray targetArray = sourceArray.transform(targetCrsProjection);
+                assertNotSame(sourceArray, targetArray);
+                assertEquals(targetCrsProjection, targetArray.getCrsProjection());
+                assertEquals(sourceCoordinates.size(), targetArray.size());
+                for (int i = 0; i < sourceCoordinates.size(); i++) {
+                    assertEquals(sourceCoordinates.get(i).transform(targetCrsProjection), targetArray.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void transform_withPrecisionPolicy() {
+        final CrsCoordinateArray array = CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, coordinates);
+        final CrsCoordinateArray result = array.transform(CrsProjection.SWEREF_99_TM, PrecisionPolicy.noRounding());
+        for (int i = 0; i < coordinates.size(); i++) {
+            assertEquals(coordinates.get(i).transform(CrsProjection.SWEREF_99_TM, PrecisionPolicy.noRounding()), result.get(i));
+        }
+    }
+
+    @Test
+    public void conversionsToAndFromCrsCoordinate() {
+        final CrsCoordinateArray array = CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, coordinates);
+        assertEquals(coordinates, array.toList());
+        assertEquals(CrsProjection.WGS84, array.getCrsProjection());
+        assertEquals(3, array.size());
+        assertEquals(malmoCentralStation_WGS84.getLatitudeY(), array.getLatitudeY(1), 0.0);
+        assertEquals(malmoCentralStation_WGS84.getLongitudeX(), array.getLongitudeX(1), 0.0);
+
+        final MutableCoordinate mutableCoordinate = MutableCoordinate.createCoordinate(CrsProjection.SWEREF_99_TM, 0, 0);
+        assertSame(mutableCoordinate, array.get(2, mutableCoordinate));
+        assertEquals(goteborgCentralStation_WGS84, mutableCoordinate.toCrsCoordinate());
+
+        final double[] yLatitudes = new double[4];
+        final double[] xLongitudes = new double[4];
+        array.copyTo(yLatitudes, xLongitudes, 1);
+        assertEquals(array, CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, Arrays.copyOfRange(yLatitudes, 1, 4), Arrays.copyOfRange(xLongitudes, 1, 4)));
+        assertEquals(array.hashCode(), CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, coordinates).hashCode());
+
+        // the arrays are copied by the factory method
+        yLatitudes[1] = 0.0;
+        final CrsCoordinateArray arrayFromArrays = CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, yLatitudes, xLongitudes);
+        yLatitudes[2] = 0.0;
+        assertEquals(malmoCentralStation_WGS84.getLatitudeY(), arrayFromArrays.getLatitudeY(2), 0.0);
+
+        assertEquals("CrsCoordinateArray [ size: 3 , CRS: WGS84(EPSG:4326) ]", array.toString());
+    }
+
+    @Test
+    public void setAndForEach() {
+        final CrsCoordinateArray array = CrsCoordinateArray.createCoordinateArray(CrsProjection.SWEREF_99_TM, 2);
+        assertEquals(0.0, array.getLatitudeY(1), 0.0);
+        array.set(1, 6580822, 674032);
+        assertEquals(CrsCoordinate.createCoordinate(CrsProjection.SWEREF_99_TM, 6580822, 674032), array.get(1));
+
+        final double[] sums = new double[3];
+        array.forEach(new CoordinateConsumer() {
+            @Override
+            public void accept(int index, double yLatitude, double xLongitude) {
+                sums[0] += index;
+                sums[1] += yLatitude;
+                sums[2] += xLongitude;
+            }
+        });
+        assertArrayEquals(new double[]{1, 6580822, 674032}, sums, 0.0);
+    }
+
+    @Test
+    public void createCoordinateArray_shouldThrowExceptionForInvalidParameters() {
+        final List<ThrowingRunnable> invalidInvocations = Arrays.<ThrowingRunnable>asList(
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    CrsCoordinateArray.createCoordinateArray(null, 1);
+                }
+            },
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, -1);
+                }
+            },
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, new double[2], new double[3]);
+                }
+            },
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    // a coordinate with another CRS
+                    CrsCoordinateArray.createCoordinateArray(CrsProjection.SWEREF_99_TM, coordinates);
+                }
+            }
+        );
+        for (ThrowingRunnable invalidInvocation : invalidInvocations) {
+            assertThrows(IllegalArgumentException.class, invalidInvocation);
+        }
+    }
+}
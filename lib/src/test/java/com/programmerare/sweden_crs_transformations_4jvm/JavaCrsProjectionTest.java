@@ -3,6 +3,7 @@ package com.programmerare.sweden_crs_transformations_4jvm;
 import static com.programmerare.sweden_crs_transformations_4jvm.CrsProjection.*; // WGS84 , SWEREF_99_TM, ...
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -140,6 +141,36 @@ public class JavaCrsProjectionTest
         );
     }
 
+    @Test
+    public void getCrsProjectionByEpsgNumber_shouldReturnEachProjectionByItsEpsgNumber() {
+        for (CrsProjection crsProjection : CrsProjection.values()) {
+            assertSame(
+                crsProjection,
+                CrsProjection.getCrsProjectionByEpsgNumber(crsProjection.getEpsgNumber())
+            );
+        }
+        assertSame(
+            CrsProjection.WGS84,
+            CrsProjection.getCrsProjectionByEpsgNumber(epsgNumberForWgs84)
+        );
+    }
+
+    @Test
+    public void getCrsProjectionByEpsgNumber_shouldThrowExceptionForUnsupportedEpsgNumber() {
+        final int[] unsupportedEpsgNumbers = {3005, 3025, 4325, 4327, 0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (final int epsgNumber : unsupportedEpsgNumbers) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        CrsProjection.getCrsProjectionByEpsgNumber(epsgNumber);
+                    }
+                }
+            );
+        }
+    }
+
     @Test
     public void verifyTotalNumberOfProjections() {
         assertEquals(
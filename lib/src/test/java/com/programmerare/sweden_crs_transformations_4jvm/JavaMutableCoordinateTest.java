@@ -0,0 +1,108 @@
+package com.programmerare.sweden_crs_transformations_4jvm;
+
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import static org.junit.Assert.*;
+
+public class JavaMutableCoordinateTest
+{
+    private final static double stockholmCentralStation_WGS84_latitude = 59.330231;
+    private final static double stockholmCentralStation_WGS84_longitude = 18.059196;
+
+    private final CrsCoordinate stockholmWGS84 = CrsCoordinate.createCoordinate(
+        CrsProjection.WGS84,
+        stockholmCentralStation_WGS84_latitude,
+        stockholmCentralStation_WGS84_longitude
+    );
+
+    @Test
+    public void transformIntoMutableCoordinate_shouldGiveTheSameResultAsTransformingCrsCoordinate() {
+        // the same instance is reused for all the transformations
+        final MutableCoordinate result = MutableCoordinate.createCoordinate(CrsProjection.WGS84, 0.0, 0.0);
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            CrsCoordinate sourceCoordinate = stockholmWGS84.transform(sourceCrsProjection);
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                CrsCoordinate expected = sourceCoordinate.transform(targetCrsProjection);
+
+                assertSame(result, sourceCoordinate.transform(targetCrsProjection, result));
+                assertEqual(expected, result);
+
+                MutableCoordinate mutableSourceCoordinate = MutableCoordinate.createCoordinate(sourceCoordinate);
+                Transformer.transform(mutableSourceCoordinate, targetCrsProjection, result);
+                assertEqual(expected, result);
+
+                Transformer.plan(sourceCrsProjection, targetCrsProjection).transform(sourceCoordinate, result);
+                assertEqual(expected, result);
+
+                // the same instance as both source and result
+                assertSame(mutableSourceCoordinate, mutableSourceCoordinate.transform(targetCrsProjection, mutableSourceCoordinate));
+                assertEqual(expected, mutableSourceCoordinate);
+            }
+        }
+    }
+
+    @Test
+    public void settersAndGetters() {
+        MutableCoordinate coordinate = MutableCoordinate.createCoordinate(stockholmWGS84);
+        assertEqual(stockholmWGS84, coordinate);
+        assertEquals(stockholmWGS84, coordinate.toCrsCoordinate());
+
+        coordinate.setCrsProjection(CrsProjection.SWEREF_99_TM);
+        coordinate.setLatitudeY(6580822);
+        coordinate.setLongitudeX(674032);
+        assertEquals(CrsProjection.SWEREF_99_TM, coordinate.getCrsProjection());
+        assertEquals(6580822, coordinate.getLatitudeY(), 0.0);
+        assertEquals(674032, coordinate.getLongitudeX(), 0.0);
+
+        coordinate.set(CrsProjection.RT90_2_5_GON_V, 6580994, 1628294);
+        assertEquals(
+            CrsCoordinate.createCoordinate(CrsProjection.RT90_2_5_GON_V, 6580994, 1628294),
+            coordinate.toCrsCoordinate()
+        );
+        assertEquals(
+            "MutableCoordinate [ Y: 6580994.0 , X: 1628294.0 , CRS: RT90_2_5_GON_V(EPSG:3021) ]",
+            coordinate.toString()
+        );
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidParameters() {
+        final MutableCoordinate coordinate = MutableCoordinate.createCoordinate(stockholmWGS84);
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    coordinate.setCrsProjection(null);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    stockholmWGS84.transform(CrsProjection.SWEREF_99_TM, (MutableCoordinate) null);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    // the coordinate is not a SWEREF99 coordinate
+                    Transformer.plan(CrsProjection.SWEREF_99_TM, CrsProjection.WGS84).transform(coordinate, coordinate);
+                }
+            }
+        );
+    }
+
+    private void assertEqual(CrsCoordinate expected, MutableCoordinate actual) {
+        assertEquals(expected.getCrsProjection(), actual.getCrsProjection());
+        assertEquals(expected.getLatitudeY(), actual.getLatitudeY(), 0.0);
+        assertEquals(expected.getLongitudeX(), actual.getLongitudeX(), 0.0);
+    }
+}
@@ -0,0 +1,184 @@
+package com.programmerare.sweden_crs_transformations_4jvm;
+
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.PrecisionPolicy;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformInstrumentation;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformMetrics;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class JavaOffHeapCoordinateStoreTest
+{
+    // segments with 2^4 = 16 coordinates, i.e. the ranges below are split into many segments
+    private final static int segmentShift = 4;
+
+    private final static int numberOfCoordinates = 100;
+
+    private double[] createLatitudes() {
+        final Random random = new Random(1234);
+        final double[] values = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            values[i] = 55.5 + random.nextDouble() * 13.5;
+        }
+        return values;
+    }
+
+    private double[] createLongitudes() {
+        final Random random = new Random(5678);
+        final double[] values = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            values[i] = 11.0 + random.nextDouble() * 13.0;
+        }
+        return values;
+    }
+
+    @Test
+    public void writeAndRead() {
+        final double[] yLatitudes = createLatitudes();
+        final double[] xLongitudes = createLongitudes();
+        final OffHeapCoordinateStore store = OffHeapCoordinateStore.allocate(CrsProjection.WGS84, numberOfCoordinates, segmentShift);
+        try {
+            assertEquals(numberOfCoordinates, store.getNumberOfCoordinates());
+            assertEquals(CrsProjection.WGS84, store.getCrsProjection());
+            // two writes, with a range starting in the middle of a segment
+            store.write(0, yLatitudes, xLongitudes, 0, 37);
+            store.write(37, yLatitudes, xLongitudes, 37, numberOfCoordinates - 37);
+            for (int i = 0; i < numberOfCoordinates; i++) {
+                assertEquals(yLatitudes[i], store.getLatitudeY(i), 0.0);
+                assertEquals(xLongitudes[i], store.getLongitudeX(i), 0.0);
+            }
+            final double[] readYLatitudes = new double[numberOfCoordinates + 1];
+            final double[] readXLongitudes = new double[numberOfCoordinates + 1];
+            store.read(0, readYLatitudes, readXLongitudes, 1, numberOfCoordinates);
+            assertArrayEquals(yLatitudes, Arrays.copyOfRange(readYLatitudes, 1, numberOfCoordinates + 1), 0.0);
+            assertArrayEquals(xLongitudes, Arrays.copyOfRange(readXLongitudes, 1, numberOfCoordinates + 1), 0.0);
+
+            store.set(99, 1.0, 2.0);
+            assertEquals(1.0, store.getLatitudeY(99), 0.0);
+            assertEquals(2.0, store.getLongitudeX(99), 0.0);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void transform_shouldGiveTheSameResultAsTransformingArrays() {
+        final double[] yLatitudes = createLatitudes();
+        final double[] xLongitudes = createLongitudes();
+        final OffHeapCoordinateStore store = OffHeapCoordinateStore.allocate(CrsProjection.WGS84, numberOfCoordinates, segmentShift);
+        try {
+            store.write(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+            for (CrsProjection targetCrsProjection : Arrays.asList(CrsProjection.SWEREF_99_TM, CrsProjection.RT90_2_5_GON_V, CrsProjection.RT90_2_5_GON_V, CrsProjection.WGS84)) {
+                Transformer.plan(store.getCrsProjection(), targetCrsProjection).transform(yLatitudes, xLongitudes, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+                store.transform(targetCrsProjection);
+                assertEquals(targetCrsProjection, store.getCrsProjection());
+                final double[] readYLatitudes = new double[numberOfCoordinates];
+                final double[] readXLongitudes = new double[numberOfCoordinates];
+                store.read(0, readYLatitudes, readXLongitudes, 0, numberOfCoordinates);
+                assertArrayEquals(yLatitudes, readYLatitudes, 0.0);
+                assertArrayEquals(xLongitudes, readXLongitudes, 0.0);
+            }
+            store.transform(CrsProjection.SWEREF_99_TM, PrecisionPolicy.noRounding());
+            assertEquals(
+                CrsCoordinate.createCoordinate(CrsProjection.WGS84, yLatitudes[0], xLongitudes[0]).transform(CrsProjection.SWEREF_99_TM, PrecisionPolicy.noRounding()),
+                CrsCoordinate.createCoordinate(CrsProjection.SWEREF_99_TM, store.getLatitudeY(0), store.getLongitudeX(0))
+            );
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void transform_shouldBeRecordedByTheInstrumentation() {
+        final OffHeapCoordinateStore store = OffHeapCoordinateStore.allocate(CrsProjection.WGS84, numberOfCoordinates, segmentShift);
+        final TransformMetrics metrics = TransformMetrics.create();
+        Transformer.setInstrumentation(metrics);
+        try {
+            store.write(0, createLatitudes(), createLongitudes(), 0, numberOfCoordinates);
+            store.transform(CrsProjection.SWEREF_99_TM);
+            final TransformMetrics.Snapshot snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+            // one transformation for each segment
+            assertEquals((numberOfCoordinates + (1 << segmentShift) - 1) >> segmentShift, snapshot.getNumberOfTransformations());
+            assertEquals(numberOfCoordinates, snapshot.getNumberOfCoordinates());
+        } finally {
+            Transformer.setInstrumentation(TransformInstrumentation.noOp);
+            store.close();
+        }
+    }
+
+    @Test
+    public void close() {
+        final OffHeapCoordinateStore store = OffHeapCoordinateStore.allocate(CrsProjection.SWEREF_99_TM, numberOfCoordinates);
+        assertFalse(store.isClosed());
+        assertEquals("OffHeapCoordinateStore [ SWEREF_99_TM(EPSG:3006) , 100 coordinates ]", store.toString());
+        store.close();
+        assertTrue(store.isClosed());
+        // no effect when closing again
+        store.close();
+        final List<ThrowingRunnable> invocationsAfterClose = Arrays.<ThrowingRunnable>asList(
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    store.getLatitudeY(0);
+                }
+            },
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    store.set(0, 1.0, 2.0);
+                }
+            },
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    store.transform(CrsProjection.WGS84);
+                }
+            }
+        );
+        for (ThrowingRunnable invocationAfterClose : invocationsAfterClose) {
+            assertThrows(IllegalStateException.class, invocationAfterClose);
+        }
+    }
+
+    @Test
+    public void invalidParameters() {
+        final OffHeapCoordinateStore store = OffHeapCoordinateStore.allocate(CrsProjection.WGS84, numberOfCoordinates, segmentShift);
+        try {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        store.read(numberOfCoordinates - 1, new double[2], new double[2], 0, 2);
+                    }
+                }
+            );
+            assertThrows(
+                IndexOutOfBoundsException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        store.getLatitudeY(numberOfCoordinates);
+                    }
+                }
+            );
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        OffHeapCoordinateStore.allocate(CrsProjection.WGS84, -1);
+                    }
+                }
+            );
+        } finally {
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformInstrumentation;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformMetrics;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNoException;
+
+public class BinaryCoordinateFileTest {
+
+    private final static int numberOfCoordinates = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // WGS84 coordinates within Sweden
+    private double[] yLatitudes, xLongitudes;
+
+    private Path sourcePath, targetPath;
+
+    @Before
+    public void setUp() throws IOException {
+        final Random random = new Random(1234);
+        yLatitudes = new double[numberOfCoordinates];
+        xLongitudes = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            yLatitudes[i] = 55.5 + random.nextDouble() * 13.5;
+            xLongitudes[i] = 11.0 + random.nextDouble() * 13.0;
+        }
+        sourcePath = temporaryFolder.newFile("source.bin").toPath();
+        targetPath = temporaryFolder.newFile("target.bin").toPath();
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        BinaryCoordinateFile file = BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, numberOfCoordinates);
+        // written in two parts
+        file.write(0, yLatitudes, xLongitudes, 0, 300);
+        file.write(300, yLatitudes, xLongitudes, 300, numberOfCoordinates - 300);
+
+        file = BinaryCoordinateFile.open(sourcePath);
+        assertEquals(CrsProjection.WGS84, file.getCrsProjection());
+        assertEquals(numberOfCoordinates, file.getNumberOfCoordinates());
+        assertEquals(sourcePath, file.getPath());
+        final double[] readYLatitudes = new double[numberOfCoordinates + 1];
+        final double[] readXLongitudes = new double[numberOfCoordinates + 1];
+        file.read(0, readYLatitudes, readXLongitudes, 1, numberOfCoordinates);
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            assertEquals(yLatitudes[i], readYLatitudes[i + 1], 0.0);
+            assertEquals(xLongitudes[i], readXLongitudes[i + 1], 0.0);
+        }
+    }
+
+    @Test
+    public void fileFormat() throws IOException {
+        BinaryCoordinateFile.create(sourcePath, CrsProjection.SWEREF_99_TM, 2)
+            .write(0, new double[]{6580822.0, 6580823.0}, new double[]{674032.0, 674033.0}, 0, 2);
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(sourcePath)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(BinaryCoordinateFile.headerSize + 2 * 2 * 8, bytes.capacity());
+        assertEquals('S', bytes.get());
+        assertEquals('C', bytes.get());
+        assertEquals('R', bytes.get());
+        assertEquals('S', bytes.get());
+        assertEquals(BinaryCoordinateFile.version, bytes.getInt());
+        assertEquals(3006, bytes.getInt());
+        assertEquals(0, bytes.getInt());
+        assertEquals(2L, bytes.getLong());
+        assertEquals(6580822.0, bytes.getDouble(), 0.0);
+        assertEquals(6580823.0, bytes.getDouble(), 0.0);
+        assertEquals(674032.0, bytes.getDouble(), 0.0);
+        assertEquals(674033.0, bytes.getDouble(), 0.0);
+    }
+
+    @Test
+    public void transform_shouldGiveTheSameResultAsTransformingArrays() throws IOException {
+        final BinaryCoordinateFile sourceFile = BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, numberOfCoordinates);
+        sourceFile.write(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+        final double[] expectedYLatitudes = new double[numberOfCoordinates];
+        final double[] expectedXLongitudes = new double[numberOfCoordinates];
+        Transformer.transform(CrsProjection.WGS84, CrsProjection.RT90_2_5_GON_V, yLatitudes, xLongitudes, expectedYLatitudes, expectedXLongitudes, 0, numberOfCoordinates);
+
+        // the default window size, and small windows where the last window is not full
+        for (final int numberOfCoordinatesInWindow : new int[]{1024 * 1024, 64, 7}) {
+            final BinaryCoordinateFile targetFile = numberOfCoordinatesInWindow == 1024 * 1024
+                ? sourceFile.transform(targetPath, CrsProjection.RT90_2_5_GON_V)
+                : sourceFile.transform(targetPath, CrsProjection.RT90_2_5_GON_V, numberOfCoordinatesInWindow);
+            assertEquals(CrsProjection.RT90_2_5_GON_V, targetFile.getCrsProjection());
+            assertEquals(numberOfCoordinates, targetFile.getNumberOfCoordinates());
+            final double[] targetYLatitudes = new double[numberOfCoordinates];
+            final double[] targetXLongitudes = new double[numberOfCoordinates];
+            BinaryCoordinateFile.open(targetPath).read(0, targetYLatitudes, targetXLongitudes, 0, numberOfCoordinates);
+            assertArrayEquals(expectedYLatitudes, targetYLatitudes, 0.0);
+            assertArrayEquals(expectedXLongitudes, targetXLongitudes, 0.0);
+        }
+    }
+
+    @Test
+    public void transform_shouldBeRecordedByTheInstrumentation() throws IOException {
+        final BinaryCoordinateFile sourceFile = BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, numberOfCoordinates);
+        sourceFile.write(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+        final TransformMetrics metrics = TransformMetrics.create();
+        Transformer.setInstrumentation(metrics);
+        try {
+            sourceFile.transform(targetPath, CrsProjection.SWEREF_99_TM);
+            TransformMetrics.Snapshot snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+            assertEquals(1, snapshot.getNumberOfTransformations());
+            assertEquals(numberOfCoordinates, snapshot.getNumberOfCoordinates());
+            // one transformation for each window
+            sourceFile.transform(targetPath, CrsProjection.SWEREF_99_TM, 64);
+            snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+            assertEquals(1 + (numberOfCoordinates + 63) / 64, snapshot.getNumberOfTransformations());
+            assertEquals(2 * numberOfCoordinates, snapshot.getNumberOfCoordinates());
+        } finally {
+            Transformer.setInstrumentation(TransformInstrumentation.noOp);
+        }
+    }
+
+    @Test
+    public void transform_emptyFile() throws IOException {
+        final BinaryCoordinateFile targetFile = BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, 0)
+            .transform(targetPath, CrsProjection.SWEREF_99_TM);
+        assertEquals(0, targetFile.getNumberOfCoordinates());
+        assertEquals(BinaryCoordinateFile.headerSize, Files.size(targetPath));
+    }
+
+    @Test
+    public void open_shouldThrowExceptionForInvalidFile() throws IOException {
+        BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, 10);
+        final byte[] bytes = Files.readAllBytes(sourcePath);
+
+        // too small file for the number of coordinates in the header
+        Files.write(sourcePath, Arrays.copyOf(bytes, bytes.length - 1));
+        assertOpenThrowsIllegalArgumentException();
+
+        // wrong magic bytes
+        bytes[0] = 'X';
+        Files.write(sourcePath, bytes);
+        assertOpenThrowsIllegalArgumentException();
+
+        // too small for the header
+        Files.write(sourcePath, new byte[]{'S', 'C', 'R', 'S'});
+        assertOpenThrowsIllegalArgumentException();
+    }
+
+    @Test
+    public void readAndWrite_shouldThrowExceptionForInvalidRanges() throws IOException {
+        final BinaryCoordinateFile file = BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, 10);
+        final double[] array = new double[10];
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    file.read(1, array, array, 0, 10);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    file.write(0, array, array, 1, 10);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    file.transform(sourcePath, CrsProjection.SWEREF_99_TM);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void transform_shouldThrowExceptionForLinkToTheSourceFile() throws IOException {
+        final BinaryCoordinateFile file = BinaryCoordinateFile.create(sourcePath, CrsProjection.WGS84, numberOfCoordinates);
+        file.write(0, yLatitudes, xLongitudes, 0, numberOfCoordinates);
+        final Path symbolicLink = temporaryFolder.getRoot().toPath().resolve("symbolic_link.bin");
+        final Path hardLink = temporaryFolder.getRoot().toPath().resolve("hard_link.bin");
+        try {
+            Files.createSymbolicLink(symbolicLink, sourcePath);
+            Files.createLink(hardLink, sourcePath);
+        } catch (UnsupportedOperationException e) {
+            assumeNoException(e);
+        }
+        for (final Path link : new Path[]{symbolicLink, hardLink}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        file.transform(link, CrsProjection.SWEREF_99_TM);
+                    }
+                }
+            );
+        }
+        // the source file has not been truncated
+        final double[] readYLatitudes = new double[numberOfCoordinates];
+        final double[] readXLongitudes = new double[numberOfCoordinates];
+        BinaryCoordinateFile.open(sourcePath).read(0, readYLatitudes, readXLongitudes, 0, numberOfCoordinates);
+        assertArrayEquals(yLatitudes, readYLatitudes, 0.0);
+        assertArrayEquals(xLongitudes, readXLongitudes, 0.0);
+    }
+
+    private void assertOpenThrowsIllegalArgumentException() {
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    BinaryCoordinateFile.open(sourcePath);
+                }
+            }
+        );
+    }
+}
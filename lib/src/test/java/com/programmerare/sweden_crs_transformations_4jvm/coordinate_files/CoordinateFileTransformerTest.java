@@ -0,0 +1,202 @@
+package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
+
+import com.google.common.io.Resources;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformInstrumentation;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformMetrics;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNoException;
+
+public class CoordinateFileTransformerTest {
+
+    private final static Charset charset = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void transformFile_swedishCrsCoordinates() throws IOException {
+        // the same file as used by 'TransformingCoordinatesFromFileTest' with the columns:
+        // EPSG 4326 (WGS84)|Longitude for WGS84 (EPSG 4326)|Latitude for WGS84 (EPSG 4326)|EPSG 3006|X for EPSG 3006|Y for EPSG 3006|...
+        List<String> sourceLines = Resources.readLines(Resources.getResource("coordinate_files/swedish_crs_coordinates.csv"), charset);
+        Path sourceFile = temporaryFolder.newFile("source.csv").toPath();
+        Files.write(sourceFile, sourceLines, charset);
+        Path targetFile = temporaryFolder.newFile("target.csv").toPath();
+
+        long numberOfTransformedLines = CoordinateFileTransformer.createWithEpsgColumn('|', 0, 2, 1, CrsProjection.SWEREF_99_TM)
+            .withNumberOfHeaderLines(1)
+            .transform(sourceFile, targetFile);
+
+        List<String> targetLines = Files.readAllLines(targetFile, charset);
+        assertEquals(sourceLines.size(), targetLines.size());
+        assertEquals(sourceLines.size() - 1, numberOfTransformedLines);
+        assertEquals(sourceLines.get(0), targetLines.get(0));
+        for (int i = 1; i < sourceLines.size(); i++) {
+            String[] sourceColumns = sourceLines.get(i).split("\\|");
+            String[] targetColumns = targetLines.get(i).split("\\|");
+            assertEquals(sourceColumns.length, targetColumns.length);
+            CrsCoordinate expected = CrsProjection.WGS84.createCoordinate(
+                Double.parseDouble(sourceColumns[2]),
+                Double.parseDouble(sourceColumns[1])
+            ).transform(CrsProjection.SWEREF_99_TM);
+            assertEquals("3006", targetColumns[0]);
+            assertEquals(expected.getLongitudeX(), Double.parseDouble(targetColumns[1]), 0.0);
+            assertEquals(expected.getLatitudeY(), Double.parseDouble(targetColumns[2]), 0.0);
+            // the SWEREF99 TM coordinate in the file
+            assertEquals(Double.parseDouble(sourceColumns[4]), Double.parseDouble(targetColumns[1]), 0.2);
+            assertEquals(Double.parseDouble(sourceColumns[5]), Double.parseDouble(targetColumns[2]), 0.2);
+            for (int j = 3; j < sourceColumns.length; j++) {
+                assertEquals(sourceColumns[j], targetColumns[j]);
+            }
+        }
+    }
+
+    @Test
+    public void transformChannel_manyLinesWithFixedSourceCrsAndDifferentLineBreaks() throws IOException {
+        // more bytes than the size of the buffers, and lines with "\n" and "\r\n" and an empty line,
+        // and the last line without a line break
+        final int numberOfLines = 5000;
+        StringBuilder source = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < numberOfLines; i++) {
+            double latitude = 56.0 + (i % 100) * 0.1;
+            double longitude = 12.0 + (i / 100) * 0.2;
+            CrsCoordinate coordinate = CrsProjection.WGS84.createCoordinate(latitude, longitude).transform(CrsProjection.RT90_2_5_GON_V);
+            String lineBreak = i == numberOfLines - 1 ? "" : i % 2 == 0 ? "\n" : "\r\n";
+            source.append("id").append(i).append(';').append(latitude).append(';').append(longitude).append(";åäö").append(lineBreak);
+            expected.append("id").append(i).append(';').append(coordinate.getLatitudeY()).append(';').append(coordinate.getLongitudeX()).append(";åäö").append(lineBreak);
+            if (i == 10) {
+                source.append("\n");
+                expected.append("\n");
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long numberOfTransformedLines = CoordinateFileTransformer.createWithSourceCrsProjection(';', CrsProjection.WGS84, 1, 2, CrsProjection.RT90_2_5_GON_V)
+            .transform(
+                Channels.newChannel(new ByteArrayInputStream(source.toString().getBytes(charset))),
+                Channels.newChannel(outputStream)
+            );
+        assertEquals(numberOfLines, numberOfTransformedLines);
+        assertEquals(expected.toString(), new String(outputStream.toByteArray(), charset));
+    }
+
+    @Test
+    public void transform_shouldBeRecordedByTheInstrumentation() throws IOException {
+        // the lines with the same source CRS are transformed together in chunks with at most 1024 lines
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            source.append("4326,59.3,18.0\n");
+        }
+        source.append("3006,6580000.0,670000.0\n");
+        source.append("4326,59.3,18.0");
+        final TransformMetrics metrics = TransformMetrics.create();
+        Transformer.setInstrumentation(metrics);
+        try {
+            long numberOfTransformedLines = CoordinateFileTransformer.createWithEpsgColumn(',', 0, 1, 2, CrsProjection.RT90_2_5_GON_V)
+                .transform(
+                    Channels.newChannel(new ByteArrayInputStream(source.toString().getBytes(charset))),
+                    Channels.newChannel(new ByteArrayOutputStream())
+                );
+            assertEquals(2502, numberOfTransformedLines);
+            TransformMetrics.Snapshot snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.RT90_2_5_GON_V);
+            assertEquals(4, snapshot.getNumberOfTransformations());
+            assertEquals(2501, snapshot.getNumberOfCoordinates());
+            assertEquals(1024, snapshot.getBatchSizes().getMax());
+            snapshot = metrics.getSnapshot(CrsProjection.SWEREF_99_TM, CrsProjection.RT90_2_5_GON_V);
+            assertEquals(1, snapshot.getNumberOfTransformations());
+            assertEquals(1, snapshot.getNumberOfCoordinates());
+        } finally {
+            Transformer.setInstrumentation(TransformInstrumentation.noOp);
+        }
+    }
+
+    @Test
+    public void transform_shouldThrowExceptionForTheSourceFileAsTargetFile() throws IOException {
+        final String sourceContent = "4326,59.3,18.0\n4326,59.4,18.1\n";
+        final Path sourceFile = temporaryFolder.newFile("source.csv").toPath();
+        Files.write(sourceFile, sourceContent.getBytes(charset));
+        final Path symbolicLink = temporaryFolder.getRoot().toPath().resolve("symbolic_link.csv");
+        try {
+            Files.createSymbolicLink(symbolicLink, sourceFile);
+        } catch (UnsupportedOperationException e) {
+            assumeNoException(e);
+        }
+        final CoordinateFileTransformer coordinateFileTransformer = CoordinateFileTransformer.createWithEpsgColumn(',', 0, 1, 2, CrsProjection.SWEREF_99_TM);
+        // the same path, the same path but not normalized, and a symbolic link
+        for (final Path targetFile : new Path[]{sourceFile, sourceFile.getParent().resolve(".").resolve(sourceFile.getFileName()), symbolicLink}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        coordinateFileTransformer.transform(sourceFile, targetFile);
+                    }
+                }
+            );
+        }
+        // the source file has not been truncated
+        assertEquals(sourceContent, new String(Files.readAllBytes(sourceFile), charset));
+    }
+
+    @Test
+    public void transform_shouldThrowExceptionForInvalidLines() {
+        final CoordinateFileTransformer coordinateFileTransformer = CoordinateFileTransformer.createWithEpsgColumn(',', 0, 1, 2, CrsProjection.SWEREF_99_TM);
+        assertIllegalArgumentException(coordinateFileTransformer, "4326,59.3,18.0\n4326,59.3\n"); // too few columns
+        assertIllegalArgumentException(coordinateFileTransformer, "4326,59.3,18.0\n4326,59.3,abc\n"); // invalid number
+        assertIllegalArgumentException(coordinateFileTransformer, "1234,59.3,18.0\n"); // invalid EPSG
+        assertIllegalArgumentException(coordinateFileTransformer.withMaxLineLength(10), "4326,59.3,18.0\n"); // too long line
+    }
+
+    @Test
+    public void create_shouldThrowExceptionForInvalidParameters() {
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    CoordinateFileTransformer.createWithEpsgColumn(',', 0, 1, 1, CrsProjection.SWEREF_99_TM);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    CoordinateFileTransformer.createWithSourceCrsProjection('\n', CrsProjection.WGS84, 0, 1, CrsProjection.SWEREF_99_TM);
+                }
+            }
+        );
+    }
+
+    private void assertIllegalArgumentException(final CoordinateFileTransformer coordinateFileTransformer, final String fileContent) {
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    coordinateFileTransformer.transform(
+                        Channels.newChannel(new ByteArrayInputStream(fileContent.getBytes(charset))),
+                        Channels.newChannel(new ByteArrayOutputStream())
+                    );
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NumberParserTest {
+
+    private final static Charset charset = Charset.forName("US-ASCII");
+
+    private void assertParseDouble(String s) {
+        // the number is located within other bytes to also verify the 'from' and 'to' parameters
+        byte[] bytes = ("|#" + s + "#|").getBytes(charset);
+        double expected = Double.parseDouble(s);
+        double actual = NumberParser.parseDouble(bytes, 2, bytes.length - 2);
+        assertEquals(s, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+    }
+
+    @Test
+    public void parseDouble_shouldGiveExactlyTheSameResultAsDoubleParseDouble() {
+        final String[] values = {
+            "0", "-0", "0.0", "-0.0", "1", "-1", "1.0", "+5", "1.", ".5", " 7.5 ",
+            "12.146151472138385", "58.46573396912418", "6484098.2550872", "333538.2957000149",
+            "0.1", "0.2", "0.3", "1e22", "1e23", "9007199254740993", "9223372036854775807",
+            "9999999999999999999", "18446744073709551615", "123456789012345678901234",
+            "1.7976931348623157E308", "2.2250738585072014E-308", "4.9E-324", "1e-400", "1e400",
+            "NaN", "Infinity", "-Infinity", "3.0d", "1.0E-5"
+        };
+        for (String value : values) {
+            assertParseDouble(value);
+        }
+    }
+
+    @Test
+    public void parseDouble_shouldGiveExactlyTheSameResultAsDoubleParseDouble_forRandomValues() {
+        final Random random = new Random(1234);
+        for (int i = 0; i < 100000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(d) || Double.isInfinite(d)) continue;
+            assertParseDouble(Double.toString(d));
+        }
+        for (int i = 0; i < 100000; i++) {
+            // coordinate values similar to WGS84, SWEREF99 and RT90 values
+            double d = random.nextDouble() * Math.pow(10, random.nextInt(8));
+            assertParseDouble(Double.toString(d));
+            assertParseDouble(Double.toString(-d));
+        }
+        for (int i = 0; i < 100000; i++) {
+            // random digits with a decimal point and exponent
+            StringBuilder sb = new StringBuilder();
+            int numberOfDigits = 1 + random.nextInt(19);
+            for (int j = 0; j < numberOfDigits; j++) sb.append((char) ('0' + random.nextInt(10)));
+            sb.insert(random.nextInt(numberOfDigits + 1), '.');
+            if (random.nextBoolean()) sb.append('e').append(random.nextInt(700) - 350);
+            assertParseDouble(sb.toString());
+        }
+        for (int i = 0; i < 20000; i++) {
+            // (almost) halfway between two doubles, i.e. the most difficult values to round correctly
+            double d = random.nextDouble() * Math.pow(10, random.nextInt(30) - 15);
+            BigDecimal halfway = new BigDecimal(d).add(new BigDecimal(Math.nextUp(d))).divide(BigDecimal.valueOf(2));
+            assertParseDouble(halfway.round(new MathContext(17)).toString());
+            assertParseDouble(halfway.round(new MathContext(19)).toString());
+            assertParseDouble(halfway.toString());
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseDouble_shouldThrowExceptionForInvalidNumber() {
+        byte[] bytes = "12.3x".getBytes(charset);
+        NumberParser.parseDouble(bytes, 0, bytes.length);
+    }
+
+    @Test
+    public void parseInt() {
+        for (String value : new String[]{"3006", " 4326 ", "0", "-3", "+7", "123456789", "2147483647"}) {
+            byte[] bytes = value.getBytes(charset);
+            assertEquals(value, Integer.parseInt(value.trim()), NumberParser.parseInt(bytes, 0, bytes.length));
+        }
+    }
+}
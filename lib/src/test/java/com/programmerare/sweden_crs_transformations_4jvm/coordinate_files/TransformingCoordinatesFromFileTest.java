@@ -3,6 +3,8 @@ package com.programmerare.sweden_crs_transformations_4jvm.coordinate_files;
 import com.google.common.io.Resources;
 import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
 import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.TransformKernel;
+import com.programmerare.sweden_crs_transformations_4jvm.transformation.Transformer;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -22,6 +24,15 @@ public class TransformingCoordinatesFromFileTest {
 
     @Test
     public void assertThatTransformationsDoNotDifferTooMuchFromExpectedResultInFile() {
+        assertThatTransformationsDoNotDifferTooMuchFromExpectedResultInFile(TransformKernel.ORIGINAL);
+    }
+
+    @Test
+    public void assertThatTransformationsWithOptimizedKernelDoNotDifferTooMuchFromExpectedResultInFile() {
+        assertThatTransformationsDoNotDifferTooMuchFromExpectedResultInFile(TransformKernel.OPTIMIZED);
+    }
+
+    private void assertThatTransformationsDoNotDifferTooMuchFromExpectedResultInFile(TransformKernel transformKernel) {
         List<String> problemTransformationResults = new ArrayList<String>();
         List<String> linesFromCsvFile = this.readAllLinesFromResourceFile(relativePathForFileWith_swedish_crs_transformations);
         // The first two lines of the input file (the header row, and a data row):
@@ -44,8 +55,8 @@ public class TransformingCoordinatesFromFileTest {
             List<CrsCoordinate> coordinates = listOfCoordinatesWhichRepresentTheSameLocation.coordinateList;
             for(int i=0; i<coordinates.size()-1; i++) {
                 for(int j=i+1; j<coordinates.size(); j++) {
-                    transform(coordinates.get(i), coordinates.get(j), problemTransformationResults);
-                    transform(coordinates.get(j), coordinates.get(i), problemTransformationResults);
+                    transform(coordinates.get(i), coordinates.get(j), transformKernel, problemTransformationResults);
+                    transform(coordinates.get(j), coordinates.get(i), transformKernel, problemTransformationResults);
                     numberOfTransformations += 2;
                 }
             }
@@ -72,10 +83,13 @@ public class TransformingCoordinatesFromFileTest {
     private void transform(
         CrsCoordinate sourceCoordinate,
         CrsCoordinate targetCoordinateExpected,
+        TransformKernel transformKernel,
         List<String> problemTransformationResults
     ) {
         CrsProjection targetCrs = targetCoordinateExpected.getCrsProjection();
-        CrsCoordinate targetCoordinate = sourceCoordinate.transform(targetCrs);
+        CrsCoordinate targetCoordinate = transformKernel == TransformKernel.ORIGINAL
+            ? sourceCoordinate.transform(targetCrs)
+            : Transformer.plan(sourceCoordinate.getCrsProjection(), targetCrs, transformKernel).transform(sourceCoordinate);
         boolean isTargetEpsgWgs84 = targetCrs.isWgs84();
         // double maxDifference = isTargetEpsgWgs84 ? 0.000002 : 0.2;   // fails, Epsg 3022 ==> 4326 , diffLongitude 2.39811809521484E-06
         // double maxDifference = isTargetEpsgWgs84 ? 0.000003 : 0.1;     // fails, Epsg 4326 ==> 3022 , diffLongitude 0.117090131156147
@@ -45,4 +45,100 @@ public class JavaGaussKreugerTest {
         assertEquals(stockholmCentralStation_WGS84_latitude, resultWGS84.LatitudeY(), delta);
         assertEquals(stockholmCentralStation_WGS84_longitude, resultWGS84.LongitudeX(), delta);
     }
+
+    @Test
+    public void overloadedMethodsWritingIntoArrays_shouldGiveTheSameResultAsTheMethodsReturningLatLon() {
+        final double[] result = new double[4];
+
+        gaussKreuger.geodetic_to_grid(stockholmCentralStation_WGS84_latitude, stockholmCentralStation_WGS84_longitude, result, 1, result, 3);
+        final LatLon resultSweref99 = gaussKreuger.geodetic_to_grid(stockholmCentralStation_WGS84_latitude, stockholmCentralStation_WGS84_longitude);
+        assertEquals(resultSweref99.LatitudeY(), result[1], 0.0);
+        assertEquals(resultSweref99.LongitudeX(), result[3], 0.0);
+
+        gaussKreuger.grid_to_geodetic(stockholmCentralStation_SWEREF99TM_northing, stockholmCentralStation_SWEREF99TM_easting, result, 2, result, 0);
+        final LatLon resultWGS84 = gaussKreuger.grid_to_geodetic(stockholmCentralStation_SWEREF99TM_northing, stockholmCentralStation_SWEREF99TM_easting);
+        assertEquals(resultWGS84.LatitudeY(), result[2], 0.0);
+        assertEquals(resultWGS84.LongitudeX(), result[0], 0.0);
+    }
+
+    @Test
+    public void grid_to_grid_shouldGiveTheSameResultAsTransformingViaGeodeticCoordinates() {
+        // exactly the same result with the original (default) kernel
+        assertGridToGridGivesTheSameResultAsTransformingViaGeodeticCoordinates(false, 0.0);
+    }
+
+    @Test
+    public void grid_to_grid_withOptimizedKernel_shouldGiveAlmostTheSameResultAsTransformingViaGeodeticCoordinates() {
+        // The results may differ with one millimeter because of the rounding to millimeters
+        // i.e. a very small difference (because of the series approximations through the conformal latitude) might be rounded differently
+        assertGridToGridGivesTheSameResultAsTransformingViaGeodeticCoordinates(true, 0.0010001);
+    }
+
+    private void assertGridToGridGivesTheSameResultAsTransformingViaGeodeticCoordinates(
+        final boolean useOptimizedKernel,
+        final double delta
+    ) {
+        final double[] grid = new double[2];
+        final double[] viaGeodetic = new double[2];
+        final double[] gridToGrid = new double[2];
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            if (sourceCrsProjection.isWgs84()) continue;
+            final GaussKreuger source = gaussKreugerFactory.getGaussKreuger(sourceCrsProjection, useOptimizedKernel);
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                if (targetCrsProjection.isWgs84()) continue;
+                final GaussKreuger target = gaussKreugerFactory.getGaussKreuger(targetCrsProjection, useOptimizedKernel);
+                for (double latitude = 55.25; latitude < 69.0; latitude += 1.0) {
+                    for (double longitude = 11.0; longitude < 24.0; longitude += 1.0) {
+                        source.geodetic_to_grid(latitude, longitude, grid, 0, grid, 1);
+                        source.grid_to_geodetic(grid[0], grid[1], viaGeodetic, 0, viaGeodetic, 1);
+                        target.geodetic_to_grid(viaGeodetic[0], viaGeodetic[1], viaGeodetic, 0, viaGeodetic, 1);
+                        source.grid_to_grid(grid[0], grid[1], target, gridToGrid, 0, gridToGrid, 1);
+                        final String message = sourceCrsProjection + " ==> " + targetCrsProjection + " , latitude " + latitude + " , longitude " + longitude;
+                        assertEquals(message, viaGeodetic[0], gridToGrid[0], delta);
+                        assertEquals(message, viaGeodetic[1], gridToGrid[1], delta);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void optimizedKernel_shouldGiveAlmostTheSameResultAsTheOriginalKernel() {
+        // The grid coordinates may differ with one millimeter because of the rounding to millimeters
+        // (i.e. a very small difference in the last bits might be rounded differently)
+        // but the differences before the rounding are in the order of nanometers.
+        // The geodetic coordinates (i.e. the Horner evaluation of the latitude series) differ with at most about 1E-13 degrees.
+        final double deltaGrid = 0.0010001;
+        final double deltaGeodetic = 1E-11; // degrees, i.e. less than a millimeter
+        final double[] original = new double[2];
+        final double[] optimized = new double[2];
+        for (CrsProjection crsProjection : CrsProjection.values()) {
+            if (crsProjection.isWgs84()) continue;
+            final GaussKreuger originalKernel = gaussKreugerFactory.getGaussKreuger(crsProjection, false);
+            final GaussKreuger optimizedKernel = gaussKreugerFactory.getGaussKreuger(crsProjection, true);
+            final GaussKreuger target = gaussKreugerFactory.getGaussKreuger(CrsProjection.SWEREF_99_TM, true);
+            // a dense grid covering Sweden
+            for (double latitude = 55.0; latitude <= 69.5; latitude += 0.1) {
+                for (double longitude = 10.5; longitude <= 24.5; longitude += 0.1) {
+                    final String message = crsProjection + " , latitude " + latitude + " , longitude " + longitude;
+                    originalKernel.geodetic_to_grid(latitude, longitude, original, 0, original, 1);
+                    optimizedKernel.geodetic_to_grid(latitude, longitude, optimized, 0, optimized, 1);
+                    assertEquals(message, original[0], optimized[0], deltaGrid);
+                    assertEquals(message, original[1], optimized[1], deltaGrid);
+
+                    final double northing = original[0];
+                    final double easting = original[1];
+                    originalKernel.grid_to_geodetic(northing, easting, original, 0, original, 1);
+                    optimizedKernel.grid_to_geodetic(northing, easting, optimized, 0, optimized, 1);
+                    assertEquals(message, original[0], optimized[0], deltaGeodetic);
+                    assertEquals(message, original[1], optimized[1], deltaGeodetic);
+
+                    originalKernel.grid_to_grid(northing, easting, gaussKreugerFactory.getGaussKreuger(CrsProjection.SWEREF_99_TM), original, 0, original, 1);
+                    optimizedKernel.grid_to_grid(northing, easting, target, optimized, 0, optimized, 1);
+                    assertEquals(message, original[0], optimized[0], deltaGrid);
+                    assertEquals(message, original[1], optimized[1], deltaGrid);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,164 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.google.common.io.Resources;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ApproximateTransformerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final static ApproximateTransformer approximateTransformer = ApproximateTransformer.getInstance();
+
+    // https://kartor.eniro.se/m/XRCfh
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+
+    @Test
+    public void transform_shouldNotDifferMoreThanMaxErrorFromExactTransformation() {
+        final List<CrsProjection[]> sourceAndTargetCrsProjections = new ArrayList<CrsProjection[]>();
+        for (CrsProjection crsProjection : CrsProjection.values()) {
+            if (crsProjection.isWgs84()) continue;
+            sourceAndTargetCrsProjections.add(new CrsProjection[]{CrsProjection.WGS84, crsProjection});
+            sourceAndTargetCrsProjections.add(new CrsProjection[]{crsProjection, CrsProjection.WGS84});
+        }
+        // some of the grid projections with the largest differences between the central meridians
+        sourceAndTargetCrsProjections.add(new CrsProjection[]{CrsProjection.SWEREF_99_12_00, CrsProjection.SWEREF_99_23_15});
+        sourceAndTargetCrsProjections.add(new CrsProjection[]{CrsProjection.RT90_5_0_GON_O, CrsProjection.RT90_7_5_GON_V});
+        sourceAndTargetCrsProjections.add(new CrsProjection[]{CrsProjection.SWEREF_99_TM, CrsProjection.RT90_2_5_GON_V});
+
+        final double[] sourceValues = new double[2];
+        final double[] approximateValues = new double[2];
+        final double[] exactValues = new double[2];
+        for (CrsProjection[] sourceAndTargetCrsProjection : sourceAndTargetCrsProjections) {
+            final CrsProjection sourceCrsProjection = sourceAndTargetCrsProjection[0];
+            final CrsProjection targetCrsProjection = sourceAndTargetCrsProjection[1];
+            final TransformPlan planToSource = Transformer.plan(CrsProjection.WGS84, sourceCrsProjection, TransformKernel.ORIGINAL, PrecisionPolicy.noRounding());
+            final TransformPlan approximatePlan = approximateTransformer.plan(sourceCrsProjection, targetCrsProjection);
+            final TransformPlan exactPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection);
+            final double maxError = targetCrsProjection.isWgs84() ? ApproximateTransformer.maxErrorInDegrees() : ApproximateTransformer.maxErrorInMeters();
+            final Random random = new Random(1234);
+            for (int i = 0; i < 2000; i++) {
+                // locations within the bounding box of Sweden
+                planToSource.transform(54.9 + random.nextDouble() * 14.3, 10.0 + random.nextDouble() * 14.3, sourceValues, 0, sourceValues, 1);
+                approximatePlan.transform(sourceValues[0], sourceValues[1], approximateValues, 0, approximateValues, 1);
+                exactPlan.transform(sourceValues[0], sourceValues[1], exactValues, 0, exactValues, 1);
+                assertEquals(exactValues[0], approximateValues[0], maxError);
+                assertEquals(exactValues[1], approximateValues[1], maxError);
+            }
+        }
+    }
+
+    @Test
+    public void transform_shouldNotDifferMoreThanMaxErrorFromExactTransformationForCoordinatesInFile() throws IOException {
+        // the same file as used in 'TransformingCoordinatesFromFileTest'
+        final List<String> lines = Resources.readLines(Resources.getResource("coordinate_files/swedish_crs_coordinates.csv"), Charset.forName("UTF-8"));
+        int numberOfTransformations = 0;
+        for (int lineIndex = 1; lineIndex < lines.size(); lineIndex++) {
+            final String[] array = lines.get(lineIndex).split("\\|");
+            final List<CrsCoordinate> coordinates = Arrays.asList(
+                CrsCoordinate.createCoordinate(Integer.parseInt(array[0]), Double.parseDouble(array[2]), Double.parseDouble(array[1])),
+                CrsCoordinate.createCoordinate(Integer.parseInt(array[3]), Double.parseDouble(array[5]), Double.parseDouble(array[4])),
+                CrsCoordinate.createCoordinate(Integer.parseInt(array[6]), Double.parseDouble(array[8]), Double.parseDouble(array[7]))
+            );
+            for (CrsCoordinate sourceCoordinate : coordinates) {
+                for (CrsCoordinate targetCoordinate : coordinates) {
+                    final CrsProjection targetCrsProjection = targetCoordinate.getCrsProjection();
+                    final CrsCoordinate approximateCoordinate = approximateTransformer.transform(sourceCoordinate, targetCrsProjection);
+                    final CrsCoordinate exactCoordinate = sourceCoordinate.transform(targetCrsProjection);
+                    final double maxError = targetCrsProjection.isWgs84() ? ApproximateTransformer.maxErrorInDegrees() : ApproximateTransformer.maxErrorInMeters();
+                    assertEquals(exactCoordinate.getLatitudeY(), approximateCoordinate.getLatitudeY(), maxError);
+                    assertEquals(exactCoordinate.getLongitudeX(), approximateCoordinate.getLongitudeX(), maxError);
+                    numberOfTransformations++;
+                }
+            }
+        }
+        assertEquals(18 * 9, numberOfTransformations);
+    }
+
+    @Test
+    public void transform_shouldTransformExactlyOutsideOfTheGrid() {
+        final CrsCoordinate outsideOfSweden = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 40.0, 5.0);
+        assertEquals(
+            outsideOfSweden.transform(CrsProjection.SWEREF_99_TM),
+            approximateTransformer.transform(outsideOfSweden, CrsProjection.SWEREF_99_TM)
+        );
+    }
+
+    @Test
+    public void plan() {
+        final TransformPlan plan = approximateTransformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+        assertSame(plan, approximateTransformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM));
+        assertEquals(CrsProjection.WGS84, plan.getSourceCrsProjection());
+        assertEquals(CrsProjection.SWEREF_99_TM, plan.getTargetCrsProjection());
+        assertEquals("ApproximateTransformPlan [ WGS84(EPSG:4326) ==> SWEREF_99_TM(EPSG:3006) ]", plan.toString());
+        assertSame(Transformer.plan(CrsProjection.RT90_0_0_GON_V, CrsProjection.RT90_0_0_GON_V), approximateTransformer.plan(CrsProjection.RT90_0_0_GON_V, CrsProjection.RT90_0_0_GON_V));
+
+        // the values of SWEREF99 and RT90 coordinates are rounded to millimeters
+        final CrsCoordinate result = plan.transform(stockholmCentralStation_WGS84);
+        assertEquals(result.getLatitudeY(), Math.round(result.getLatitudeY() * 1000.0) / 1000.0, 0.0);
+        assertEquals(result.getLongitudeX(), Math.round(result.getLongitudeX() * 1000.0) / 1000.0, 0.0);
+    }
+
+    @Test
+    public void cacheDirectory() throws IOException {
+        final Path cacheDirectory = temporaryFolder.newFolder().toPath();
+        final ApproximateTransformer transformerWritingFile = ApproximateTransformer.create(cacheDirectory);
+        assertEquals(cacheDirectory, transformerWritingFile.getCacheDirectory());
+        final CrsCoordinate result = transformerWritingFile.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        final Path path = cacheDirectory.resolve("interpolation_grid_4326_3006.bin");
+        assertTrue(Files.isRegularFile(path));
+        assertEquals(1, cacheDirectory.toFile().list().length);
+        final long lastModified = path.toFile().lastModified();
+
+        // another instance reads the file
+        assertTrue(path.toFile().setLastModified(lastModified - 10000));
+        final ApproximateTransformer transformerReadingFile = ApproximateTransformer.create(cacheDirectory);
+        assertEquals(result, transformerReadingFile.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM));
+        assertEquals(lastModified - 10000, path.toFile().lastModified());
+
+        // an invalid file is replaced
+        Files.write(path, new byte[]{1, 2, 3});
+        assertEquals(result, ApproximateTransformer.create(cacheDirectory).transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM));
+        assertTrue(Files.size(path) > 3);
+        assertEquals(result, ApproximateTransformer.create(cacheDirectory).transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM));
+
+        // a file with a modified value (i.e. with an invalid checksum) is replaced
+        final byte[] bytes = Files.readAllBytes(path);
+        final byte[] modifiedBytes = bytes.clone();
+        modifiedBytes[bytes.length / 2] ^= 1;
+        Files.write(path, modifiedBytes);
+        assertEquals(result, ApproximateTransformer.create(cacheDirectory).transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM));
+        assertArrayEquals(bytes, Files.readAllBytes(path));
+    }
+
+    @Test
+    public void create_shouldThrowExceptionForInvalidDirectory() throws IOException {
+        final File file = temporaryFolder.newFile();
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    ApproximateTransformer.create(file.toPath());
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,213 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class CachingTransformerTest {
+
+    // https://kartor.eniro.se/m/XRCfh
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+    private final static CrsCoordinate malmoCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 55.609464, 13.000436);
+    private final static CrsCoordinate goteborgCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 57.708734, 11.973991);
+
+    private static List<CrsCoordinate> createCoordinates(final int numberOfCoordinates) {
+        final Random random = new Random(1234);
+        final List<CrsCoordinate> coordinates = new ArrayList<CrsCoordinate>();
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            coordinates.add(CrsCoordinate.createCoordinate(CrsProjection.WGS84, 55.5 + random.nextDouble() * 13.5, 11.0 + random.nextDouble() * 13.0));
+        }
+        return coordinates;
+    }
+
+    @Test
+    public void transform_shouldGiveTheSameResultAsTransformer() {
+        final CachingTransformer cachingTransformer = CachingTransformer.create(1000);
+        final MutableCoordinate result = MutableCoordinate.createCoordinate(CrsProjection.WGS84, 0, 0);
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            final CrsCoordinate sourceCoordinate = stockholmCentralStation_WGS84.transform(sourceCrsProjection);
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                final CrsCoordinate expected = sourceCoordinate.transform(targetCrsProjection);
+                // the first time from the calculation and then from the cache
+                assertEquals(expected, cachingTransformer.transform(sourceCoordinate, targetCrsProjection));
+                assertEquals(expected, cachingTransformer.transform(sourceCoordinate, targetCrsProjection));
+                assertSame(result, cachingTransformer.transform(sourceCoordinate, targetCrsProjection, result));
+                assertEquals(expected, result.toCrsCoordinate());
+            }
+        }
+        final int numberOfCrsProjections = CrsProjection.values().length;
+        final int numberOfCachedResults = numberOfCrsProjections * (numberOfCrsProjections - 1);
+        assertEquals(numberOfCachedResults, cachingTransformer.size());
+        assertEquals(numberOfCachedResults, cachingTransformer.getMissCount());
+        assertEquals(2 * numberOfCachedResults, cachingTransformer.getHitCount());
+        assertSame(stockholmCentralStation_WGS84, cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.WGS84));
+    }
+
+    @Test
+    public void transform_shouldBeRecordedByTheInstrumentation() {
+        final CachingTransformer cachingTransformer = CachingTransformer.create(1000);
+        final TransformMetrics metrics = TransformMetrics.create();
+        Transformer.setInstrumentation(metrics);
+        try {
+            // one miss and then two hits
+            cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+            cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+            cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM, new MutableCoordinate());
+            // not recorded since the source and target CRS are the same
+            cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.WGS84);
+            final TransformMetrics.Snapshot snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+            assertEquals(3, snapshot.getNumberOfTransformations());
+            assertEquals(3, snapshot.getNumberOfCoordinates());
+            assertEquals(3, snapshot.getLatencies().getTotalCount());
+            assertEquals(2, snapshot.getNumberOfCacheHits());
+            assertEquals(1, snapshot.getNumberOfCacheMisses());
+            assertEquals(0, metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.WGS84).getNumberOfTransformations());
+        } finally {
+            Transformer.setInstrumentation(TransformInstrumentation.noOp);
+        }
+    }
+
+    @Test
+    public void transform_shouldEvictEntriesNotUsedSinceTheyWereInserted() {
+        final CachingTransformer cachingTransformer = CachingTransformer.create(2);
+        cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        cachingTransformer.transform(malmoCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        // a hit, i.e. the entry is not evicted when the next entry is inserted
+        cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        cachingTransformer.transform(goteborgCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(2, cachingTransformer.size());
+        assertEquals(3, cachingTransformer.getMissCount());
+        assertEquals(1, cachingTransformer.getHitCount());
+
+        cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(2, cachingTransformer.getHitCount());
+        cachingTransformer.transform(goteborgCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(3, cachingTransformer.getHitCount());
+        cachingTransformer.transform(malmoCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(4, cachingTransformer.getMissCount());
+        assertEquals("CachingTransformer [ entries: 2/2 , hits: 3 , misses: 4 ]", cachingTransformer.toString());
+
+        cachingTransformer.clear();
+        assertEquals(0, cachingTransformer.size());
+        cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(5, cachingTransformer.getMissCount());
+    }
+
+    @Test
+    public void transform_shouldGiveCorrectResultsAfterManyEvictions() {
+        transform_shouldGiveCorrectResultsAfterManyEvictions(CachingTransformer.create(100));
+    }
+
+    @Test
+    public void transform_withStripes_shouldGiveCorrectResultsAfterManyEvictions() {
+        final CachingTransformer cachingTransformer = CachingTransformer.create(100, 8);
+        assertEquals(8, cachingTransformer.getNumberOfStripes());
+        transform_shouldGiveCorrectResultsAfterManyEvictions(cachingTransformer);
+    }
+
+    private void transform_shouldGiveCorrectResultsAfterManyEvictions(final CachingTransformer cachingTransformer) {
+        final List<CrsCoordinate> coordinates = createCoordinates(2000);
+        final Random random = new Random(5678);
+        for (int i = 0; i < 20000; i++) {
+            // a few of the coordinates are used much more often than the others
+            final CrsCoordinate coordinate = coordinates.get(random.nextBoolean() ? random.nextInt(50) : random.nextInt(coordinates.size()));
+            final CrsProjection targetCrsProjection = random.nextBoolean() ? CrsProjection.SWEREF_99_TM : CrsProjection.RT90_2_5_GON_V;
+            assertEquals(coordinate.transform(targetCrsProjection), cachingTransformer.transform(coordinate, targetCrsProjection));
+        }
+        assertEquals(100, cachingTransformer.size());
+        assertEquals(20000, cachingTransformer.getHitCount() + cachingTransformer.getMissCount());
+        assertTrue(cachingTransformer.getHitCount() > 2000);
+    }
+
+    @Test
+    public void transform_shouldBeThreadSafe() throws Exception {
+        transform_shouldBeThreadSafe(CachingTransformer.create(200));
+    }
+
+    @Test
+    public void transform_withStripes_shouldBeThreadSafe() throws Exception {
+        transform_shouldBeThreadSafe(CachingTransformer.create(200, 4));
+    }
+
+    private void transform_shouldBeThreadSafe(final CachingTransformer cachingTransformer) throws Exception {
+        final List<CrsCoordinate> coordinates = createCoordinates(300);
+        final List<CrsCoordinate> expectedResults = new ArrayList<CrsCoordinate>();
+        for (CrsCoordinate coordinate : coordinates) {
+            expectedResults.add(coordinate.transform(CrsProjection.SWEREF_99_TM));
+        }
+        final int numberOfThreads = 4;
+        final int numberOfTransformationsPerThread = 20000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int thread = 0; thread < numberOfThreads; thread++) {
+                final int seed = thread;
+                futures.add(executorService.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        final Random random = new Random(seed);
+                        for (int i = 0; i < numberOfTransformationsPerThread; i++) {
+                            final int index = random.nextInt(coordinates.size());
+                            if (!expectedResults.get(index).equals(cachingTransformer.transform(coordinates.get(index), CrsProjection.SWEREF_99_TM))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(numberOfThreads * numberOfTransformationsPerThread, cachingTransformer.getHitCount() + cachingTransformer.getMissCount());
+        assertEquals(200, cachingTransformer.size());
+    }
+
+    @Test
+    public void create_shouldThrowExceptionForInvalidMaximumNumberOfEntries() {
+        for (final int maximumNumberOfEntries : new int[]{0, -1, CachingTransformer.maxMaximumNumberOfEntries + 1}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        CachingTransformer.create(maximumNumberOfEntries);
+                    }
+                }
+            );
+        }
+        assertEquals(1, CachingTransformer.create(1).getMaximumNumberOfEntries());
+        assertEquals(1, CachingTransformer.create(1).getNumberOfStripes());
+    }
+
+    @Test
+    public void create_shouldThrowExceptionForInvalidNumberOfStripes() {
+        for (final int numberOfStripes : new int[]{0, -1, 3, 2 * CachingTransformer.maxNumberOfStripes, 1024}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        CachingTransformer.create(1000, numberOfStripes);
+                    }
+                }
+            );
+        }
+        assertEquals(512, CachingTransformer.create(1000, 512).getNumberOfStripes());
+    }
+}
@@ -0,0 +1,191 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinateArray;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class CoordinateStreamsTest {
+
+    private final static CrsProjection targetCrsProjection = CrsProjection.SWEREF_99_TM;
+
+    // coordinates with different CRS, in sequences with the same CRS, including some already in the target CRS
+    private List<CrsCoordinate> coordinates;
+
+    private List<CrsCoordinate> expectedTransformedCoordinates;
+
+    @Before
+    public void setUp() {
+        coordinates = new ArrayList<CrsCoordinate>();
+        for (int i = 0; i < 100; i++) {
+            final CrsCoordinate wgs84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 56.0 + i * 0.1, 12.0 + i * 0.1);
+            final CrsProjection crsProjection = i < 30 ? CrsProjection.WGS84 : i < 60 ? CrsProjection.RT90_2_5_GON_V : i < 70 ? targetCrsProjection : CrsProjection.SWEREF_99_18_00;
+            coordinates.add(wgs84.transform(crsProjection));
+        }
+        expectedTransformedCoordinates = new ArrayList<CrsCoordinate>();
+        for (CrsCoordinate coordinate : coordinates) {
+            expectedTransformedCoordinates.add(coordinate.transform(targetCrsProjection));
+        }
+    }
+
+    @Test
+    public void transform() {
+        assertEquals(
+            expectedTransformedCoordinates,
+            CoordinateStreams.transform(coordinates.stream(), targetCrsProjection).collect(Collectors.toList())
+        );
+        for (int numberOfCoordinatesInChunk : new int[]{1, 7, 30, 100, 1000}) {
+            assertEquals(
+                expectedTransformedCoordinates,
+                CoordinateStreams.transform(coordinates.stream(), targetCrsProjection, numberOfCoordinatesInChunk).collect(Collectors.toList())
+            );
+        }
+        assertEquals(0, CoordinateStreams.transform(Stream.<CrsCoordinate>empty(), targetCrsProjection).count());
+    }
+
+    @Test
+    public void transform_shouldNotTransformCoordinatesInTheTargetCrs() {
+        final List<CrsCoordinate> transformedCoordinates = CoordinateStreams.transform(coordinates.stream(), targetCrsProjection, 16).collect(Collectors.toList());
+        for (int i = 60; i < 70; i++) {
+            assertSame(coordinates.get(i), transformedCoordinates.get(i));
+        }
+    }
+
+    @Test
+    public void transform_shouldBeLazy() {
+        final AtomicInteger numberOfRetrievedCoordinates = new AtomicInteger();
+        final Stream<CrsCoordinate> source = coordinates.stream().peek(new Consumer<CrsCoordinate>() {
+            @Override
+            public void accept(CrsCoordinate coordinate) {
+                numberOfRetrievedCoordinates.incrementAndGet();
+            }
+        });
+        final Stream<CrsCoordinate> transformed = CoordinateStreams.transform(source, targetCrsProjection, 10);
+        assertEquals(0, numberOfRetrievedCoordinates.get());
+        assertEquals(expectedTransformedCoordinates.subList(0, 15), transformed.limit(15).collect(Collectors.toList()));
+        assertEquals(20, numberOfRetrievedCoordinates.get());
+    }
+
+    @Test
+    public void transform_shouldKeepTheSizeOfTheSource() {
+        final Spliterator<CrsCoordinate> spliterator = CoordinateStreams.transform(coordinates.stream(), targetCrsProjection, 16).spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.NONNULL));
+        assertEquals(100, spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.tryAdvance(new Consumer<CrsCoordinate>() {
+            @Override
+            public void accept(CrsCoordinate coordinate) {
+            }
+        }));
+        // one chunk has been retrieved from the source, but only one coordinate has been used
+        assertEquals(99, spliterator.getExactSizeIfKnown());
+
+        final Spliterator<CrsCoordinate> notSized = CoordinateStreams.transform(
+            coordinates.stream().filter(new java.util.function.Predicate<CrsCoordinate>() {
+                @Override
+                public boolean test(CrsCoordinate coordinate) {
+                    return true;
+                }
+            }),
+            targetCrsProjection
+        ).spliterator();
+        assertFalse(notSized.hasCharacteristics(Spliterator.SIZED));
+    }
+
+    @Test
+    public void transform_parallel() {
+        final List<CrsCoordinate> manyCoordinates = new ArrayList<CrsCoordinate>();
+        final List<CrsCoordinate> expected = new ArrayList<CrsCoordinate>();
+        for (int i = 0; i < 50; i++) {
+            manyCoordinates.addAll(coordinates);
+            expected.addAll(expectedTransformedCoordinates);
+        }
+        final Stream<CrsCoordinate> transformed = CoordinateStreams.transform(manyCoordinates.parallelStream(), targetCrsProjection, 64);
+        assertTrue(transformed.isParallel());
+        assertEquals(expected, transformed.collect(Collectors.toList()));
+
+        final Spliterator<CrsCoordinate> spliterator = CoordinateStreams.transform(manyCoordinates.stream(), targetCrsProjection, 64).spliterator();
+        final Spliterator<CrsCoordinate> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(manyCoordinates.size(), prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void transform_shouldCloseTheSource() {
+        final AtomicInteger numberOfClosings = new AtomicInteger();
+        final Stream<CrsCoordinate> source = coordinates.stream().onClose(new Runnable() {
+            @Override
+            public void run() {
+                numberOfClosings.incrementAndGet();
+            }
+        });
+        CoordinateStreams.transform(source, targetCrsProjection).close();
+        assertEquals(1, numberOfClosings.get());
+    }
+
+    @Test
+    public void toCrsCoordinateArray() {
+        final CrsCoordinateArray array = coordinates.stream().collect(CoordinateStreams.toCrsCoordinateArray(targetCrsProjection));
+        assertEquals(targetCrsProjection, array.getCrsProjection());
+        assertEquals(expectedTransformedCoordinates, array.toList());
+
+        final List<CrsCoordinate> manyCoordinates = new ArrayList<CrsCoordinate>();
+        final List<CrsCoordinate> expected = new ArrayList<CrsCoordinate>();
+        for (int i = 0; i < 50; i++) {
+            manyCoordinates.addAll(coordinates);
+            expected.addAll(expectedTransformedCoordinates);
+        }
+        assertEquals(expected, manyCoordinates.parallelStream().collect(CoordinateStreams.toCrsCoordinateArray(targetCrsProjection)).toList());
+
+        assertEquals(0, Stream.<CrsCoordinate>empty().collect(CoordinateStreams.toCrsCoordinateArray(targetCrsProjection)).size());
+    }
+
+    @Test
+    public void nullParameters() {
+        for (final Function<Void, ?> function : java.util.Arrays.<Function<Void, ?>>asList(
+            new Function<Void, Object>() {
+                @Override
+                public Object apply(Void v) {
+                    return CoordinateStreams.transform(null, targetCrsProjection);
+                }
+            },
+            new Function<Void, Object>() {
+                @Override
+                public Object apply(Void v) {
+                    return CoordinateStreams.transform(coordinates.stream(), null);
+                }
+            },
+            new Function<Void, Object>() {
+                @Override
+                public Object apply(Void v) {
+                    return CoordinateStreams.toCrsCoordinateArray(null);
+                }
+            }
+        )) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        function.apply(null);
+                    }
+                }
+            );
+        }
+    }
+}
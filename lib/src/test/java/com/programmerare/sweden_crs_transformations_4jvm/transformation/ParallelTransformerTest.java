@@ -0,0 +1,130 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelTransformerTest {
+
+    private final static int numberOfCoordinates = 10007;
+    private final static int offset = 5;
+
+    private ForkJoinPool forkJoinPool;
+    private ParallelTransformer parallelTransformer;
+
+    // WGS84 coordinates within Sweden, and then also transformed to the source projection of the test methods
+    private double[] wgs84Latitudes, wgs84Longitudes;
+
+    @Before
+    public void setUp() {
+        forkJoinPool = new ForkJoinPool(3);
+        // a small threshold to get many tasks
+        parallelTransformer = ParallelTransformer.create(forkJoinPool, 100);
+        Random random = new Random(1234);
+        wgs84Latitudes = new double[offset + numberOfCoordinates];
+        wgs84Longitudes = new double[offset + numberOfCoordinates];
+        for (int i = 0; i < wgs84Latitudes.length; i++) {
+            wgs84Latitudes[i] = 55.5 + random.nextDouble() * 13.5;
+            wgs84Longitudes[i] = 11.0 + random.nextDouble() * 13.0;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        forkJoinPool.shutdown();
+    }
+
+    @Test
+    public void transformArraysInParallel_shouldGiveExactlyTheSameResultAsTheSequentialTransformation() {
+        final CrsProjection[] sourceCrsProjections = {CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, CrsProjection.RT90_2_5_GON_V};
+        for (CrsProjection sourceCrsProjection : sourceCrsProjections) {
+            double[] yLatitudes = new double[wgs84Latitudes.length];
+            double[] xLongitudes = new double[wgs84Latitudes.length];
+            Transformer.transform(CrsProjection.WGS84, sourceCrsProjection, wgs84Latitudes, wgs84Longitudes, yLatitudes, xLongitudes, 0, wgs84Latitudes.length);
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                double[] expectedYLatitudes = new double[yLatitudes.length];
+                double[] expectedXLongitudes = new double[yLatitudes.length];
+                Transformer.transform(
+                    sourceCrsProjection, targetCrsProjection,
+                    yLatitudes, xLongitudes,
+                    expectedYLatitudes, expectedXLongitudes,
+                    offset, numberOfCoordinates
+                );
+                double[] targetYLatitudes = new double[yLatitudes.length];
+                double[] targetXLongitudes = new double[yLatitudes.length];
+                parallelTransformer.transform(
+                    sourceCrsProjection, targetCrsProjection,
+                    yLatitudes, xLongitudes,
+                    targetYLatitudes, targetXLongitudes,
+                    offset, numberOfCoordinates
+                );
+                String message = sourceCrsProjection + " ==> " + targetCrsProjection;
+                assertArrayEquals(message, expectedYLatitudes, targetYLatitudes, 0.0);
+                assertArrayEquals(message, expectedXLongitudes, targetXLongitudes, 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void transformInterleavedArrayInParallel_shouldGiveExactlyTheSameResultAsTheSequentialTransformation() {
+        final int stride = 3;
+        final CrsProjection sourceCrsProjection = CrsProjection.WGS84;
+        final CrsProjection targetCrsProjection = CrsProjection.SWEREF_99_18_00;
+        final AxisOrder axisOrder = AxisOrder.LONGITUDE_X_FIRST;
+        double[] coordinates = new double[offset + numberOfCoordinates * stride];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            coordinates[offset + i * stride] = wgs84Longitudes[i];
+            coordinates[offset + i * stride + 1] = wgs84Latitudes[i];
+            coordinates[offset + i * stride + 2] = i; // should not be modified
+        }
+        double[] expected = coordinates.clone();
+        Transformer.transform(sourceCrsProjection, targetCrsProjection, coordinates, offset, expected, offset, numberOfCoordinates, stride, axisOrder);
+
+        double[] target = coordinates.clone();
+        parallelTransformer.transform(sourceCrsProjection, targetCrsProjection, coordinates, offset, target, offset, numberOfCoordinates, stride, axisOrder);
+        assertArrayEquals(expected, target, 0.0);
+
+        // in place
+        parallelTransformer.transform(sourceCrsProjection, targetCrsProjection, coordinates, offset, coordinates, offset, numberOfCoordinates, stride, axisOrder);
+        assertArrayEquals(expected, coordinates, 0.0);
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidParameters() {
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    ParallelTransformer.create(forkJoinPool, 0);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    ParallelTransformer.create(null, 100);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    double[] array = new double[1000];
+                    parallelTransformer.transform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, array, array, array, array, 1, 1000);
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import static org.junit.Assert.*;
+
+public class PrecisionPolicyTest {
+
+    // https://kartor.eniro.se/m/XRCfh
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+    private final static CrsCoordinate stockholmCentralStation_SWEREF99TM = CrsCoordinate.createCoordinate(CrsProjection.SWEREF_99_TM, 6580822, 674032);
+
+    @Test
+    public void factoryMethods() {
+        assertSame(PrecisionPolicy.roundToMillimeter(), PrecisionPolicy.roundToDecimals(3));
+        assertEquals(3, PrecisionPolicy.roundToMillimeter().getNumberOfDecimals());
+        assertTrue(PrecisionPolicy.roundToMillimeter().isRounding());
+        assertFalse(PrecisionPolicy.noRounding().isRounding());
+        assertEquals(-1, PrecisionPolicy.noRounding().getNumberOfDecimals());
+        for (int numberOfDecimals = 0; numberOfDecimals <= PrecisionPolicy.maxNumberOfDecimals; numberOfDecimals++) {
+            assertSame(PrecisionPolicy.roundToDecimals(numberOfDecimals), PrecisionPolicy.roundToDecimals(numberOfDecimals));
+            assertEquals(numberOfDecimals, PrecisionPolicy.roundToDecimals(numberOfDecimals).getNumberOfDecimals());
+        }
+        for (final int numberOfDecimals : new int[]{-1, PrecisionPolicy.maxNumberOfDecimals + 1}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        PrecisionPolicy.roundToDecimals(numberOfDecimals);
+                    }
+                }
+            );
+        }
+        assertEquals("PrecisionPolicy [ decimals: 3 ]", PrecisionPolicy.roundToMillimeter().toString());
+        assertEquals("PrecisionPolicy [ no rounding ]", PrecisionPolicy.noRounding().toString());
+    }
+
+    @Test
+    public void round() {
+        assertEquals(6580821.991, PrecisionPolicy.roundToMillimeter().round(6580821.9912345), 0.0);
+        assertEquals(6580821.99, PrecisionPolicy.roundToDecimals(2).round(6580821.9912345), 0.0);
+        assertEquals(6580822.0, PrecisionPolicy.roundToDecimals(0).round(6580821.9912345), 0.0);
+        assertEquals(6580821.9912345, PrecisionPolicy.noRounding().round(6580821.9912345), 0.0);
+        // the same expression as the original rounding to millimeters
+        final double value = 674032.3574999999;
+        assertEquals(Math.round(value * 1000.0) / 1000.0, PrecisionPolicy.roundToMillimeter().round(value), 0.0);
+    }
+
+    @Test
+    public void transform_shouldRoundToMillimetersByDefault() {
+        assertEquals(
+            stockholmCentralStation_WGS84.transform(CrsProjection.SWEREF_99_TM),
+            stockholmCentralStation_WGS84.transform(CrsProjection.SWEREF_99_TM, PrecisionPolicy.roundToMillimeter())
+        );
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                for (TransformKernel transformKernel : TransformKernel.values()) {
+                    assertSame(
+                        Transformer.plan(sourceCrsProjection, targetCrsProjection, transformKernel),
+                        Transformer.plan(sourceCrsProjection, targetCrsProjection, transformKernel, PrecisionPolicy.roundToMillimeter())
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void transform_withoutRounding() {
+        for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+            if (targetCrsProjection.isWgs84()) continue;
+            final CrsCoordinate rounded = stockholmCentralStation_WGS84.transform(targetCrsProjection);
+            final CrsCoordinate notRounded = stockholmCentralStation_WGS84.transform(targetCrsProjection, PrecisionPolicy.noRounding());
+            final CrsCoordinate roundedToCentimeters = stockholmCentralStation_WGS84.transform(targetCrsProjection, PrecisionPolicy.roundToDecimals(2));
+            assertEquals(rounded.getLatitudeY(), notRounded.getLatitudeY(), 0.0005);
+            assertEquals(rounded.getLongitudeX(), notRounded.getLongitudeX(), 0.0005);
+            assertEquals(rounded.getLatitudeY(), PrecisionPolicy.roundToMillimeter().round(notRounded.getLatitudeY()), 0.0);
+            assertEquals(rounded.getLongitudeX(), PrecisionPolicy.roundToMillimeter().round(notRounded.getLongitudeX()), 0.0);
+            assertEquals(Math.round(notRounded.getLatitudeY() * 100.0) / 100.0, roundedToCentimeters.getLatitudeY(), 0.0);
+            assertEquals(Math.round(notRounded.getLongitudeX() * 100.0) / 100.0, roundedToCentimeters.getLongitudeX(), 0.0);
+
+            // grid to grid
+            final CrsCoordinate gridToGrid = stockholmCentralStation_SWEREF99TM.transform(targetCrsProjection, PrecisionPolicy.noRounding());
+            assertEquals(
+                stockholmCentralStation_SWEREF99TM.transform(targetCrsProjection).getLatitudeY(),
+                PrecisionPolicy.roundToMillimeter().round(gridToGrid.getLatitudeY()),
+                0.0
+            );
+        }
+    }
+
+    @Test
+    public void transform_shouldNotRoundWgs84Values() {
+        assertEquals(
+            stockholmCentralStation_SWEREF99TM.transform(CrsProjection.WGS84),
+            stockholmCentralStation_SWEREF99TM.transform(CrsProjection.WGS84, PrecisionPolicy.roundToDecimals(0))
+        );
+    }
+
+    @Test
+    public void roundTrip_withoutRoundingShouldBeMoreAccurateThanWithRounding() {
+        final TransformPlan toGrid = Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, TransformKernel.ORIGINAL, PrecisionPolicy.noRounding());
+        final TransformPlan toGeodetic = Transformer.plan(CrsProjection.SWEREF_99_TM, CrsProjection.WGS84);
+        final CrsCoordinate roundTrip = toGeodetic.transform(toGrid.transform(stockholmCentralStation_WGS84));
+        // The difference is about 3E-11 degrees (a few micrometers, because of the series approximations)
+        // i.e. much less than what the rounding to millimeters can cause (a millimeter is about 1E-8 degrees)
+        assertEquals(stockholmCentralStation_WGS84.getLatitudeY(), roundTrip.getLatitudeY(), 1E-10);
+        assertEquals(stockholmCentralStation_WGS84.getLongitudeX(), roundTrip.getLongitudeX(), 1E-10);
+    }
+}
@@ -0,0 +1,133 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransformEventTest {
+
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+
+    @Test
+    public void events_shouldOnlyBeCreatedWhenRecording() throws IOException {
+        assertNull(TransformEvents.begin());
+        final List<RecordedEvent> events = record(TransformEvent.name, new Runnable() {
+            @Override
+            public void run() {
+                assertNotNull(TransformEvents.begin());
+            }
+        });
+        assertTrue(events.isEmpty());
+        assertNull(TransformEvents.begin());
+    }
+
+    @Test
+    public void events_forTransformations() throws IOException {
+        final CachingTransformer cachingTransformer = CachingTransformer.create(100);
+        final List<RecordedEvent> events = record(TransformEvent.name, new Runnable() {
+            @Override
+            public void run() {
+                final double[] yLatitudes = new double[]{59.330231, 59.330231, 59.330231};
+                final double[] xLongitudes = new double[]{18.059196, 18.059196, 18.059196};
+                Transformer.transform(CrsProjection.WGS84, CrsProjection.RT90_2_5_GON_V, yLatitudes, xLongitudes, yLatitudes, xLongitudes, 0, 3);
+                final double[] yLatitudesForPlan = new double[]{59.330231, 59.330231};
+                final double[] xLongitudesForPlan = new double[]{18.059196, 18.059196};
+                ApproximateTransformer.getInstance().plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM).transform(yLatitudesForPlan, xLongitudesForPlan, yLatitudesForPlan, xLongitudesForPlan, 0, 2);
+                // no events for single coordinates
+                stockholmCentralStation_WGS84.transform(CrsProjection.SWEREF_99_TM);
+                Transformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM, new MutableCoordinate());
+                stockholmCentralStation_WGS84.transform(CrsProjection.WGS84);
+                cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+                cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+            }
+        });
+        assertEquals(2, events.size());
+        assertEvent(events.get(0), 4326, 3021, 3, false);
+        assertEvent(events.get(1), 4326, 3006, 2, true);
+    }
+
+    @Test
+    public void events_forCachingTransformer() throws IOException {
+        // a maximum number of entries which is not used by the other tests, to find the events of this instance
+        final int maximumNumberOfEntries = 12345;
+        final CachingTransformer cachingTransformer = CachingTransformer.create(maximumNumberOfEntries);
+        final List<RecordedEvent> events = record(CachingTransformerEvent.name, new Runnable() {
+            @Override
+            public void run() {
+                // two misses and one hit
+                cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+                cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+                cachingTransformer.transform(stockholmCentralStation_WGS84, CrsProjection.RT90_2_5_GON_V);
+            }
+        });
+        RecordedEvent lastEvent = null;
+        for (RecordedEvent event : events) {
+            if (event.getInt("maximumNumberOfEntries") == maximumNumberOfEntries) {
+                lastEvent = event;
+            }
+        }
+        // the periodic event is created (at least) at the end of the recording
+        assertNotNull(lastEvent);
+        assertEquals(2, lastEvent.getInt("numberOfEntries"));
+        assertEquals(1, lastEvent.getLong("hitCount"));
+        assertEquals(2, lastEvent.getLong("missCount"));
+        assertEquals(1, cachingTransformer.getHitCount());
+    }
+
+    private static void assertEvent(
+        final RecordedEvent event,
+        final int sourceEpsgNumber,
+        final int targetEpsgNumber,
+        final int numberOfCoordinates,
+        final boolean approximate
+    ) {
+        assertEquals(sourceEpsgNumber, event.getInt("sourceEpsgNumber"));
+        assertEquals(targetEpsgNumber, event.getInt("targetEpsgNumber"));
+        assertEquals(numberOfCoordinates, event.getInt("numberOfCoordinates"));
+        assertEquals(approximate, event.getBoolean("approximate"));
+        assertFalse(event.getDuration().isNegative());
+    }
+
+    private static List<RecordedEvent> record(final String eventName, final Runnable runnable) throws IOException {
+        final File file = File.createTempFile("transform_events", ".jfr");
+        try {
+            final Recording recording = new Recording();
+            try {
+                recording.enable(eventName);
+                recording.start();
+                runnable.run();
+                recording.stop();
+                recording.dump(file.toPath());
+            } finally {
+                recording.close();
+            }
+            final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+                if (event.getEventType().getName().equals(eventName)) {
+                    events.add(event);
+                }
+            }
+            // in the order of the transformations (the events of a thread are in the order they were committed)
+            java.util.Collections.sort(events, new java.util.Comparator<RecordedEvent>() {
+                @Override
+                public int compare(RecordedEvent event1, RecordedEvent event2) {
+                    return event1.getEndTime().compareTo(event2.getEndTime());
+                }
+            });
+            return events;
+        } finally {
+            file.delete();
+        }
+    }
+}
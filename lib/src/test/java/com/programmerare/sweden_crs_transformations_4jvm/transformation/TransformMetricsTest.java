@@ -0,0 +1,162 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import com.programmerare.sweden_crs_transformations_4jvm.MutableCoordinate;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TransformMetricsTest {
+
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+
+    @After
+    public void tearDown() {
+        Transformer.setInstrumentation(TransformInstrumentation.noOp);
+    }
+
+    @Test
+    public void instrumentation_shouldBeNoOpByDefault() {
+        assertSame(TransformInstrumentation.noOp, Transformer.getInstrumentation());
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    Transformer.setInstrumentation(null);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void instrumentation_shouldRecordTransformations() {
+        final TransformMetrics metrics = TransformMetrics.create();
+        Transformer.setInstrumentation(metrics);
+        assertSame(metrics, Transformer.getInstrumentation());
+
+        stockholmCentralStation_WGS84.transform(CrsProjection.SWEREF_99_TM);
+        Transformer.transform(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM, new MutableCoordinate());
+        final double[] yLatitudes = new double[100];
+        final double[] xLongitudes = new double[100];
+        java.util.Arrays.fill(yLatitudes, 59.330231);
+        java.util.Arrays.fill(xLongitudes, 18.059196);
+        Transformer.transform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, yLatitudes, xLongitudes, yLatitudes, xLongitudes, 0, 100);
+        Transformer.transform(CrsProjection.SWEREF_99_TM, CrsProjection.RT90_2_5_GON_V, yLatitudes, xLongitudes, yLatitudes, xLongitudes, 10, 20);
+
+        final TransformMetrics.Snapshot snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(CrsProjection.WGS84, snapshot.getSourceCrsProjection());
+        assertEquals(CrsProjection.SWEREF_99_TM, snapshot.getTargetCrsProjection());
+        assertEquals(3, snapshot.getNumberOfTransformations());
+        assertEquals(102, snapshot.getNumberOfCoordinates());
+        assertEquals(3, snapshot.getBatchSizes().getTotalCount());
+        assertEquals(1, snapshot.getBatchSizes().getValueAtPercentile(50));
+        assertEquals(100, snapshot.getBatchSizes().getMax());
+        assertEquals(3, snapshot.getLatencies().getTotalCount());
+        assertTrue(snapshot.getLatencies().getMax() > 0);
+
+        final List<TransformMetrics.Snapshot> snapshots = metrics.getSnapshots();
+        assertEquals(2, snapshots.size());
+        assertEquals(CrsProjection.SWEREF_99_TM, snapshots.get(1).getSourceCrsProjection());
+        assertEquals(20, snapshots.get(1).getNumberOfCoordinates());
+
+        Transformer.setInstrumentation(TransformInstrumentation.noOp);
+        stockholmCentralStation_WGS84.transform(CrsProjection.SWEREF_99_TM);
+        assertEquals(3, metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM).getNumberOfTransformations());
+
+        metrics.reset();
+        assertTrue(metrics.getSnapshots().isEmpty());
+    }
+
+    @Test
+    public void getSnapshot_withoutRecordedTransformations() {
+        final TransformMetrics.Snapshot snapshot = TransformMetrics.create().getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(0, snapshot.getNumberOfTransformations());
+        assertEquals(0, snapshot.getLatencies().getTotalCount());
+        assertEquals(0, snapshot.getLatencies().getValueAtPercentile(99), 0);
+        assertEquals(0.0, snapshot.getLatencies().getMean(), 0.0);
+    }
+
+    @Test
+    public void histogram() {
+        final TransformMetrics metrics = TransformMetrics.create();
+        // the latencies 1, 2, ... 100000
+        for (int i = 1; i <= 100000; i++) {
+            metrics.onTransform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, i % 10, i);
+        }
+        final TransformMetrics.Histogram latencies = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM).getLatencies();
+        assertEquals(100000, latencies.getTotalCount());
+        assertEquals(100000, latencies.getMax());
+        assertEquals(50000.5, latencies.getMean(), 0.0);
+        for (double percentile : new double[]{0.01, 1, 10, 50, 90, 99, 99.9}) {
+            final long expected = (long) (percentile * 1000);
+            assertEquals(expected, latencies.getValueAtPercentile(percentile), expected * 0.032);
+        }
+        assertEquals(100000, latencies.getValueAtPercentile(100));
+        // small values are exact
+        assertEquals(10, latencies.getValueAtPercentile(0.01));
+
+        final TransformMetrics.Histogram batchSizes = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM).getBatchSizes();
+        assertEquals(0, batchSizes.getValueAtPercentile(0));
+        assertEquals(4, batchSizes.getValueAtPercentile(50));
+        assertEquals(9, batchSizes.getValueAtPercentile(100));
+
+        metrics.onTransform(CrsProjection.WGS84, CrsProjection.WGS84, 1, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.WGS84).getLatencies().getValueAtPercentile(50));
+
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    latencies.getValueAtPercentile(100.1);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void histogram_shouldMergeTheValuesRecordedByManyThreads() throws Exception {
+        final TransformMetrics metrics = TransformMetrics.create();
+        final int numberOfThreads = 8;
+        final int numberOfValuesPerThread = 10000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < numberOfThreads; t++) {
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 1; i <= numberOfValuesPerThread; i++) {
+                            metrics.onTransform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, 1, i % 20);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        final TransformMetrics.Snapshot snapshot = metrics.getSnapshot(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM);
+        assertEquals(numberOfThreads * numberOfValuesPerThread, snapshot.getNumberOfTransformations());
+        assertEquals(numberOfThreads * numberOfValuesPerThread, snapshot.getBatchSizes().getTotalCount());
+        assertEquals(numberOfThreads * numberOfValuesPerThread, snapshot.getLatencies().getTotalCount());
+        // the values 0, 1, ... 19 (exact since they are smaller than 32) with the same count
+        assertEquals(9.5, snapshot.getLatencies().getMean(), 0.0);
+        assertEquals(9, snapshot.getLatencies().getValueAtPercentile(50));
+        assertEquals(19, snapshot.getLatencies().getMax());
+    }
+}
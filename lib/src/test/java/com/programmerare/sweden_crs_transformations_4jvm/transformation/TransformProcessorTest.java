@@ -0,0 +1,328 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinateArray;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransformProcessorTest {
+
+    private final static Executor directExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private List<CrsCoordinate> wgs84Coordinates;
+    private List<CrsCoordinate> expectedSweref99Coordinates;
+
+    @Before
+    public void setUp() {
+        wgs84Coordinates = new ArrayList<CrsCoordinate>();
+        expectedSweref99Coordinates = new ArrayList<CrsCoordinate>();
+        for (int i = 0; i < 1000; i++) {
+            final CrsCoordinate coordinate = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 56.0 + i * 0.01, 12.0 + i * 0.01);
+            wgs84Coordinates.add(coordinate);
+            expectedSweref99Coordinates.add(coordinate.transform(CrsProjection.SWEREF_99_TM));
+        }
+    }
+
+    @Test
+    public void transform() {
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor, 64);
+        final TestPublisher<CrsCoordinate> publisher = new TestPublisher<CrsCoordinate>(wgs84Coordinates);
+        final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>();
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(expectedSweref99Coordinates, subscriber.items);
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        // at most the max batch size has been requested at a time
+        assertTrue(publisher.maxNumberOfRequestedItems <= 64);
+    }
+
+    @Test
+    public void transform_withThreadPool() throws InterruptedException {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, executorService);
+            final TestPublisher<CrsCoordinate> publisher = new TestPublisher<CrsCoordinate>(wgs84Coordinates);
+            final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>();
+            processor.subscribe(subscriber);
+            publisher.subscribe(processor);
+            subscriber.subscription.request(10);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+            assertEquals(expectedSweref99Coordinates, subscriber.items);
+            assertTrue(subscriber.completed);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void transform_shouldHonourTheDemand() {
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor, 64);
+        final TestPublisher<CrsCoordinate> publisher = new TestPublisher<CrsCoordinate>(wgs84Coordinates);
+        final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>();
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        assertEquals(0, publisher.numberOfPublishedItems);
+
+        subscriber.subscription.request(3);
+        assertEquals(expectedSweref99Coordinates.subList(0, 3), subscriber.items);
+        assertEquals(3, publisher.numberOfPublishedItems);
+
+        subscriber.subscription.request(100);
+        assertEquals(expectedSweref99Coordinates.subList(0, 103), subscriber.items);
+        // not more than the max batch size is requested but not published
+        assertTrue(publisher.numberOfPublishedItems <= 103 + 64);
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.cancel();
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void transform_shouldSignalErrorForOtherCrs() {
+        final List<CrsCoordinate> coordinates = new ArrayList<CrsCoordinate>(wgs84Coordinates.subList(0, 10));
+        coordinates.add(expectedSweref99Coordinates.get(10));
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor, 1);
+        final TestPublisher<CrsCoordinate> publisher = new TestPublisher<CrsCoordinate>(coordinates);
+        final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>();
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(expectedSweref99Coordinates.subList(0, 10), subscriber.items);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertFalse(subscriber.completed);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void transform_shouldSignalUpstreamErrorAfterTheReceivedCoordinates() {
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor);
+        final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>();
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new CoordinateFlow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        processor.onNext(wgs84Coordinates.get(0));
+        final RuntimeException exception = new RuntimeException();
+        processor.onError(exception);
+        assertTrue(subscriber.items.isEmpty());
+        subscriber.subscription.request(1);
+        assertEquals(expectedSweref99Coordinates.subList(0, 1), subscriber.items);
+        assertSame(exception, subscriber.error);
+    }
+
+    @Test
+    public void request_shouldSignalErrorForNonPositiveNumber() {
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor);
+        final TestPublisher<CrsCoordinate> publisher = new TestPublisher<CrsCoordinate>(wgs84Coordinates);
+        final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>();
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void subscribe_shouldSignalErrorToSecondSubscriber() {
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor);
+        processor.subscribe(new TestSubscriber<CrsCoordinate>());
+        final TestSubscriber<CrsCoordinate> secondSubscriber = new TestSubscriber<CrsCoordinate>();
+        processor.subscribe(secondSubscriber);
+        assertNotNull(secondSubscriber.subscription);
+        assertTrue(secondSubscriber.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void createForCoordinateArrays() {
+        final CrsCoordinateArray array = CrsCoordinateArray.createCoordinateArray(CrsProjection.WGS84, wgs84Coordinates);
+        final List<CrsCoordinateArray> arrays = new ArrayList<CrsCoordinateArray>();
+        for (int i = 0; i < 5; i++) {
+            arrays.add(array);
+        }
+        final TransformProcessor<CrsCoordinateArray> processor = TransformProcessor.createForCoordinateArrays(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor, 2);
+        final TestPublisher<CrsCoordinateArray> publisher = new TestPublisher<CrsCoordinateArray>(arrays);
+        final TestSubscriber<CrsCoordinateArray> subscriber = new TestSubscriber<CrsCoordinateArray>();
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(5, subscriber.items.size());
+        for (CrsCoordinateArray transformedArray : subscriber.items) {
+            assertEquals(expectedSweref99Coordinates, transformedArray.toList());
+        }
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void subscriberThrowingException_shouldCancelUpstreamAndKeepDraining() {
+        // the tasks are executed below, to see which tasks are submitted
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final Executor queueingExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        final IllegalStateException subscriberException = new IllegalStateException("thrown by the subscriber");
+        final TransformProcessor<CrsCoordinate> processor = TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, queueingExecutor, 64);
+        final TestPublisher<CrsCoordinate> publisher = new TestPublisher<CrsCoordinate>(wgs84Coordinates);
+        final TestSubscriber<CrsCoordinate> subscriber = new TestSubscriber<CrsCoordinate>() {
+            @Override
+            public void onNext(CrsCoordinate item) {
+                super.onNext(item);
+                throw subscriberException;
+            }
+        };
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertSame(subscriberException, executeTasks(tasks));
+        assertTrue(publisher.cancelled);
+        assertEquals(1, subscriber.items.size());
+
+        // an item published after the cancellation schedules a new drain (i.e. the number of pending drains is zero again)
+        // which discards the item
+        processor.onNext(wgs84Coordinates.get(0));
+        assertEquals(1, tasks.size());
+        assertNull(executeTasks(tasks));
+        assertEquals(1, subscriber.items.size());
+        assertNull(subscriber.error);
+    }
+
+    // executes the tasks (including the tasks submitted by the executed tasks) and returns the last exception thrown by a task, if any
+    private RuntimeException executeTasks(final List<Runnable> tasks) {
+        RuntimeException exception = null;
+        while (!tasks.isEmpty()) {
+            try {
+                tasks.remove(0).run();
+            } catch (RuntimeException e) {
+                exception = e;
+            }
+        }
+        return exception;
+    }
+
+    @Test
+    public void invalidParameters() {
+        for (final int maxBatchSize : new int[]{0, -1}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        TransformProcessor.createForCoordinates(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, directExecutor, maxBatchSize);
+                    }
+                }
+            );
+        }
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    TransformProcessor.createForCoordinateArrays(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, null);
+                }
+            }
+        );
+    }
+
+    /**
+     * Publishes the items when requested, on the thread invoking 'request'.
+     */
+    private static class TestPublisher<T> implements CoordinateFlow.Publisher<T>, CoordinateFlow.Subscription {
+        private final List<T> items;
+        private CoordinateFlow.Subscriber<? super T> subscriber;
+        private int numberOfPublishedItems;
+        private long numberOfRequestedItems, maxNumberOfRequestedItems;
+        private boolean publishing, cancelled;
+
+        TestPublisher(List<T> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(CoordinateFlow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            numberOfRequestedItems += n;
+            maxNumberOfRequestedItems = Math.max(maxNumberOfRequestedItems, numberOfRequestedItems);
+            if (publishing) {
+                return;
+            }
+            publishing = true;
+            while (numberOfRequestedItems > 0 && numberOfPublishedItems < items.size() && !cancelled) {
+                numberOfRequestedItems--;
+                subscriber.onNext(items.get(numberOfPublishedItems++));
+            }
+            if (numberOfPublishedItems == items.size() && !cancelled) {
+                subscriber.onComplete();
+                cancelled = true;
+            }
+            publishing = false;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static class TestSubscriber<T> implements CoordinateFlow.Subscriber<T> {
+        private final List<T> items = new ArrayList<T>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private CoordinateFlow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(CoordinateFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+    }
+}
@@ -29,7 +29,16 @@ public class TransformStrategyTest  {
                     transformStrategy.transform(sourceCoordinate, targetProjection);
                 }
             }
-        );        
+        );
+        Assert.assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    transformStrategy.createTransformPlan(sourceCoordinate.getCrsProjection(), targetProjection, TransformKernel.ORIGINAL, PrecisionPolicy.roundToMillimeter());
+                }
+            }
+        );
     }
     
     @Test
@@ -86,5 +95,22 @@ public class TransformStrategyTest  {
             this.coordinateWgs84.getCrsProjection()
         );
     }
-    
+
+    @Test
+    public void transform_shouldGiveTheSameResultAsTheTransformer() {
+        assertSameResultAsTheTransformer(TransformStrategy_from_WGS84_to_SWEREF99_or_RT90.getInstance(), coordinateWgs84, CrsProjection.SWEREF_99_TM);
+        assertSameResultAsTheTransformer(TransformStrategy_from_SWEREF99_or_RT90_to_WGS84.getInstance(), coordinateRT90, CrsProjection.WGS84);
+        assertSameResultAsTheTransformer(TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_asFinalTarget.getInstance(), coordinateSweref99, CrsProjection.RT90_2_5_GON_V);
+    }
+
+    private void assertSameResultAsTheTransformer(
+        final TransformStrategy transformStrategy,
+        final CrsCoordinate sourceCoordinate,
+        final CrsProjection targetProjection
+    ) {
+        Assert.assertEquals(
+            Transformer.transform(sourceCoordinate, targetProjection),
+            transformStrategy.transform(sourceCoordinate, targetProjection)
+        );
+    }
 }
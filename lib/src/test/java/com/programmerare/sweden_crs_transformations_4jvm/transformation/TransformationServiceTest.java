@@ -0,0 +1,178 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransformationServiceTest {
+
+    private final static CrsCoordinate stockholmCentralStation_WGS84 = CrsCoordinate.createCoordinate(CrsProjection.WGS84, 59.330231, 18.059196);
+
+    private TransformationService service;
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    public void transform() {
+        service = TransformationService.create();
+        for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+            final CrsCoordinate expected = stockholmCentralStation_WGS84.transform(targetCrsProjection);
+            final CrsCoordinate actual = service.transform(stockholmCentralStation_WGS84, targetCrsProjection);
+            assertEquals(expected, actual);
+            assertEquals(expected.transform(CrsProjection.SWEREF_99_TM), service.transform(expected, CrsProjection.SWEREF_99_TM));
+        }
+    }
+
+    @Test
+    public void submit_shouldReturnTheSameCoordinateForTheSameCrs() {
+        service = TransformationService.create();
+        final CompletableFuture<CrsCoordinate> future = service.submit(stockholmCentralStation_WGS84, CrsProjection.WGS84);
+        assertTrue(future.isDone());
+        assertSame(stockholmCentralStation_WGS84, future.join());
+        assertEquals(0, service.getNumberOfBatches());
+    }
+
+    @Test
+    public void submit_shouldTransformBatchWhenTheMaxBatchSizeIsReached() {
+        // the max delay is much longer than the test
+        service = TransformationService.create(1, TimeUnit.HOURS, 10);
+        final List<CompletableFuture<CrsCoordinate>> futures = new ArrayList<CompletableFuture<CrsCoordinate>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(service.submit(createCoordinate(i), CrsProjection.SWEREF_99_TM));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(createCoordinate(i).transform(CrsProjection.SWEREF_99_TM), futures.get(i).join());
+        }
+        assertEquals(1, service.getNumberOfBatches());
+        assertEquals(10, service.getNumberOfTransformedCoordinates());
+    }
+
+    @Test
+    public void submit_shouldTransformBatchWhenTheMaxDelayHasPassed() {
+        service = TransformationService.create(100, TimeUnit.MILLISECONDS, 1000);
+        final List<CompletableFuture<CrsCoordinate>> futures = new ArrayList<CompletableFuture<CrsCoordinate>>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(service.submit(createCoordinate(i), CrsProjection.RT90_2_5_GON_V));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(createCoordinate(i).transform(CrsProjection.RT90_2_5_GON_V), futures.get(i).join());
+        }
+        assertEquals(1, service.getNumberOfBatches());
+        assertEquals("TransformationService [ batches: 1 , coordinates: 3 ]", service.toString());
+    }
+
+    @Test
+    public void submit_concurrently() throws Exception {
+        service = TransformationService.create(50, TimeUnit.MICROSECONDS, 16);
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> results = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; t++) {
+                final CrsProjection targetCrsProjection = CrsProjection.values()[t];
+                results.add(executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        final List<CompletableFuture<CrsCoordinate>> futures = new ArrayList<CompletableFuture<CrsCoordinate>>();
+                        for (int i = 0; i < 500; i++) {
+                            futures.add(service.submit(createCoordinate(i), targetCrsProjection));
+                        }
+                        for (int i = 0; i < 500; i++) {
+                            assertEquals(createCoordinate(i).transform(targetCrsProjection), futures.get(i).join());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        // WGS84 is one of the target projections (i.e. not transformed)
+        assertEquals(7 * 500, service.getNumberOfTransformedCoordinates());
+        assertTrue(service.getNumberOfBatches() <= service.getNumberOfTransformedCoordinates());
+    }
+
+    @Test
+    public void close() {
+        service = TransformationService.create(1, TimeUnit.HOURS, 1000);
+        final CompletableFuture<CrsCoordinate> future = service.submit(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+        assertFalse(service.isClosed());
+        service.close();
+        assertTrue(service.isClosed());
+        // the already submitted coordinates are transformed
+        assertEquals(stockholmCentralStation_WGS84.transform(CrsProjection.SWEREF_99_TM), future.join());
+        assertThrows(
+            IllegalStateException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    service.submit(stockholmCentralStation_WGS84, CrsProjection.SWEREF_99_TM);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void invalidParameters() {
+        final List<ThrowingRunnable> runnables = new ArrayList<ThrowingRunnable>();
+        runnables.add(new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                TransformationService.create(-1, TimeUnit.MICROSECONDS, 256);
+            }
+        });
+        runnables.add(new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                TransformationService.create(50, TimeUnit.MICROSECONDS, 0);
+            }
+        });
+        runnables.add(new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                TransformationService.create(50, null, 256);
+            }
+        });
+        runnables.add(new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                TransformationService.create(50, TimeUnit.MICROSECONDS, 256, 0);
+            }
+        });
+        for (ThrowingRunnable runnable : runnables) {
+            assertThrows(IllegalArgumentException.class, runnable);
+        }
+        service = TransformationService.create();
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    service.submit(null, CrsProjection.SWEREF_99_TM);
+                }
+            }
+        );
+    }
+
+    private static CrsCoordinate createCoordinate(final int i) {
+        return CrsCoordinate.createCoordinate(CrsProjection.WGS84, 56.0 + i * 0.01, 12.0 + i * 0.01);
+    }
+}
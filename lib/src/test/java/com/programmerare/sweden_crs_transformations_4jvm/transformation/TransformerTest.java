@@ -0,0 +1,368 @@
+package com.programmerare.sweden_crs_transformations_4jvm.transformation;
+
+import com.programmerare.sweden_crs_transformations_4jvm.CrsCoordinate;
+import com.programmerare.sweden_crs_transformations_4jvm.CrsProjection;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+import static org.junit.Assert.*;
+
+public class TransformerTest {
+
+    private final static int numberOfCoordinates = 25;
+
+    // the WGS84 coordinates are spread over Sweden, and then they are also transformed
+    // into each of the other projections to be used as source coordinates
+    private double[] wgs84Latitudes, wgs84Longitudes;
+
+    @Before
+    public void setUp() {
+        wgs84Latitudes = new double[numberOfCoordinates];
+        wgs84Longitudes = new double[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            wgs84Latitudes[i] = 55.5 + i * 0.5;
+            wgs84Longitudes[i] = 11.5 + (i % 10) * 1.2;
+        }
+    }
+
+    private CrsCoordinate createSourceCoordinate(CrsProjection sourceCrsProjection, int index) {
+        return CrsProjection.WGS84.createCoordinate(wgs84Latitudes[index], wgs84Longitudes[index]).transform(sourceCrsProjection);
+    }
+
+    @Test
+    public void transformArrays_shouldGiveTheSameResultAsTransformingTheCoordinatesOneByOne() {
+        final int offset = 3;
+        final int length = numberOfCoordinates - 5;
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            double[] yLatitudes = new double[numberOfCoordinates];
+            double[] xLongitudes = new double[numberOfCoordinates];
+            for (int i = 0; i < numberOfCoordinates; i++) {
+                CrsCoordinate sourceCoordinate = createSourceCoordinate(sourceCrsProjection, i);
+                yLatitudes[i] = sourceCoordinate.getLatitudeY();
+                xLongitudes[i] = sourceCoordinate.getLongitudeX();
+            }
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                double[] targetYLatitudes = new double[numberOfCoordinates];
+                double[] targetXLongitudes = new double[numberOfCoordinates];
+                Transformer.transform(
+                    sourceCrsProjection, targetCrsProjection,
+                    yLatitudes, xLongitudes,
+                    targetYLatitudes, targetXLongitudes,
+                    offset, length
+                );
+                for (int i = 0; i < numberOfCoordinates; i++) {
+                    if (i < offset || i >= offset + length) {
+                        // elements outside of the range should not be modified
+                        assertEquals(0.0, targetYLatitudes[i], 0.0);
+                        assertEquals(0.0, targetXLongitudes[i], 0.0);
+                        continue;
+                    }
+                    CrsCoordinate expected = sourceCrsProjection.createCoordinate(yLatitudes[i], xLongitudes[i]).transform(targetCrsProjection);
+                    String message = sourceCrsProjection + " ==> " + targetCrsProjection + " , index " + i;
+                    assertEquals(message, expected.getLatitudeY(), targetYLatitudes[i], 0.0);
+                    assertEquals(message, expected.getLongitudeX(), targetXLongitudes[i], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void transformArrays_inPlace() {
+        final CrsProjection sourceCrsProjection = CrsProjection.RT90_2_5_GON_V;
+        final CrsProjection targetCrsProjection = CrsProjection.SWEREF_99_TM;
+        double[] yLatitudes = new double[numberOfCoordinates];
+        double[] xLongitudes = new double[numberOfCoordinates];
+        CrsCoordinate[] expected = new CrsCoordinate[numberOfCoordinates];
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            CrsCoordinate sourceCoordinate = createSourceCoordinate(sourceCrsProjection, i);
+            yLatitudes[i] = sourceCoordinate.getLatitudeY();
+            xLongitudes[i] = sourceCoordinate.getLongitudeX();
+            expected[i] = sourceCoordinate.transform(targetCrsProjection);
+        }
+        Transformer.transform(
+            sourceCrsProjection, targetCrsProjection,
+            yLatitudes, xLongitudes,
+            yLatitudes, xLongitudes,
+            0, numberOfCoordinates
+        );
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            assertEquals(expected[i].getLatitudeY(), yLatitudes[i], 0.0);
+            assertEquals(expected[i].getLongitudeX(), xLongitudes[i], 0.0);
+        }
+    }
+
+    @Test
+    public void transformInterleavedArray_shouldGiveTheSameResultAsTransformingSeparateArrays() {
+        final int stride = 3;
+        final int offset = 2;
+        final double zValue = 123.0; // should not be modified
+        final CrsProjection sourceCrsProjection = CrsProjection.RT90_5_0_GON_O;
+        for (AxisOrder axisOrder : AxisOrder.values()) {
+            final int y = axisOrder.getLatitudeYPosition();
+            final int x = axisOrder.getLongitudeXPosition();
+            double[] yLatitudes = new double[numberOfCoordinates];
+            double[] xLongitudes = new double[numberOfCoordinates];
+            double[] interleaved = new double[offset + numberOfCoordinates * stride];
+            for (int i = 0; i < numberOfCoordinates; i++) {
+                CrsCoordinate sourceCoordinate = createSourceCoordinate(sourceCrsProjection, i);
+                yLatitudes[i] = sourceCoordinate.getLatitudeY();
+                xLongitudes[i] = sourceCoordinate.getLongitudeX();
+                interleaved[offset + i * stride + y] = yLatitudes[i];
+                interleaved[offset + i * stride + x] = xLongitudes[i];
+                interleaved[offset + i * stride + 2] = zValue;
+            }
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                double[] targetYLatitudes = new double[numberOfCoordinates];
+                double[] targetXLongitudes = new double[numberOfCoordinates];
+                Transformer.transform(
+                    sourceCrsProjection, targetCrsProjection,
+                    yLatitudes, xLongitudes,
+                    targetYLatitudes, targetXLongitudes,
+                    0, numberOfCoordinates
+                );
+                double[] targetInterleaved = interleaved.clone();
+                Transformer.transform(
+                    sourceCrsProjection, targetCrsProjection,
+                    interleaved, offset,
+                    targetInterleaved, offset,
+                    numberOfCoordinates, stride, axisOrder
+                );
+                // the source array used as target, i.e. in place
+                double[] inPlace = interleaved.clone();
+                Transformer.transform(
+                    sourceCrsProjection, targetCrsProjection,
+                    inPlace, offset,
+                    inPlace, offset,
+                    numberOfCoordinates, stride, axisOrder
+                );
+                for (int i = 0; i < numberOfCoordinates; i++) {
+                    String message = sourceCrsProjection + " ==> " + targetCrsProjection + " , " + axisOrder + " , index " + i;
+                    assertEquals(message, targetYLatitudes[i], targetInterleaved[offset + i * stride + y], 0.0);
+                    assertEquals(message, targetXLongitudes[i], targetInterleaved[offset + i * stride + x], 0.0);
+                    assertEquals(message, zValue, targetInterleaved[offset + i * stride + 2], 0.0);
+                    assertEquals(message, targetYLatitudes[i], inPlace[offset + i * stride + y], 0.0);
+                    assertEquals(message, targetXLongitudes[i], inPlace[offset + i * stride + x], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void transformDoubleBuffer_shouldGiveTheSameResultAsTransformingAnArray() {
+        // more coordinates than the size of the chunks used for buffers without a backing array
+        final int numberOfCoordinatesInBuffer = 1100;
+        final int stride = 2;
+        final int position = 4;
+        final CrsProjection sourceCrsProjection = CrsProjection.WGS84;
+        final CrsProjection targetCrsProjection = CrsProjection.SWEREF_99_18_00;
+        final AxisOrder axisOrder = AxisOrder.LONGITUDE_X_FIRST;
+        double[] values = new double[position + numberOfCoordinatesInBuffer * stride];
+        for (int i = 0; i < numberOfCoordinatesInBuffer; i++) {
+            values[position + i * stride] = 11.0 + (i % 100) * 0.1; // longitude
+            values[position + i * stride + 1] = 56.0 + (i / 100) * 0.5; // latitude
+        }
+        double[] expected = values.clone();
+        Transformer.transform(
+            sourceCrsProjection, targetCrsProjection,
+            values, position, expected, position,
+            numberOfCoordinatesInBuffer, stride, axisOrder
+        );
+
+        DoubleBuffer heapBuffer = DoubleBuffer.wrap(values.clone());
+        DoubleBuffer directBuffer = ByteBuffer.allocateDirect(values.length * 8).asDoubleBuffer();
+        directBuffer.put(values);
+        for (DoubleBuffer buffer : new DoubleBuffer[]{heapBuffer, directBuffer}) {
+            buffer.position(position);
+            Transformer.transform(
+                sourceCrsProjection, targetCrsProjection,
+                buffer, buffer,
+                numberOfCoordinatesInBuffer, stride, axisOrder
+            );
+            assertEquals(position, buffer.position());
+            for (int i = 0; i < values.length; i++) {
+                assertEquals("index " + i + " , direct " + buffer.isDirect(), expected[i], buffer.get(i), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void transformInterleaved_shouldThrowExceptionForInvalidParameters() {
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    double[] array = new double[10];
+                    // stride too small
+                    Transformer.transform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, array, 0, array, 0, 5, 1, AxisOrder.LATITUDE_Y_FIRST);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    double[] array = new double[10];
+                    // 4 coordinates with stride 3 need 12 values
+                    Transformer.transform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, array, 0, array, 0, 4, 3, AxisOrder.LATITUDE_Y_FIRST);
+                }
+            }
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    DoubleBuffer buffer = DoubleBuffer.allocate(10);
+                    Transformer.transform(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, buffer, buffer.asReadOnlyBuffer(), 5, 2, AxisOrder.LATITUDE_Y_FIRST);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void plan_shouldBeTheSameInstanceForTheSameSourceAndTarget() {
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                TransformPlan transformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection);
+                assertSame(transformPlan, Transformer.plan(sourceCrsProjection, targetCrsProjection));
+                assertEquals(sourceCrsProjection, transformPlan.getSourceCrsProjection());
+                assertEquals(targetCrsProjection, transformPlan.getTargetCrsProjection());
+            }
+        }
+    }
+
+    @Test
+    public void plan_withTransformKernel() {
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                assertSame(Transformer.plan(sourceCrsProjection, targetCrsProjection), Transformer.plan(sourceCrsProjection, targetCrsProjection, TransformKernel.ORIGINAL));
+                TransformPlan transformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection, TransformKernel.OPTIMIZED);
+                assertSame(transformPlan, Transformer.plan(sourceCrsProjection, targetCrsProjection, TransformKernel.OPTIMIZED));
+                if (sourceCrsProjection != targetCrsProjection) {
+                    assertNotSame(transformPlan, Transformer.plan(sourceCrsProjection, targetCrsProjection));
+                }
+                assertEquals(sourceCrsProjection, transformPlan.getSourceCrsProjection());
+                assertEquals(targetCrsProjection, transformPlan.getTargetCrsProjection());
+            }
+        }
+    }
+
+    @Test
+    public void plan_withPrecisionPolicy_shouldBeTheSameInstanceForTheSameParameters() {
+        final PrecisionPolicy[] precisionPolicies = new PrecisionPolicy[]{
+            PrecisionPolicy.noRounding(), PrecisionPolicy.roundToDecimals(0), PrecisionPolicy.roundToMillimeter(), PrecisionPolicy.roundToDecimals(PrecisionPolicy.maxNumberOfDecimals)
+        };
+        for (TransformKernel transformKernel : TransformKernel.values()) {
+            for (PrecisionPolicy precisionPolicy : precisionPolicies) {
+                final TransformPlan transformPlan = Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, transformKernel, precisionPolicy);
+                assertSame(transformPlan, Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, transformKernel, precisionPolicy));
+                assertEquals(CrsProjection.WGS84, transformPlan.getSourceCrsProjection());
+                assertEquals(CrsProjection.SWEREF_99_TM, transformPlan.getTargetCrsProjection());
+            }
+        }
+        assertSame(
+            Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM),
+            Transformer.plan(CrsProjection.WGS84, CrsProjection.SWEREF_99_TM, TransformKernel.ORIGINAL, PrecisionPolicy.roundToDecimals(3))
+        );
+    }
+
+    @Test
+    public void plan_shouldGiveTheSameResultAsTransformingWithTheStrategies() {
+        double[] result = new double[2];
+        for (CrsProjection sourceCrsProjection : CrsProjection.values()) {
+            for (CrsProjection targetCrsProjection : CrsProjection.values()) {
+                if (sourceCrsProjection == targetCrsProjection) continue;
+                TransformPlan transformPlan = Transformer.plan(sourceCrsProjection, targetCrsProjection);
+                TransformStrategy transformStrategy = getTransformStrategy(sourceCrsProjection, targetCrsProjection);
+                for (int i = 0; i < numberOfCoordinates; i++) {
+                    CrsCoordinate sourceCoordinate = createSourceCoordinate(sourceCrsProjection, i);
+                    CrsCoordinate expected = transformStrategy.transform(sourceCoordinate, targetCrsProjection);
+                    assertEquals(expected, transformPlan.transform(sourceCoordinate));
+                    transformPlan.transform(sourceCoordinate.getLatitudeY(), sourceCoordinate.getLongitudeX(), result, 0, result, 1);
+                    assertEquals(expected.getLatitudeY(), result[0], 0.0);
+                    assertEquals(expected.getLongitudeX(), result[1], 0.0);
+                }
+            }
+        }
+    }
+
+    private TransformStrategy getTransformStrategy(CrsProjection sourceCrsProjection, CrsProjection targetCrsProjection) {
+        if (sourceCrsProjection.isWgs84()) {
+            return TransformStrategy_from_WGS84_to_SWEREF99_or_RT90.getInstance();
+        }
+        if (targetCrsProjection.isWgs84()) {
+            return TransformStrategy_from_SWEREF99_or_RT90_to_WGS84.getInstance();
+        }
+        return TransFormStrategy_From_Sweref99orRT90_to_WGS84_andThenToSweref99orRT90_asFinalTarget.getInstance();
+    }
+
+    @Test
+    public void plan_shouldReturnTheSameCoordinateInstanceForTheSameSourceAndTarget() {
+        CrsCoordinate coordinate = createSourceCoordinate(CrsProjection.SWEREF_99_TM, 0);
+        assertSame(coordinate, Transformer.plan(CrsProjection.SWEREF_99_TM, CrsProjection.SWEREF_99_TM).transform(coordinate));
+    }
+
+    @Test
+    public void plan_shouldThrowExceptionForCoordinateWithAnotherCrs() {
+        final CrsCoordinate coordinate = createSourceCoordinate(CrsProjection.SWEREF_99_TM, 0);
+        for (final CrsProjection sourceCrsProjection : new CrsProjection[]{CrsProjection.WGS84, CrsProjection.RT90_2_5_GON_V}) {
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        Transformer.plan(sourceCrsProjection, sourceCrsProjection).transform(coordinate);
+                    }
+                }
+            );
+            assertThrows(
+                IllegalArgumentException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        Transformer.plan(sourceCrsProjection, CrsProjection.SWEREF_99_TM).transform(coordinate);
+                    }
+                }
+            );
+        }
+    }
+
+    @Test
+    public void transformArrays_shouldThrowExceptionForInvalidRange() {
+        final double[] array = new double[10];
+        assertIllegalArgumentException(array, array, -1, 5);
+        assertIllegalArgumentException(array, array, 0, 11);
+        assertIllegalArgumentException(array, array, 6, 5);
+        assertIllegalArgumentException(array, array, 0, -1);
+        assertIllegalArgumentException(array, new double[9], 0, 10);
+        assertIllegalArgumentException(null, array, 0, 10);
+    }
+
+    private void assertIllegalArgumentException(
+        final double[] sourceArray,
+        final double[] targetArray,
+        final int offset,
+        final int length
+    ) {
+        assertThrows(
+            IllegalArgumentException.class,
+            new ThrowingRunnable() {
+                @Override
+                public void run() throws Throwable {
+                    Transformer.transform(
+                        CrsProjection.WGS84, CrsProjection.SWEREF_99_TM,
+                        sourceArray, sourceArray,
+                        targetArray, targetArray,
+                        offset, length
+                    );
+                }
+            }
+        );
+    }
+}